@@ -83,6 +83,37 @@ public class BlockState {
     // --------------------------------------------------------- Public Methods
 
 
+    /**
+     * Release anything held by this state, because its <code>Block</code>
+     * is being abandoned by the specified Context before it completes (for
+     * example, because an enclosing Block has passed its deadline).  The
+     * default implementation does nothing.
+     *
+     * @param context The Context abandoning the Block
+     */
+    public void abort(Context context) {
+
+        ;
+
+    }
+
+
+    /**
+     * Release anything held by this state, because its <code>Block</code>
+     * is being left by the specified Context before it reaches its end,
+     * but without an error (for example, by <code>core:break</code> or
+     * <code>core:exit</code>, or because its Activity returned).  The
+     * default implementation does nothing.
+     *
+     * @param context The Context leaving the Block
+     */
+    public void leave(Context context) {
+
+        ;
+
+    }
+
+
     /**
      * Render a String version of this object.
      */
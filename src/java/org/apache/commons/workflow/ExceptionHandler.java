@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow;
+
+
+/**
+ * <p>An <strong>ExceptionHandler</strong> is a <code>Block</code> that is
+ * given the chance to handle a <code>StepException</code> thrown by any
+ * Step executed while its <code>BlockState</code> is on the block state
+ * stack of a <code>Context</code>, including Steps of Activities called
+ * from within it.  This allows execution to continue within the same call
+ * to <code>execute()</code>, instead of abandoning it.</p>
+ *
+ * <p>Before <code>handle()</code> is called, the Context discards any
+ * calls made, and any <code>BlockStates</code> pushed, since the handler's
+ * own BlockState was pushed, so that the handler's BlockState is on top of
+ * the stack.  Handlers are tried from the innermost outwards.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public interface ExceptionHandler extends Block {
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Handle the specified exception, if possible, and return
+     * <code>true</code> after setting the next Step to be executed by the
+     * specified Context.  Otherwise, return <code>false</code> so that
+     * enclosing handlers may try; a handler that declines may also
+     * discard its own BlockState.
+     *
+     * @param context The Context in which the exception was thrown
+     * @param state The BlockState of this handler
+     * @param exception The exception that was thrown
+     */
+    public boolean handle(Context context, BlockState state,
+                          StepException exception);
+
+
+}
@@ -25,6 +25,13 @@ package org.apache.commons.workflow;
  * Activities that match particular patterns.  This can be used, for example,
  * to select a Locale-specific version of a particular Activity.</p>
  *
+ * <p>Each time an Activity is added, it becomes a new <em>version</em> of
+ * the Activities with the same identifier, numbered in ascending order,
+ * and replaces the previous version as the one returned by lookups on the
+ * identifier alone.  Earlier versions may still be retrieved by number,
+ * so that work in progress can continue with the definition it started
+ * with.</p>
+ *
  * <p><strong>FIXME</strong> - Initial version of this interface does not
  * have any of the fancy lookup capabilities allued to above.</p>
  *
@@ -43,7 +50,8 @@ public interface Registry {
 
     /**
      * Add a new Activity to the set of Activity instances known to this
-     * Registry.
+     * Registry, as the new current version of the Activities with its
+     * identifier.
      *
      * @param activity The new activity to be added
      */
@@ -58,15 +66,15 @@ public interface Registry {
 
     /**
      * Return the complete set of Activity instances associated with
-     * this Activity.  If there are no such registered Activity instances,
-     * a zero-length array is returned.
+     * this Activity (the current version of each).  If there are no such
+     * registered Activity instances, a zero-length array is returned.
      */
     public Activity[] findActivities();
 
 
     /**
-     * Return the registered Activity with the specified identifier, if any;
-     * otherwise return <code>null</code>.
+     * Return the current version of the registered Activity with the
+     * specified identifier, if any; otherwise return <code>null</code>.
      *
      * @param id Identifier of the desired Activity
      */
@@ -74,7 +82,38 @@ public interface Registry {
 
 
     /**
-     * Remove the specified Activity from this Registry.
+     * Return the specified version of the registered Activity with the
+     * specified identifier, if any; otherwise return <code>null</code>.
+     *
+     * @param id Identifier of the desired Activity
+     * @param version Version number of the desired Activity
+     */
+    public Activity findActivity(String id, int version);
+
+
+    /**
+     * Return the version numbers of the registered Activities with the
+     * specified identifier, in ascending order.  If there are no such
+     * registered Activity instances, a zero-length array is returned.
+     *
+     * @param id Identifier of the desired Activity
+     */
+    public int[] findVersions(String id);
+
+
+    /**
+     * Return the version number of the specified Activity, or zero if
+     * it is not registered with this Registry.
+     *
+     * @param activity The Activity whose version is requested
+     */
+    public int getVersion(Activity activity);
+
+
+    /**
+     * Remove the specified Activity (but not other versions with the same
+     * identifier) from this Registry.  If it was the current version, the
+     * latest remaining version becomes current.
      *
      * @param activity The Activity to be removed
      */
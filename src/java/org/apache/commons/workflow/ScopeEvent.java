@@ -82,6 +82,9 @@ public class ScopeEvent extends EventObject {
     /**
      * The bean value upon which this event occurred.  For
      * <code>beanReplaced</code> events, this will be the previous value.
+     * For <code>scopeCleared</code> events, this will be a read-only
+     * <code>Map</code> of the beans that were removed, keyed by their keys,
+     * or <code>null</code> if the Scope does not provide them.
      */
     protected Object value = null;
 
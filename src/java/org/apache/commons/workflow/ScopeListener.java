@@ -60,7 +60,9 @@ public interface ScopeListener extends EventListener {
 
 
     /**
-     * Invoked when the entire Scope is cleared.
+     * Invoked when the entire Scope is cleared.  The value of the event
+     * is a <code>Map</code> of the beans that were removed, if the Scope
+     * provides it.
      *
      * @param event The <code>ScopeEvent</code> that has occurred
      */
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow;
+
+
+/**
+ * <p>Implementing <strong>StackEffect</strong> indicates that a
+ * <code>Step</code> declares how it changes the evaluation stack of the
+ * <code>Context</code> in which it is executed, so that the effect of a
+ * whole Activity can be calculated before it is executed (see
+ * <code>ActivityVerifier</code>).  A Step that may transfer control
+ * declares the effect it has before doing so; for a <code>Block</code>,
+ * this is the effect of evaluating its condition.</p>
+ *
+ * <p>A Step whose effect is not known until it is executed (such as one
+ * that calls another Activity) should not implement this interface.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public interface StackEffect {
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return the number of items this Step removes from the top of the
+     * evaluation stack.  These items are removed before any are pushed.
+     */
+    public int getStackPops();
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes();
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes();
+
+
+}
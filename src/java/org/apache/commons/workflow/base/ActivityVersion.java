@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Activity;
+
+
+/**
+ * <p>An immutable pairing of a registered <code>Activity</code> with the
+ * version number assigned to it by <code>BaseRegistry</code>.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class ActivityVersion {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new instance for the specified Activity and version.
+     *
+     * @param activity The registered Activity
+     * @param version The version number assigned to it
+     */
+    ActivityVersion(Activity activity, int version) {
+
+        super();
+        this.activity = activity;
+        this.version = version;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The registered Activity.
+     */
+    protected Activity activity = null;
+
+
+    /**
+     * The version number assigned to this Activity.
+     */
+    protected int version = 0;
+
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>An arithmetic operation in a compiled expression.  Integral operands
+ * produce a <code>Long</code> result, and any other numeric operands a
+ * <code>Double</code>.  Addition with a String operand concatenates.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class ArithmeticExpression extends Expression {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    static final int ADD = 0;
+
+    static final int SUBTRACT = 1;
+
+    static final int MULTIPLY = 2;
+
+    static final int DIVIDE = 3;
+
+    static final int REMAINDER = 4;
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new arithmetic expression.
+     *
+     * @param op The operator
+     * @param left The left operand
+     * @param right The right operand
+     */
+    ArithmeticExpression(int op, Expression left, Expression right) {
+
+        super();
+        this.op = op;
+        this.left = left;
+        this.right = right;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The left operand.
+     */
+    protected Expression left = null;
+
+
+    /**
+     * The operator.
+     */
+    protected int op = ADD;
+
+
+    /**
+     * The right operand.
+     */
+    protected Expression right = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Object evaluate(Context context) {
+
+        Object a = left.evaluate(context);
+        Object b = right.evaluate(context);
+        if ((op == ADD) && ((a instanceof String) || (b instanceof String)))
+            return (String.valueOf(a) + String.valueOf(b));
+        Number x = toNumber(a);
+        Number y = toNumber(b);
+        if (isIntegral(x) && isIntegral(y)) {
+            long i = x.longValue();
+            long j = y.longValue();
+            switch (op) {
+            case ADD:
+                return (Long.valueOf(i + j));
+            case SUBTRACT:
+                return (Long.valueOf(i - j));
+            case MULTIPLY:
+                return (Long.valueOf(i * j));
+            case DIVIDE:
+                return (Long.valueOf(i / j));
+            default:
+                return (Long.valueOf(i % j));
+            }
+        }
+        double i = x.doubleValue();
+        double j = y.doubleValue();
+        switch (op) {
+        case ADD:
+            return (Double.valueOf(i + j));
+        case SUBTRACT:
+            return (Double.valueOf(i - j));
+        case MULTIPLY:
+            return (Double.valueOf(i * j));
+        case DIVIDE:
+            return (Double.valueOf(i / j));
+        default:
+            return (Double.valueOf(i % j));
+        }
+
+    }
+
+
+    boolean isConstant() {
+
+        return (left.isConstant() && right.isConstant());
+
+    }
+
+
+}
@@ -17,6 +17,10 @@
 package org.apache.commons.workflow.base;
 
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Step;
@@ -28,11 +32,24 @@ import org.apache.commons.workflow.Step;
  * management of the static relationships of Steps to each other as part
  * of an owning Activity.</p>
  *
+ * <p>Activities are <code>Serializable</code>, so that a parsed definition
+ * can be saved in binary form and reloaded without parsing it again (see
+ * <code>ActivitySerializer</code>).</p>
+ *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
  */
 
-public class BaseActivity implements Activity {
+public class BaseActivity implements Activity, Serializable {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
 
 
     // ----------------------------------------------------- Instance Variables
@@ -41,7 +58,7 @@ public class BaseActivity implements Activity {
     /**
      * The first Step associated with this Activity.
      */
-    protected Step firstStep = null;
+    protected transient Step firstStep = null;
 
 
     /**
@@ -53,7 +70,14 @@ public class BaseActivity implements Activity {
     /**
      * The last Step associated with this Activity.
      */
-    protected Step lastStep = null;
+    protected transient Step lastStep = null;
+
+
+    /**
+     * The stack profile calculated for the current Steps of this Activity,
+     * if any.
+     */
+    protected StackProfile profile = null;
 
 
     // ------------------------------------------------------------- Properties
@@ -101,6 +125,30 @@ public class BaseActivity implements Activity {
     }
 
 
+    /**
+     * Return the stack profile calculated for the current Steps of this
+     * Activity, or <code>null</code> if none has been calculated.
+     */
+    public StackProfile getProfile() {
+
+        return (this.profile);
+
+    }
+
+
+    /**
+     * Set the stack profile calculated for the current Steps of this
+     * Activity.  It is discarded whenever the Steps are changed.
+     *
+     * @param profile The new stack profile
+     */
+    public void setProfile(StackProfile profile) {
+
+        this.profile = profile;
+
+    }
+
+
     // ---------------------------------------------------------- Owner Methods
 
 
@@ -112,6 +160,7 @@ public class BaseActivity implements Activity {
      */
     public void addStep(Step step) {
 
+        profile = null;
         step.setOwner(this);
         if (firstStep == null) {
             step.setPreviousStep(null);
@@ -143,6 +192,7 @@ public class BaseActivity implements Activity {
         }
         firstStep = null;
         lastStep = null;
+        profile = null;
 
     }
 
@@ -198,4 +248,40 @@ public class BaseActivity implements Activity {
     }
 
 
+    // -------------------------------------------------- Serialization Methods
+
+
+    /**
+     * Restore the Steps of this Activity, re-establishing their links.
+     *
+     * @param stream The stream we are reading from
+     *
+     * @exception ClassNotFoundException if a Step class cannot be found
+     * @exception IOException if an input/output error occurs
+     */
+    private void readObject(ObjectInputStream stream)
+        throws ClassNotFoundException, IOException {
+
+        stream.defaultReadObject();
+        setSteps((Step[]) stream.readObject());
+
+    }
+
+
+    /**
+     * Save the Steps of this Activity as an array, rather than as a chain of
+     * links that would be followed recursively.
+     *
+     * @param stream The stream we are writing to
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+
+        stream.defaultWriteObject();
+        stream.writeObject(getSteps());
+
+    }
+
+
 }
@@ -17,13 +17,18 @@
 package org.apache.commons.workflow.base;
 
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.EmptyStackException;
 import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Block;
 import org.apache.commons.workflow.BlockState;
 import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Iterator;
 import org.apache.commons.workflow.Owner;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
 
@@ -38,7 +43,17 @@ import org.apache.commons.workflow.StepException;
  * @author Craig R. McClanahan
  */
 
-public abstract class BaseBlock extends DescriptorStep implements Block {
+public abstract class BaseBlock extends DescriptorStep
+    implements Block, StackEffect {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
 
 
     // ----------------------------------------------------- Instance Variables
@@ -47,13 +62,13 @@ public abstract class BaseBlock extends DescriptorStep implements Block {
     /**
      * The first Step associated with this Block.
      */
-    protected Step firstStep = null;
+    protected transient Step firstStep = null;
 
 
     /**
      * The last Step associated with this Block.
      */
-    protected Step lastStep = null;
+    protected transient Step lastStep = null;
 
 
     // ------------------------------------------------------------- Properties
@@ -186,6 +201,43 @@ public abstract class BaseBlock extends DescriptorStep implements Block {
     }
 
 
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Block removes from the evaluation
+     * stack each time its condition is evaluated, which is the number of
+     * our Descriptors that take their values from it.
+     */
+    public int getStackPops() {
+
+        return (countPoppedDescriptors());
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Block may push onto the
+     * evaluation stack when its condition is evaluated.
+     */
+    public int getMinStackPushes() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Block may push onto the
+     * evaluation stack when its condition is evaluated.
+     */
+    public int getMaxStackPushes() {
+
+        return (0);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -208,6 +260,21 @@ public abstract class BaseBlock extends DescriptorStep implements Block {
     }
 
 
+    /**
+     * Does the end of this Block do no more than discard its
+     * <code>BlockState</code> and continue with the next Step, as the
+     * default <code>subsequent()</code> method does?  This is true of every
+     * Block that is not an <code>Iterator</code>; subclasses that override
+     * <code>subsequent()</code> for any other purpose must return
+     * <code>false</code>.
+     */
+    public boolean isStructural() {
+
+        return (!(this instanceof Iterator));
+
+    }
+
+
     // ------------------------------------------------------ Protected Methods
 
 
@@ -276,4 +343,40 @@ public abstract class BaseBlock extends DescriptorStep implements Block {
     }
 
 
+    // -------------------------------------------------- Serialization Methods
+
+
+    /**
+     * Restore the Steps of this Block, re-establishing their links.
+     *
+     * @param stream The stream we are reading from
+     *
+     * @exception ClassNotFoundException if a Step class cannot be found
+     * @exception IOException if an input/output error occurs
+     */
+    private void readObject(ObjectInputStream stream)
+        throws ClassNotFoundException, IOException {
+
+        stream.defaultReadObject();
+        setSteps((Step[]) stream.readObject());
+
+    }
+
+
+    /**
+     * Save the Steps of this Block as an array, rather than as a chain of
+     * links that would be followed recursively.
+     *
+     * @param stream The stream we are writing to
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+
+        stream.defaultWriteObject();
+        stream.writeObject(getSteps());
+
+    }
+
+
 }
@@ -17,7 +17,16 @@
 package org.apache.commons.workflow.base;
 
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
 import org.apache.commons.collections.ArrayStack;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.workflow.Activity;
@@ -26,11 +35,16 @@ import org.apache.commons.workflow.BlockState;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.ContextEvent;
 import org.apache.commons.workflow.ContextListener;
+import org.apache.commons.workflow.ExceptionHandler;
 import org.apache.commons.workflow.Owner;
+import org.apache.commons.workflow.Registry;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.util.ContextLock;
+import org.apache.commons.workflow.util.ContextScheduler;
 import org.apache.commons.workflow.util.ContextSupport;
+import org.apache.commons.workflow.util.WorkflowUtils;
 
 
 /**
@@ -40,13 +54,27 @@ import org.apache.commons.workflow.util.ContextSupport;
  *
  * <p><strong>WARNING</strong> - No synchronization is performed within this
  * class.  If it is used in a multiple thread environment, callers must
- * take suitable precations.</p>
+ * take suitable precations, such as holding the lock returned by
+ * <code>getLock()</code>.</p>
+ *
+ * <p>The externalized form of a Context holds only its execution state:
+ * the local variables (other than registered <code>Scopes</code>), the
+ * evaluation and <code>BlockState</code> stacks, the suspend flag, and the
+ * current and pending <code>Steps</code>.  Activities registered with
+ * the <code>Registry</code> returned by <code>getRegistry()</code> are
+ * written as their identifier, version number and a digest of their
+ * definition, and Steps as their path within their Activity, so the
+ * Activity definitions themselves are not copied.  Each <code>BlockState</code> is written with a tag for its
+ * class, so that the state recorded by a <code>DeadlineState</code>, or by
+ * the BlockState of an <code>ExternalizableBlock</code>, survives.  Other
+ * Scopes and listeners are not written, and must be registered again
+ * after the Context is read.</p>
  *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
  */
 
-public class BaseContext implements Context {
+public class BaseContext implements Context, Externalizable {
 
 
 
@@ -60,11 +88,42 @@ public class BaseContext implements Context {
 
         super();
         names[LOCAL_SCOPE] = "local";
-        scopes[LOCAL_SCOPE] = new BaseScope();
+        scopes[LOCAL_SCOPE] = new LocalScope();
 
     }
 
 
+    /**
+     * Construct a new BaseContext that uses the specified Scope as its
+     * local scope.  For example, a child context can be given the
+     * <code>fork()</code> of its parent's <code>SnapshotScope</code>, so
+     * that it starts with the parent's local variables without copying
+     * them.
+     *
+     * @param local The Scope to be used as our local scope
+     *
+     * @exception IllegalArgumentException if <code>local</code> is null
+     */
+    public BaseContext(Scope local) {
+
+        super();
+        if (local == null)
+            throw new IllegalArgumentException("Local scope cannot be null");
+        names[LOCAL_SCOPE] = "local";
+        scopes[LOCAL_SCOPE] = local;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ----------------------------------------------------- Instance Variables
 
 
@@ -83,12 +142,48 @@ public class BaseContext implements Context {
 
 
     /**
-     * The suspended "next step" Step for each in-progress Activity that has
-     * issued a <code>call()</code> to execute a subordinate Activity.
+     * The <code>CallFrame</code> recording the caller and its suspended
+     * "next step" Step for each in-progress Activity that has issued a
+     * <code>call()</code> to execute a subordinate Activity.
      */
     protected ArrayStack calls = new ArrayStack();
 
 
+    /**
+     * The earliest deadline of a <code>DeadlineState</code> that has been
+     * pushed, or zero if there is none.  This may be earlier than the
+     * deadline of any BlockState still on the stack, but never later.
+     */
+    protected long deadline = 0L;
+
+
+    /**
+     * The lock that serializes execution of this Context by concurrent
+     * threads, such as requests and the <code>ContextScheduler</code>.
+     */
+    protected ContextLock lock = new ContextLock();
+
+
+    /**
+     * The maximum number of pending calls, or zero for no limit.
+     */
+    protected int maxCallDepth = 0;
+
+
+    /**
+     * The state given back to the Step being resumed after a call made
+     * with <code>call(Activity,Object)</code>, while it executes.
+     */
+    protected Object resume = null;
+
+
+    /**
+     * The <code>ContextScheduler</code> that is due to resume this Context,
+     * if any.
+     */
+    protected volatile ContextScheduler scheduler = null;
+
+
     /**
      * The set of names associated with the registered <code>Scopes</code>.
      */
@@ -112,6 +207,15 @@ public class BaseContext implements Context {
     protected Scope scopes[] = new Scope[MAX_SCOPES];
 
 
+    /**
+     * The depth of the BlockState stack when the current Activity was
+     * called.  The BlockStates below this depth belong to its callers,
+     * and are hidden from it so that recursive calls are not confused by
+     * the state of the same Blocks in their callers.
+     */
+    protected int stateBase = 0;
+
+
     /**
      * The evaluation stack of nameless objects being processed.
      */
@@ -413,6 +517,16 @@ public class BaseContext implements Context {
     }
 
 
+    /**
+     * Return the number of items on the evaluation stack.
+     */
+    public int getStackDepth() {
+
+        return (stack.size());
+
+    }
+
+
     /**
      * Is the evaluation stack currently empty?
      */
@@ -463,11 +577,13 @@ public class BaseContext implements Context {
 
 
     /**
-     * Clear the BlockState stack.
+     * Clear the BlockState stack, calling <code>leave()</code> on each
+     * BlockState from the top down.
      */
     public void clearBlockState() {
 
-        state.clear();
+        leave(0);
+        deadline = 0L;
 
     }
 
@@ -477,30 +593,36 @@ public class BaseContext implements Context {
      */
     public boolean isEmptyBlockState() {
 
-        return (state.size() == 0);
+        return (state.size() <= stateBase);
 
     }
 
 
     /**
      * Return the top item from the BlockState stack without removing it.
+     * Only the BlockStates of the current Activity are visible.
      *
      * @exception EmptyStackException if the stack is empty
      */
     public BlockState peekBlockState() throws EmptyStackException {
 
+        if (state.size() <= stateBase)
+            throw new EmptyStackException();
         return ((BlockState) state.peek());
 
     }
 
 
     /**
-     * Pop and return the top item from the BlockState stack.
+     * Pop and return the top item from the BlockState stack.  Only the
+     * BlockStates of the current Activity are visible.
      *
      * @exception EmptyStackException if the stack is empty
      */
     public BlockState popBlockState() throws EmptyStackException {
 
+        if (state.size() <= stateBase)
+            throw new EmptyStackException();
         return ((BlockState) state.pop());
 
     }
@@ -514,6 +636,11 @@ public class BaseContext implements Context {
     public void pushBlockState(BlockState item) {
 
         state.push(item);
+        if (item instanceof DeadlineState) {
+            long when = ((DeadlineState) item).getDeadline();
+            if ((deadline == 0L) || (when < deadline))
+                deadline = when;
+        }
 
     }
 
@@ -532,19 +659,56 @@ public class BaseContext implements Context {
      * or by throwing an exception), the previous Activity will be resumed
      * where it left off.
      *
+     * <p>If the current Activity has nothing left to do but close
+     * structural Blocks, those Blocks are closed now and its execution
+     * state is discarded instead, so that a tail call does not count
+     * towards the maximum call depth.</p>
+     *
      * @param activity The Activity to be called
+     *
+     * @exception IllegalStateException if saving the execution state would
+     *  exceed the maximum call depth
      */
     public void call(Activity activity) {
 
         // Save the next Step for the current Activity (if we have
-        // any remaining steps to worry about -- a call on the last
-        // step of an activity is more like a non-local goto)
-        if (this.nextStep != null)
-            calls.push(this.nextStep);
+        // any remaining steps to worry about -- a tail call is more
+        // like a non-local goto)
+        if (unwind()) {
+            leave(stateBase);
+            enter(activity);
+        } else {
+            call(activity, null);
+        }
 
-        // Forward control to the first Step of the new Activity
-        this.activity = activity;
-        this.nextStep = activity.getFirstStep();
+    }
+
+
+    /**
+     * <p>Save the execution state of the Activity we are currently
+     * executing, and begin executing the specified Activity, as
+     * <code>call(Activity)</code> does, but never as a tail call.  While the
+     * saved next step is executed after the called Activity returns,
+     * <code>getResume()</code> returns the specified object.  A Step that
+     * sets itself as the next step before calling can use this to finish
+     * its work once the call is complete.</p>
+     *
+     * @param activity The Activity to be called
+     * @param resume State to be given back when the current Activity
+     *  resumes, which must be serializable if this Context is externalized
+     *
+     * @exception IllegalStateException if saving the execution state would
+     *  exceed the maximum call depth
+     */
+    public void call(Activity activity, Object resume) {
+
+        if ((maxCallDepth > 0) && (calls.size() >= maxCallDepth))
+            throw new IllegalStateException
+                ("Maximum call depth of " + maxCallDepth + " exceeded");
+        calls.push(new CallFrame(this.activity, this.nextStep,
+                                 stateBase, resume));
+        stateBase = state.size();
+        enter(activity);
 
     }
 
@@ -555,10 +719,17 @@ public class BaseContext implements Context {
      * the <code>suspend</code> property has been set to true.  Upon
      * completion of an activity, any execution state that was saved to due
      * to utilizing the <code>call()</code> method will be restored, and
-     * the saved Activity execution shall be resumed.
+     * the saved Activity execution shall be resumed.  An exception thrown
+     * by a Step nested within an <code>ExceptionHandler</code> is offered
+     * to that handler, and execution continues if it is handled.  So is
+     * the exception that abandons a Block whose <code>DeadlineState</code>
+     * shows that its deadline has passed, which is checked before each
+     * Step is executed.  A resumption of this Context that was scheduled
+     * with a <code>ContextScheduler</code> is cancelled.
      *
      * @exception StepException if an exception is thrown by the
-     *  <code>execute()</code> method of a Step we have executed
+     *  <code>execute()</code> method of a Step we have executed, and
+     *  is not handled
      * @exception IllegalStateException if there is no defined next step
      *  (either because there is no Activity, or because we have already
      *  completed all the steps of this activity)
@@ -573,6 +744,11 @@ public class BaseContext implements Context {
         if (nextStep == null)
             throw new IllegalStateException("Activity has been completed");
 
+        // Cancel a scheduled resumption, since we are being resumed now
+        ContextScheduler owner = scheduler;
+        if (owner != null)
+            owner.cancel(this);
+
         // Reset the suspend flag until set by another step
         suspend = false;
 
@@ -591,25 +767,37 @@ public class BaseContext implements Context {
             // Process completion of an Activity
             if (nextStep == null) {
 
-                // If there are no active calls, we are done
-                if (calls.empty())
+                // If there are no active calls, we are done (leaving any
+                // Blocks that an early exit did not close)
+                if (calls.empty()) {
+                    leave(stateBase);
                     break;
+                }
 
                 // If there are active calls, resume the most recent one
-                try {
-                    nextStep = (Step) calls.pop();
-                    Owner owner = nextStep.getOwner();
-                    while (!(owner instanceof Activity)) {
-                        owner = ((Step) owner).getOwner();
-                    }
-                    this.activity = (Activity) owner;
-                } catch (EmptyStackException e) {
-                    ; // Can not happen
-                }
+                // (leaving any Blocks that an early exit did not close)
+                CallFrame frame = (CallFrame) calls.pop();
+                leave(stateBase);
+                this.activity = frame.getActivity();
+                this.nextStep = frame.getStep();
+                this.stateBase = frame.getStateBase();
+                this.resume = frame.getResume();
                 continue;
 
             }
 
+            // Abandon a Block whose deadline has passed
+            if ((deadline > 0L) &&
+                (System.currentTimeMillis() >= deadline)) {
+                exception = expire();
+                if (exception != null) {
+                    if (!handle(exception))
+                        break;
+                    exception = null;
+                    continue;
+                }
+            }
+
             // Execute the (now) current Step
             thisStep = nextStep;
             nextStep = thisStep.getNextStep(); // Assume sequential execution
@@ -620,11 +808,18 @@ public class BaseContext implements Context {
             } catch (StepException e) {
                 exception = e;
                 support.fireAfterStep(thisStep, exception);
-                break;
             } catch (Throwable t) {
                 exception = new StepException(t, thisStep);
                 support.fireAfterStep(thisStep, exception);
-                break;
+            } finally {
+                resume = null;
+            }
+
+            // Continue if an enclosing ExceptionHandler dealt with it
+            if (exception != null) {
+                if (!handle(exception))
+                    break;
+                exception = null;
             }
 
         }
@@ -658,7 +853,30 @@ public class BaseContext implements Context {
     public Step[] getCalls() {
 
         Step steps[] = new Step[calls.size()];
-        return ((Step[]) calls.toArray(steps));
+        for (int i = 0; i < steps.length; i++)
+            steps[i] = ((CallFrame) calls.get(i)).getStep();
+        return (steps);
+
+    }
+
+
+    /**
+     * Return the earliest time (in milliseconds) by which a Block now
+     * executing must finish, because of a <code>DeadlineState</code> on
+     * the BlockState stack, or zero if there is none.
+     */
+    public long getDeadline() {
+
+        long result = 0L;
+        for (int i = 0; i < state.size(); i++) {
+            Object item = state.get(i);
+            if (!(item instanceof DeadlineState))
+                continue;
+            long when = ((DeadlineState) item).getDeadline();
+            if ((result == 0L) || (when < result))
+                result = when;
+        }
+        return (result);
 
     }
 
@@ -676,6 +894,54 @@ public class BaseContext implements Context {
     }
 
 
+    /**
+     * <p>Return the lock that callers must hold while executing this
+     * Context if another thread (such as the <code>ContextScheduler</code>)
+     * may execute it at the same time.  The lock is not acquired by the
+     * methods of this class.</p>
+     */
+    public ContextLock getLock() {
+
+        return (this.lock);
+
+    }
+
+
+    /**
+     * <p>Return the maximum number of calls to subordinate Activities that
+     * may be pending at once, or zero for no limit.</p>
+     */
+    public int getMaxCallDepth() {
+
+        return (this.maxCallDepth);
+
+    }
+
+
+    /**
+     * <p>Return the state passed to <code>call(Activity,Object)</code> by
+     * the Step now being resumed after the Activity it called returned.
+     * Otherwise, return <code>null</code>.</p>
+     */
+    public Object getResume() {
+
+        return (this.resume);
+
+    }
+
+
+    /**
+     * <p>Return the <code>ContextScheduler</code> that is due to resume this
+     * Context, if any.  A call to <code>execute()</code> by any other
+     * thread cancels that resumption.</p>
+     */
+    public ContextScheduler getScheduler() {
+
+        return (this.scheduler);
+
+    }
+
+
     /**
      * <p>Return the <code>Step</code> that will be executed the next time
      * that <code>execute()</code> is called, if any.</p>
@@ -722,8 +988,25 @@ public class BaseContext implements Context {
         } else {
             this.activity = activity;
             this.nextStep = activity.getFirstStep();
+            allocate(activity);
         }
         calls.clear();
+        stateBase = 0;
+
+    }
+
+
+    /**
+     * <p>Set the maximum number of calls to subordinate Activities that
+     * may be pending at once.  A <code>call()</code> that would exceed it
+     * fails immediately, rather than letting runaway recursion grow the
+     * call stack until memory is exhausted.  Tail calls do not count.</p>
+     *
+     * @param maxCallDepth The new maximum, or zero for no limit
+     */
+    public void setMaxCallDepth(int maxCallDepth) {
+
+        this.maxCallDepth = maxCallDepth;
 
     }
 
@@ -755,6 +1038,19 @@ public class BaseContext implements Context {
     }
 
 
+    /**
+     * <p>Set the <code>ContextScheduler</code> that is due to resume this
+     * Context.  This is called by the scheduler itself.</p>
+     *
+     * @param scheduler The scheduler, or <code>null</code> if none
+     */
+    public void setScheduler(ContextScheduler scheduler) {
+
+        this.scheduler = scheduler;
+
+    }
+
+
     /**
      * <p>Set the suspend flag.  This is called by a <code>Step</code> that
      * wants to signal the <code>Context</code> to return control to the
@@ -770,6 +1066,143 @@ public class BaseContext implements Context {
     }
 
 
+    // ------------------------------------------------- Externalizable Methods
+
+
+    /**
+     * Restore the execution state of this Context from the specified input.
+     *
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored object
+     *  cannot be found
+     * @exception IOException if an input/output error occurs, or if a
+     *  stored Activity or Step can no longer be found
+     */
+    public void readExternal(ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        activity = readActivity(in);
+        nextStep = readStep(in);
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            Step step = readStep(in);
+            calls.push(new CallFrame(WorkflowUtils.getActivity(step), step,
+                                     in.readInt(), readResume(in)));
+        }
+        stateBase = in.readInt();
+        n = in.readInt();
+        for (int i = 0; i < n; i++)
+            stack.push(in.readObject());
+        Scope local = getScope(LOCAL_SCOPE);
+        n = in.readInt();
+        for (int i = 0; i < n; i++)
+            local.put(in.readObject(), in.readObject());
+        n = in.readInt();
+        for (int i = 0; i < n; i++)
+            pushBlockState(readState(in));
+        suspend = in.readBoolean();
+
+    }
+
+
+    /**
+     * Read a reference to a Step written by <code>writeStep()</code>.
+     *
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored Activity
+     *  cannot be found
+     * @exception IOException if an input/output error occurs, or if the
+     *  Step can no longer be found
+     */
+    public Step readStep(ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        Activity owner = readActivity(in);
+        if (owner == null)
+            return (null);
+        String path = in.readUTF();
+        Step step = WorkflowUtils.findStepPath(owner, path);
+        if (step == null)
+            throw new InvalidObjectException("Activity " + owner.getId() +
+                                             " has no Step " + path);
+        return (step);
+
+    }
+
+
+    /**
+     * Write the execution state of this Context to the specified output.
+     * Objects on the evaluation stack and in the local scope must be
+     * serializable.
+     *
+     * @param out Output to write to
+     *
+     * @exception IOException if an input/output error occurs, or if a
+     *  BlockState cannot be written
+     */
+    public void writeExternal(ObjectOutput out) throws IOException {
+
+        writeActivity(out, activity);
+        writeStep(out, nextStep);
+        out.writeInt(calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            CallFrame frame = (CallFrame) calls.get(i);
+            writeStep(out, frame.getStep());
+            out.writeInt(frame.getStateBase());
+            writeResume(out, frame.getResume());
+        }
+        out.writeInt(stateBase);
+        out.writeInt(stack.size());
+        for (int i = 0; i < stack.size(); i++)
+            out.writeObject(stack.get(i));
+        Scope local = getScope(LOCAL_SCOPE);
+        int n = 0;
+        Iterator entries = local.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (!(((Map.Entry) entries.next()).getValue() instanceof Scope))
+                n++;
+        }
+        out.writeInt(n);
+        entries = local.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            if (entry.getValue() instanceof Scope)
+                continue;           // Registered again by our owner
+            out.writeObject(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
+        out.writeInt(state.size());
+        for (int i = 0; i < state.size(); i++)
+            writeState(out, (BlockState) state.get(i));
+        out.writeBoolean(suspend);
+
+    }
+
+
+    /**
+     * Write a reference to the specified Step, which may be
+     * <code>null</code>, as a reference to its Activity followed by its
+     * path within that Activity.
+     *
+     * @param out Output to write to
+     * @param step Step to be written
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    public void writeStep(ObjectOutput out, Step step) throws IOException {
+
+        if (step == null) {
+            writeActivity(out, null);
+            return;
+        }
+        writeActivity(out, WorkflowUtils.getActivity(step));
+        out.writeUTF(WorkflowUtils.getStepPath(step));
+
+    }
+
+
     // ------------------------------------------------- Event Listener Methods
 
 
@@ -813,4 +1246,456 @@ public class BaseContext implements Context {
     }
 
 
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Make room in our evaluation and BlockState stacks for the
+     * requirements of the specified Activity, if its stack profile has been
+     * calculated, so that they do not grow while it is executed.
+     *
+     * @param activity The Activity about to be executed
+     */
+    protected void allocate(Activity activity) {
+
+        if (!(activity instanceof BaseActivity))
+            return;
+        StackProfile profile = ((BaseActivity) activity).getProfile();
+        if (profile == null)
+            return;
+        if (profile.getMaxDepth() > 0)
+            stack.ensureCapacity(stack.size() + profile.getMaxDepth());
+        if (profile.getMaxNesting() > 0)
+            state.ensureCapacity(state.size() + profile.getMaxNesting());
+
+    }
+
+
+    /**
+     * Discard the calls made and BlockStates pushed since the BlockState
+     * at the specified index of our BlockState stack was pushed, which
+     * is left on top of the stack.  The <code>abort()</code> method of
+     * each discarded BlockState is called, from the innermost outwards.
+     *
+     * @param index Index of the BlockState, from the bottom of the stack
+     */
+    protected void discard(int index) {
+
+        while (stateBase > index) {
+            CallFrame frame = (CallFrame) calls.pop();
+            this.activity = frame.getActivity();
+            this.stateBase = frame.getStateBase();
+        }
+        while (state.size() > index + 1)
+            ((BlockState) state.pop()).abort(this);
+
+    }
+
+
+    /**
+     * Begin executing the first Step of the specified Activity.
+     *
+     * @param activity The Activity to be executed
+     */
+    protected void enter(Activity activity) {
+
+        this.activity = activity;
+        this.nextStep = activity.getFirstStep();
+        allocate(activity);
+
+    }
+
+
+    /**
+     * Return the digest of the definition of the specified Activity (see
+     * <code>WorkflowUtils.getDigest()</code>), which is computed once per
+     * Activity instance.
+     *
+     * @param activity Activity whose digest is requested
+     *
+     * @exception IOException if a Step cannot be serialized
+     */
+    protected String getDigest(Activity activity) throws IOException {
+
+        String digest = null;
+        synchronized (digests) {
+            digest = (String) digests.get(activity);
+        }
+        if (digest == null) {
+            digest = WorkflowUtils.getDigest(activity);
+            synchronized (digests) {
+                digests.put(activity, digest);
+            }
+        }
+        return (digest);
+
+    }
+
+
+    /**
+     * Return the Registry used to look up Activities when this Context
+     * is externalized.
+     */
+    protected Registry getRegistry() {
+
+        return (BaseRegistry.getRegistry());
+
+    }
+
+
+    /**
+     * Find the outermost <code>DeadlineState</code> whose deadline has
+     * passed, discard the calls made and BlockStates pushed since it was
+     * pushed, and return an exception identifying its Block.  If there is
+     * none, just bring our cached <code>deadline</code> up to date and
+     * return <code>null</code>.
+     */
+    protected StepException expire() {
+
+        long now = System.currentTimeMillis();
+        deadline = 0L;
+        for (int i = 0; i < state.size(); i++) {
+            Object item = state.get(i);
+            if (!(item instanceof DeadlineState))
+                continue;
+            long when = ((DeadlineState) item).getDeadline();
+            if (when <= now) {
+                discard(i);
+                Block block = ((DeadlineState) item).getBlock();
+                return (new StepException("Deadline of block has passed",
+                                          block));
+            }
+            if ((deadline == 0L) || (when < deadline))
+                deadline = when;
+        }
+        return (null);
+
+    }
+
+
+    /**
+     * Give each <code>ExceptionHandler</code> whose BlockState is on our
+     * block state stack, from the innermost outwards, the chance to handle
+     * the specified exception.  Before each handler is tried, the calls
+     * made and BlockStates pushed since its own BlockState was pushed are
+     * discarded.  Return <code>true</code> if a handler has handled the
+     * exception and set the next Step to be executed.
+     *
+     * @param exception The exception that was thrown
+     */
+    protected boolean handle(StepException exception) {
+
+        for (int i = state.size() - 1; i >= 0; i--) {
+            BlockState item = (BlockState) state.get(i);
+            if (!(item.getBlock() instanceof ExceptionHandler))
+                continue;
+            discard(i);
+            if (((ExceptionHandler) item.getBlock()).handle(this, item,
+                                                           exception))
+                return (true);
+            if (i > state.size())
+                i = state.size();
+        }
+        return (false);
+
+    }
+
+
+    /**
+     * Pop BlockStates until the specified number remain on our BlockState
+     * stack, calling <code>leave()</code> on each of them, from the
+     * innermost outwards.  This closes Blocks that are left early without
+     * an error.
+     *
+     * @param size The number of BlockStates to be kept
+     */
+    protected void leave(int size) {
+
+        while (state.size() > size)
+            ((BlockState) state.pop()).leave(this);
+
+    }
+
+
+    /**
+     * Read a reference to an Activity written by
+     * <code>writeActivity()</code>.  A registered Activity is resolved to
+     * the referenced version if its definition still has the stored
+     * digest.  Otherwise (because version numbers are assigned by each
+     * Registry, so that the same number may denote another definition in
+     * another JVM), the most recent version with the same identifier and
+     * the same digest is used.  If there is none, the reference cannot be
+     * resolved, because the Steps of this Context are located by path in
+     * the definition that was executing.
+     *
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored Activity
+     *  cannot be found
+     * @exception IOException if an input/output error occurs, or if no
+     *  version of a registered Activity with the stored digest can be
+     *  found
+     */
+    protected Activity readActivity(ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        switch (in.readByte()) {
+        case ACTIVITY_NULL:
+            return (null);
+        case ACTIVITY_REGISTERED:
+            String id = in.readUTF();
+            int version = in.readInt();
+            String digest = in.readUTF();
+            Registry registry = getRegistry();
+            Activity result = registry.findActivity(id, version);
+            if ((result != null) && digest.equals(getDigest(result)))
+                return (result);
+            int versions[] = registry.findVersions(id);
+            for (int i = versions.length - 1; i >= 0; i--) {
+                result = registry.findActivity(id, versions[i]);
+                if ((result != null) && digest.equals(getDigest(result)))
+                    return (result);
+            }
+            throw new InvalidObjectException
+                ("Activity " + id + " version " + version +
+                 " is not registered");
+        default:
+            return ((Activity) in.readObject());
+        }
+
+    }
+
+
+    /**
+     * Read a resumption object written by <code>writeResume()</code>.
+     *
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored object
+     *  cannot be found
+     * @exception IOException if an input/output error occurs, or if no
+     *  version of a registered Activity can be found
+     */
+    protected Object readResume(ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        switch (in.readByte()) {
+        case RESUME_ACTIVITY:
+            return (readActivity(in));
+        case RESUME_ARRAY:
+            Object values[] = new Object[in.readInt()];
+            for (int i = 0; i < values.length; i++)
+                values[i] = readResume(in);
+            return (values);
+        default:
+            return (in.readObject());
+        }
+
+    }
+
+
+    /**
+     * Read a BlockState written by <code>writeState()</code>.
+     *
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored object
+     *  cannot be found
+     * @exception IOException if an input/output error occurs, or if the
+     *  Block of the BlockState can no longer be found
+     */
+    protected BlockState readState(ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        byte type = in.readByte();
+        Step block = readStep(in);
+        if (!(block instanceof Block))
+            throw new InvalidObjectException("Step " + block +
+                                             " is not a Block");
+        switch (type) {
+        case STATE_BLOCK:
+            return (new BlockState((Block) block, in.readBoolean()));
+        case STATE_DEADLINE:
+            return (new DeadlineState((Block) block, in.readLong()));
+        case STATE_EXTERNALIZABLE:
+            if (!(block instanceof ExternalizableBlock))
+                throw new InvalidObjectException("Block " + block +
+                                                 " cannot read its state");
+            return (((ExternalizableBlock) block).readState(this, in));
+        default:
+            throw new InvalidObjectException("Unknown BlockState type " +
+                                             type);
+        }
+
+    }
+
+
+    /**
+     * Discard the execution state of the current Activity, and return
+     * <code>true</code>, if it has no Steps left to execute other than the
+     * ends of structural Blocks (which are closed by discarding their
+     * <code>BlockState</code>).  Otherwise, leave it unchanged and return
+     * <code>false</code>.
+     */
+    protected boolean unwind() {
+
+        int n = 0;
+        Step step = this.nextStep;
+        while (step != null) {
+            if (!(step instanceof BaseBlock) ||
+                !((BaseBlock) step).isStructural() ||
+                (n >= state.size() - stateBase) ||
+                (((BlockState) state.peek(n)).getBlock() != step))
+                return (false);
+            step = step.getNextStep();
+            n++;
+        }
+        leave(state.size() - n);
+        this.nextStep = null;
+        return (true);
+
+    }
+
+
+    /**
+     * Write a reference to the specified Activity, which may be
+     * <code>null</code>.  An Activity registered with our Registry is
+     * written as its identifier, version number and digest; any other
+     * Activity is serialized in full (once per stream, as later references
+     * are written as back references by the stream itself).
+     *
+     * @param out Output to write to
+     * @param activity Activity to be written
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    protected void writeActivity(ObjectOutput out, Activity activity)
+        throws IOException {
+
+        if (activity == null) {
+            out.writeByte(ACTIVITY_NULL);
+            return;
+        }
+        int version = 0;
+        if (activity.getId() != null)
+            version = getRegistry().getVersion(activity);
+        if (version > 0) {
+            out.writeByte(ACTIVITY_REGISTERED);
+            out.writeUTF(activity.getId());
+            out.writeInt(version);
+            out.writeUTF(getDigest(activity));
+        } else {
+            out.writeByte(ACTIVITY_SERIALIZED);
+            out.writeObject(activity);
+        }
+
+    }
+
+
+    /**
+     * Write the specified resumption object of a <code>CallFrame</code>.
+     * An Activity, including one held in an <code>Object[]</code>, is
+     * written with <code>writeActivity()</code>, so that a registered
+     * Activity (and the results it caches) is not copied; any other object
+     * is serialized.
+     *
+     * @param out Output to write to
+     * @param resume Resumption object to be written
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    protected void writeResume(ObjectOutput out, Object resume)
+        throws IOException {
+
+        if (resume instanceof Activity) {
+            out.writeByte(RESUME_ACTIVITY);
+            writeActivity(out, (Activity) resume);
+        } else if ((resume != null) &&
+                   (resume.getClass() == Object[].class)) {
+            Object values[] = (Object[]) resume;
+            out.writeByte(RESUME_ARRAY);
+            out.writeInt(values.length);
+            for (int i = 0; i < values.length; i++)
+                writeResume(out, values[i]);
+        } else {
+            out.writeByte(RESUME_OBJECT);
+            out.writeObject(resume);
+        }
+
+    }
+
+
+    /**
+     * Write the specified BlockState, tagged with its type:  a plain
+     * <code>BlockState</code>, a <code>DeadlineState</code>, or a state
+     * written by its <code>ExternalizableBlock</code>.
+     *
+     * @param out Output to write to
+     * @param item BlockState to be written
+     *
+     * @exception IOException if an input/output error occurs
+     * @exception NotSerializableException if the BlockState is of another
+     *  class, and its Block is not an <code>ExternalizableBlock</code>
+     */
+    protected void writeState(ObjectOutput out, BlockState item)
+        throws IOException {
+
+        Block block = item.getBlock();
+        if (item.getClass() == BlockState.class) {
+            out.writeByte(STATE_BLOCK);
+            writeStep(out, block);
+            out.writeBoolean(item.getNest());
+        } else if (item.getClass() == DeadlineState.class) {
+            out.writeByte(STATE_DEADLINE);
+            writeStep(out, block);
+            out.writeLong(((DeadlineState) item).getDeadline());
+        } else if (block instanceof ExternalizableBlock) {
+            out.writeByte(STATE_EXTERNALIZABLE);
+            writeStep(out, block);
+            ((ExternalizableBlock) block).writeState(this, item, out);
+        } else {
+            throw new NotSerializableException(item.getClass().getName());
+        }
+
+    }
+
+
+    // ------------------------------------------------------- Static Variables
+
+
+    /**
+     * The digests of Activity definitions computed by
+     * <code>getDigest()</code>, keyed by Activity.
+     */
+    private static WeakHashMap digests = new WeakHashMap();
+
+
+    /**
+     * Stored Activity references: <code>null</code>, a registered
+     * Activity, or a serialized Activity.
+     */
+    private static final byte ACTIVITY_NULL = 0;
+    private static final byte ACTIVITY_REGISTERED = 1;
+    private static final byte ACTIVITY_SERIALIZED = 2;
+
+
+    /**
+     * Stored resumption objects:  an Activity reference, an array of
+     * resumption objects, or a serialized object.
+     */
+    private static final byte RESUME_OBJECT = 0;
+    private static final byte RESUME_ACTIVITY = 1;
+    private static final byte RESUME_ARRAY = 2;
+
+
+    /**
+     * Stored BlockState types:  a plain <code>BlockState</code>, a
+     * <code>DeadlineState</code>, or a state written by the
+     * <code>ExternalizableBlock</code> it belongs to.
+     */
+    private static final byte STATE_BLOCK = 0;
+    private static final byte STATE_DEADLINE = 1;
+    private static final byte STATE_EXTERNALIZABLE = 2;
+
+
 }
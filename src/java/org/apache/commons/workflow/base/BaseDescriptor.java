@@ -17,6 +17,7 @@
 package org.apache.commons.workflow.base;
 
 
+import java.io.Serializable;
 import java.util.EmptyStackException;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.workflow.Context;
@@ -30,7 +31,7 @@ import org.apache.commons.workflow.Descriptor;
  * @author Craig R. McClanahan
  */
 
-public class BaseDescriptor implements Descriptor {
+public class BaseDescriptor implements Descriptor, Serializable {
 
 
     // ----------------------------------------------------------- Constructors
@@ -118,6 +119,15 @@ public class BaseDescriptor implements Descriptor {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ----------------------------------------------------- Instance Variables
 
 
@@ -273,6 +283,18 @@ public class BaseDescriptor implements Descriptor {
     }
 
 
+    /**
+     * Does <code>get()</code> take its value from the top of the evaluation
+     * stack?  This is the case when neither <code>xpath</code> nor
+     * <code>name</code> is specified.
+     */
+    public boolean isPopped() {
+
+        return ((xpath == null) && (name == null));
+
+    }
+
+
     /**
      * <p>Call <code>get()</code> to retrieve the value specified by this
      * Descriptor, and then return <code>true</code> if this value represents
@@ -292,30 +314,7 @@ public class BaseDescriptor implements Descriptor {
      */
     public boolean positive(Context context) {
 
-        Object value = get(context);
-        if (value == null)
-            return (false);
-        else if (value instanceof Boolean)
-            return (((Boolean) value).booleanValue());
-        else if (value instanceof Byte)
-            return (((Byte) value).byteValue() != (byte) 0);
-        else if (value instanceof Character)
-            return (((Character) value).charValue() != (char) 0);
-        else if (value instanceof Double)
-            return (((Double) value).doubleValue() != (double) 0.0);
-        else if (value instanceof Float)
-            return (((Double) value).floatValue() != (float) 0.0);
-        else if (value instanceof Integer)
-            return (((Integer) value).intValue() != (int) 0);
-        else if (value instanceof Long)
-            return (((Long) value).longValue() != (long) 0);
-        else if (value instanceof Short)
-            return (((Short) value).shortValue() != (short) 0);
-        else if (value instanceof String)
-            return (((String) value).length() > 0);
-        else
-            return (true); // Non-null object
-
+        return (positive(get(context)));
 
     }
 
@@ -393,4 +392,38 @@ public class BaseDescriptor implements Descriptor {
     }
 
 
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Return <code>true</code> if the specified value represents a positive
+     * result, as described for <code>positive(Context)</code>.  The most
+     * common types are checked first.
+     *
+     * @param value The value to be checked
+     */
+    public static boolean positive(Object value) {
+
+        if (value == null)
+            return (false);
+        else if (value instanceof Boolean)
+            return (((Boolean) value).booleanValue());
+        else if (value instanceof String)
+            return (((String) value).length() > 0);
+        else if (value instanceof Number) {
+            if ((value instanceof Double) || (value instanceof Float))
+                return (((Number) value).doubleValue() != 0.0);
+            else if ((value instanceof Integer) || (value instanceof Long) ||
+                     (value instanceof Short) || (value instanceof Byte))
+                return (((Number) value).longValue() != 0L);
+            else
+                return (true); // Other Number subclasses are objects
+        } else if (value instanceof Character)
+            return (((Character) value).charValue() != (char) 0);
+        else
+            return (true); // Non-null object
+
+    }
+
+
 }
@@ -18,6 +18,9 @@ package org.apache.commons.workflow.base;
 
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
 import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Registry;
 
@@ -26,6 +29,19 @@ import org.apache.commons.workflow.Registry;
  * <p><strong>BaseRegistry</strong> is a convenient base class for more
  * sophisticated <code>Registry</code> implementations.</p>
  *
+ * <p>This implementation is thread-safe.  Lookups are not synchronized;
+ * they read an immutable snapshot of the registered Activities, which is
+ * replaced as a whole (under synchronization) whenever an Activity is added
+ * or removed.  A new definition therefore becomes visible atomically, while
+ * Contexts that are already executing an earlier version are unaffected.
+ * Only the most recent <code>maxVersions</code> versions of each Activity
+ * are listed by <code>findVersions()</code>.  An older version is retired
+ * rather than forgotten: it can still be found by
+ * <code>findActivity(id, version)</code> and <code>getVersion()</code> for
+ * as long as anything else (such as a Context that is executing it) still
+ * refers to it, so that such a Context can still be externalized as a
+ * reference to its version.</p>
+ *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
  */
@@ -38,26 +54,88 @@ public class BaseRegistry implements Registry {
 
     /**
      * The set of Activity instances registered with this Registry, keyed
-     * by identifier.
+     * by identifier.  Each value is an array of <code>ActivityVersion</code>
+     * instances, oldest first.  Neither this map nor its values are ever
+     * modified once published; updates replace the whole map.
+     */
+    protected volatile HashMap activities = new HashMap();
+
+
+    /**
+     * The last version number assigned for each identifier, so that
+     * numbers are not reused after a version is removed.
+     */
+    protected HashMap counters = new HashMap();
+
+
+    /**
+     * The version number of each retired Activity, keyed by Activity.  An
+     * entry disappears once nothing else refers to its Activity.  This map
+     * is only accessed while synchronized on this Registry.
      */
-    protected HashMap activities = new HashMap();
+    protected WeakHashMap retired = new WeakHashMap();
 
 
     // ------------------------------------------------------------- Properties
 
 
+    /**
+     * The maximum number of versions retained for each identifier, or
+     * zero for no limit.
+     */
+    protected int maxVersions = 10;
+
+    public int getMaxVersions() {
+        return (this.maxVersions);
+    }
+
+    public synchronized void setMaxVersions(int maxVersions) {
+        this.maxVersions = maxVersions;
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
     /**
      * Add a new Activity to the set of Activity instances known to this
-     * Registry.
+     * Registry, as the new current version of the Activities with its
+     * identifier.
      *
      * @param activity The new activity to be added
      */
-    public void addActivity(Activity activity) {
-
-        activities.put(activity.getId(), activity);
+    public synchronized void addActivity(Activity activity) {
+
+        String id = activity.getId();
+        ActivityVersion versions[] = (ActivityVersion[]) activities.get(id);
+        if ((versions != null) &&
+            (versions[versions.length - 1].activity == activity))
+            return;             // Already the current version
+
+        // Assign the next version number
+        Integer last = (Integer) counters.get(id);
+        int version = (last == null) ? 1 : last.intValue() + 1;
+        counters.put(id, Integer.valueOf(version));
+
+        // Append it to the retained versions, retiring the oldest ones
+        int count = (versions == null) ? 0 : versions.length;
+        int keep = count;
+        if ((maxVersions > 0) && (keep >= maxVersions))
+            keep = maxVersions - 1;
+        for (int i = 0; i < count - keep; i++)
+            retired.put(versions[i].activity,
+                        Integer.valueOf(versions[i].version));
+        retired.remove(activity);
+        ActivityVersion results[] = new ActivityVersion[keep + 1];
+        if (keep > 0)
+            System.arraycopy(versions, versions.length - keep,
+                             results, 0, keep);
+        results[keep] = new ActivityVersion(activity, version);
+
+        // Publish a new snapshot
+        HashMap map = (HashMap) activities.clone();
+        map.put(id, results);
+        activities = map;
 
     }
 
@@ -65,47 +143,167 @@ public class BaseRegistry implements Registry {
     /**
      * Clear any existing Activity instances registered with this Registry.
      */
-    public void clear() {
+    public synchronized void clear() {
 
-        activities.clear();
+        activities = new HashMap();
+        counters.clear();
+        retired.clear();
 
     }
 
 
     /**
      * Return the complete set of Activity instances associated with
-     * this Activity.  If there are no such registered Activity instances,
-     * a zero-length array is returned.
+     * this Activity (the current version of each).  If there are no such
+     * registered Activity instances, a zero-length array is returned.
      */
     public Activity[] findActivities() {
 
-        Activity results[] = new Activity[activities.size()];
-        return ((Activity[]) activities.values().toArray(results));
+        HashMap map = activities;
+        Activity results[] = new Activity[map.size()];
+        Iterator values = map.values().iterator();
+        int n = 0;
+        while (values.hasNext()) {
+            ActivityVersion versions[] = (ActivityVersion[]) values.next();
+            results[n++] = versions[versions.length - 1].activity;
+        }
+        return (results);
 
     }
 
 
     /**
-     * Return the registered Activity with the specified identifier, if any;
-     * otherwise return <code>null</code>.
+     * Return the current version of the registered Activity with the
+     * specified identifier, if any; otherwise return <code>null</code>.
      *
      * @param id Identifier of the desired Activity
      */
     public Activity findActivity(String id) {
 
-        return ((Activity) activities.get(id));
+        ActivityVersion versions[] = (ActivityVersion[]) activities.get(id);
+        if (versions == null)
+            return (null);
+        return (versions[versions.length - 1].activity);
 
     }
 
 
     /**
-     * Remove the specified Activity from this Registry.
+     * Return the specified version of the registered Activity with the
+     * specified identifier, if it is retained or retired but still in use;
+     * otherwise return <code>null</code>.
      *
-     * @param activity The Activity to be removed
+     * @param id Identifier of the desired Activity
+     * @param version Version number of the desired Activity
      */
-    public void removeActivity(Activity activity) {
+    public Activity findActivity(String id, int version) {
+
+        ActivityVersion versions[] = (ActivityVersion[]) activities.get(id);
+        if (versions != null) {
+            for (int i = versions.length - 1; i >= 0; i--) {
+                if (versions[i].version == version)
+                    return (versions[i].activity);
+            }
+            if (version >= versions[0].version)
+                return (null);      // Removed rather than retired
+        }
+        synchronized (this) {
+            Iterator entries = retired.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry entry = (Map.Entry) entries.next();
+                Activity activity = (Activity) entry.getKey();
+                if ((activity != null) && id.equals(activity.getId()) &&
+                    (((Integer) entry.getValue()).intValue() == version))
+                    return (activity);
+            }
+        }
+        return (null);
 
-        activities.remove(activity.getId());
+    }
+
+
+    /**
+     * Return the version numbers of the registered Activities with the
+     * specified identifier, in ascending order.  If there are no such
+     * registered Activity instances, a zero-length array is returned.
+     *
+     * @param id Identifier of the desired Activity
+     */
+    public int[] findVersions(String id) {
+
+        ActivityVersion versions[] = (ActivityVersion[]) activities.get(id);
+        if (versions == null)
+            return (new int[0]);
+        int results[] = new int[versions.length];
+        for (int i = 0; i < versions.length; i++)
+            results[i] = versions[i].version;
+        return (results);
+
+    }
+
+
+    /**
+     * Return the version number of the specified Activity, or zero if
+     * it is neither registered with this Registry nor retired.
+     *
+     * @param activity The Activity whose version is requested
+     */
+    public int getVersion(Activity activity) {
+
+        ActivityVersion versions[] =
+            (ActivityVersion[]) activities.get(activity.getId());
+        if (versions != null) {
+            for (int i = versions.length - 1; i >= 0; i--) {
+                if (versions[i].activity == activity)
+                    return (versions[i].version);
+            }
+        }
+        synchronized (this) {
+            Integer version = (Integer) retired.get(activity);
+            return ((version == null) ? 0 : version.intValue());
+        }
+
+    }
+
+
+    /**
+     * Remove the specified Activity (but not other versions with the same
+     * identifier) from this Registry, whether it is retained or retired.
+     * If it was the current version, the latest remaining version becomes
+     * current.
+     *
+     * @param activity The Activity to be removed
+     */
+    public synchronized void removeActivity(Activity activity) {
+
+        retired.remove(activity);
+        String id = activity.getId();
+        ActivityVersion versions[] = (ActivityVersion[]) activities.get(id);
+        if (versions == null)
+            return;
+        int index = -1;
+        for (int i = 0; i < versions.length; i++) {
+            if (versions[i].activity == activity) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0)
+            return;
+
+        // Publish a new snapshot without this version
+        HashMap map = (HashMap) activities.clone();
+        if (versions.length == 1) {
+            map.remove(id);
+        } else {
+            ActivityVersion results[] =
+                new ActivityVersion[versions.length - 1];
+            System.arraycopy(versions, 0, results, 0, index);
+            System.arraycopy(versions, index + 1, results, index,
+                             versions.length - index - 1);
+            map.put(id, results);
+        }
+        activities = map;
 
     }
 
@@ -126,7 +324,7 @@ public class BaseRegistry implements Registry {
      * Factory method to return a Singleton (per class loader)
      * <code>Registry</code> instance.
      */
-    public static Registry getRegistry() {
+    public static synchronized Registry getRegistry() {
 
         if (registry == null)
             registry = new BaseRegistry();
@@ -89,7 +89,8 @@ public class BaseRuleSet extends RuleSetBase {
     public void addRuleInstances(Digester digester) {
 
         digester.addObjectCreate("activity",
-                              "org.apache.commons.workflow.base.BaseActivity");
+                              "org.apache.commons.workflow.base.BaseActivity",
+                              "className");
         digester.addSetProperties("activity");
 
     }
@@ -117,6 +118,26 @@ public class BaseRuleSet extends RuleSetBase {
     }
 
 
+    /**
+     * Add the set of rules for a new ExpressionDescriptor that should be
+     * recognized.
+     *
+     * @param digester Digester to which we are adding new rules
+     * @param element Element name to be matched
+     */
+    protected void addExpressionDescriptor(Digester digester,
+                                           String element) {
+
+        String pattern = "*/" + element;
+        digester.addObjectCreate(pattern,
+                     "org.apache.commons.workflow.base.ExpressionDescriptor");
+        digester.addSetProperties(pattern);
+        digester.addSetNext(pattern, "addDescriptor",
+                            "org.apache.commons.workflow.Descriptor");
+
+    }
+
+
     /**
      * Add the standard set of rules for a new Step that should be recognized.
      *
@@ -79,12 +79,15 @@ public class BaseScope implements Scope {
 
     /**
      * Remove all beans from this Map and call <code>scopeCleared() on
-     * all registered <code>ScopeListeners</code>.
+     * all registered <code>ScopeListeners</code>, with the removed beans.
      */
     public void clear() {
 
+        HashMap beans = null;
+        if (support.hasListeners())
+            beans = new HashMap(map);
         map.clear();
-        support.fireScopeCleared();
+        support.fireScopeCleared(beans);
 
     }
 
@@ -17,6 +17,7 @@
 package org.apache.commons.workflow.base;
 
 
+import java.io.Serializable;
 import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Owner;
@@ -30,11 +31,25 @@ import org.apache.commons.workflow.StepException;
  * relationships of Steps to each other, and to their owning Activity, but
  * requires the implementation to provide an <code>execute()</code> method.
  *
+ * <p>Steps are <code>Serializable</code> so that a parsed Activity can be
+ * saved in binary form (see <code>ActivitySerializer</code>).  The links to
+ * the owner and adjacent Steps are transient; they are re-established
+ * when the owning Activity or Block adds its deserialized Steps.</p>
+ *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
  */
 
-public abstract class BaseStep implements Step {
+public abstract class BaseStep implements Serializable, Step {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
 
 
     // ----------------------------------------------------- Instance Variables
@@ -49,20 +64,20 @@ public abstract class BaseStep implements Step {
     /**
      * The next Step in our associated Activity.
      */
-    protected Step nextStep = null;
+    protected transient Step nextStep = null;
 
 
     /**
      * The Activity or Block that owns this Step.
      */
-    protected Owner owner = null;
+    protected transient Owner owner = null;
 
 
 
     /**
      * The previous Step in our associated Activity.
      */
-    protected Step previousStep = null;
+    protected transient Step previousStep = null;
 
 
 
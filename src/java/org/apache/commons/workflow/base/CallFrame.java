@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Step;
+
+
+/**
+ * <p>The return point of an Activity that has called a subordinate
+ * Activity:  the caller itself, the Step at which it resumes, the depth
+ * of the <code>BlockState</code> stack at which its own BlockStates start,
+ * and any state the resumed Step asked to be given back.  The caller is recorded when the call is made, so that returning
+ * does not have to search the owners of the Step for it.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class CallFrame {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new frame for the specified Activity and Step.
+     *
+     * @param activity The calling Activity
+     * @param step The Step at which the calling Activity resumes
+     * @param stateBase The BlockState stack depth of the calling Activity
+     * @param resume State given back to the Step when it resumes
+     */
+    CallFrame(Activity activity, Step step, int stateBase, Object resume) {
+
+        super();
+        this.activity = activity;
+        this.step = step;
+        this.stateBase = stateBase;
+        this.resume = resume;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The calling Activity.
+     */
+    protected Activity activity = null;
+
+
+    /**
+     * The state given back to the Step when it resumes, if any.
+     */
+    protected Object resume = null;
+
+
+    /**
+     * The depth of the BlockState stack below the BlockStates of the
+     * calling Activity.
+     */
+    protected int stateBase = 0;
+
+
+    /**
+     * The Step at which the calling Activity resumes.
+     */
+    protected Step step = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Activity getActivity() {
+
+        return (this.activity);
+
+    }
+
+
+    Object getResume() {
+
+        return (this.resume);
+
+    }
+
+
+    int getStateBase() {
+
+        return (this.stateBase);
+
+    }
+
+
+    Step getStep() {
+
+        return (this.step);
+
+    }
+
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>A comparison in a compiled expression.  If either operand is a
+ * Number, the operands are compared numerically (converting a String
+ * operand to a number); otherwise equality uses <code>equals()</code>, and
+ * ordering requires <code>Comparable</code> operands.  As in Java, a
+ * numeric comparison with NaN is false, except for <code>!=</code>.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class CompareExpression extends Expression {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    static final int EQ = 0;
+
+    static final int NE = 1;
+
+    static final int LT = 2;
+
+    static final int LE = 3;
+
+    static final int GT = 4;
+
+    static final int GE = 5;
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new comparison.
+     *
+     * @param op The operator
+     * @param left The left operand
+     * @param right The right operand
+     */
+    CompareExpression(int op, Expression left, Expression right) {
+
+        super();
+        this.op = op;
+        this.left = left;
+        this.right = right;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The left operand.
+     */
+    protected Expression left = null;
+
+
+    /**
+     * The operator.
+     */
+    protected int op = EQ;
+
+
+    /**
+     * The right operand.
+     */
+    protected Expression right = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Object evaluate(Context context) {
+
+        return (toBoolean(test(context)));
+
+    }
+
+
+    boolean isConstant() {
+
+        return (left.isConstant() && right.isConstant());
+
+    }
+
+
+    boolean test(Context context) {
+
+        Object a = left.evaluate(context);
+        Object b = right.evaluate(context);
+
+        // Compare numerically if either operand is a number
+        if (((a instanceof Number) && (b != null)) ||
+            ((b instanceof Number) && (a != null))) {
+            int result = 0;
+            Number x = toNumber(a);
+            Number y = toNumber(b);
+            if (isIntegral(x) && isIntegral(y)) {
+                long i = x.longValue();
+                long j = y.longValue();
+                result = (i < j) ? -1 : ((i == j) ? 0 : 1);
+            } else {
+                double i = x.doubleValue();
+                double j = y.doubleValue();
+                if (Double.isNaN(i) || Double.isNaN(j))
+                    return (op == NE);
+                result = (i < j) ? -1 : ((i == j) ? 0 : 1);
+            }
+            return (check(result));
+        }
+
+        // Otherwise, compare objects
+        if (op == EQ)
+            return ((a == null) ? (b == null) : a.equals(b));
+        else if (op == NE)
+            return ((a == null) ? (b != null) : !a.equals(b));
+        if ((a == null) || (b == null))
+            return (false);
+        if (!(a instanceof Comparable))
+            throw new IllegalArgumentException("Value '" + a +
+                                               "' cannot be ordered");
+        return (check(((Comparable) a).compareTo(b)));
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Return the result of our operator for the specified comparison result.
+     *
+     * @param result Negative, zero, or positive comparison result
+     */
+    protected boolean check(int result) {
+
+        switch (op) {
+        case EQ:
+            return (result == 0);
+        case NE:
+            return (result != 0);
+        case LT:
+            return (result < 0);
+        case LE:
+            return (result <= 0);
+        case GT:
+            return (result > 0);
+        default:
+            return (result >= 0);
+        }
+
+    }
+
+
+}
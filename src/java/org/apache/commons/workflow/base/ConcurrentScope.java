@@ -0,0 +1,540 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.jxpath.JXPathIntrospector;
+import org.apache.commons.jxpath.MapDynamicPropertyHandler;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.ScopeListener;
+import org.apache.commons.workflow.util.ScopeSupport;
+
+
+/**
+ * <strong>ConcurrentScope</strong> is a <code>Scope</code> implementation
+ * that may be shared by many <code>Contexts</code> executing at the same
+ * time, such as one holding application-wide state.  Its beans are kept
+ * in a <code>ConcurrentHashMap</code>, so that lookups never block and
+ * threads updating different keys seldom wait for each other.  In
+ * addition to the usual <code>Map</code> methods, it offers atomic
+ * <code>putIfAbsent()</code>, <code>replace()</code> and
+ * <code>increment()</code> operations, which retry a compare-and-set
+ * rather than holding a lock while the new bean is computed.
+ *
+ * <p><code>ScopeListeners</code> are notified after the change has been
+ * made, without any lock held, so a listener may use this Scope freely;
+ * events for different keys may therefore be delivered in a different
+ * order than the changes were made.  The collection views
+ * (<code>entrySet()</code>, <code>keySet()</code> and
+ * <code>values()</code>) are snapshots, which do not change as this Scope
+ * changes.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ConcurrentScope implements Scope {
+
+
+    // -------------------------------------------------- Static Initialization
+
+
+    /**
+     * Register ourselves with JXPathIntrospector as an instance of a
+     * dynamic class (in JXPath terminology).
+     */
+    static {
+        JXPathIntrospector.registerDynamicClass
+            (ConcurrentScope.class, MapDynamicPropertyHandler.class);
+    }
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new ConcurrentScope sized for the default number of
+     * concurrently updating threads.
+     */
+    public ConcurrentScope() {
+
+        this(DEFAULT_CONCURRENCY);
+
+    }
+
+
+    /**
+     * Construct a new ConcurrentScope sized for the specified number of
+     * concurrently updating threads.
+     *
+     * @param concurrency The estimated number of updating threads
+     */
+    public ConcurrentScope(int concurrency) {
+
+        super();
+        map = new ConcurrentHashMap(16, 0.75f, concurrency);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The default estimated number of concurrently updating threads.
+     */
+    public static final int DEFAULT_CONCURRENCY = 16;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The map that contains our registered keys and beans.
+     */
+    protected ConcurrentHashMap map = null;
+
+
+    /**
+     * The event listener support object for this <code>Scope</code>.
+     */
+    protected ScopeSupport support = new ScopeSupport(this);
+
+
+    // ------------------------------------------------------------ Map Methods
+
+
+    /**
+     * Remove all beans from this Map and call <code>scopeCleared() on
+     * all registered <code>ScopeListeners</code>, with the removed beans.
+     * The beans are removed one at a time, so beans added by other
+     * threads meanwhile may survive.
+     */
+    public void clear() {
+
+        if (!support.hasListeners()) {
+            map.clear();
+            support.fireScopeCleared(null);
+            return;
+        }
+        HashMap beans = new HashMap();
+        Iterator entries = map.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            if (map.remove(entry.getKey(), entry.getValue()))
+                beans.put(entry.getKey(), entry.getValue());
+        }
+        support.fireScopeCleared(beans);
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public boolean containsKey(Object key) {
+
+        if (key == null)
+            return (false);
+        return (map.containsKey(key));
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified value.
+     *
+     * @param value Value to be looked up
+     */
+    public boolean containsValue(Object value) {
+
+        if (value == null)
+            return (false);
+        return (map.containsValue(value));
+
+    }
+
+
+    /**
+     * Return a snapshot of the mappings contained in this map.
+     */
+    public Set entrySet() {
+
+        return (snapshot().entrySet());
+
+    }
+
+
+    /**
+     * Compare the specified object with this map for equality.
+     *
+     * @param object Object to be compared
+     */
+    public boolean equals(Object object) {
+
+        return (snapshot().equals(object));
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(Object key) {
+
+        return (get((String) key));
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(String key) {
+
+        if (key == null)
+            return (null);
+        return (map.get(key));
+
+    }
+
+
+    /**
+     * Return the hash code value for this map.
+     */
+    public int hashCode() {
+
+        return (snapshot().hashCode());
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map is empty.
+     */
+    public boolean isEmpty() {
+
+        return (map.isEmpty());
+
+    }
+
+
+    /**
+     * Return a snapshot of the keys contained in this map.
+     */
+    public Set keySet() {
+
+        return (snapshot().keySet());
+
+    }
+
+
+    /**
+     * Add or replace the bean associated with the specified key.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     */
+    public Object put(Object key, Object bean) {
+
+        return (put((String) key, bean));
+
+    }
+
+
+    /**
+     * Add the specified bean, associated with the specified key, to this
+     * scope and replace any previous bean associated with this key.  If
+     * there was a previous bean, <code>beanReplaced()</code> is called
+     * on all registered <code>ScopeListeners</code>; otherwise
+     * <code>beanAdded()</code> is called.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     */
+    public Object put(String key, Object bean) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        if (bean == null)
+            throw new IllegalArgumentException("Value cannot be null");
+
+        Object old = map.put(key, bean);
+        if (old == null)
+            support.fireBeanAdded(key, bean);
+        else
+            support.fireBeanReplaced(key, old);
+        return (old);
+
+    }
+
+
+    /**
+     * Copy all of the mappings from the specified map into this map,
+     * firing appropriate <code>beanAdded()</code> and
+     * <code>beanReplaced()</code> events along the way.
+     *
+     * @param in Map whose contents are to be added
+     */
+    public void putAll(Map in) {
+
+        Iterator keys = in.keySet().iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            put(key, in.get(key));
+        }
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any), and return
+     * the old value if removed.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     */
+    public Object remove(Object key) {
+
+        return (remove((String) key));
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any).  If such
+     * a bean is found and removed, call <code>beanRemoved()</code> on all
+     * registered <code>ScopeListeners</code>.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     */
+    public Object remove(String key) {
+
+        if (key == null)
+            return (null);
+        Object old = map.remove(key);
+        if (old != null)
+            support.fireBeanRemoved(key, old);
+        return (old);
+
+    }
+
+
+    /**
+     * Return the number of key-value mappings in this map.
+     */
+    public int size() {
+
+        return (map.size());
+
+    }
+
+
+    /**
+     * Return a snapshot of the values contained in this map.
+     */
+    public Collection values() {
+
+        return (snapshot().values());
+
+    }
+
+
+    // --------------------------------------------------------- Atomic Methods
+
+
+    /**
+     * Atomically add the specified amount to the number associated with
+     * the specified key (treating a missing bean as zero), and return the
+     * result.  See <code>sum()</code> for the type of the result.  If
+     * another thread changes the bean meanwhile, the sum is recomputed.
+     *
+     * @param key Key of the number to be incremented (cannot be null)
+     * @param delta Amount to be added
+     *
+     * @exception IllegalArgumentException if the current bean is not a
+     *  <code>Number</code>
+     */
+    public Number increment(String key, long delta) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+
+        while (true) {
+            Object old = map.get(key);
+            Number result = sum(old, delta);
+            if (old == null) {
+                if (map.putIfAbsent(key, result) == null) {
+                    support.fireBeanAdded(key, result);
+                    return (result);
+                }
+            } else if (map.replace(key, old, result)) {
+                support.fireBeanReplaced(key, old);
+                return (result);
+            }
+        }
+
+    }
+
+
+    /**
+     * Atomically associate the specified bean with the specified key,
+     * unless some bean is already associated with it.  Return the bean
+     * that was already associated with the key, or <code>null</code> if
+     * the specified bean was added.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     */
+    public Object putIfAbsent(String key, Object bean) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        if (bean == null)
+            throw new IllegalArgumentException("Value cannot be null");
+
+        Object old = map.putIfAbsent(key, bean);
+        if (old == null)
+            support.fireBeanAdded(key, bean);
+        return (old);
+
+    }
+
+
+    /**
+     * Atomically replace the bean associated with the specified key, but
+     * only if it is currently equal to the expected bean.  Return
+     * <code>true</code> if the bean was replaced.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param expected The bean expected to be associated with this key
+     * @param bean Bean to be associated with this key (cannot be null)
+     */
+    public boolean replace(String key, Object expected, Object bean) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        if (bean == null)
+            throw new IllegalArgumentException("Value cannot be null");
+
+        while (true) {
+            Object old = map.get(key);
+            if ((old == null) || !old.equals(expected))
+                return (false);
+            if (map.replace(key, old, bean)) {
+                support.fireBeanReplaced(key, old);
+                return (true);
+            }
+        }
+
+    }
+
+
+    // ------------------------------------------------- Event Listener Methods
+
+
+    /**
+     * Add a listener that is notified each time beans are added,
+     * replaced, or removed in this scope.
+     *
+     * @param listener The ScopeListener to be added
+     */
+    public void addScopeListener(ScopeListener listener) {
+
+        support.addScopeListener(listener);
+
+    }
+
+
+    /**
+     * Remove a listener that is notified each time beans are added,
+     * replaced, or removed in this scope.
+     *
+     * @param listener The ScopeListener to be removed
+     */
+    public void removeScopeListener(ScopeListener listener) {
+
+        support.removeScopeListener(listener);
+
+    }
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Return the sum of the specified bean (treating <code>null</code> as
+     * zero) and the specified amount.  The result is a <code>Double</code>
+     * if the bean is a <code>Double</code> or <code>Float</code>, an
+     * <code>Integer</code> if the bean is <code>null</code> or an
+     * <code>Integer</code>, <code>Short</code> or <code>Byte</code> and
+     * the sum fits, and a <code>Long</code> otherwise.
+     *
+     * @param bean The current bean
+     * @param delta Amount to be added
+     *
+     * @exception IllegalArgumentException if the bean is not a
+     *  <code>Number</code>
+     */
+    public static Number sum(Object bean, long delta) {
+
+        if ((bean != null) && !(bean instanceof Number))
+            throw new IllegalArgumentException("Value is not a Number");
+        if ((bean instanceof Double) || (bean instanceof Float))
+            return (Double.valueOf(((Number) bean).doubleValue() + delta));
+        long result = delta;
+        if (bean != null)
+            result += ((Number) bean).longValue();
+        if (((bean == null) || (bean instanceof Integer) ||
+             (bean instanceof Short) || (bean instanceof Byte)) &&
+            (result >= Integer.MIN_VALUE) && (result <= Integer.MAX_VALUE))
+            return (Integer.valueOf((int) result));
+        return (Long.valueOf(result));
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Return a copy of the current contents of this Scope.
+     */
+    protected HashMap snapshot() {
+
+        return (new HashMap(map));
+
+    }
+
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.BlockState;
+
+
+/**
+ * <p>The <code>BlockState</code> of a <code>Block</code> that must finish
+ * by a given time.  Once that time has passed, <code>BaseContext</code>
+ * abandons the Steps nested within the Block before executing another
+ * Step, and offers a <code>StepException</code> identifying the Block to
+ * the <code>ExceptionHandlers</code> from the Block outwards.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class DeadlineState extends BlockState {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new state for the specified Block and deadline.
+     *
+     * @param block The Block whose state this object represents
+     * @param deadline The time (in milliseconds) by which the Block must
+     *  finish
+     */
+    public DeadlineState(Block block, long deadline) {
+
+        super(block, false);
+        this.deadline = deadline;
+
+    }
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The time (in milliseconds) by which our Block must finish.
+     */
+    protected long deadline = 0L;
+
+    public long getDeadline() {
+        return (this.deadline);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Render a String version of this object.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("DeadlineState[block=");
+        sb.append(block);
+        sb.append(", deadline=");
+        sb.append(deadline);
+        sb.append("]");
+        return (sb.toString());
+
+    }
+
+
+}
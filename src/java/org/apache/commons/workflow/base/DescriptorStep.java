@@ -22,6 +22,7 @@ import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Descriptor;
 import org.apache.commons.workflow.Descriptors;
+import org.apache.commons.workflow.Scope;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
 
@@ -39,6 +40,15 @@ import org.apache.commons.workflow.StepException;
 public abstract class DescriptorStep extends BaseStep implements Descriptors {
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ----------------------------------------------------- Instance Variables
 
 
@@ -90,4 +100,53 @@ public abstract class DescriptorStep extends BaseStep implements Descriptors {
     }
 
 
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Return the number of our Descriptors that take their values from
+     * the evaluation stack when they are retrieved.
+     */
+    protected int countPoppedDescriptors() {
+
+        int count = 0;
+        for (int i = 0; i < descriptors.size(); i++) {
+            Object descriptor = descriptors.get(i);
+            if ((descriptor instanceof BaseDescriptor) &&
+                ((BaseDescriptor) descriptor).isPopped())
+                count++;
+        }
+        return (count);
+
+    }
+
+
+    /**
+     * Return the Scope holding the bean named by the specified Descriptor,
+     * which must specify a <code>name</code> rather than an
+     * <code>xpath</code>.  If it does not specify a <code>scope</code>,
+     * the local scope is returned.
+     *
+     * @param context The Context that is tracking our execution state
+     * @param descriptor The Descriptor naming the bean
+     *
+     * @exception StepException if the Descriptor has no name, or names
+     *  an unknown scope
+     */
+    protected Scope findScope(Context context, Descriptor descriptor)
+        throws StepException {
+
+        if (descriptor.getName() == null)
+            throw new StepException("Descriptor must specify a name", this);
+        if (descriptor.getScope() == null)
+            return (context.getScope(Context.LOCAL_SCOPE));
+        int scopeId = context.getScopeId(descriptor.getScope());
+        if ((scopeId < 0) || (context.getScope(scopeId) == null))
+            throw new StepException("Unknown scope " + descriptor.getScope(),
+                                    this);
+        return (context.getScope(scopeId));
+
+    }
+
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>A node of the evaluator tree compiled from an expression by
+ * <code>ExpressionParser</code>.  Nodes whose result is a boolean
+ * override <code>test()</code>, so that conditions can be evaluated
+ * without creating <code>Boolean</code> objects.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+abstract class Expression {
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    /**
+     * Evaluate this expression in the specified Context, and return the
+     * resulting value.
+     *
+     * @param context Context in which to evaluate this expression (may be
+     *  <code>null</code> if <code>isConstant()</code> is true)
+     */
+    abstract Object evaluate(Context context);
+
+
+    /**
+     * Is the value of this expression the same in every Context?
+     */
+    boolean isConstant() {
+
+        return (false);
+
+    }
+
+
+    /**
+     * Evaluate this expression in the specified Context, and return
+     * <code>true</code> if the result is positive (as defined by
+     * <code>BaseDescriptor.positive()</code>).
+     *
+     * @param context Context in which to evaluate this expression
+     */
+    boolean test(Context context) {
+
+        return (BaseDescriptor.positive(evaluate(context)));
+
+    }
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Return the Boolean object for the specified value.
+     *
+     * @param value The value to be converted
+     */
+    static Boolean toBoolean(boolean value) {
+
+        return (value ? Boolean.TRUE : Boolean.FALSE);
+
+    }
+
+
+    /**
+     * Is the specified value an integral number?
+     *
+     * @param value The value to be checked
+     */
+    static boolean isIntegral(Object value) {
+
+        return ((value instanceof Integer) || (value instanceof Long) ||
+                (value instanceof Short) || (value instanceof Byte));
+
+    }
+
+
+    /**
+     * Convert the specified value to a Number if possible.  Strings are
+     * parsed as numbers, and Characters are converted to their character
+     * codes; anything else that is not a Number causes an exception.
+     *
+     * @param value The value to be converted
+     *
+     * @exception IllegalArgumentException if the value is not numeric
+     */
+    static Number toNumber(Object value) {
+
+        if (value instanceof Number)
+            return ((Number) value);
+        else if (value instanceof Character)
+            return (Long.valueOf(((Character) value).charValue()));
+        else if (value instanceof String) {
+            String s = ((String) value).trim();
+            try {
+                if ((s.indexOf('.') < 0) && (s.indexOf('e') < 0) &&
+                    (s.indexOf('E') < 0))
+                    return (Long.valueOf(s));
+                else
+                    return (Double.valueOf(s));
+            } catch (NumberFormatException e) {
+                ;
+            }
+        }
+        throw new IllegalArgumentException("Value '" + value +
+                                           "' is not a number");
+
+    }
+
+
+}
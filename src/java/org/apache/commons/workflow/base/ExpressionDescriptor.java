@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>Implementation of <strong>Descriptor</strong> whose value is the
+ * result of an expression, such as
+ * <code>order.total &gt;= 100 and not customer.blocked</code>.  The
+ * expression is compiled once, when it is set, into a tree of evaluators
+ * specialized by operator, so each call to <code>get()</code> or
+ * <code>positive()</code> walks that tree without parsing anything or
+ * consulting JXPath.  The expression language supports:</p>
+ * <ul>
+ * <li>Literals - numbers, quoted strings, <code>true</code>,
+ *     <code>false</code>, and <code>null</code>.</li>
+ * <li>Property paths - <code>name.property.property</code>, where the
+ *     first name is looked up in the scopes of the Context (or names a
+ *     scope), and each following name selects a Map key or a bean
+ *     property.</li>
+ * <li>Arithmetic - <code>+ - * / %</code>, and unary <code>-</code>.
+ *     Integral operands produce a Long, other numbers a Double, and
+ *     <code>+</code> with a String operand concatenates.</li>
+ * <li>Comparisons - <code>== != &lt; &lt;= &gt; &gt;=</code>, or
+ *     <code>eq ne lt le gt ge</code> to avoid escaping in XML.</li>
+ * <li>Boolean operators - <code>and</code> (<code>&amp;&amp;</code>),
+ *     <code>or</code> (<code>||</code>), and <code>not</code>
+ *     (<code>!</code>), evaluated with the same rules as
+ *     <code>positive()</code>.</li>
+ * </ul>
+ *
+ * <p>If the expression is a property path, <code>put()</code> stores a
+ * value at that path; any other expression is read only.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ExpressionDescriptor extends BaseDescriptor {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Create an instance with default values.
+     */
+    public ExpressionDescriptor() {
+
+        super();
+
+    }
+
+
+    /**
+     * Create an instance with the specified expression.
+     *
+     * @param expr The expression to be evaluated
+     *
+     * @exception IllegalArgumentException if the expression is not valid
+     */
+    public ExpressionDescriptor(String expr) {
+
+        super();
+        setExpr(expr);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The compiled form of our expression, recreated on demand after this
+     * Descriptor has been deserialized.
+     */
+    protected transient Expression compiled = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The source text of the expression evaluated by this Descriptor.
+     */
+    protected String expr = null;
+
+    public String getExpr() {
+
+        return (this.expr);
+
+    }
+
+    public void setExpr(String expr) {
+
+        this.compiled = (expr == null) ? null : ExpressionParser.compile(expr);
+        this.expr = expr;
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return the result of evaluating our expression against the specified
+     * Context.
+     *
+     * @param context Context against which to evaluate our expression
+     */
+    public Object get(Context context) {
+
+        return (compiled().evaluate(context));
+
+    }
+
+
+    /**
+     * Return <code>false</code>, because an expression never takes its value
+     * from the evaluation stack.
+     */
+    public boolean isPopped() {
+
+        return (false);
+
+    }
+
+
+    /**
+     * Return <code>true</code> if the result of evaluating our expression
+     * represents a positive result.  Comparisons and boolean operators
+     * answer this directly, without creating a <code>Boolean</code>.
+     *
+     * @param context Context against which to evaluate our expression
+     */
+    public boolean positive(Context context) {
+
+        return (compiled().test(context));
+
+    }
+
+
+    /**
+     * Store the specified value at the property path represented by our
+     * expression.
+     *
+     * @param context Context into which to store this value
+     * @param value Object value to be stored
+     *
+     * @exception IllegalStateException if our expression is not a
+     *  property path
+     */
+    public void put(Context context, Object value) {
+
+        Expression expression = compiled();
+        if (!(expression instanceof PathExpression))
+            throw new IllegalStateException("Cannot 'put' to expression '" +
+                                            expr + "'");
+        ((PathExpression) expression).put(context, value);
+
+    }
+
+
+    /**
+     * Remove the value at the property path represented by our expression.
+     * A path with more than one name is cleared by storing
+     * <code>null</code> there.
+     *
+     * @param context Context from which to remove this value
+     *
+     * @exception IllegalStateException if our expression is not a
+     *  property path
+     */
+    public void remove(Context context) {
+
+        Expression expression = compiled();
+        if (!(expression instanceof PathExpression))
+            throw new IllegalStateException("Cannot 'remove' expression '" +
+                                            expr + "'");
+        ((PathExpression) expression).remove(context);
+
+    }
+
+
+    /**
+     * Render a printable version of this object.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<descriptor expr=\"");
+        sb.append(expr);
+        sb.append("\"/>");
+        return (sb.toString());
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Return the compiled form of our expression, compiling it first if
+     * necessary.
+     *
+     * @exception IllegalStateException if no expression has been set
+     */
+    protected Expression compiled() {
+
+        Expression expression = compiled;
+        if (expression == null) {
+            if (expr == null)
+                throw new IllegalStateException("No expression specified");
+            expression = ExpressionParser.compile(expr);
+            compiled = expression;
+        }
+        return (expression);
+
+    }
+
+
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import java.util.ArrayList;
+
+
+/**
+ * <p>Recursive descent parser that compiles the source text of an
+ * expression into a tree of <code>Expression</code> nodes.  Subtrees whose
+ * operands are all literals are evaluated once, at compile time, and
+ * replaced by their result.  The grammar, in order of increasing
+ * precedence, is:</p>
+ * <pre>
+ *   or         := and { ("||" | "or") and }
+ *   and        := not { ("&amp;&amp;" | "and") not }
+ *   not        := ("!" | "not") not | compare
+ *   compare    := additive [ op additive ]
+ *                 where op is one of == != &lt; &lt;= &gt; &gt;=
+ *                 eq ne lt le gt ge
+ *   additive   := term { ("+" | "-") term }
+ *   term       := unary { ("*" | "/" | "%") unary }
+ *   unary      := "-" unary | primary
+ *   primary    := number | string | "true" | "false" | "null"
+ *                 | name { "." name } | "(" or ")"
+ * </pre>
+ *
+ * <p>Syntax errors are reported with an
+ * <code>IllegalArgumentException</code>.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class ExpressionParser {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a parser for the specified source text.
+     *
+     * @param source Source text of the expression
+     */
+    ExpressionParser(String source) {
+
+        super();
+        this.source = source;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The current position in the source text.
+     */
+    protected int pos = 0;
+
+
+    /**
+     * The source text being parsed.
+     */
+    protected String source = null;
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Compile the specified source text into an expression tree.
+     *
+     * @param source Source text of the expression
+     *
+     * @exception IllegalArgumentException if a syntax error is found
+     */
+    static Expression compile(String source) {
+
+        ExpressionParser parser = new ExpressionParser(source);
+        Expression result = parser.parseOr();
+        parser.skip();
+        if (parser.pos < source.length())
+            throw parser.error("Unexpected '" +
+                               source.charAt(parser.pos) + "'");
+        return (result);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    protected Expression parseOr() {
+
+        Expression result = parseAnd();
+        while (match("||") || keyword("or"))
+            result = fold(new LogicalExpression
+                (LogicalExpression.OR, result, parseAnd()));
+        return (result);
+
+    }
+
+
+    protected Expression parseAnd() {
+
+        Expression result = parseNot();
+        while (match("&&") || keyword("and"))
+            result = fold(new LogicalExpression
+                (LogicalExpression.AND, result, parseNot()));
+        return (result);
+
+    }
+
+
+    protected Expression parseNot() {
+
+        skip();
+        if ((!lookingAt("!=") && match("!")) || keyword("not"))
+            return (fold(new UnaryExpression
+                (UnaryExpression.NOT, parseNot())));
+        return (parseCompare());
+
+    }
+
+
+    protected Expression parseCompare() {
+
+        Expression left = parseAdditive();
+        int op = -1;
+        if (match("==") || keyword("eq"))
+            op = CompareExpression.EQ;
+        else if (match("!=") || keyword("ne"))
+            op = CompareExpression.NE;
+        else if (match("<=") || keyword("le"))
+            op = CompareExpression.LE;
+        else if (match("<") || keyword("lt"))
+            op = CompareExpression.LT;
+        else if (match(">=") || keyword("ge"))
+            op = CompareExpression.GE;
+        else if (match(">") || keyword("gt"))
+            op = CompareExpression.GT;
+        if (op < 0)
+            return (left);
+        return (fold(new CompareExpression(op, left, parseAdditive())));
+
+    }
+
+
+    protected Expression parseAdditive() {
+
+        Expression result = parseTerm();
+        while (true) {
+            if (match("+"))
+                result = fold(new ArithmeticExpression
+                    (ArithmeticExpression.ADD, result, parseTerm()));
+            else if (match("-"))
+                result = fold(new ArithmeticExpression
+                    (ArithmeticExpression.SUBTRACT, result, parseTerm()));
+            else
+                return (result);
+        }
+
+    }
+
+
+    protected Expression parseTerm() {
+
+        Expression result = parseUnary();
+        while (true) {
+            if (match("*"))
+                result = fold(new ArithmeticExpression
+                    (ArithmeticExpression.MULTIPLY, result, parseUnary()));
+            else if (match("/"))
+                result = fold(new ArithmeticExpression
+                    (ArithmeticExpression.DIVIDE, result, parseUnary()));
+            else if (match("%"))
+                result = fold(new ArithmeticExpression
+                    (ArithmeticExpression.REMAINDER, result, parseUnary()));
+            else
+                return (result);
+        }
+
+    }
+
+
+    protected Expression parseUnary() {
+
+        if (match("-"))
+            return (fold(new UnaryExpression
+                (UnaryExpression.NEGATE, parseUnary())));
+        return (parsePrimary());
+
+    }
+
+
+    protected Expression parsePrimary() {
+
+        skip();
+        if (pos >= source.length())
+            throw error("Unexpected end of expression");
+        char ch = source.charAt(pos);
+
+        // Parenthesized expression
+        if (ch == '(') {
+            pos++;
+            Expression result = parseOr();
+            if (!match(")"))
+                throw error("Missing ')'");
+            return (result);
+        }
+
+        // String literal
+        if ((ch == '\'') || (ch == '"')) {
+            StringBuffer sb = new StringBuffer();
+            pos++;
+            while (true) {
+                if (pos >= source.length())
+                    throw error("Unterminated string");
+                char c = source.charAt(pos++);
+                if (c == ch)
+                    break;
+                if ((c == '\\') && (pos < source.length()))
+                    c = source.charAt(pos++);
+                sb.append(c);
+            }
+            return (new LiteralExpression(sb.toString()));
+        }
+
+        // Numeric literal
+        if (Character.isDigit(ch)) {
+            int start = pos;
+            boolean real = false;
+            while ((pos < source.length()) &&
+                   (Character.isDigit(source.charAt(pos)) ||
+                    (source.charAt(pos) == '.'))) {
+                if (source.charAt(pos) == '.')
+                    real = true;
+                pos++;
+            }
+            String text = source.substring(start, pos);
+            try {
+                if (real)
+                    return (new LiteralExpression(Double.valueOf(text)));
+                else
+                    return (new LiteralExpression(Long.valueOf(text)));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("Invalid number '" + text + "'");
+            }
+        }
+
+        // Keyword literal or property path
+        if (!Character.isJavaIdentifierStart(ch))
+            throw error("Unexpected '" + ch + "'");
+        String name = identifier();
+        if ("true".equals(name))
+            return (new LiteralExpression(Boolean.TRUE));
+        else if ("false".equals(name))
+            return (new LiteralExpression(Boolean.FALSE));
+        else if ("null".equals(name))
+            return (new LiteralExpression(null));
+        ArrayList names = new ArrayList();
+        names.add(name);
+        while (match(".")) {
+            skip();
+            if ((pos >= source.length()) ||
+                !Character.isJavaIdentifierStart(source.charAt(pos)))
+                throw error("Missing property name");
+            names.add(identifier());
+        }
+        return (new PathExpression
+            ((String[]) names.toArray(new String[names.size()])));
+
+    }
+
+
+    /**
+     * Return an exception describing a syntax error at the current
+     * position.
+     *
+     * @param message Description of the error
+     */
+    protected IllegalArgumentException error(String message) {
+
+        return (new IllegalArgumentException(message + " at position " +
+                                             pos + " of '" + source + "'"));
+
+    }
+
+
+    /**
+     * If the specified expression is constant, evaluate it now and return
+     * a literal holding its value.  If evaluation fails, the expression is
+     * returned unchanged, so that the failure happens when (and if) it is
+     * evaluated at run time.
+     *
+     * @param expression Expression to be folded
+     */
+    protected Expression fold(Expression expression) {
+
+        if (!expression.isConstant())
+            return (expression);
+        try {
+            return (new LiteralExpression(expression.evaluate(null)));
+        } catch (RuntimeException e) {
+            return (expression);
+        }
+
+    }
+
+
+    /**
+     * Consume and return the identifier at the current position.
+     */
+    protected String identifier() {
+
+        int start = pos;
+        pos++;
+        while ((pos < source.length()) &&
+               Character.isJavaIdentifierPart(source.charAt(pos)))
+            pos++;
+        return (source.substring(start, pos));
+
+    }
+
+
+    /**
+     * If the word at the current position is the specified keyword, consume
+     * it and return <code>true</code>; otherwise return <code>false</code>.
+     *
+     * @param word The keyword to be matched
+     */
+    protected boolean keyword(String word) {
+
+        skip();
+        int end = pos + word.length();
+        if (!source.startsWith(word, pos))
+            return (false);
+        if ((end < source.length()) &&
+            Character.isJavaIdentifierPart(source.charAt(end)))
+            return (false);
+        pos = end;
+        return (true);
+
+    }
+
+
+    /**
+     * Return <code>true</code> if the source text at the current position
+     * starts with the specified token, without consuming it.
+     *
+     * @param token The token to be checked
+     */
+    protected boolean lookingAt(String token) {
+
+        skip();
+        return (source.startsWith(token, pos));
+
+    }
+
+
+    /**
+     * If the source text at the current position starts with the specified
+     * token, consume it and return <code>true</code>; otherwise return
+     * <code>false</code>.
+     *
+     * @param token The token to be matched
+     */
+    protected boolean match(String token) {
+
+        if (!lookingAt(token))
+            return (false);
+        pos += token.length();
+        return (true);
+
+    }
+
+
+    /**
+     * Skip any whitespace at the current position.
+     */
+    protected void skip() {
+
+        while ((pos < source.length()) &&
+               Character.isWhitespace(source.charAt(pos)))
+            pos++;
+
+    }
+
+
+}
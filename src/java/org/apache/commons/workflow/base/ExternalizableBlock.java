@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.workflow.base;
+
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.BlockState;
+
+
+/**
+ * <p>An <strong>ExternalizableBlock</strong> is a <code>Block</code> whose
+ * <code>BlockStates</code> are subclasses that record more than the
+ * <code>nest</code> property, and which therefore writes and reads them
+ * itself when a <code>BaseContext</code> is externalized.  A BaseContext
+ * refuses to write a BlockState of any other class than
+ * <code>BlockState</code> or <code>DeadlineState</code> unless its Block
+ * implements this interface.</p>
+ *
+ * <p>References to Steps must be written with
+ * <code>BaseContext.writeStep()</code> and read with
+ * <code>BaseContext.readStep()</code>, so that Activity definitions are
+ * not copied.  The BlockStates are read after the evaluation stack and the
+ * local scope of the Context have been restored.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public interface ExternalizableBlock extends Block {
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Read a BlockState of this Block, written by <code>writeState()</code>,
+     * for the specified Context.
+     *
+     * @param context The Context being restored
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored object
+     *  cannot be found
+     * @exception IOException if an input/output error occurs
+     */
+    public BlockState readState(BaseContext context, ObjectInput in)
+        throws IOException, ClassNotFoundException;
+
+
+    /**
+     * Write the specified BlockState of this Block, which is on the
+     * BlockState stack of the specified Context.
+     *
+     * @param context The Context being externalized
+     * @param state The BlockState to be written
+     * @param out Output to write to
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    public void writeState(BaseContext context, BlockState state,
+                           ObjectOutput out)
+        throws IOException;
+
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Owner;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+
+
+/**
+ * <p>A Step that executes a sequence of other Steps, in order, as a single
+ * Step.  Fused steps are created by <code>ActivityOptimizer</code> from
+ * runs of adjacent Steps that never transfer control, so that the whole
+ * run costs one dispatch (and one pair of <code>beforeStep()</code> and
+ * <code>afterStep()</code> events) rather than one for each Step.</p>
+ *
+ * <p>A fused step takes the identifier of its first Step, so that it can
+ * still be the target of a transfer of control.  If one of its Steps
+ * throws an exception, that Step is identified by the exception.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class FusedStep extends BaseStep {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a fused step for the specified sequence of Steps, which
+     * must not transfer control.
+     *
+     * @param steps The Steps to be executed, in order
+     */
+    public FusedStep(Step steps[]) {
+
+        super();
+        this.steps = steps;
+        setId(steps[0].getId());
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The Steps executed by this fused step.
+     */
+    protected Step steps[] = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Set the Owner of this Step, and of the Steps it executes.
+     *
+     * @param owner The new owning Activity or Block
+     */
+    public void setOwner(Owner owner) {
+
+        super.setOwner(owner);
+        for (int i = 0; i < steps.length; i++)
+            steps[i].setOwner(owner);
+
+    }
+
+
+    /**
+     * Return the Steps executed by this fused step.
+     */
+    public Step[] getSteps() {
+
+        return (this.steps);
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the executable actions related to this Step, in the context of
+     * the specified Context.
+     *
+     * @param context The Context that is tracking our execution state
+     *
+     * @exception StepException if a processing error has occurred
+     */
+    public void execute(Context context) throws StepException {
+
+        for (int i = 0; i < steps.length; i++)
+            steps[i].execute(context);
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < steps.length; i++)
+            sb.append(steps[i].toString());
+        return (sb.toString());
+
+    }
+
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.base;
+
+
+import java.io.InputStream;
+import java.net.URL;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.util.ActivityParser;
+
+
+/**
+ * <p><strong>LazyActivity</strong> is an <code>Activity</code> whose Steps
+ * are not built until they are first needed.  It is created knowing only
+ * its identifier and the URL of its definition (XML, or the binary form
+ * produced by <code>ActivityCompiler</code>); the definition is parsed the
+ * first time the Steps are accessed, which normally happens when a
+ * <code>Context</code> calls or selects this Activity.  Parsing happens
+ * only once, even if several threads need the Steps at the same time.</p>
+ *
+ * <p>Steps should not be added to a LazyActivity directly, because they
+ * are replaced by the Steps of its definition when that is parsed.  The
+ * Steps are moved to this LazyActivity (so that they belong to the
+ * instance that is registered), and so is the stack profile recorded by
+ * <code>ActivityVerifier</code>.  Everything else about the definition,
+ * such as the class named by its <code>className</code> attribute and the
+ * inputs and outputs of a <code>PureActivity</code>, stays with the parsed
+ * instance, which is returned by <code>getActivity()</code>.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class LazyActivity extends BaseActivity {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new instance for the specified definition.
+     *
+     * @param id Identifier of the Activity defined there
+     * @param url URL of the Activity definition
+     */
+    public LazyActivity(String id, URL url) {
+
+        super();
+        setId(id);
+        this.url = url;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The Activity parsed from our definition, once we have been
+     * materialized.
+     */
+    protected Activity activity = null;
+
+
+    /**
+     * Have the Steps of this Activity been built?
+     */
+    protected volatile boolean materialized = false;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Return the Activity parsed from our definition, materializing this
+     * Activity if necessary.  Its Steps have been moved to this
+     * LazyActivity.
+     */
+    public Activity getActivity() {
+
+        materialize();
+        return (this.activity);
+
+    }
+
+
+    /**
+     * Return the first Step associated with this Activity.
+     */
+    public Step getFirstStep() {
+
+        materialize();
+        return (super.getFirstStep());
+
+    }
+
+
+    /**
+     * Return the last Step associated with this Activity.
+     */
+    public Step getLastStep() {
+
+        materialize();
+        return (super.getLastStep());
+
+    }
+
+
+    /**
+     * Have the Steps of this Activity been built yet?
+     */
+    public boolean isMaterialized() {
+
+        return (this.materialized);
+
+    }
+
+
+    /**
+     * Should our Steps be rewritten by <code>ActivityOptimizer</code> when
+     * they are built?
+     */
+    protected boolean optimize = false;
+
+    public boolean getOptimize() {
+        return (this.optimize);
+    }
+
+    public void setOptimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+
+    /**
+     * The URL of the definition of this Activity.
+     */
+    protected URL url = null;
+
+    public URL getUrl() {
+        return (this.url);
+    }
+
+
+    // ---------------------------------------------------------- Owner Methods
+
+
+    /**
+     * Return the identified Step from this Activity, if it exists.
+     * Otherwise, return <code>null</code>.
+     *
+     * @param id Identifier of the desired Step
+     */
+    public Step findStep(String id) {
+
+        materialize();
+        return (super.findStep(id));
+
+    }
+
+
+    /**
+     * Return the set of Steps associated with this Activity.
+     */
+    public Step[] getSteps() {
+
+        materialize();
+        return (super.getSteps());
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Build the Steps of this Activity by parsing its definition, if that
+     * has not been done already.
+     *
+     * @exception IllegalStateException if the definition cannot be parsed,
+     *  or defines an Activity with a different identifier
+     */
+    public void materialize() {
+
+        if (materialized)
+            return;
+        synchronized (this) {
+            if (materialized)
+                return;
+
+            // Parse our definition
+            Activity activity = null;
+            InputStream stream = null;
+            try {
+                stream = url.openStream();
+                ActivityParser parser = new ActivityParser();
+                parser.setOptimize(optimize);
+                activity = parser.parse(stream);
+            } catch (Throwable t) {
+                throw new IllegalStateException
+                    ("Cannot parse activity " + getId() + " from " + url +
+                     ": " + t);
+            } finally {
+                if (stream != null) {
+                    try {
+                        stream.close();
+                    } catch (Throwable t) {
+                        ;
+                    }
+                }
+            }
+            if ((activity == null) ||
+                ((getId() != null) && !getId().equals(activity.getId())))
+                throw new IllegalStateException
+                    ("Definition " + url + " no longer defines activity " +
+                     getId());
+
+            // Take ownership of its Steps and stack profile
+            StackProfile profile = null;
+            if (activity instanceof BaseActivity)
+                profile = ((BaseActivity) activity).getProfile();
+            Step steps[] = activity.getSteps();
+            activity.clearSteps();
+            clearSteps();
+            for (int i = 0; i < steps.length; i++)
+                addStep(steps[i]);
+            setProfile(profile);
+            this.activity = activity;
+            materialized = true;
+        }
+
+    }
+
+
+}
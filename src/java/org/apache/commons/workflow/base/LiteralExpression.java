@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>A literal value in a compiled expression, or the folded value of a
+ * constant subexpression.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class LiteralExpression extends Expression {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new literal with the specified value.
+     *
+     * @param value The literal value
+     */
+    LiteralExpression(Object value) {
+
+        super();
+        this.value = value;
+        this.positive = BaseDescriptor.positive(value);
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * Is our value positive?
+     */
+    protected boolean positive = false;
+
+
+    /**
+     * The literal value.
+     */
+    protected Object value = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Object evaluate(Context context) {
+
+        return (value);
+
+    }
+
+
+    boolean isConstant() {
+
+        return (true);
+
+    }
+
+
+    boolean test(Context context) {
+
+        return (positive);
+
+    }
+
+
+}
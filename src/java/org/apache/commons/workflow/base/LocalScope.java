@@ -0,0 +1,577 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.base;
+
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.jxpath.JXPathIntrospector;
+import org.apache.commons.jxpath.MapDynamicPropertyHandler;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.ScopeListener;
+import org.apache.commons.workflow.util.ScopeSupport;
+
+
+/**
+ * <strong>LocalScope</strong> is the <code>Scope</code> implementation used
+ * for the "local" scope of a <code>BaseContext</code>, which is read and
+ * written by nearly every <code>Step</code>.  Instead of a HashMap, its
+ * beans are kept in parallel arrays searched by linear probing, so that no
+ * entry objects are created, and <code>put()</code> finds the previous
+ * bean (and so the event to be fired) in a single probe.  Keys are interned
+ * when they are added, so a lookup with a literal or otherwise interned
+ * String usually matches by identity without calling
+ * <code>equals()</code>.  <code>clear()</code> empties the arrays without
+ * reallocating them.
+ *
+ * <p>The collection views (<code>entrySet()</code>, <code>keySet()</code>
+ * and <code>values()</code>) are snapshots, which do not change as this
+ * Scope changes.</p>
+ *
+ * <p><strong>WARNING</strong> - No synchronization is performed within this
+ * class.  If it is used in a multiple thread environment, callers must
+ * take suitable precations.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class LocalScope implements Scope {
+
+
+    // -------------------------------------------------- Static Initialization
+
+
+    /**
+     * Register ourselves with JXPathIntrospector as an instance of a
+     * dynamic class (in JXPath terminology).
+     */
+    static {
+        JXPathIntrospector.registerDynamicClass
+            (LocalScope.class, MapDynamicPropertyHandler.class);
+    }
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new LocalScope with the default initial capacity.
+     */
+    public LocalScope() {
+
+        this(DEFAULT_CAPACITY);
+
+    }
+
+
+    /**
+     * Construct a new LocalScope with room for at least the specified
+     * number of beans before its table must grow.
+     *
+     * @param capacity The expected number of beans
+     */
+    public LocalScope(int capacity) {
+
+        super();
+        int n = 4;
+        while (n < (capacity * 2))
+            n <<= 1;
+        allocate(n);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The default number of beans a new LocalScope can hold before its
+     * table must grow.
+     */
+    public static final int DEFAULT_CAPACITY = 8;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The hash codes of the keys in each slot of our table.
+     */
+    protected int hashes[] = null;
+
+
+    /**
+     * The interned key in each slot of our table, or <code>null</code> for
+     * an empty slot.
+     */
+    protected String keys[] = null;
+
+
+    /**
+     * The number of beans in our table.  This is kept to no more than half
+     * the length of the table, so probe sequences stay short.
+     */
+    protected int size = 0;
+
+
+    /**
+     * The event listener support object for this <code>Scope</code>.
+     */
+    protected ScopeSupport support = new ScopeSupport(this);
+
+
+    /**
+     * The bean in each slot of our table.
+     */
+    protected Object values[] = null;
+
+
+    // ------------------------------------------------------------ Map Methods
+
+
+    /**
+     * Remove all beans from this Map and call <code>scopeCleared() on
+     * all registered <code>ScopeListeners</code>, with the removed beans.
+     */
+    public void clear() {
+
+        HashMap beans = null;
+        if (support.hasListeners()) {
+            beans = new HashMap();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null)
+                    beans.put(keys[i], values[i]);
+            }
+        }
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+        support.fireScopeCleared(beans);
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public boolean containsKey(Object key) {
+
+        return ((key != null) && (find((String) key) >= 0));
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified value.
+     *
+     * @param value Value to be looked up
+     */
+    public boolean containsValue(Object value) {
+
+        if (value == null)
+            return (false);
+        for (int i = 0; i < values.length; i++) {
+            if ((keys[i] != null) && value.equals(values[i]))
+                return (true);
+        }
+        return (false);
+
+    }
+
+
+    /**
+     * Return a snapshot of the mappings contained in this map.
+     */
+    public Set entrySet() {
+
+        return (snapshot().entrySet());
+
+    }
+
+
+    /**
+     * Compare the specified object with this map for equality.
+     *
+     * @param object Object to be compared
+     */
+    public boolean equals(Object object) {
+
+        return (snapshot().equals(object));
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(Object key) {
+
+        return (get((String) key));
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(String key) {
+
+        if (key == null)
+            return (null);
+        int i = find(key);
+        if (i < 0)
+            return (null);
+        return (values[i]);
+
+    }
+
+
+    /**
+     * Return the hash code value for this map.
+     */
+    public int hashCode() {
+
+        int h = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null)
+                h += hashes[i] ^ values[i].hashCode();
+        }
+        return (h);
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map is empty.
+     */
+    public boolean isEmpty() {
+
+        return (size == 0);
+
+    }
+
+
+    /**
+     * Return a snapshot of the keys contained in this map.
+     */
+    public Set keySet() {
+
+        return (snapshot().keySet());
+
+    }
+
+
+    /**
+     * Add or replace the bean associated with the specified key.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     */
+    public Object put(Object key, Object bean) {
+
+        return (put((String) key, bean));
+
+    }
+
+
+    /**
+     * Add the specified bean, associated with the specified key, to this
+     * scope and replace any previous bean associated with this key.  If
+     * the bean was added, call <code>beanAdded()</code> on all registered
+     * listeners after the add is done.  If an old bean was replaced,
+     * call <code>beanReplaced()</code> (passing the old value in the event)
+     * on all registered <code>ScopeListeners</code> after the removal
+     * is done.  If a bean was replaced, the old value is also returned;
+     * otherwise <code>null</code> is returned.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     *
+     * @exception IllegalArgumentException if <code>key</code> or
+     *  <code>bean</code> is null
+     */
+    public Object put(String key, Object bean) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        if (bean == null)
+            throw new IllegalArgumentException("Value cannot be null");
+
+        int i = find(key);
+        if (i >= 0) {
+            Object old = values[i];
+            values[i] = bean;
+            support.fireBeanReplaced(key, old);
+            return (old);
+        }
+        i = -(i + 1);
+        keys[i] = key.intern();
+        hashes[i] = key.hashCode();
+        values[i] = bean;
+        if (++size * 2 > keys.length)
+            grow();
+        support.fireBeanAdded(key, bean);
+        return (null);
+
+    }
+
+
+    /**
+     * Copy all of the mappings from the specified map into this map,
+     * firing appropriate <code>beanAdded()</code> and
+     * <code>beanReplaced()</code> events along the way.
+     *
+     * @param in Map whose contents are to be added
+     */
+    public void putAll(Map in) {
+
+        Iterator keys = in.keySet().iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            put(key, in.get(key));
+        }
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any), and return
+     * the old value if removed.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     */
+    public Object remove(Object key) {
+
+        return (remove((String) key));
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any).  If such
+     * a bean is found and removed, call <code>beanRemoved()</code> on all
+     * registered <code>ScopeListeners</code> after the removal is done.
+     * Return the old value (if any); otherwise return <code>null</code>.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     */
+    public Object remove(String key) {
+
+        if (key == null)
+            return (null);
+        int i = find(key);
+        if (i < 0)
+            return (null);
+        Object old = values[i];
+        String name = keys[i];
+        delete(i);
+        support.fireBeanRemoved(name, old);
+        return (old);
+
+    }
+
+
+    /**
+     * Return the number of key-value mappings in this map.
+     */
+    public int size() {
+
+        return (size);
+
+    }
+
+
+    /**
+     * Return a snapshot of the values contained in this map.
+     */
+    public Collection values() {
+
+        return (snapshot().values());
+
+    }
+
+
+    // ------------------------------------------------- Event Listener Methods
+
+
+    /**
+     * Add a listener that is notified each time beans are added,
+     * replaced, or removed in this scope.
+     *
+     * @param listener The ScopeListener to be added
+     */
+    public void addScopeListener(ScopeListener listener) {
+
+        support.addScopeListener(listener);
+
+    }
+
+
+    /**
+     * Remove a listener that is notified each time beans are added,
+     * replaced, or removed in this scope.
+     *
+     * @param listener The ScopeListener to be removed
+     */
+    public void removeScopeListener(ScopeListener listener) {
+
+        support.removeScopeListener(listener);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Allocate empty arrays for a table with the specified number of slots,
+     * which must be a power of two.
+     *
+     * @param length The number of slots
+     */
+    protected void allocate(int length) {
+
+        hashes = new int[length];
+        keys = new String[length];
+        values = new Object[length];
+
+    }
+
+
+    /**
+     * Empty the specified slot of our table, moving any later beans in
+     * the same probe sequence back so that they can still be found.
+     *
+     * @param i The slot to be emptied
+     */
+    protected void delete(int i) {
+
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null)
+                break;
+            int home = slot(hashes[j]);
+            boolean stay = (i <= j) ? ((i < home) && (home <= j))
+                : ((i < home) || (home <= j));
+            if (stay)
+                continue;
+            hashes[i] = hashes[j];
+            keys[i] = keys[j];
+            values[i] = values[j];
+            i = j;
+        }
+        keys[i] = null;
+        values[i] = null;
+        size--;
+
+    }
+
+
+    /**
+     * Return the slot holding the specified key, or if it is not present,
+     * <code>-(slot + 1)</code> where <code>slot</code> is the empty slot in
+     * which it would be added.
+     *
+     * @param key The key to be located (cannot be null)
+     */
+    protected int find(String key) {
+
+        int h = key.hashCode();
+        int mask = keys.length - 1;
+        int i = slot(h);
+        while (true) {
+            String k = keys[i];
+            if (k == null)
+                return (-(i + 1));
+            if ((k == key) || ((hashes[i] == h) && k.equals(key)))
+                return (i);
+            i = (i + 1) & mask;
+        }
+
+    }
+
+
+    /**
+     * Double the size of our table, moving each bean to its new slot.
+     */
+    protected void grow() {
+
+        int oldHashes[] = hashes;
+        String oldKeys[] = keys;
+        Object oldValues[] = values;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int j = slot(oldHashes[i]);
+            while (keys[j] != null)
+                j = (j + 1) & mask;
+            hashes[j] = oldHashes[i];
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+
+    }
+
+
+    /**
+     * Return the home slot for a key with the specified hash code.
+     *
+     * @param h The hash code of the key
+     */
+    protected int slot(int h) {
+
+        h ^= (h >>> 16);
+        return (h & (keys.length - 1));
+
+    }
+
+
+    /**
+     * Return a new HashMap containing the mappings in this map.
+     */
+    protected HashMap snapshot() {
+
+        HashMap map = new HashMap();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null)
+                map.put(keys[i], values[i]);
+        }
+        return (map);
+
+    }
+
+
+}
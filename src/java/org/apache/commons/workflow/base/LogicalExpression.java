@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>A logical "and" or "or" in a compiled expression, which evaluates
+ * its right operand only if it is needed.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class LogicalExpression extends Expression {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    static final int AND = 0;
+
+    static final int OR = 1;
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new logical expression.
+     *
+     * @param op The operator (<code>AND</code> or <code>OR</code>)
+     * @param left The left operand
+     * @param right The right operand
+     */
+    LogicalExpression(int op, Expression left, Expression right) {
+
+        super();
+        this.op = op;
+        this.left = left;
+        this.right = right;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The left operand.
+     */
+    protected Expression left = null;
+
+
+    /**
+     * The operator.
+     */
+    protected int op = AND;
+
+
+    /**
+     * The right operand.
+     */
+    protected Expression right = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Object evaluate(Context context) {
+
+        return (toBoolean(test(context)));
+
+    }
+
+
+    boolean isConstant() {
+
+        return (left.isConstant() && right.isConstant());
+
+    }
+
+
+    boolean test(Context context) {
+
+        if (op == AND)
+            return (left.test(context) && right.test(context));
+        else
+            return (left.test(context) || right.test(context));
+
+    }
+
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Map;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MethodUtils;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>A property path in a compiled expression, such as
+ * <code>session.user.name</code>.  The first name is looked up in the
+ * scopes of the Context (so a scope name, which is registered in the local
+ * scope, selects that scope), and each following name selects a key of a
+ * Map or a property of a bean.  If any value along the path is
+ * <code>null</code>, the result is <code>null</code>.</p>
+ *
+ * <p>The read method found for each bean property along the path is kept,
+ * and is invoked directly for any later bean that is an instance of the
+ * class declaring it, so that the property is only looked up again when
+ * the path is evaluated against beans of an unrelated class.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class PathExpression extends Expression {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new path expression.
+     *
+     * @param names The names making up the path
+     */
+    PathExpression(String names[]) {
+
+        super();
+        this.names = names;
+        this.readers = new Method[names.length];
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The arguments passed to a read method.
+     */
+    private static final Object NO_ARGUMENTS[] = new Object[0];
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The names making up this path.
+     */
+    protected String names[] = null;
+
+
+    /**
+     * The read method most recently used for each name of this path that
+     * selected a bean property, if any.
+     */
+    protected Method readers[] = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Object evaluate(Context context) {
+
+        Object value = context.get(names[0]);
+        for (int i = 1; i < names.length; i++) {
+            if (value == null)
+                return (null);
+            value = property(value, i);
+        }
+        return (value);
+
+    }
+
+
+    /**
+     * Store the specified value at this path in the specified Context.
+     *
+     * @param context Context into which to store the value
+     * @param value Value to be stored
+     *
+     * @exception IllegalArgumentException if a value along the path is
+     *  <code>null</code>, or the property cannot be set
+     */
+    void put(Context context, Object value) {
+
+        if (names.length == 1) {
+            context.put(names[0], value);
+            return;
+        }
+        Object parent = context.get(names[0]);
+        for (int i = 1; i < names.length - 1; i++) {
+            if (parent == null)
+                break;
+            parent = property(parent, i);
+        }
+        if (parent == null)
+            throw new IllegalArgumentException("Cannot store into '" +
+                                               this + "': null value");
+        String name = names[names.length - 1];
+        if (parent instanceof Map) {
+            ((Map) parent).put(name, value);
+            return;
+        }
+        try {
+            PropertyUtils.setSimpleProperty(parent, name, value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot store into '" +
+                                               this + "': " + e);
+        }
+
+    }
+
+
+    /**
+     * Remove the value at this path from the specified Context.  A path with
+     * a single name removes that name from the scopes of the Context;
+     * otherwise <code>null</code> is stored at this path.
+     *
+     * @param context Context from which to remove the value
+     *
+     * @exception IllegalArgumentException if the value cannot be removed
+     */
+    void remove(Context context) {
+
+        if (names.length == 1)
+            context.remove(names[0]);
+        else
+            put(context, null);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Return the value of the property selected by the specified name of
+     * this path from the specified value.
+     *
+     * @param value The Map or bean whose property is requested
+     * @param index Index of the name of the property in this path
+     *
+     * @exception IllegalArgumentException if the property cannot be read
+     */
+    protected Object property(Object value, int index) {
+
+        if (value instanceof Map)
+            return (((Map) value).get(names[index]));
+        try {
+            if (value instanceof DynaBean)
+                return (PropertyUtils.getSimpleProperty(value, names[index]));
+            Method reader = readers[index];
+            if ((reader == null) ||
+                !reader.getDeclaringClass().isInstance(value)) {
+                reader = reader(value, index);
+                readers[index] = reader;
+            }
+            return (reader.invoke(value, NO_ARGUMENTS));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot evaluate '" + this +
+                                               "': " + e);
+        }
+
+    }
+
+
+    /**
+     * Look up the accessible read method of the property selected by the
+     * specified name of this path for the specified bean.
+     *
+     * @param value The bean whose property is requested
+     * @param index Index of the name of the property in this path
+     *
+     * @exception Exception if the bean has no readable property of that
+     *  name, or it cannot be introspected
+     */
+    protected Method reader(Object value, int index) throws Exception {
+
+        PropertyDescriptor descriptor =
+            PropertyUtils.getPropertyDescriptor(value, names[index]);
+        Method method = null;
+        if ((descriptor != null) && (descriptor.getReadMethod() != null))
+            method = MethodUtils.getAccessibleMethod
+                (descriptor.getReadMethod());
+        if (method == null)
+            throw new NoSuchMethodException("Property '" + names[index] +
+                                            "' has no getter method");
+        return (method);
+
+    }
+
+
+    /**
+     * Render this path.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer(names[0]);
+        for (int i = 1; i < names.length; i++) {
+            sb.append('.');
+            sb.append(names[i]);
+        }
+        return (sb.toString());
+
+    }
+
+
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.Descriptors;
+import org.apache.commons.workflow.util.ExpiringCache;
+
+
+/**
+ * <p><strong>PureActivity</strong> is an Activity whose results depend only
+ * on its declared inputs, so that the results of calling it may be cached
+ * and reused.  The inputs are the values of its <code>Descriptors</code>,
+ * evaluated in the calling <code>Context</code>; the results are the beans
+ * stored under its output keys, and the items it leaves on the evaluation
+ * stack, when it returns.  A <code>core:callCached</code> Step that finds a
+ * cached result for the current inputs stores those beans in the local
+ * scope and pushes those items instead of calling the Activity at all.  A
+ * call that pops more items from the evaluation stack than it pushes
+ * (beyond its inputs) is not cached.</p>
+ *
+ * <p>Results are cached by this Activity itself, and are therefore shared
+ * by every Context that calls it.  The cache holds at most
+ * <code>maxEntries</code> results, and each result expires
+ * <code>ttl</code> milliseconds after it was stored (or never, if
+ * <code>ttl</code> is zero).  Input values are compared with
+ * <code>equals()</code>.  Strings, primitive wrappers,
+ * <code>BigInteger</code> and <code>BigDecimal</code> values are used as
+ * they are; any other <code>Serializable</code> input value is copied by
+ * serialization, so that later changes to it cannot alter a cached key.
+ * A call with an input value that is neither is not cached.</p>
+ *
+ * <p>The cached results are not copied: a cache hit stores the very same
+ * objects in the local scope (or on the evaluation stack) of every Context
+ * that reuses the result, including Contexts of other users or sessions.
+ * Results should therefore be immutable, or be copied by the caller before
+ * they are changed.</p>
+ *
+ * <p>When the definition of a PureActivity is registered as a
+ * <code>LazyActivity</code>, the inputs, outputs and cache belong to the
+ * parsed instance that the LazyActivity delegates to, which is returned by
+ * <code>getPureActivity()</code>.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class PureActivity extends BaseActivity implements Descriptors {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The cache of results, keyed by the list of input values, created
+     * when first needed.  Each result is an array holding the array of
+     * output beans and the array of evaluation stack items (bottom first).
+     */
+    protected transient ExpiringCache cache = null;
+
+
+    /**
+     * The Descriptors of our inputs.
+     */
+    protected ArrayList descriptors = new ArrayList();
+
+
+    /**
+     * The output keys, parsed from the <code>outputs</code> property.
+     */
+    protected String keys[] = new String[0];
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The maximum number of results held in our cache.
+     */
+    protected int maxEntries = ExpiringCache.DEFAULT_MAX_ENTRIES;
+
+    public int getMaxEntries() {
+        return (this.maxEntries);
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        if (cache != null)
+            cache.setMaxEntries(maxEntries);
+    }
+
+
+    /**
+     * The comma-separated keys of the beans that are our results.
+     */
+    protected String outputs = "";
+
+    public String getOutputs() {
+        return (this.outputs);
+    }
+
+    public void setOutputs(String outputs) {
+        ArrayList list = new ArrayList();
+        int start = 0;
+        while (start <= outputs.length()) {
+            int end = outputs.indexOf(',', start);
+            if (end < 0)
+                end = outputs.length();
+            String key = outputs.substring(start, end).trim();
+            if (key.length() > 0)
+                list.add(key);
+            start = end + 1;
+        }
+        this.keys = (String[]) list.toArray(new String[list.size()]);
+        this.outputs = outputs;
+    }
+
+
+    /**
+     * The number of milliseconds a cached result remains valid, or zero
+     * if results never expire.
+     */
+    protected long ttl = 0L;
+
+    public long getTtl() {
+        return (this.ttl);
+    }
+
+    public synchronized void setTtl(long ttl) {
+        this.ttl = ttl;
+        if (cache != null)
+            cache.setTtl(ttl);
+    }
+
+
+    // ---------------------------------------------------- Descriptors Methods
+
+
+    /**
+     * Add a new <code>Descriptor</code> to the set of our inputs.
+     *
+     * @param descriptor The Descriptor to be added
+     */
+    public void addDescriptor(Descriptor descriptor) {
+
+        descriptors.add(descriptor);
+
+    }
+
+
+    /**
+     * Return the set of <code>Descriptor</code> objects describing our
+     * inputs, in the order that they were originally added.
+     */
+    public Descriptor[] findDescriptors() {
+
+        Descriptor results[] = new Descriptor[descriptors.size()];
+        return ((Descriptor[]) descriptors.toArray(results));
+
+    }
+
+
+    /**
+     * Remove an existing <code>Descriptor</code> from the set of our
+     * inputs.
+     *
+     * @param descriptor The Descriptor to be removed
+     */
+    public void removeDescriptor(Descriptor descriptor) {
+
+        descriptors.remove(descriptor);
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return the cache of our results, creating it if necessary.
+     */
+    public synchronized ExpiringCache getCache() {
+
+        if (cache == null)
+            cache = new ExpiringCache(maxEntries, ttl);
+        return (cache);
+
+    }
+
+
+    /**
+     * Return the key identifying our results for the current values of
+     * our inputs in the specified Context, or <code>null</code> if some
+     * input value can be neither shared nor copied, so that the results
+     * cannot be cached.  Inputs taken from the evaluation stack are
+     * popped.
+     *
+     * @param context The calling Context
+     */
+    public Object getKey(Context context) {
+
+        ArrayList key = new ArrayList(descriptors.size());
+        boolean cacheable = true;
+        for (int i = 0; i < descriptors.size(); i++) {
+            Object value = ((Descriptor) descriptors.get(i)).get(context);
+            if (cacheable && !isImmutable(value)) {
+                value = copy(value);
+                cacheable = (value != null);
+            }
+            key.add(value);
+        }
+        return (cacheable ? key : null);
+
+    }
+
+
+    /**
+     * Store the cached results for the specified key (if any) in the local
+     * scope of the specified Context, push the cached evaluation stack
+     * items, and return <code>true</code>.  If no unexpired results are
+     * cached, return <code>false</code>.
+     *
+     * @param context The calling Context
+     * @param key Key returned by <code>getKey()</code>
+     */
+    public boolean restore(Context context, Object key) {
+
+        Object result[] = (Object[]) getCache().get(key);
+        if (result == null)
+            return (false);
+        Object values[] = (Object[]) result[0];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null)
+                context.remove(keys[i]);
+            else
+                context.put(keys[i], values[i]);
+        }
+        Object items[] = (Object[]) result[1];
+        for (int i = 0; i < items.length; i++)
+            context.push(items[i]);
+        return (true);
+
+    }
+
+
+    /**
+     * Cache the results of a call that has just returned to the specified
+     * Context, under the specified key: our output beans, and the
+     * specified number of items the call left on top of the evaluation
+     * stack.
+     *
+     * @param context The calling Context
+     * @param key Key returned by <code>getKey()</code> before the call
+     * @param count Number of evaluation stack items left by the call
+     */
+    public void store(Context context, Object key, int count) {
+
+        Object values[] = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            values[i] = context.get(keys[i]);
+        Object items[] = new Object[count];
+        for (int i = count - 1; i >= 0; i--)
+            items[i] = context.pop();
+        for (int i = 0; i < count; i++)
+            context.push(items[i]);
+        getCache().put(key, new Object[] { values, items });
+
+    }
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Return a copy of the specified input value made by serialization, or
+     * <code>null</code> if it cannot be copied.
+     *
+     * @param value The value to be copied
+     */
+    protected static Object copy(Object value) {
+
+        if (!(value instanceof Serializable))
+            return (null);
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(baos);
+            oos.writeObject(value);
+            oos.close();
+            ObjectInputStream ois = new ObjectInputStream
+                (new ByteArrayInputStream(baos.toByteArray()));
+            Object result = ois.readObject();
+            ois.close();
+            return (result);
+        } catch (Exception e) {
+            return (null);
+        }
+
+    }
+
+
+    /**
+     * Return the PureActivity that holds the inputs, outputs and cache of
+     * the specified Activity: the Activity itself if it is a PureActivity,
+     * or the parsed instance of a <code>LazyActivity</code> whose definition
+     * is a PureActivity.  Otherwise, return <code>null</code>.
+     *
+     * @param activity The Activity to be examined
+     */
+    public static PureActivity getPureActivity(Activity activity) {
+
+        if (activity instanceof PureActivity)
+            return ((PureActivity) activity);
+        if (activity instanceof LazyActivity) {
+            Activity parsed = ((LazyActivity) activity).getActivity();
+            if (parsed instanceof PureActivity)
+                return ((PureActivity) parsed);
+        }
+        return (null);
+
+    }
+
+
+    /**
+     * Can the specified input value be used in a key as it is, because it
+     * cannot change?
+     *
+     * @param value The value to be examined
+     */
+    protected static boolean isImmutable(Object value) {
+
+        return ((value == null) || (value instanceof String) ||
+                (value instanceof Boolean) || (value instanceof Character) ||
+                (value instanceof Byte) || (value instanceof Short) ||
+                (value instanceof Integer) || (value instanceof Long) ||
+                (value instanceof Float) || (value instanceof Double) ||
+                (value.getClass() == BigInteger.class) ||
+                (value.getClass() == BigDecimal.class));
+
+    }
+
+
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.base;
+
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.jxpath.JXPathIntrospector;
+import org.apache.commons.jxpath.MapDynamicPropertyHandler;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.ScopeListener;
+import org.apache.commons.workflow.util.PersistentMap;
+import org.apache.commons.workflow.util.ScopeSupport;
+
+
+/**
+ * <strong>SnapshotScope</strong> is a <code>Scope</code> implementation
+ * whose beans are kept in an immutable <code>PersistentMap</code>, which is
+ * replaced on every change.  Because versions of that map share structure,
+ * <code>snapshot()</code> and <code>fork()</code> take constant time: a
+ * snapshot can later be restored with <code>rollback()</code>, and a
+ * forked Scope starts with the same beans as this one without copying
+ * them, after which changes to either are invisible to the other.  This
+ * makes it suitable as the local scope of child contexts, parallel
+ * branches, and speculative runs that may have to be undone.
+ *
+ * <p>The collection views (<code>entrySet()</code>, <code>keySet()</code>
+ * and <code>values()</code>) are snapshots, which do not change as this
+ * Scope changes.</p>
+ *
+ * <p><strong>WARNING</strong> - No synchronization is performed within this
+ * class.  If it is used in a multiple thread environment, callers must
+ * take suitable precations.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class SnapshotScope implements Scope {
+
+
+    // -------------------------------------------------- Static Initialization
+
+
+    /**
+     * Register ourselves with JXPathIntrospector as an instance of a
+     * dynamic class (in JXPath terminology).
+     */
+    static {
+        JXPathIntrospector.registerDynamicClass
+            (SnapshotScope.class, MapDynamicPropertyHandler.class);
+    }
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new, empty SnapshotScope.
+     */
+    public SnapshotScope() {
+
+        this(PersistentMap.EMPTY);
+
+    }
+
+
+    /**
+     * Construct a new SnapshotScope containing the beans in the specified
+     * snapshot.
+     *
+     * @param map The snapshot to start from
+     */
+    public SnapshotScope(PersistentMap map) {
+
+        super();
+        this.map = map;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The current version of our registered keys and beans.
+     */
+    protected PersistentMap map = null;
+
+
+    /**
+     * The event listener support object for this <code>Scope</code>.
+     */
+    protected ScopeSupport support = new ScopeSupport(this);
+
+
+    // ------------------------------------------------------------ Map Methods
+
+
+    /**
+     * Remove all beans from this Map and call <code>scopeCleared() on
+     * all registered <code>ScopeListeners</code>, with the removed beans.
+     */
+    public void clear() {
+
+        PersistentMap beans = map;
+        map = PersistentMap.EMPTY;
+        if (support.hasListeners())
+            support.fireScopeCleared(beans.toMap());
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public boolean containsKey(Object key) {
+
+        return (map.containsKey((String) key));
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified value.
+     *
+     * @param value Value to be looked up
+     */
+    public boolean containsValue(Object value) {
+
+        return (map.toMap().containsValue(value));
+
+    }
+
+
+    /**
+     * Return a snapshot of the mappings contained in this map.
+     */
+    public Set entrySet() {
+
+        return (map.toMap().entrySet());
+
+    }
+
+
+    /**
+     * Compare the specified object with this map for equality.
+     *
+     * @param object Object to be compared
+     */
+    public boolean equals(Object object) {
+
+        return (map.toMap().equals(object));
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(Object key) {
+
+        return (get((String) key));
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(String key) {
+
+        return (map.get(key));
+
+    }
+
+
+    /**
+     * Return the hash code value for this map.
+     */
+    public int hashCode() {
+
+        return (map.toMap().hashCode());
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map is empty.
+     */
+    public boolean isEmpty() {
+
+        return (map.isEmpty());
+
+    }
+
+
+    /**
+     * Return a snapshot of the keys contained in this map.
+     */
+    public Set keySet() {
+
+        return (map.toMap().keySet());
+
+    }
+
+
+    /**
+     * Add or replace the bean associated with the specified key.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     */
+    public Object put(Object key, Object bean) {
+
+        return (put((String) key, bean));
+
+    }
+
+
+    /**
+     * Add the specified bean, associated with the specified key, to this
+     * scope and replace any previous bean associated with this key.  If
+     * the bean was added, call <code>beanAdded()</code> on all registered
+     * listeners after the add is done.  If an old bean was replaced,
+     * call <code>beanReplaced()</code> (passing the old value in the event)
+     * on all registered <code>ScopeListeners</code> after the removal
+     * is done.  If a bean was replaced, the old value is also returned;
+     * otherwise <code>null</code> is returned.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     *
+     * @exception IllegalArgumentException if <code>key</code> or
+     *  <code>bean</code> is null
+     */
+    public Object put(String key, Object bean) {
+
+        Object old = map.get(key);
+        map = map.put(key, bean);
+        if (old == null)
+            support.fireBeanAdded(key, bean);
+        else
+            support.fireBeanReplaced(key, old);
+        return (old);
+
+    }
+
+
+    /**
+     * Copy all of the mappings from the specified map into this map,
+     * firing appropriate <code>beanAdded()</code> and
+     * <code>beanReplaced()</code> events along the way.
+     *
+     * @param in Map whose contents are to be added
+     */
+    public void putAll(Map in) {
+
+        Iterator keys = in.keySet().iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            put(key, in.get(key));
+        }
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any), and return
+     * the old value if removed.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     */
+    public Object remove(Object key) {
+
+        return (remove((String) key));
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any).  If such
+     * a bean is found and removed, call <code>beanRemoved()</code> on all
+     * registered <code>ScopeListeners</code> after the removal is done.
+     * Return the old value (if any); otherwise return <code>null</code>.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     */
+    public Object remove(String key) {
+
+        Object old = map.get(key);
+        if (old == null)
+            return (null);
+        map = map.remove(key);
+        support.fireBeanRemoved(key, old);
+        return (old);
+
+    }
+
+
+    /**
+     * Return the number of key-value mappings in this map.
+     */
+    public int size() {
+
+        return (map.size());
+
+    }
+
+
+    /**
+     * Return a snapshot of the values contained in this map.
+     */
+    public Collection values() {
+
+        return (map.toMap().values());
+
+    }
+
+
+    // ------------------------------------------------------- Snapshot Methods
+
+
+    /**
+     * Return a new SnapshotScope that starts with the same beans as this
+     * one, but with no registered listeners.  Later changes to either
+     * Scope are not visible in the other.
+     */
+    public SnapshotScope fork() {
+
+        return (new SnapshotScope(map));
+
+    }
+
+
+    /**
+     * Replace the beans in this Scope with those in the specified snapshot,
+     * previously returned by <code>snapshot()</code>.  If any listeners
+     * are registered, they are sent <code>beanAdded()</code>,
+     * <code>beanReplaced()</code> and <code>beanRemoved()</code> events
+     * for each bean that differs, which takes time proportional to the
+     * number of beans; otherwise this takes constant time.
+     *
+     * @param snapshot The snapshot to be restored
+     *
+     * @exception IllegalArgumentException if <code>snapshot</code>
+     *  is null
+     */
+    public void rollback(PersistentMap snapshot) {
+
+        if (snapshot == null)
+            throw new IllegalArgumentException("Snapshot cannot be null");
+        PersistentMap old = map;
+        map = snapshot;
+        if ((old == snapshot) || !support.hasListeners())
+            return;
+
+        HashMap before = old.toMap();
+        HashMap after = snapshot.toMap();
+        Iterator keys = before.keySet().iterator();
+        while (keys.hasNext()) {
+            String key = (String) keys.next();
+            if (!after.containsKey(key))
+                support.fireBeanRemoved(key, before.get(key));
+        }
+        keys = after.keySet().iterator();
+        while (keys.hasNext()) {
+            String key = (String) keys.next();
+            Object value = before.get(key);
+            if (value == null)
+                support.fireBeanAdded(key, after.get(key));
+            else if (value != after.get(key))
+                support.fireBeanReplaced(key, value);
+        }
+
+    }
+
+
+    /**
+     * Return an immutable snapshot of the beans currently in this Scope,
+     * which may later be passed to <code>rollback()</code>, or used to
+     * construct another <code>SnapshotScope</code>.
+     */
+    public PersistentMap snapshot() {
+
+        return (map);
+
+    }
+
+
+    // ------------------------------------------------- Event Listener Methods
+
+
+    /**
+     * Add a listener that is notified each time beans are added,
+     * replaced, or removed in this scope.
+     *
+     * @param listener The ScopeListener to be added
+     */
+    public void addScopeListener(ScopeListener listener) {
+
+        support.addScopeListener(listener);
+
+    }
+
+
+    /**
+     * Remove a listener that is notified each time beans are added,
+     * replaced, or removed in this scope.
+     *
+     * @param listener The ScopeListener to be removed
+     */
+    public void removeScopeListener(ScopeListener listener) {
+
+        support.removeScopeListener(listener);
+
+    }
+
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import java.io.Serializable;
+
+
+/**
+ * <p>The evaluation stack and BlockState requirements of an Activity, as
+ * calculated by <code>ActivityVerifier</code> before it is executed.
+ * Contexts use a profile to allocate stacks of the right size when they
+ * start (or call) the Activity.</p>
+ *
+ * <p>Instances are immutable.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class StackProfile implements Serializable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new profile with the specified values.
+     *
+     * @param input Number of items that must be on the evaluation stack
+     *  when the Activity starts, for every Step to be able to complete
+     * @param maxDepth Largest evaluation stack depth reached, or
+     *  <code>-1</code> if it cannot be calculated
+     * @param maxNesting Largest number of nested Blocks
+     * @param complete Were the effects of all reachable Steps known?
+     */
+    public StackProfile(int input, int maxDepth, int maxNesting,
+                        boolean complete) {
+
+        super();
+        this.input = input;
+        this.maxDepth = maxDepth;
+        this.maxNesting = maxNesting;
+        this.complete = complete;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Were the stack effects of all reachable Steps known?  If not, the
+     * other properties only describe the Steps up to the first unknown
+     * one on each path.
+     */
+    protected boolean complete = false;
+
+    public boolean isComplete() {
+        return (this.complete);
+    }
+
+
+    /**
+     * The number of items that must already be on the evaluation stack
+     * when the Activity starts.  This is calculated from the lowest depth
+     * possible before each Step, so fewer items than this may cause a
+     * stack underflow on some path through the Activity.
+     */
+    protected int input = 0;
+
+    public int getInput() {
+        return (this.input);
+    }
+
+
+    /**
+     * The largest depth the evaluation stack can reach (including the
+     * <code>input</code> items), or <code>-1</code> if it cannot be
+     * calculated, because a loop grows the stack without a fixed limit.
+     */
+    protected int maxDepth = 0;
+
+    public int getMaxDepth() {
+        return (this.maxDepth);
+    }
+
+
+    /**
+     * The largest number of Blocks nested inside each other, which is the
+     * largest number of BlockStates the Activity pushes.
+     */
+    protected int maxNesting = 0;
+
+    public int getMaxNesting() {
+        return (this.maxNesting);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Render a printable version of this object.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("StackProfile[input=");
+        sb.append(input);
+        sb.append(", maxDepth=");
+        sb.append(maxDepth);
+        sb.append(", maxNesting=");
+        sb.append(maxNesting);
+        sb.append(", complete=");
+        sb.append(complete);
+        sb.append("]");
+        return (sb.toString());
+
+    }
+
+
+}
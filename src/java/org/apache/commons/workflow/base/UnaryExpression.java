@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.base;
+
+
+import org.apache.commons.workflow.Context;
+
+
+/**
+ * <p>A logical negation or arithmetic negation in a compiled
+ * expression.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class UnaryExpression extends Expression {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    static final int NOT = 0;
+
+    static final int NEGATE = 1;
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new unary expression.
+     *
+     * @param op The operator (<code>NOT</code> or <code>NEGATE</code>)
+     * @param operand The operand
+     */
+    UnaryExpression(int op, Expression operand) {
+
+        super();
+        this.op = op;
+        this.operand = operand;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The operator.
+     */
+    protected int op = NOT;
+
+
+    /**
+     * The operand.
+     */
+    protected Expression operand = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Object evaluate(Context context) {
+
+        if (op == NOT)
+            return (toBoolean(!operand.test(context)));
+        Number value = toNumber(operand.evaluate(context));
+        if (isIntegral(value))
+            return (Long.valueOf(-value.longValue()));
+        else
+            return (Double.valueOf(-value.doubleValue()));
+
+    }
+
+
+    boolean isConstant() {
+
+        return (operand.isConstant());
+
+    }
+
+
+    boolean test(Context context) {
+
+        if (op == NOT)
+            return (!operand.test(context));
+        else
+            return (super.test(context));
+
+    }
+
+
+}
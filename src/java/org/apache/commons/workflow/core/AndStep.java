@@ -43,7 +43,7 @@ import org.apache.commons.workflow.StepException;
 public class AndStep extends GotoStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -98,6 +98,15 @@ public class AndStep extends GotoStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -21,6 +21,7 @@ import java.util.EmptyStackException;
 import org.apache.commons.workflow.BlockState;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Iterator;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.BaseStep;
@@ -34,10 +35,10 @@ import org.apache.commons.workflow.base.BaseStep;
  * @author Craig R. McClanahan
  */
 
-public class BreakStep extends BaseStep {
+public class BreakStep extends BaseStep implements StackEffect {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -63,6 +64,51 @@ public class BreakStep extends BaseStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack.
+     */
+    public int getStackPops() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes() {
+
+        return (0);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -83,7 +129,7 @@ public class BreakStep extends BaseStep {
                 state = context.peekBlockState();
                 if (state.getBlock() instanceof Iterator)
                     break;
-                context.popBlockState();
+                context.popBlockState().leave(context);
                 continue;
             } catch (EmptyStackException e) {
                 throw new StepException("Must be nested in an Iterator block",
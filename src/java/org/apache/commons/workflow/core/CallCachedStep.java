@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.core;
+
+
+import java.util.EmptyStackException;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.BaseContext;
+import org.apache.commons.workflow.base.BaseStep;
+import org.apache.commons.workflow.base.PureActivity;
+
+
+/**
+ * <p>Pop the top value from the evaluation stack, which must be an
+ * <code>Activity</code>, and call it like <code>CallStep</code>.  If it is
+ * a <code>PureActivity</code> (or a <code>LazyActivity</code> whose
+ * definition is one), and results for the current values of its inputs
+ * are cached, those results are stored in the local scope (and pushed on
+ * the evaluation stack) instead, and no Steps of the Activity are
+ * executed.  Otherwise, the results are cached when the Activity returns.
+ * Cached results are shared by reference, as described for
+ * <code>PureActivity</code>.</p>
+ *
+ * <p>On a cache miss, this Step is executed a second time when the called
+ * Activity returns, in order to cache its results.  It must be executed
+ * in a <code>BaseContext</code>.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class CallCachedStep extends BaseStep {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public CallCachedStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public CallCachedStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the executable actions related to this Step, in the context of
+     * the specified Context.
+     *
+     * @param context The Context that is tracking our execution state
+     *
+     * @exception StepException if a processing error has occurred
+     */
+    public void execute(Context context) throws StepException {
+
+        if (!(context instanceof BaseContext))
+            throw new StepException("Context is not a BaseContext", this);
+        BaseContext baseContext = (BaseContext) context;
+
+        // Cache the results of a PureActivity that has just returned,
+        // unless it consumed items of the evaluation stack below its inputs
+        Object resume[] = (Object[]) baseContext.getResume();
+        if (resume != null) {
+            int count = baseContext.getStackDepth() -
+                ((Integer) resume[2]).intValue();
+            if (count >= 0)
+                PureActivity.getPureActivity((Activity) resume[0]).store
+                    (context, resume[1], count);
+            return;
+        }
+
+        // Pop the evaluation stack
+        Object value = null;
+        try {
+            value = context.pop();
+        } catch (EmptyStackException e) {
+            throw new StepException("Evaluation stack is empty", e, this);
+        }
+        if (!(value instanceof Activity))
+            throw new StepException("Top of stack is not an Activity", this);
+
+        // Call the requested Activity, unless its results are cached
+        Activity activity = (Activity) value;
+        try {
+            PureActivity pure = PureActivity.getPureActivity(activity);
+            if (pure != null) {
+                Object key = null;
+                try {
+                    key = pure.getKey(context);
+                } catch (EmptyStackException e) {
+                    throw new StepException("Evaluation stack is empty",
+                                            e, this);
+                }
+                if (key == null) {
+                    context.call(activity);
+                    return;
+                }
+                if (pure.restore(context, key))
+                    return;
+                context.setNextStep(this);
+                baseContext.call(activity, new Object[]
+                    { activity, key,
+                      Integer.valueOf(baseContext.getStackDepth()) });
+            } else {
+                context.call(activity);
+            }
+        } catch (IllegalStateException e) {
+            throw new StepException(e.getMessage(), e, this);
+        }
+
+    }
+
+
+}
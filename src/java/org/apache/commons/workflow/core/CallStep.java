@@ -39,7 +39,7 @@ import org.apache.commons.workflow.base.BaseStep;
 public class CallStep extends BaseStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -65,6 +65,15 @@ public class CallStep extends BaseStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -89,7 +98,11 @@ public class CallStep extends BaseStep {
         // Call the requested Activity 
         if (!(value instanceof Activity))
             throw new StepException("Top of stack is not an Activity", this);
-        context.call((Activity) value);
+        try {
+            context.call((Activity) value);
+        } catch (IllegalStateException e) {
+            throw new StepException(e.getMessage(), e, this);
+        }
 
     }
 
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+package org.apache.commons.workflow.core;
+
+
+import java.util.EmptyStackException;
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.WorkflowException;
+import org.apache.commons.workflow.base.BaseBlock;
+
+
+/**
+ * <p>Execute the nested Steps if and only if the enclosing
+ * <code>TryStep</code> has chosen this Step to handle an exception, which
+ * has been pushed onto the evaluation stack.  Otherwise, this Step is
+ * skipped.  An exception matches if it, or its cause, is an instance of
+ * the class named by the <code>type</code> attribute (or of a subclass);
+ * if no type is specified, every exception matches.</p>
+ *
+ * <p>Supported Attributes:</p>
+ * <ul>
+ * <li><strong>type</strong> - Fully qualified name of the exception class
+ *     handled by this Step.</li>
+ * </ul>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class CatchStep extends BaseBlock {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public CatchStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public CatchStep(String id) {
+
+        this(id, null);
+
+    }
+
+
+    /**
+     * Construct a fully configured instance of this Step.
+     *
+     * @param id Step identifier of this step
+     * @param type Fully qualified name of the exception class handled
+     */
+    public CatchStep(String id, String type) {
+
+        super();
+        setId(id);
+        setType(type);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The fully qualified name of the exception class handled by this Step,
+     * or <code>null</code> to handle all exceptions.
+     */
+    protected String type = null;
+
+    public String getType() {
+        return (this.type);
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return the exception (or the cause of the exception) that this Step
+     * handles, or <code>null</code> if it does not handle the specified
+     * exception.  Classes are compared by name, so that the exception
+     * class need not be visible to our class loader.
+     *
+     * @param exception The exception that was thrown
+     */
+    public Throwable match(Throwable exception) {
+
+        return (match(exception, type));
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<core:catch");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        if (getType() != null) {
+            sb.append(" type=\"");
+            sb.append(getType());
+            sb.append("\"");
+        }
+        sb.append(">");
+        Step steps[] = getSteps();
+        for (int i = 0; i < steps.length; i++)
+            sb.append(steps[i]);
+        sb.append("</core:catch>");
+        return (sb.toString());
+
+    }
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Return the specified exception, or the first exception in its chain
+     * of causes, that is an instance of the named class (or of a subclass).
+     * If there is none, return <code>null</code>; if no class is named,
+     * return the specified exception.
+     *
+     * @param exception The exception that was thrown
+     * @param type Fully qualified name of the exception class, or
+     *  <code>null</code> to match every exception
+     */
+    public static Throwable match(Throwable exception, String type) {
+
+        if (type == null)
+            return (exception);
+        Throwable current = exception;
+        while (current != null) {
+            Class clazz = current.getClass();
+            while (clazz != null) {
+                if (type.equals(clazz.getName()))
+                    return (current);
+                clazz = clazz.getSuperclass();
+            }
+            if (!(current instanceof WorkflowException))
+                break;
+            current = ((WorkflowException) current).getCause();
+        }
+        return (null);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Process the initial entry into this Block.
+     *
+     * @param context Context within which to execute the nested Steps
+     */
+    protected void initial(Context context) {
+
+        BlockState state = null;
+        try {
+            state = context.peekBlockState();
+        } catch (EmptyStackException e) {
+            ;
+        }
+        if ((state instanceof TryState) &&
+            (((TryState) state).getHandler() == this) &&
+            (getFirstStep() != null)) {
+            context.pushBlockState(new BlockState(this, false));
+            context.setNextStep(getFirstStep());
+        } else {
+            context.setNextStep(getNextStep());
+        }
+
+    }
+
+
+}
@@ -20,6 +20,7 @@ package org.apache.commons.workflow.core;
 import java.lang.reflect.Constructor;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.DescriptorStep;
 
@@ -38,10 +39,10 @@ import org.apache.commons.workflow.base.DescriptorStep;
  * @author Craig R. McClanahan
  */
 
-public class ConstructStep extends DescriptorStep {
+public class ConstructStep extends DescriptorStep implements StackEffect {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -83,6 +84,52 @@ public class ConstructStep extends DescriptorStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack, which is the number of our Descriptors that take their
+     * values from it.
+     */
+    public int getStackPops() {
+
+        return (countPoppedDescriptors());
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (1);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes() {
+
+        return (1);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
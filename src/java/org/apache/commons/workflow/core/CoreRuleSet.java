@@ -73,12 +73,20 @@ public class CoreRuleSet extends BaseRuleSet {
                         "org.apache.commons.workflow.core.BreakStep");
         addStandardStep(digester, "call",
                         "org.apache.commons.workflow.core.CallStep");
+        addStandardStep(digester, "callCached",
+                        "org.apache.commons.workflow.core.CallCachedStep");
+        addStandardStep(digester, "catch",
+                        "org.apache.commons.workflow.core.CatchStep");
         addStandardStep(digester, "construct",
                         "org.apache.commons.workflow.core.ConstructStep");
+        addStandardStep(digester, "delay",
+                        "org.apache.commons.workflow.core.DelayStep");
         addStandardStep(digester, "duplicate",
                         "org.apache.commons.workflow.core.DuplicateStep");
         addStandardStep(digester, "exit",
                         "org.apache.commons.workflow.core.ExitStep");
+        addStandardStep(digester, "finally",
+                        "org.apache.commons.workflow.core.FinallyStep");
         addStandardStep(digester, "get",
                         "org.apache.commons.workflow.core.GetStep");
         addStandardStep(digester, "goto",
@@ -91,6 +99,8 @@ public class CoreRuleSet extends BaseRuleSet {
                         "org.apache.commons.workflow.core.IfNotStep");
         addStandardStep(digester, "ifNotAny",
                         "org.apache.commons.workflow.core.IfNotAnyStep");
+        addStandardStep(digester, "increment",
+                        "org.apache.commons.workflow.core.IncrementStep");
         addStandardStep(digester, "invoke",
                         "org.apache.commons.workflow.core.InvokeStep");
         addStandardStep(digester, "load",
@@ -105,14 +115,24 @@ public class CoreRuleSet extends BaseRuleSet {
                         "org.apache.commons.workflow.core.PopStep");
         addStandardStep(digester, "put",
                         "org.apache.commons.workflow.core.PutStep");
+        addStandardStep(digester, "putIfAbsent",
+                        "org.apache.commons.workflow.core.PutIfAbsentStep");
         addStandardStep(digester, "remove",
                         "org.apache.commons.workflow.core.RemoveStep");
+        addStandardStep(digester, "retry",
+                        "org.apache.commons.workflow.core.RetryStep");
         addStandardStep(digester, "string",
                         "org.apache.commons.workflow.core.StringStep");
         addStandardStep(digester, "suspend",
                         "org.apache.commons.workflow.core.SuspendStep");
         addStandardStep(digester, "swap",
                         "org.apache.commons.workflow.core.SwapStep");
+        addStandardStep(digester, "timeout",
+                        "org.apache.commons.workflow.core.TimeoutStep");
+        addStandardStep(digester, "transaction",
+                        "org.apache.commons.workflow.core.TransactionStep");
+        addStandardStep(digester, "try",
+                        "org.apache.commons.workflow.core.TryStep");
         addStandardStep(digester, "while",
                         "org.apache.commons.workflow.core.WhileStep");
         addStandardStep(digester, "whileAny",
@@ -126,6 +146,7 @@ public class CoreRuleSet extends BaseRuleSet {
         addStandardDescriptor(digester, "bean");         // For invoke
         addStandardDescriptor(digester, "class");        // For construct
         addStandardDescriptor(digester, "descriptor");   // Standard version
+        addExpressionDescriptor(digester, "expression"); // Compiled version
 
     }
 
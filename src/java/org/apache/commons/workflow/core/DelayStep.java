@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.core;
+
+
+import java.util.Date;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.StackEffect;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.DescriptorStep;
+import org.apache.commons.workflow.util.ContextScheduler;
+
+
+/**
+ * <p>Suspend the Context, and schedule it to be resumed by the
+ * <code>ContextScheduler</code> after <code>duration</code> milliseconds
+ * or, if a <code>Descriptor</code> is associated with this Step, at the
+ * deadline it identifies (a <code>java.util.Date</code>, or a
+ * <code>Number</code> of milliseconds since the epoch).  No thread is
+ * blocked while the Context waits, so the caller of
+ * <code>execute()</code> must hold the lock returned by
+ * <code>BaseContext.getLock()</code>.  If the time has already come, this
+ * Step does nothing.</p>
+ *
+ * <p>Supported Attributes:</p>
+ * <ul>
+ * <li><strong>duration</strong> - Number of milliseconds to wait, if no
+ *     Descriptor is associated with this Step.</li>
+ * </ul>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class DelayStep extends DescriptorStep implements StackEffect {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public DelayStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public DelayStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier
+     * and duration.
+     *
+     * @param id Step identifier
+     * @param duration Number of milliseconds to wait
+     */
+    public DelayStep(String id, long duration) {
+
+        super();
+        setId(id);
+        setDuration(duration);
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier
+     * and associated Descriptor.
+     *
+     * @param id Step identifier
+     * @param descriptor Descriptor identifying the deadline
+     */
+    public DelayStep(String id, Descriptor descriptor) {
+
+        super();
+        setId(id);
+        addDescriptor(descriptor);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The number of milliseconds to wait.
+     */
+    protected long duration = 0L;
+
+    public long getDuration() {
+        return (this.duration);
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack, which is one if our Descriptor takes its value from it.
+     */
+    public int getStackPops() {
+
+        return (countPoppedDescriptors());
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes() {
+
+        return (0);
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the executable actions related to this Step, in the context of
+     * the specified Context.
+     *
+     * @param context The Context that is tracking our execution state
+     *
+     * @exception StepException if our Descriptor does not identify a
+     *  deadline
+     */
+    public void execute(Context context) throws StepException {
+
+        long now = System.currentTimeMillis();
+        long wait = duration;
+        Descriptor descriptors[] = findDescriptors();
+        if (descriptors.length > 0) {
+            Object value = descriptors[0].get(context);
+            if (value instanceof Date)
+                wait = ((Date) value).getTime() - now;
+            else if (value instanceof Number)
+                wait = ((Number) value).longValue() - now;
+            else
+                throw new StepException("Deadline is not a Date or Number",
+                                        this);
+        }
+        if (wait <= 0L)
+            return;
+        context.setSuspend(true);
+        ContextScheduler.getScheduler().schedule(context, wait);
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<core:delay");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        sb.append(" duration=\"");
+        sb.append(getDuration());
+        sb.append("\"/>");
+        return (sb.toString());
+
+    }
+
+
+}
@@ -19,6 +19,7 @@ package org.apache.commons.workflow.core;
 
 import java.util.EmptyStackException;
 import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.BaseStep;
 
@@ -30,10 +31,10 @@ import org.apache.commons.workflow.base.BaseStep;
  * @author Craig R. McClanahan
  */
 
-public class ExitStep extends BaseStep {
+public class ExitStep extends BaseStep implements StackEffect {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -59,6 +60,51 @@ public class ExitStep extends BaseStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack.
+     */
+    public int getStackPops() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes() {
+
+        return (0);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
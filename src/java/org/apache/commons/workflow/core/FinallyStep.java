@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+package org.apache.commons.workflow.core;
+
+
+import java.util.EmptyStackException;
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.base.BaseBlock;
+
+
+/**
+ * <p>Execute the nested Steps whenever the enclosing <code>TryStep</code>
+ * completes, whether its other nested Steps completed normally, or an
+ * exception was thrown and either caught or not.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class FinallyStep extends BaseBlock {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public FinallyStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public FinallyStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<core:finally");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        sb.append(">");
+        Step steps[] = getSteps();
+        for (int i = 0; i < steps.length; i++)
+            sb.append(steps[i]);
+        sb.append("</core:finally>");
+        return (sb.toString());
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Process the initial entry into this Block.
+     *
+     * @param context Context within which to execute the nested Steps
+     */
+    protected void initial(Context context) {
+
+        try {
+            BlockState state = context.peekBlockState();
+            if (state instanceof TryState)
+                ((TryState) state).setFinishing(true);
+        } catch (EmptyStackException e) {
+            ;
+        }
+        if (getFirstStep() == null) {
+            context.setNextStep(getNextStep());
+            return;
+        }
+        context.pushBlockState(new BlockState(this, false));
+        context.setNextStep(getFirstStep());
+
+    }
+
+
+}
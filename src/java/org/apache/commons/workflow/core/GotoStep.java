@@ -19,6 +19,7 @@ package org.apache.commons.workflow.core;
 
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.DescriptorStep;
@@ -37,10 +38,10 @@ import org.apache.commons.workflow.base.DescriptorStep;
  * @author Craig R. McClanahan
  */
 
-public class GotoStep extends DescriptorStep {
+public class GotoStep extends DescriptorStep implements StackEffect {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -80,6 +81,15 @@ public class GotoStep extends DescriptorStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ------------------------------------------------------------- Properties
 
 
@@ -97,6 +107,43 @@ public class GotoStep extends DescriptorStep {
     }
 
 
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack before transferring control, which is the number of our
+     * Descriptors that take their values from it.
+     */
+    public int getStackPops() {
+
+        return (countPoppedDescriptors());
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes() {
+
+        return (0);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
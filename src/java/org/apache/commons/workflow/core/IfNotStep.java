@@ -41,7 +41,7 @@ import org.apache.commons.workflow.base.BaseBlock;
 public class IfNotStep extends IfStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -82,6 +82,15 @@ public class IfNotStep extends IfStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -41,7 +41,7 @@ import org.apache.commons.workflow.base.BaseBlock;
 public class IfStep extends BaseBlock {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -82,6 +82,15 @@ public class IfStep extends BaseBlock {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // --------------------------------------------------------- Public Methods
 
 
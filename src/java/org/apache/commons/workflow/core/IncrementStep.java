@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.core;
+
+
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.StackEffect;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.ConcurrentScope;
+import org.apache.commons.workflow.base.DescriptorStep;
+
+
+/**
+ * <p>For each associated <code>Descriptor</code>, add <code>delta</code>
+ * to the number stored in the specified scope under the specified name
+ * (treating a missing bean as zero), store the result there, and push it
+ * onto the evaluation stack.  Each Descriptor must specify a
+ * <code>name</code>, and may specify a <code>scope</code>.</p>
+ *
+ * <p>The update is performed atomically by a
+ * <code>ConcurrentScope</code>.  Other Scopes are locked for the
+ * duration, which only excludes other Steps that lock them too.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class IncrementStep extends DescriptorStep implements StackEffect {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public IncrementStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public IncrementStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier
+     * and associated Descriptor.
+     *
+     * @param id Step identifier
+     * @param descriptor Initial descriptor
+     */
+    public IncrementStep(String id, Descriptor descriptor) {
+
+        super();
+        setId(id);
+        addDescriptor(descriptor);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The amount to be added.
+     */
+    protected long delta = 1L;
+
+    public long getDelta() {
+        return (this.delta);
+    }
+
+    public void setDelta(long delta) {
+        this.delta = delta;
+    }
+
+
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack.
+     */
+    public int getStackPops() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack, which is one for each of our Descriptors.
+     */
+    public int getMinStackPushes() {
+
+        return (descriptors.size());
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack, which is one for each of our Descriptors.
+     */
+    public int getMaxStackPushes() {
+
+        return (descriptors.size());
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the executable actions related to this Step, in the context of
+     * the specified Context.
+     *
+     * @param context The Context that is tracking our execution state
+     *
+     * @exception StepException if a processing error has occurred
+     */
+    public void execute(Context context) throws StepException {
+
+        // Process all associated descriptors
+        Descriptor descriptors[] = findDescriptors();
+        for (int i = 0; i < descriptors.length; i++) {
+            Scope scope = findScope(context, descriptors[i]);
+            String name = descriptors[i].getName();
+            Number result = null;
+            try {
+                if (scope instanceof ConcurrentScope) {
+                    result =
+                        ((ConcurrentScope) scope).increment(name, delta);
+                } else {
+                    synchronized (scope) {
+                        result = ConcurrentScope.sum(scope.get(name), delta);
+                        scope.put(name, result);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                throw new StepException(e.getMessage() + " for " + name,
+                                        e, this);
+            }
+            context.push(result);
+        }
+
+    }
+
+
+}
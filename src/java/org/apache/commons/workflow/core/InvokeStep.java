@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.DescriptorStep;
 
@@ -46,10 +47,10 @@ import org.apache.commons.workflow.base.DescriptorStep;
  * @author Craig R. McClanahan
  */
 
-public class InvokeStep extends DescriptorStep {
+public class InvokeStep extends DescriptorStep implements StackEffect {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -107,6 +108,15 @@ public class InvokeStep extends DescriptorStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ------------------------------------------------------------- Properties
 
 
@@ -124,6 +134,44 @@ public class InvokeStep extends DescriptorStep {
     }
 
 
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack, which is the number of our Descriptors that take their
+     * values from it.
+     */
+    public int getStackPops() {
+
+        return (countPoppedDescriptors());
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack, which is one if the invoked method returns a
+     * value.
+     */
+    public int getMaxStackPushes() {
+
+        return (1);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -18,6 +18,7 @@ package org.apache.commons.workflow.core;
 
 
 import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.BaseStep;
 
@@ -42,10 +43,10 @@ import org.apache.commons.workflow.base.BaseStep;
  * @author Craig R. McClanahan
  */
 
-public class LoadStep extends BaseStep {
+public class LoadStep extends BaseStep implements StackEffect {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -103,6 +104,15 @@ public class LoadStep extends BaseStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ------------------------------------------------------------- Properties
 
 
@@ -134,6 +144,42 @@ public class LoadStep extends BaseStep {
     }
 
 
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack, which is one if the class name is taken from it.
+     */
+    public int getStackPops() {
+
+        return ((getName() == null) ? 1 : 0);
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (1);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes() {
+
+        return (1);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
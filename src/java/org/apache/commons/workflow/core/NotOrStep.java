@@ -29,7 +29,7 @@ import org.apache.commons.workflow.StepException;
 public class NotOrStep extends GotoStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -76,6 +76,15 @@ public class NotOrStep extends GotoStep {
         addDescriptor(descriptor);
 
     }
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.core;
+
+
+import java.util.EmptyStackException;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.StackEffect;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.ConcurrentScope;
+import org.apache.commons.workflow.base.DescriptorStep;
+
+
+/**
+ * <p>For each associated <code>Descriptor</code>, pop the top value from
+ * the evaluation stack, and store it in the specified scope under the
+ * specified name, unless a bean is already stored there.  Then push the
+ * bean that is stored there (whether it is the new value or the existing
+ * one) onto the evaluation stack.  Each Descriptor must specify a
+ * <code>name</code>, and may specify a <code>scope</code>.</p>
+ *
+ * <p>The check and the store are performed atomically by a
+ * <code>ConcurrentScope</code>.  Other Scopes are locked for the
+ * duration, which only excludes other Steps that lock them too.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class PutIfAbsentStep extends DescriptorStep implements StackEffect {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public PutIfAbsentStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public PutIfAbsentStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier
+     * and associated Descriptor.
+     *
+     * @param id Step identifier
+     * @param descriptor Initial descriptor
+     */
+    public PutIfAbsentStep(String id, Descriptor descriptor) {
+
+        super();
+        setId(id);
+        addDescriptor(descriptor);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack, which is one for each of our Descriptors.
+     */
+    public int getStackPops() {
+
+        return (descriptors.size());
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack, which is one for each of our Descriptors.
+     */
+    public int getMinStackPushes() {
+
+        return (descriptors.size());
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack, which is one for each of our Descriptors.
+     */
+    public int getMaxStackPushes() {
+
+        return (descriptors.size());
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the executable actions related to this Step, in the context of
+     * the specified Context.
+     *
+     * @param context The Context that is tracking our execution state
+     *
+     * @exception StepException if a processing error has occurred
+     */
+    public void execute(Context context) throws StepException {
+
+        // Process all associated descriptors
+        Descriptor descriptors[] = findDescriptors();
+        for (int i = 0; i < descriptors.length; i++) {
+            Scope scope = findScope(context, descriptors[i]);
+            String name = descriptors[i].getName();
+            Object value = null;
+            try {
+                value = context.pop();
+            } catch (EmptyStackException e) {
+                throw new StepException("Evaluation stack is empty", e, this);
+            }
+            if (value == null)
+                throw new StepException("Value cannot be null", this);
+            Object old = null;
+            if (scope instanceof ConcurrentScope) {
+                old = ((ConcurrentScope) scope).putIfAbsent(name, value);
+            } else {
+                synchronized (scope) {
+                    old = scope.get(name);
+                    if (old == null)
+                        scope.put(name, value);
+                }
+            }
+            context.push((old != null) ? old : value);
+        }
+
+    }
+
+
+}
@@ -20,6 +20,7 @@ package org.apache.commons.workflow.core;
 import java.util.EmptyStackException;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.StackEffect;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.DescriptorStep;
 
@@ -33,10 +34,10 @@ import org.apache.commons.workflow.base.DescriptorStep;
  * @author Craig R. McClanahan
  */
 
-public class PutStep extends DescriptorStep {
+public class PutStep extends DescriptorStep implements StackEffect {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -78,6 +79,51 @@ public class PutStep extends DescriptorStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ---------------------------------------------------- StackEffect Methods
+
+
+    /**
+     * Return the number of items this Step removes from the evaluation
+     * stack, which is one for each of our Descriptors.
+     */
+    public int getStackPops() {
+
+        return (descriptors.size());
+
+    }
+
+
+    /**
+     * Return the smallest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMinStackPushes() {
+
+        return (0);
+
+    }
+
+
+    /**
+     * Return the largest number of items this Step may push onto the
+     * evaluation stack.
+     */
+    public int getMaxStackPushes() {
+
+        return (0);
+
+    }
+
+
     // --------------------------------------------------------- Public Methods
 
 
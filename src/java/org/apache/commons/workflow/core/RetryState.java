@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.core;
+
+
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.BlockState;
+
+
+/**
+ * <p>The <code>BlockState</code> of a <code>RetryStep</code>, which records
+ * the number of the attempt now being made to execute its nested
+ * Steps.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class RetryState extends BlockState {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new state for the specified Block.
+     *
+     * @param block The Block whose state this object represents
+     */
+    RetryState(Block block) {
+
+        super(block, false);
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The number of the attempt now being made, starting at one.
+     */
+    private int attempt = 1;
+
+
+    // -------------------------------------------------------- Package Methods
+
+
+    int getAttempt() {
+        return (this.attempt);
+    }
+
+    void setAttempt(int attempt) {
+        this.attempt = attempt;
+    }
+
+
+}
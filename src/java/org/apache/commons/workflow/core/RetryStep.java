@@ -0,0 +1,395 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.core;
+
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.StringTokenizer;
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.ExceptionHandler;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.BaseBlock;
+import org.apache.commons.workflow.base.BaseContext;
+import org.apache.commons.workflow.base.ExternalizableBlock;
+import org.apache.commons.workflow.util.ContextScheduler;
+
+
+/**
+ * <p>Execute the nested Steps, starting them again from the beginning if
+ * any of them (or a Step of an Activity they call) throws a
+ * <code>StepException</code> that matches one of the classes named by the
+ * <code>type</code> attribute, until <code>attempts</code> attempts have
+ * been made.  An exception that does not match, or that is thrown by the
+ * last attempt, is passed on.</p>
+ *
+ * <p>Before each further attempt, this Block waits for <code>delay</code>
+ * milliseconds, multiplied by <code>multiplier</code> for each attempt
+ * after the second and limited to <code>maxDelay</code>, less a random
+ * fraction (up to <code>jitter</code>) of that time.  It does not block
+ * the executing thread to do so; instead, it suspends the Context and
+ * schedules it to be resumed by the <code>ContextScheduler</code>, so the
+ * caller of <code>execute()</code> must hold the lock returned by
+ * <code>BaseContext.getLock()</code>.  A delay of zero starts the next
+ * attempt immediately.</p>
+ *
+ * <p>The evaluation stack is not restored between attempts; nest a
+ * <code>core:transaction</code> Block inside this one to do so.</p>
+ *
+ * <p>Supported Attributes:</p>
+ * <ul>
+ * <li><strong>attempts</strong> - Maximum number of attempts to execute
+ *     the nested Steps [3].</li>
+ * <li><strong>delay</strong> - Milliseconds to wait before the second
+ *     attempt [100].</li>
+ * <li><strong>jitter</strong> - Largest fraction of each wait that may be
+ *     randomly left out, from 0.0 to 1.0 [0.0].</li>
+ * <li><strong>maxDelay</strong> - Maximum milliseconds to wait before any
+ *     attempt, or zero for no limit [0].</li>
+ * <li><strong>multiplier</strong> - Factor by which the wait grows with
+ *     each attempt [2.0].</li>
+ * <li><strong>type</strong> - Fully qualified names of the exception
+ *     classes to be retried, separated by commas or spaces.  If not
+ *     specified, every exception is retried.</li>
+ * </ul>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class RetryStep extends BaseBlock
+    implements ExceptionHandler, ExternalizableBlock {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public RetryStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public RetryStep(String id) {
+
+        this(id, 3, 100L);
+
+    }
+
+
+    /**
+     * Construct a fully configured instance of this Step.
+     *
+     * @param id Step identifier of this step
+     * @param attempts Maximum number of attempts
+     * @param delay Milliseconds to wait before the second attempt
+     */
+    public RetryStep(String id, int attempts, long delay) {
+
+        super();
+        setId(id);
+        setAttempts(attempts);
+        setDelay(delay);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The maximum number of attempts to execute the nested Steps.
+     */
+    protected int attempts = 3;
+
+    public int getAttempts() {
+        return (this.attempts);
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+
+    /**
+     * The number of milliseconds to wait before the second attempt.
+     */
+    protected long delay = 100L;
+
+    public long getDelay() {
+        return (this.delay);
+    }
+
+    public void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+
+    /**
+     * The largest fraction of each wait that may be randomly left out.
+     */
+    protected double jitter = 0.0;
+
+    public double getJitter() {
+        return (this.jitter);
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+
+    /**
+     * The maximum number of milliseconds to wait, or zero for no limit.
+     */
+    protected long maxDelay = 0L;
+
+    public long getMaxDelay() {
+        return (this.maxDelay);
+    }
+
+    public void setMaxDelay(long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+
+    /**
+     * The factor by which the wait grows with each attempt.
+     */
+    protected double multiplier = 2.0;
+
+    public double getMultiplier() {
+        return (this.multiplier);
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+
+    /**
+     * The names of the exception classes to be retried, or
+     * <code>null</code> to retry every exception.
+     */
+    protected String type = null;
+
+    public String getType() {
+        return (this.type);
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return the number of milliseconds to wait before the attempt that
+     * follows the specified failed attempt.
+     *
+     * @param attempt Number of the attempt that failed, starting at one
+     */
+    public long backoff(int attempt) {
+
+        double wait = delay;
+        for (int i = 1; i < attempt; i++)
+            wait *= multiplier;
+        if ((maxDelay > 0L) && (wait > maxDelay))
+            wait = maxDelay;
+        if (jitter > 0.0)
+            wait -= wait * Math.min(jitter, 1.0) * Math.random();
+        return ((long) wait);
+
+    }
+
+
+    /**
+     * Start the nested Steps again, after suspending the Context until our
+     * backoff delay has elapsed, if the exception is to be retried and
+     * attempts remain.
+     *
+     * @param context The Context in which the exception was thrown
+     * @param state The BlockState of this Block
+     * @param exception The exception that was thrown
+     */
+    public boolean handle(Context context, BlockState state,
+                          StepException exception) {
+
+        // Pass on the exception if we should not try again
+        RetryState retryState = (RetryState) state;
+        int attempt = retryState.getAttempt();
+        if ((attempt >= attempts) || !retryable(exception)) {
+            context.popBlockState();
+            return (false);
+        }
+
+        // Schedule the next attempt
+        retryState.setAttempt(attempt + 1);
+        context.setNextStep(getFirstStep());
+        long wait = backoff(attempt);
+        if (wait > 0L) {
+            context.setSuspend(true);
+            ContextScheduler.getScheduler().schedule(context, wait);
+        }
+        return (true);
+
+    }
+
+
+    /**
+     * Return <code>false</code>, because a call from our last Step must not
+     * discard our BlockState before the called Activity has completed.
+     */
+    public boolean isStructural() {
+
+        return (false);
+
+    }
+
+
+    /**
+     * Read a <code>RetryState</code> written by <code>writeState()</code>.
+     *
+     * @param context The Context being restored
+     * @param in Input to read from
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    public BlockState readState(BaseContext context, ObjectInput in)
+        throws IOException {
+
+        RetryState state = new RetryState(this);
+        state.setAttempt(in.readInt());
+        return (state);
+
+    }
+
+
+    /**
+     * Should the specified exception be retried?
+     *
+     * @param exception The exception that was thrown
+     */
+    public boolean retryable(StepException exception) {
+
+        if (type == null)
+            return (true);
+        StringTokenizer tokens = new StringTokenizer(type, ", ");
+        while (tokens.hasMoreTokens()) {
+            if (CatchStep.match(exception, tokens.nextToken()) != null)
+                return (true);
+        }
+        return (false);
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<core:retry");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        sb.append(" attempts=\"");
+        sb.append(getAttempts());
+        sb.append("\" delay=\"");
+        sb.append(getDelay());
+        sb.append("\"");
+        if (getType() != null) {
+            sb.append(" type=\"");
+            sb.append(getType());
+            sb.append("\"");
+        }
+        sb.append(">");
+        Step steps[] = getSteps();
+        for (int i = 0; i < steps.length; i++)
+            sb.append(steps[i]);
+        sb.append("</core:retry>");
+        return (sb.toString());
+
+    }
+
+
+    /**
+     * Write the attempt number recorded by the specified
+     * <code>RetryState</code>.
+     *
+     * @param context The Context being externalized
+     * @param state The BlockState to be written
+     * @param out Output to write to
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    public void writeState(BaseContext context, BlockState state,
+                           ObjectOutput out)
+        throws IOException {
+
+        out.writeInt(((RetryState) state).getAttempt());
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Process the initial entry into this Block.
+     *
+     * @param context Context within which to execute the nested Steps
+     */
+    protected void initial(Context context) {
+
+        if (getFirstStep() == null) {
+            context.setNextStep(getNextStep());
+            return;
+        }
+        context.pushBlockState(new RetryState(this));
+        context.setNextStep(getFirstStep());
+
+    }
+
+
+}
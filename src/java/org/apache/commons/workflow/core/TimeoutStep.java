@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.core;
+
+
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.ExceptionHandler;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.BaseBlock;
+import org.apache.commons.workflow.base.DeadlineState;
+
+
+/**
+ * <p>Execute the nested Steps, abandoning them if they have not finished
+ * within <code>duration</code> milliseconds of this Block being entered.
+ * The time is checked by <code>BaseContext</code> before each Step is
+ * executed (including the Steps of Activities called by the nested Steps),
+ * so a Step that blocks is not interrupted; but a Context suspended by a
+ * <code>core:delay</code> or <code>core:retry</code> Step is resumed no
+ * later than the deadline, by the <code>ContextScheduler</code> (or, under
+ * <code>ActivityServlet</code>, by the request thread that takes over its
+ * scheduled resumption).  When the nested Steps are abandoned, the
+ * <code>StepException</code> that identifies this Block is either passed
+ * on or handled by transferring control to the Step identified by the
+ * <code>step</code> attribute, with the exception pushed onto the
+ * evaluation stack.</p>
+ *
+ * <p>Exception handlers nested inside this Block do not see the exception,
+ * but a <code>core:transaction</code> nested inside it is rolled back when
+ * it is abandoned.  Otherwise, the evaluation stack is not restored.  A
+ * Context that is externalized while this Block executes keeps its
+ * deadline, as a time of day.</p>
+ *
+ * <p>Supported Attributes:</p>
+ * <ul>
+ * <li><strong>duration</strong> - Maximum number of milliseconds that the
+ *     nested Steps may take.</li>
+ * <li><strong>step</strong> - Identifier of the Step (at the same level as
+ *     this one) to which control should be transferred if the nested Steps
+ *     are abandoned.  If not specified, the exception is passed on.</li>
+ * </ul>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class TimeoutStep extends BaseBlock implements ExceptionHandler {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public TimeoutStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public TimeoutStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    /**
+     * Construct a fully configured instance of this Step.
+     *
+     * @param id Step identifier of this step
+     * @param duration Maximum number of milliseconds the nested Steps
+     *  may take
+     * @param step Step identifier to which control should be transferred
+     *  if the nested Steps are abandoned
+     */
+    public TimeoutStep(String id, long duration, String step) {
+
+        super();
+        setId(id);
+        setDuration(duration);
+        setStep(step);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The maximum number of milliseconds the nested Steps may take.
+     */
+    protected long duration = 0L;
+
+    public long getDuration() {
+        return (this.duration);
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+
+    /**
+     * The identifier of the Step to which control should be transferred
+     * if the nested Steps are abandoned, if any.
+     */
+    protected String step = null;
+
+    public String getStep() {
+        return (this.step);
+    }
+
+    public void setStep(String step) {
+        this.step = step;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Transfer control to our <code>step</code> (if any), with the
+     * exception pushed onto the evaluation stack, if our nested Steps have
+     * been abandoned because our deadline has passed.  Any other exception
+     * is passed on.
+     *
+     * @param context The Context in which the exception was thrown
+     * @param state The BlockState of this Block
+     * @param exception The exception that was thrown
+     */
+    public boolean handle(Context context, BlockState state,
+                          StepException exception) {
+
+        context.popBlockState();
+        if ((exception.getStep() != this) || (step == null))
+            return (false);
+        Step next = getOwner().findStep(step);
+        if (next == null)
+            return (false);
+        context.push(exception);
+        context.setNextStep(next);
+        return (true);
+
+    }
+
+
+    /**
+     * Return <code>false</code>, because a call from our last Step must not
+     * discard our BlockState before the called Activity has completed.
+     */
+    public boolean isStructural() {
+
+        return (false);
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<core:timeout");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        sb.append(" duration=\"");
+        sb.append(getDuration());
+        sb.append("\"");
+        if (getStep() != null) {
+            sb.append(" step=\"");
+            sb.append(getStep());
+            sb.append("\"");
+        }
+        sb.append(">");
+        Step steps[] = getSteps();
+        for (int i = 0; i < steps.length; i++)
+            sb.append(steps[i]);
+        sb.append("</core:timeout>");
+        return (sb.toString());
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Process the initial entry into this Block.
+     *
+     * @param context Context within which to execute the nested Steps
+     */
+    protected void initial(Context context) {
+
+        if (getFirstStep() == null) {
+            context.setNextStep(getNextStep());
+            return;
+        }
+        long deadline = System.currentTimeMillis() + duration;
+        context.pushBlockState(new DeadlineState(this, deadline));
+        context.setNextStep(getFirstStep());
+
+    }
+
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+package org.apache.commons.workflow.core;
+
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.ScopeEvent;
+import org.apache.commons.workflow.ScopeListener;
+
+
+/**
+ * <p>A write log of the changes made to a <code>Scope</code> during a
+ * transaction, recording the value each changed key had before its first
+ * change, so that the changes can be undone.  A <code>clear()</code> of
+ * the Scope can only be undone if the Scope reports the beans it removed;
+ * otherwise the log is no longer complete, and cannot roll back.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class TransactionLog implements ScopeListener {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new log with no changes recorded.
+     */
+    TransactionLog() {
+
+        this(new HashMap(), true);
+
+    }
+
+
+    /**
+     * Construct a new log with the specified changes already recorded.
+     *
+     * @param undo The value of each changed key before its first change,
+     *  or <code>ABSENT</code>, keyed by the key
+     * @param complete Have all of the changes been recorded?
+     */
+    TransactionLog(HashMap undo, boolean complete) {
+
+        super();
+        this.undo = undo;
+        this.complete = complete;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The marker recorded for a key that had no value.
+     */
+    static final Object ABSENT = new Object();
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * Have all of the changes been recorded?  This becomes
+     * <code>false</code> if the Scope is cleared without reporting the
+     * beans it removed.
+     */
+    private boolean complete = true;
+
+
+    /**
+     * The value of each changed key before its first change, or
+     * <code>ABSENT</code>, keyed by the key.
+     */
+    private HashMap undo = null;
+
+
+    // ------------------------------------------------- Event Listener Methods
+
+
+    /**
+     * Record that the key of the specified bean had no value.
+     *
+     * @param event The event that has occurred
+     */
+    public void beanAdded(ScopeEvent event) {
+
+        record(event.getKey(), ABSENT);
+
+    }
+
+
+    /**
+     * Record the previous value of the removed bean.
+     *
+     * @param event The event that has occurred
+     */
+    public void beanRemoved(ScopeEvent event) {
+
+        record(event.getKey(), event.getValue());
+
+    }
+
+
+    /**
+     * Record the previous value of the replaced bean.
+     *
+     * @param event The event that has occurred
+     */
+    public void beanReplaced(ScopeEvent event) {
+
+        record(event.getKey(), event.getValue());
+
+    }
+
+
+    /**
+     * Record the previous value of each bean removed by the clearing of
+     * the scope, or that the log is no longer complete if the scope did
+     * not report them.
+     *
+     * @param event The event that has occurred
+     */
+    public void scopeCleared(ScopeEvent event) {
+
+        if (!(event.getValue() instanceof Map)) {
+            complete = false;
+            return;
+        }
+        Iterator entries = ((Map) event.getValue()).entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            record((String) entry.getKey(), entry.getValue());
+        }
+
+    }
+
+
+    // -------------------------------------------------------- Package Methods
+
+
+    /**
+     * Return the value of each changed key before its first change, or
+     * <code>ABSENT</code>, keyed by the key.
+     */
+    Map getUndo() {
+
+        return (this.undo);
+
+    }
+
+
+    /**
+     * Have all of the changes been recorded, so that
+     * <code>rollback()</code> restores the Scope completely?
+     */
+    boolean isComplete() {
+
+        return (this.complete);
+
+    }
+
+
+    /**
+     * Stop recording changes to the specified Scope, and undo the ones
+     * that have been recorded.
+     *
+     * @param scope The Scope to be restored
+     */
+    void rollback(Scope scope) {
+
+        scope.removeScopeListener(this);
+        Iterator entries = undo.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            if (entry.getValue() == ABSENT)
+                scope.remove(entry.getKey());
+            else
+                scope.put(entry.getKey(), entry.getValue());
+        }
+        undo.clear();
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    /**
+     * Record the specified previous value for the specified key, unless
+     * one has already been recorded.
+     *
+     * @param key The key that is being changed
+     * @param value The previous value, or <code>ABSENT</code>
+     */
+    private void record(String key, Object value) {
+
+        if (!undo.containsKey(key))
+            undo.put(key, value);
+
+    }
+
+
+}
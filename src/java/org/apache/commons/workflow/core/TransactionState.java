@@ -0,0 +1,301 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+package org.apache.commons.workflow.core;
+
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.base.SnapshotScope;
+import org.apache.commons.workflow.util.PersistentMap;
+
+
+/**
+ * <p>The <code>BlockState</code> of a <code>TransactionStep</code>, which
+ * records what is needed to restore the local scope and the evaluation
+ * stack to their contents when the Block was entered.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class TransactionState extends BlockState {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new state for the specified Block, recording the current
+     * contents of the specified Context.
+     *
+     * @param block The Block whose state this object represents
+     * @param context The Context in which the Block is executing
+     */
+    TransactionState(Block block, Context context) {
+
+        super(block, false);
+
+        // Record the evaluation stack, from the bottom up
+        ArrayList items = new ArrayList();
+        while (!context.isEmpty())
+            items.add(0, context.pop());
+        for (int i = 0; i < items.size(); i++)
+            context.push(items.get(i));
+        stack = items.toArray();
+
+        // Snapshot the local scope, or start logging changes to it
+        scope = context.getScope(Context.LOCAL_SCOPE);
+        if (scope instanceof SnapshotScope) {
+            snapshot = ((SnapshotScope) scope).snapshot();
+        } else {
+            log = new TransactionLog();
+            scope.addScopeListener(log);
+        }
+
+    }
+
+
+    /**
+     * Construct a new state for the specified Block, reading the contents
+     * to be restored by a rollback, as written by
+     * <code>writeExternal()</code>, from the specified input.  The local
+     * scope of the specified Context must already have been restored.
+     *
+     * @param block The Block whose state this object represents
+     * @param context The Context in which the Block is executing
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored object
+     *  cannot be found
+     * @exception IOException if an input/output error occurs
+     */
+    TransactionState(Block block, Context context, ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        super(block, false);
+
+        // Read the evaluation stack, from the bottom up
+        stack = new Object[in.readInt()];
+        for (int i = 0; i < stack.length; i++)
+            stack[i] = in.readObject();
+
+        // Read the value of each changed local variable
+        HashMap undo = new HashMap();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            String key = in.readUTF();
+            if (in.readBoolean())
+                undo.put(key, in.readObject());
+            else
+                undo.put(key, TransactionLog.ABSENT);
+        }
+        boolean complete = in.readBoolean();
+
+        // Rebuild the snapshot of the local scope, or resume the log
+        scope = context.getScope(Context.LOCAL_SCOPE);
+        if ((scope instanceof SnapshotScope) && complete) {
+            snapshot = ((SnapshotScope) scope).snapshot();
+            Iterator entries = undo.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry entry = (Map.Entry) entries.next();
+                String key = (String) entry.getKey();
+                if (entry.getValue() == TransactionLog.ABSENT)
+                    snapshot = snapshot.remove(key);
+                else
+                    snapshot = snapshot.put(key, entry.getValue());
+            }
+        } else {
+            log = new TransactionLog(undo, complete);
+            scope.addScopeListener(log);
+        }
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The log of changes to the local scope, if it is not a
+     * <code>SnapshotScope</code>.
+     */
+    private TransactionLog log = null;
+
+
+    /**
+     * The local scope.
+     */
+    private Scope scope = null;
+
+
+    /**
+     * The snapshot of the local scope, if it is a
+     * <code>SnapshotScope</code>.
+     */
+    private PersistentMap snapshot = null;
+
+
+    /**
+     * The contents of the evaluation stack, from the bottom up.
+     */
+    private Object stack[] = null;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Roll back the transaction, because its Block is being abandoned
+     * without an exception being offered to it.
+     *
+     * @param context The Context abandoning the Block
+     */
+    public void abort(Context context) {
+
+        rollback(context);
+
+    }
+
+
+    /**
+     * Commit the transaction, because its Block is being left early
+     * without an error, keeping the changes made so far.
+     *
+     * @param context The Context leaving the Block
+     */
+    public void leave(Context context) {
+
+        commit();
+
+    }
+
+
+    // -------------------------------------------------------- Package Methods
+
+
+    /**
+     * Stop recording changes, keeping the ones that have been made.
+     */
+    void commit() {
+
+        if (log != null)
+            scope.removeScopeListener(log);
+
+    }
+
+
+    /**
+     * Write the contents of the evaluation stack to be restored, followed
+     * by the value before this transaction of each local variable that has
+     * been changed since, and whether those values are complete, so that
+     * <code>rollback()</code> still works after the Context is restored.
+     *
+     * @param out Output to write to
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    void writeExternal(ObjectOutput out) throws IOException {
+
+        out.writeInt(stack.length);
+        for (int i = 0; i < stack.length; i++)
+            out.writeObject(stack[i]);
+        Map undo = null;
+        if (snapshot != null)
+            undo = changes();
+        else
+            undo = log.getUndo();
+        out.writeInt(undo.size());
+        Iterator entries = undo.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            out.writeUTF((String) entry.getKey());
+            boolean present = (entry.getValue() != TransactionLog.ABSENT);
+            out.writeBoolean(present);
+            if (present)
+                out.writeObject(entry.getValue());
+        }
+        out.writeBoolean((snapshot != null) || log.isComplete());
+
+    }
+
+
+    /**
+     * Restore the local scope and the evaluation stack of the specified
+     * Context to their contents when this state was created, and return
+     * <code>true</code>.  If the local scope was cleared without reporting
+     * the beans it removed, so that it cannot be restored, stop recording
+     * changes and return <code>false</code> without changing anything.
+     *
+     * @param context The Context to be restored
+     */
+    boolean rollback(Context context) {
+
+        if (snapshot != null) {
+            ((SnapshotScope) scope).rollback(snapshot);
+        } else if (log.isComplete()) {
+            log.rollback(scope);
+        } else {
+            scope.removeScopeListener(log);
+            return (false);
+        }
+        context.clear();
+        for (int i = 0; i < stack.length; i++)
+            context.push(stack[i]);
+        return (true);
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    /**
+     * Return the value in our snapshot of each local variable whose value
+     * has changed since, or <code>ABSENT</code> if it had none, keyed by
+     * its name.
+     */
+    private Map changes() {
+
+        HashMap undo = new HashMap();
+        HashMap before = snapshot.toMap();
+        Iterator entries = before.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            if (!scope.containsKey(entry.getKey()) ||
+                (scope.get(entry.getKey()) != entry.getValue()))
+                undo.put(entry.getKey(), entry.getValue());
+        }
+        Iterator keys = scope.keySet().iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            if (!before.containsKey(key))
+                undo.put(key, TransactionLog.ABSENT);
+        }
+        return (undo);
+
+    }
+
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+package org.apache.commons.workflow.core;
+
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.ExceptionHandler;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.BaseBlock;
+import org.apache.commons.workflow.base.BaseContext;
+import org.apache.commons.workflow.base.ExternalizableBlock;
+
+
+/**
+ * <p>Execute the nested Steps as a unit.  If any of them (or a Step of an
+ * Activity they call) throws a <code>StepException</code>, the local scope
+ * and the evaluation stack are restored to their contents when this Block
+ * was entered, and the exception is then either passed on or handled by
+ * transferring control to the Step identified by the <code>step</code>
+ * attribute, with the exception pushed onto the evaluation stack.</p>
+ *
+ * <p>Changes to the local scope are undone by restoring a snapshot if it
+ * is a <code>SnapshotScope</code>; otherwise they are recorded in a write
+ * log, by listening to the scope, while this Block executes.  Changes made
+ * to beans themselves, and to other scopes, are not undone.  A
+ * <code>clear()</code> of the local scope is undone if the scope reports
+ * the beans it removed, as the Scopes of this library do; otherwise the
+ * transaction cannot roll back, and the exception is passed on with the
+ * changes left in place.  A transaction whose Context is externalized
+ * before it completes writes the values to be restored, and can still
+ * roll back after the Context is read.</p>
+ *
+ * <p>Supported Attributes:</p>
+ * <ul>
+ * <li><strong>step</strong> - Identifier of the Step (at the same level as
+ *     this one) to which control should be transferred after rolling
+ *     back.  If not specified, the exception is passed on.</li>
+ * </ul>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class TransactionStep extends BaseBlock
+    implements ExceptionHandler, ExternalizableBlock {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public TransactionStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public TransactionStep(String id) {
+
+        this(id, null);
+
+    }
+
+
+    /**
+     * Construct a fully configured instance of this Step.
+     *
+     * @param id Step identifier of this step
+     * @param step Step identifier to which control should be transferred
+     *  after rolling back
+     */
+    public TransactionStep(String id, String step) {
+
+        super();
+        setId(id);
+        setStep(step);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The identifier of the Step to which control should be transferred
+     * after rolling back, if any.
+     */
+    protected String step = null;
+
+    public String getStep() {
+        return (this.step);
+    }
+
+    public void setStep(String step) {
+        this.step = step;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Roll back the changes made since this Block was entered, and transfer
+     * control to our <code>step</code> (if any) with the exception pushed
+     * onto the evaluation stack.  If the changes cannot be rolled back,
+     * the exception is passed on without transferring control.
+     *
+     * @param context The Context in which the exception was thrown
+     * @param state The BlockState of this Block
+     * @param exception The exception that was thrown
+     */
+    public boolean handle(Context context, BlockState state,
+                          StepException exception) {
+
+        context.popBlockState();
+        if (!(state instanceof TransactionState) ||
+            !((TransactionState) state).rollback(context))
+            return (false);
+        if (step == null)
+            return (false);
+        Step next = getOwner().findStep(step);
+        if (next == null)
+            return (false);
+        context.push(exception);
+        context.setNextStep(next);
+        return (true);
+
+    }
+
+
+    /**
+     * Return <code>false</code>, because the end of this Block commits the
+     * transaction, and because a call from its last Step must not discard
+     * our BlockState before the called Activity has completed.
+     */
+    public boolean isStructural() {
+
+        return (false);
+
+    }
+
+
+    /**
+     * Read a <code>TransactionState</code> written by
+     * <code>writeState()</code>.
+     *
+     * @param context The Context being restored
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored object
+     *  cannot be found
+     * @exception IOException if an input/output error occurs
+     */
+    public BlockState readState(BaseContext context, ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        return (new TransactionState(this, context, in));
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<core:transaction");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        if (getStep() != null) {
+            sb.append(" step=\"");
+            sb.append(getStep());
+            sb.append("\"");
+        }
+        sb.append(">");
+        Step steps[] = getSteps();
+        for (int i = 0; i < steps.length; i++)
+            sb.append(steps[i]);
+        sb.append("</core:transaction>");
+        return (sb.toString());
+
+    }
+
+
+    /**
+     * Write the evaluation stack and local variables to be restored by the
+     * specified <code>TransactionState</code> if it rolls back.
+     *
+     * @param context The Context being externalized
+     * @param state The BlockState to be written
+     * @param out Output to write to
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    public void writeState(BaseContext context, BlockState state,
+                           ObjectOutput out)
+        throws IOException {
+
+        ((TransactionState) state).writeExternal(out);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Process the initial entry into this Block.
+     *
+     * @param context Context within which to execute the nested Steps
+     */
+    protected void initial(Context context) {
+
+        if (getFirstStep() == null) {
+            context.setNextStep(getNextStep());
+            return;
+        }
+        context.pushBlockState(new TransactionState(this, context));
+        context.setNextStep(getFirstStep());
+
+    }
+
+
+    /**
+     * Process the return from nested execution of the Steps associated
+     * with this Block, which commits the transaction.
+     *
+     * @param context Context within which to execute the nested Steps
+     * @param state BlockState for our block
+     */
+    protected void subsequent(Context context, BlockState state) {
+
+        context.popBlockState();
+        if (state instanceof TransactionState)
+            ((TransactionState) state).commit();
+        context.setNextStep(getNextStep());
+
+    }
+
+
+}
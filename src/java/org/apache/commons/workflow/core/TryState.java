@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+package org.apache.commons.workflow.core;
+
+
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+
+
+/**
+ * <p>The <code>BlockState</code> of a <code>TryStep</code>, which records
+ * the <code>CatchStep</code> (if any) chosen to handle an exception, and
+ * an exception to be thrown again once the <code>FinallyStep</code> (if
+ * any) has been executed.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class TryState extends BlockState {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new state for the specified Block.
+     *
+     * @param block The Block whose state this object represents
+     */
+    TryState(Block block) {
+
+        super(block, false);
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * Has the <code>FinallyStep</code> been entered?
+     */
+    private boolean finishing = false;
+
+
+    /**
+     * The <code>CatchStep</code> chosen to handle an exception, if any.
+     */
+    private Step handler = null;
+
+
+    /**
+     * The exception to be thrown again after the <code>FinallyStep</code>
+     * has been executed, if any.
+     */
+    private StepException pending = null;
+
+
+    // -------------------------------------------------------- Package Methods
+
+
+    boolean getFinishing() {
+        return (this.finishing);
+    }
+
+    void setFinishing(boolean finishing) {
+        this.finishing = finishing;
+    }
+
+
+    Step getHandler() {
+        return (this.handler);
+    }
+
+    void setHandler(Step handler) {
+        this.handler = handler;
+    }
+
+
+    StepException getPending() {
+        return (this.pending);
+    }
+
+    void setPending(StepException pending) {
+        this.pending = pending;
+    }
+
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+package org.apache.commons.workflow.core;
+
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import org.apache.commons.workflow.BlockState;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.ExceptionHandler;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.BaseBlock;
+import org.apache.commons.workflow.base.BaseContext;
+import org.apache.commons.workflow.base.ExternalizableBlock;
+
+
+/**
+ * <p>Execute the nested Steps, handling any <code>StepException</code>
+ * thrown by them (or by a Step of an Activity they call) with the first
+ * nested <code>CatchStep</code> whose <code>type</code> matches it.  The
+ * nested <code>FinallyStep</code>, if any, is executed however the other
+ * nested Steps complete, after which an exception that was not caught (or
+ * that was thrown by a CatchStep) is thrown again.  All of this happens
+ * within the current call to <code>Context.execute()</code>.</p>
+ *
+ * <p>The evaluation stack is not restored when an exception is caught;
+ * the caught exception is simply pushed onto it.  Leaving this Block by
+ * means of a <code>core:break</code> or <code>core:continue</code> skips
+ * the FinallyStep.  If the Context is externalized while an exception is
+ * pending, the exception is restored as a <code>StepException</code> with
+ * the same message, cause, and Step.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class TryStep extends BaseBlock
+    implements ExceptionHandler, ExternalizableBlock {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public TryStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public TryStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the executable actions related to this Step, in the context of
+     * the specified Context.
+     *
+     * @param context The Context that is tracking our execution state
+     *
+     * @exception StepException if an exception that was not caught is
+     *  thrown again
+     */
+    public void execute(Context context) throws StepException {
+
+        BlockState state = state(context);
+        if (state == null) {
+            initial(context);
+            return;
+        }
+        context.popBlockState();
+        context.setNextStep(getNextStep());
+        if (state instanceof TryState) {
+            StepException pending = ((TryState) state).getPending();
+            if (pending != null)
+                throw pending;
+        }
+
+    }
+
+
+    /**
+     * Handle the specified exception with the first matching CatchStep if
+     * it was thrown by one of our other Steps, or else with our FinallyStep
+     * (if any) unless it was thrown by that Step.
+     *
+     * @param context The Context in which the exception was thrown
+     * @param state The BlockState of this Block
+     * @param exception The exception that was thrown
+     */
+    public boolean handle(Context context, BlockState state,
+                          StepException exception) {
+
+        TryState tryState = (TryState) state;
+        if (tryState.getFinishing()) {
+            context.popBlockState();
+            return (false);
+        }
+
+        // Look for a matching CatchStep
+        Step steps[] = getSteps();
+        if (tryState.getHandler() == null) {
+            for (int i = 0; i < steps.length; i++) {
+                if (!(steps[i] instanceof CatchStep))
+                    continue;
+                Throwable caught = ((CatchStep) steps[i]).match(exception);
+                if (caught != null) {
+                    tryState.setHandler(steps[i]);
+                    context.push(caught);
+                    context.setNextStep(steps[i]);
+                    return (true);
+                }
+            }
+        }
+
+        // Execute our FinallyStep before throwing the exception again
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] instanceof FinallyStep) {
+                tryState.setPending(exception);
+                context.setNextStep(steps[i]);
+                return (true);
+            }
+        }
+        context.popBlockState();
+        return (false);
+
+    }
+
+
+    /**
+     * Return <code>false</code>, because the end of this Block may throw an
+     * exception again, and because a call from its last Step must not
+     * discard our BlockState before the called Activity has completed.
+     */
+    public boolean isStructural() {
+
+        return (false);
+
+    }
+
+
+    /**
+     * Read a <code>TryState</code> written by <code>writeState()</code>.
+     *
+     * @param context The Context being restored
+     * @param in Input to read from
+     *
+     * @exception ClassNotFoundException if the class of a stored object
+     *  cannot be found
+     * @exception IOException if an input/output error occurs
+     */
+    public BlockState readState(BaseContext context, ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        TryState state = new TryState(this);
+        state.setFinishing(in.readBoolean());
+        state.setHandler(context.readStep(in));
+        if (in.readBoolean()) {
+            String message = (String) in.readObject();
+            Throwable cause = (Throwable) in.readObject();
+            Step step = context.readStep(in);
+            state.setPending(new StepException(message, cause, step));
+        }
+        return (state);
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<core:try");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        sb.append(">");
+        Step steps[] = getSteps();
+        for (int i = 0; i < steps.length; i++)
+            sb.append(steps[i]);
+        sb.append("</core:try>");
+        return (sb.toString());
+
+    }
+
+
+    /**
+     * Write the specified <code>TryState</code>, including the message,
+     * cause, and Step of its pending exception (if any).
+     *
+     * @param context The Context being externalized
+     * @param state The BlockState to be written
+     * @param out Output to write to
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    public void writeState(BaseContext context, BlockState state,
+                           ObjectOutput out)
+        throws IOException {
+
+        TryState tryState = (TryState) state;
+        out.writeBoolean(tryState.getFinishing());
+        context.writeStep(out, tryState.getHandler());
+        StepException pending = tryState.getPending();
+        out.writeBoolean(pending != null);
+        if (pending != null) {
+            out.writeObject(pending.getMessage());
+            out.writeObject(pending.getCause());
+            context.writeStep(out, pending.getStep());
+        }
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Process the initial entry into this Block.
+     *
+     * @param context Context within which to execute the nested Steps
+     */
+    protected void initial(Context context) {
+
+        if (getFirstStep() == null) {
+            context.setNextStep(getNextStep());
+            return;
+        }
+        context.pushBlockState(new TryState(this));
+        context.setNextStep(getFirstStep());
+
+    }
+
+
+}
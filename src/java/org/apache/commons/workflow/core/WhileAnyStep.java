@@ -43,7 +43,7 @@ import org.apache.commons.workflow.base.BaseBlock;
 public class WhileAnyStep extends WhileStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -84,6 +84,15 @@ public class WhileAnyStep extends WhileStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -18,23 +18,21 @@ package org.apache.commons.workflow.demo;
 
 
 import java.io.File;
-import org.apache.commons.digester.Digester;
 import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.ContextEvent;
 import org.apache.commons.workflow.ContextListener;
 import org.apache.commons.workflow.base.BaseContext;
-import org.apache.commons.workflow.base.BaseRuleSet;
-import org.apache.commons.workflow.core.CoreRuleSet;
-import org.apache.commons.workflow.io.IoRuleSet;
-import org.apache.commons.workflow.web.WebRuleSet;
+import org.apache.commons.workflow.util.ActivityParser;
 
 
 /**
  * <p>Demonstration program to illustrate how the Workflow Management System
  * is utilized.  It accepts a command line argument to an XML file that
  * contains an <code>&lt;activity&gt;</code> to be parsed and then executed.
- * If no file is specified, a default XML document will be utilized.</p>
+ * If no file is specified, a default XML document will be utilized.  The
+ * file may also contain an activity in the binary form produced by
+ * <code>ActivityCompiler</code>.</p>
  *
  * <p><strong>WARNING</strong> - This program is for illustration only while
  * the workflow management system is being developed, and it will not be
@@ -87,15 +85,15 @@ public class Main implements ContextListener {
 
 
     /**
-     * The Activity constructed by our Digester.
+     * The Activity read from our input file.
      */
     protected Activity activity = null;
 
 
     /**
-     * The Digester used to process input files.
+     * The parser used to process input files.
      */
-    protected Digester digester = null;
+    protected ActivityParser parser = null;
 
 
     // ------------------------------------------------------------ Constructor
@@ -107,7 +105,7 @@ public class Main implements ContextListener {
     public Main() {
 
         super();
-        digester = createDigester();
+        parser = new ActivityParser();
 
     }
 
@@ -115,52 +113,6 @@ public class Main implements ContextListener {
     // -------------------------------------------------------- Support Methods
 
 
-    /**
-     * <p>Create a Digester instance that knows how to parse activities using
-     * the <code>core</code> and <code>io</code> built-in Steps.</p>
-     *
-     * <p><strong>WARNING</strong> - This will ultimately be abstracted into
-     * a mechanism to register the set of rule definitions associated with
-     * a namespace.</p>
-     */
-    protected Digester createDigester() {
-
-        // Construct and configure a new Digester instance
-        Digester digester = new Digester();
-        //        digester.setDebug(999);
-        digester.setNamespaceAware(true);
-        digester.setValidating(false);
-        digester.push(this);
-
-        // Add rules to recognize the built-in steps that we know about
-        BaseRuleSet brs = new BaseRuleSet();
-        digester.addRuleSet(brs);
-        digester.addRuleSet(new CoreRuleSet());
-        digester.addRuleSet(new IoRuleSet());
-
-        // Add a rule to register the Activity being created
-        digester.setRuleNamespaceURI(brs.getNamespaceURI());
-        digester.addSetNext("activity", "setActivity",
-                            "org.apache.commons.workflow.Activity");
-
-        // Return the completed instance
-        return (digester);
-
-    }
-
-
-    /**
-     * Save the Activity that our Digester has constructed.
-     *
-     * @param activity The newly constructed Activity
-     */
-    public void setActivity(Activity activity) {
-
-        this.activity = activity;
-
-    }
-
-
     /**
      * Process the specified file.
      *
@@ -172,7 +124,7 @@ public class Main implements ContextListener {
         // Parse the activity definition
         try {
             System.out.println("Main:  Parsing activity file " + pathname);
-            digester.parse(new File(pathname));
+            activity = parser.parse(new File(pathname));
         } catch (Throwable t) {
             t.printStackTrace(System.out);
             return;
@@ -37,7 +37,7 @@ import org.apache.commons.workflow.base.DescriptorStep;
 public class DisplayStep extends DescriptorStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -79,6 +79,15 @@ public class DisplayStep extends DescriptorStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // --------------------------------------------------------- Public Methods
 
 
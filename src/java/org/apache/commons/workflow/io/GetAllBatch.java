@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.io;
+
+
+import java.util.List;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+
+
+/**
+ * <p>The shared state of a single execution of <code>GetAllStep</code>.
+ * Each thread running this batch (the executing thread, plus any shared
+ * <code>WorkerPool</code> threads that become free in time) repeatedly
+ * claims the index of the next URL not yet retrieved, until all of them
+ * have been claimed, and stores the outcome at the same index of the
+ * results array.  The executing thread then waits, in
+ * <code>await()</code>, for retrievals still in progress on other
+ * threads.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class GetAllBatch implements Runnable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new batch for the specified URLs.
+     *
+     * @param step The Step on whose behalf we are retrieving
+     * @param fetcher The GetStep used to perform each retrieval
+     * @param urls The URLs to be retrieved
+     */
+    GetAllBatch(Step step, GetStep fetcher, List urls) {
+
+        super();
+        this.step = step;
+        this.fetcher = fetcher;
+        this.urls = urls.toArray();
+        this.results = new Object[this.urls.length];
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The number of retrievals that have completed.
+     */
+    protected int completed = 0;
+
+
+    /**
+     * The GetStep used to perform each retrieval.
+     */
+    protected GetStep fetcher = null;
+
+
+    /**
+     * The index of the next URL to be claimed.
+     */
+    protected int next = 0;
+
+
+    /**
+     * The outcome of each retrieval, indexed like <code>urls</code>.
+     */
+    protected Object results[] = null;
+
+
+    /**
+     * The Step on whose behalf we are retrieving.
+     */
+    protected Step step = null;
+
+
+    /**
+     * The URLs to be retrieved.
+     */
+    protected Object urls[] = null;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Wait until every retrieval has completed, and return the outcome of
+     * each one, in input order.
+     *
+     * @exception InterruptedException if we are interrupted while waiting
+     */
+    public synchronized Object[] await() throws InterruptedException {
+
+        while (completed < urls.length)
+            wait();
+        return (this.results);
+
+    }
+
+
+    /**
+     * Retrieve URLs until all of them have been claimed.
+     */
+    public void run() {
+
+        while (true) {
+            int index = claim();
+            if (index < 0)
+                break;
+            Object outcome = null;
+            try {
+                outcome = fetcher.retrieve(urls[index]);
+            } catch (StepException e) {
+                outcome = new StepException(e.getMessage(), e.getCause(),
+                                            step);
+            } catch (Throwable t) {
+                outcome = new StepException(t, step);
+            }
+            complete(index, outcome);
+        }
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Claim the next unretrieved URL, and return its index, or return
+     * <code>-1</code> if all of them have been claimed.
+     */
+    protected synchronized int claim() {
+
+        if (next >= urls.length)
+            return (-1);
+        return (next++);
+
+    }
+
+
+    /**
+     * Record the outcome of the retrieval with the specified index.
+     *
+     * @param index Index of the URL that was retrieved
+     * @param outcome The retrieved content, or the StepException
+     *  describing the failure
+     */
+    protected synchronized void complete(int index, Object outcome) {
+
+        results[index] = outcome;
+        completed++;
+        if (completed >= urls.length)
+            notifyAll();
+
+    }
+
+
+}
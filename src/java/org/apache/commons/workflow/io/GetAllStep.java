@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.io;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EmptyStackException;
+import java.util.List;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.DescriptorStep;
+import org.apache.commons.workflow.util.WorkerPool;
+
+
+/**
+ * <p>Retrieve the contents of a number of URL resources concurrently, and
+ * push a <code>java.util.List</code> of the results onto the evaluation
+ * stack, in the same order as the URLs were specified.  Each element of the
+ * list is either the retrieved content as a String, or the
+ * <code>StepException</code> describing why that particular resource could
+ * not be retrieved; a failure to retrieve one resource does not cause this
+ * Step to fail.</p>
+ *
+ * <p>The URLs to be retrieved are the values of the associated
+ * <code>Descriptors</code>, each of which may be a single URL (as a
+ * <code>URL</code> or a String), a <code>Collection</code>, or an array.
+ * If there are no associated descriptors, a single value (of any of these
+ * types) is popped from the top of the evaluation stack.</p>
+ *
+ * <p>Supported Attributes:</p>
+ * <ul>
+ * <li><strong>cache</strong> - Should responses be served from, and stored
+ *     in, the shared <code>ResponseCache</code>, as for
+ *     <code>GetStep</code>?  [false]</li>
+ * <li><strong>concurrency</strong> - Maximum number of resources to be
+ *     retrieved at the same time.  [4]</li>
+ * <li><strong>timeout</strong> - Connect and read timeout, in milliseconds,
+ *     for each individual resource, or zero to wait indefinitely, as for
+ *     <code>GetStep</code>.  [0]</li>
+ * </ul>
+ *
+ * <p>Retrievals are performed by the executing thread, helped by up to
+ * <code>concurrency - 1</code> threads of the shared
+ * <code>WorkerPool</code>, so the total number of threads retrieving
+ * resources is bounded however many Contexts execute this Step at once.
+ * If the pool is busy, the executing thread simply retrieves more of the
+ * resources itself.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class GetAllStep extends DescriptorStep {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a default instance of this Step.
+     */
+    public GetAllStep() {
+
+        super();
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier.
+     *
+     * @param id Step identifier
+     */
+    public GetAllStep(String id) {
+
+        super();
+        setId(id);
+
+    }
+
+
+    /**
+     * Construct an instance of this Step with the specified identifier
+     * and associated Descriptor.
+     *
+     * @param id Step identifier
+     * @param descriptor Initial descriptor
+     */
+    public GetAllStep(String id, Descriptor descriptor) {
+
+        super();
+        setId(id);
+        addDescriptor(descriptor);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Should we use the shared <code>ResponseCache</code>?
+     */
+    protected boolean cache = false;
+
+    public boolean getCache() {
+        return (this.cache);
+    }
+
+    public void setCache(boolean cache) {
+        this.cache = cache;
+    }
+
+
+    /**
+     * The maximum number of resources retrieved at the same time.
+     */
+    protected int concurrency = 4;
+
+    public int getConcurrency() {
+        return (this.concurrency);
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+
+    /**
+     * The connect and read timeout in milliseconds for each resource, or
+     * zero to wait indefinitely.
+     */
+    protected long timeout = 0L;
+
+    public long getTimeout() {
+        return (this.timeout);
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the executable actions related to this Step, in the context of
+     * the specified Context.
+     *
+     * @param context The Context that is tracking our execution state
+     *
+     * @exception StepException if a processing error has occurred
+     */
+    public void execute(Context context) throws StepException {
+
+        // Collect the URLs to be retrieved
+        List urls = new ArrayList();
+        Descriptor descriptors[] = findDescriptors();
+        if (descriptors.length > 0) {
+            for (int i = 0; i < descriptors.length; i++) {
+                Object value = descriptors[i].get(context);
+                if (value == null)
+                    throw new StepException
+                        ("Cannot retrieve object for " + descriptors[i], this);
+                collect(urls, value);
+            }
+        } else {
+            try {
+                collect(urls, context.pop());
+            } catch (EmptyStackException e) {
+                throw new StepException("Evaluation stack is empty", this);
+            }
+        }
+
+        // Retrieve them on this thread, helped by up to "concurrency - 1"
+        // shared worker threads
+        GetStep fetcher = new GetStep(getId());
+        fetcher.setCache(cache);
+        fetcher.setTimeout(timeout);
+        GetAllBatch batch = new GetAllBatch(this, fetcher, urls);
+        int helpers = Math.min(concurrency, urls.size()) - 1;
+        if (helpers > 0) {
+            WorkerPool pool = WorkerPool.getPool();
+            for (int i = 0; i < helpers; i++)
+                pool.execute(batch);
+        }
+        batch.run();
+        Object results[] = null;
+        try {
+            results = batch.await();
+        } catch (InterruptedException e) {
+            throw new StepException
+                ("Interrupted waiting for retrievals", e, this);
+        }
+
+        // Push the results, in input order
+        context.push(new ArrayList(Arrays.asList(results)));
+
+    }
+
+
+    /**
+     * Render a string representation of this Step.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("<io:getAll");
+        if (getId() != null) {
+            sb.append(" id=\"");
+            sb.append(getId());
+            sb.append("\"");
+        }
+        sb.append(" cache=\"");
+        sb.append(cache);
+        sb.append("\" concurrency=\"");
+        sb.append(concurrency);
+        sb.append("\" timeout=\"");
+        sb.append(timeout);
+        sb.append("\"/>");
+        return (sb.toString());
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Add the URL (or URLs) represented by the specified value to the
+     * specified list.
+     *
+     * @param urls List to which URLs are added
+     * @param value A single URL, a Collection, or an array
+     */
+    protected void collect(List urls, Object value) {
+
+        if (value instanceof Collection)
+            urls.addAll((Collection) value);
+        else if (value instanceof Object[])
+            urls.addAll(Arrays.asList((Object[]) value));
+        else
+            urls.add(value);
+
+    }
+
+
+}
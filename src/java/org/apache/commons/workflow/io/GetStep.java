@@ -21,6 +21,7 @@ import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
@@ -37,6 +38,16 @@ import org.apache.commons.workflow.util.WorkflowUtils;
  *
  * <p>Supported Attributes:</p>
  * <ul>
+ * <li><strong>cache</strong> - Should responses be served from, and stored
+ *     in, the shared <code>ResponseCache</code>?  Fresh entries are used
+ *     without contacting the server; stale entries that carry an
+ *     <code>ETag</code> or <code>Last-Modified</code> validator are
+ *     revalidated with a conditional request.  [false]</li>
+ * <li><strong>timeout</strong> - Connect and read timeout in milliseconds,
+ *     or zero to wait indefinitely.  A retrieval that times out fails with
+ *     a <code>StepException</code>.  Timeouts are applied through
+ *     <code>URLConnection.setConnectTimeout()</code> and
+ *     <code>setReadTimeout()</code>.  [0]</li>
  * <li><strong>url</strong> - URL of the resource to be retrieved, or
  *     omitted to pop a computed String value from the top of the
  *     evaluation stack.</li>
@@ -51,7 +62,7 @@ import org.apache.commons.workflow.util.WorkflowUtils;
 public class GetStep extends BaseStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -92,9 +103,47 @@ public class GetStep extends BaseStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ------------------------------------------------------------- Properties
 
 
+    /**
+     * Should we use the shared <code>ResponseCache</code>?
+     */
+    protected boolean cache = false;
+
+    public boolean getCache() {
+        return (this.cache);
+    }
+
+    public void setCache(boolean cache) {
+        this.cache = cache;
+    }
+
+
+    /**
+     * The connect and read timeout in milliseconds, or zero to wait
+     * indefinitely.
+     */
+    protected long timeout = 0L;
+
+    public long getTimeout() {
+        return (this.timeout);
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+
     /**
      * The URL of the resource to be retrieved.
      */
@@ -124,7 +173,6 @@ public class GetStep extends BaseStep {
 
         // Get the remote URL we will be contacting
         Object remote = this.url;
-        URL remoteURL = null;
         if (remote == null) {
             try {
                 remote = (String) context.pop();
@@ -132,24 +180,76 @@ public class GetStep extends BaseStep {
                 throw new StepException("Evaluation stack is empty", this);
             }
         }
+
+        // Retrieve the contents and push them onto the evaluation stack
+        context.push(retrieve(remote));
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Retrieve the contents of the specified remote resource as a String,
+     * using the shared <code>ResponseCache</code> if our <code>cache</code>
+     * property is set.
+     *
+     * @param remote The URL to be retrieved, as a <code>URL</code> or as
+     *  an object whose String representation is a URL
+     *
+     * @exception StepException if the URL is invalid or an input/output
+     *  error occurs
+     */
+    protected String retrieve(Object remote) throws StepException {
+
+        // Convert the remote resource reference to a URL
+        URL remoteURL = null;
         if (remote instanceof URL) {
             remoteURL = (URL) remote;
-        } else if (remote instanceof String) {
-            try {
-                remoteURL = new URL((String) remote);
-            } catch (MalformedURLException e) {
-                throw new StepException("Invalid URL '" + remote + "'",
-                                        e, this);
-            }
         } else {
             try {
-                remoteURL = new URL(remote.toString());
+                remoteURL = new URL(String.valueOf(remote));
             } catch (MalformedURLException e) {
                 throw new StepException("Invalid URL '" + remote + "'",
                                         e, this);
             }
         }
 
+        // Serve a fresh cached copy if we have one
+        ResponseCache responseCache = null;
+        ResponseCacheEntry entry = null;
+        if (cache) {
+            responseCache = ResponseCache.getCache();
+            entry = responseCache.get(remoteURL.toExternalForm());
+            if ((entry != null) &&
+                entry.isFresh(System.currentTimeMillis()))
+                return (entry.getContent());
+        }
+
+        // Retrieve (or revalidate) the content
+        return (retrieve(remoteURL, responseCache, entry));
+
+    }
+
+
+    /**
+     * Retrieve the contents of the specified URL as a String.  If a cache
+     * and a stale entry are specified, a conditional request is issued and
+     * the cached content is returned if the server reports that it has not
+     * been modified; otherwise, the retrieved content is stored in the
+     * cache if its response headers allow.
+     *
+     * @param remoteURL The URL to be retrieved
+     * @param responseCache The cache to be updated, or <code>null</code>
+     * @param entry The stale entry to be revalidated, or <code>null</code>
+     *
+     * @exception StepException if an input/output error occurs
+     */
+    protected String retrieve(URL remoteURL, ResponseCache responseCache,
+                              ResponseCacheEntry entry)
+        throws StepException {
+
         // Define variables we will need later
         URLConnection conn = null;
         InputStream is = null;
@@ -161,10 +261,34 @@ public class GetStep extends BaseStep {
         try {
 
             // Open a connection to the specified URL
+            long now = System.currentTimeMillis();
             conn = remoteURL.openConnection();
             conn.setDoInput(true);
             conn.setDoOutput(false);
+            if (timeout > 0L) {
+                int millis = (int) Math.min(timeout, Integer.MAX_VALUE);
+                conn.setConnectTimeout(millis);
+                conn.setReadTimeout(millis);
+            }
+            if ((entry != null) && entry.isValidatable()) {
+                if (entry.getLastModified() > 0L)
+                    conn.setIfModifiedSince(entry.getLastModified());
+                if (entry.getETag() != null)
+                    conn.setRequestProperty("If-None-Match",
+                                            entry.getETag());
+            }
             conn.connect();
+
+            // Reuse our cached copy if it has not been modified
+            if ((entry != null) && (conn instanceof HttpURLConnection) &&
+                (((HttpURLConnection) conn).getResponseCode() ==
+                 HttpURLConnection.HTTP_NOT_MODIFIED)) {
+                responseCache.put
+                    (entry.revalidate(ResponseCache.expiration(conn, now)));
+                conn.getInputStream().close();
+                return (entry.getContent());
+            }
+
             int contentLength = conn.getContentLength();
             if (contentLength < 2048)
                 contentLength = 2048;
@@ -197,6 +321,17 @@ public class GetStep extends BaseStep {
             bis = null;
             is = null;
 
+            // Cache the retrieved content if we are allowed to
+            if (responseCache != null) {
+                ResponseCacheEntry newEntry =
+                    ResponseCache.createEntry(remoteURL.toExternalForm(),
+                                              conn, sb.toString(), now);
+                if (newEntry != null)
+                    responseCache.put(newEntry);
+                else if (entry != null)
+                    responseCache.remove(remoteURL.toExternalForm());
+            }
+
         } catch (IOException e) {
 
             se = new StepException("IOException processing '" + remoteURL +
@@ -226,10 +361,10 @@ public class GetStep extends BaseStep {
 
         }
 
-        // Push results or throw exception as appropriate
+        // Return results or throw exception as appropriate
         if (se != null)
             throw se;
-        context.push(sb.toString());
+        return (sb.toString());
 
     }
 
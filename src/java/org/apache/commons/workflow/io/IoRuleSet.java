@@ -70,6 +70,8 @@ public class IoRuleSet extends BaseRuleSet {
                         "org.apache.commons.workflow.io.DisplayStep");
         addStandardStep(digester, "get",
                         "org.apache.commons.workflow.io.GetStep");
+        addStandardStep(digester, "getAll",
+                        "org.apache.commons.workflow.io.GetAllStep");
         addStandardStep(digester, "peek",
                         "org.apache.commons.workflow.io.PeekStep");
         addStandardStep(digester, "read",
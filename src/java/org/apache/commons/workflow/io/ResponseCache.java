@@ -0,0 +1,659 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.workflow.io;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import org.apache.commons.collections.LRUMap;
+import org.apache.commons.collections.SequencedHashMap;
+
+
+/**
+ * <p><strong>ResponseCache</strong> is a local cache of responses retrieved
+ * by <code>GetStep</code>, honoring the <code>Cache-Control</code>,
+ * <code>Expires</code>, <code>ETag</code> and <code>Last-Modified</code>
+ * headers returned by the origin server.  Entries are held in a bounded
+ * in-memory tier with least-recently-used eviction and, optionally, in an
+ * on-disk tier that survives eviction from memory.</p>
+ *
+ * <p>A single instance may be shared by all of the <code>Contexts</code> in
+ * an application.  The monitor of the cache itself guards only the
+ * in-memory tier, and is never held while the on-disk tier is read or
+ * written.  Disk access for a given URL is serialized instead by one of a
+ * fixed number of stripe locks, chosen by the hash code of the URL, so that
+ * retrievals of unrelated URLs do not wait for each other's disk I/O.
+ * Entry files are named by a SHA-1 digest of the URL, and each file
+ * records the URL it was stored for, which is checked when it is
+ * loaded.</p>
+ *
+ * <p>The on-disk tier is bounded separately, by a maximum number of files
+ * and a maximum total size, and the least recently used files are deleted
+ * when a newly stored entry exceeds either bound.  Files already present
+ * when the directory is set are counted against these bounds, in no
+ * particular order.  A file may be deleted for eviction while another
+ * thread is storing a fresh copy of the same entry, in which case that
+ * entry is simply missing from disk.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ResponseCache {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new memory-only cache with the default maximum size.
+     */
+    public ResponseCache() {
+
+        this(DEFAULT_MAX_ENTRIES, null);
+
+    }
+
+
+    /**
+     * Construct a new memory-only cache with the specified maximum size.
+     *
+     * @param maxEntries Maximum number of entries held in memory
+     */
+    public ResponseCache(int maxEntries) {
+
+        this(maxEntries, null);
+
+    }
+
+
+    /**
+     * Construct a new cache with the specified maximum size and disk
+     * directory.
+     *
+     * @param maxEntries Maximum number of entries held in memory
+     * @param directory Directory for the on-disk tier, or <code>null</code>
+     *  for a memory-only cache
+     */
+    public ResponseCache(int maxEntries, File directory) {
+
+        super();
+        this.entries = new LRUMap(maxEntries);
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new Object();
+        setDirectory(directory);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The default maximum number of entries held in memory.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+
+    /**
+     * The default maximum number of files in the on-disk tier.
+     */
+    public static final int DEFAULT_MAX_DISK_ENTRIES = 4096;
+
+
+    /**
+     * The default maximum total size (in bytes) of the on-disk tier.
+     */
+    public static final long DEFAULT_MAX_DISK_BYTES = 64L * 1024L * 1024L;
+
+
+    /**
+     * The number of stripe locks serializing access to the on-disk tier
+     * (a power of two).
+     */
+    protected static final int STRIPES = 16;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The in-memory tier, keyed by the external form of the URL.
+     */
+    protected LRUMap entries = null;
+
+
+    /**
+     * The files of the on-disk tier, keyed by file name with their
+     * lengths as <code>Long</code> values, least recently used first.
+     * Guarded by the monitor of this cache.
+     */
+    protected SequencedHashMap files = new SequencedHashMap();
+
+
+    /**
+     * The total length of the files in <code>files</code>.
+     */
+    protected long fileBytes = 0L;
+
+
+    /**
+     * The stripe locks serializing access to the on-disk tier.  Where both
+     * are held, a stripe lock is always acquired before the monitor of
+     * this cache.
+     */
+    protected Object locks[] = new Object[STRIPES];
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The directory holding the on-disk tier, if any.
+     */
+    protected File directory = null;
+
+    public synchronized File getDirectory() {
+        return (this.directory);
+    }
+
+    public synchronized void setDirectory(File directory) {
+        if ((directory != null) && !directory.exists())
+            directory.mkdirs();
+        this.directory = directory;
+        files.clear();
+        fileBytes = 0L;
+        File list[] = null;
+        if (directory != null)
+            list = directory.listFiles();
+        if (list == null)
+            return;                 // Not a directory, or unreadable
+        for (int i = 0; i < list.length; i++) {
+            if (list[i].getName().endsWith(SUFFIX)) {
+                long length = list[i].length();
+                files.put(list[i].getName(), Long.valueOf(length));
+                fileBytes += length;
+            }
+        }
+    }
+
+
+    /**
+     * The maximum total size (in bytes) of the on-disk tier.  A smaller
+     * maximum takes effect when the next entry is stored.
+     */
+    protected long maxDiskBytes = DEFAULT_MAX_DISK_BYTES;
+
+    public synchronized long getMaxDiskBytes() {
+        return (this.maxDiskBytes);
+    }
+
+    public synchronized void setMaxDiskBytes(long maxDiskBytes) {
+        this.maxDiskBytes = maxDiskBytes;
+    }
+
+
+    /**
+     * The maximum number of files in the on-disk tier.  A smaller maximum
+     * takes effect when the next entry is stored.
+     */
+    protected int maxDiskEntries = DEFAULT_MAX_DISK_ENTRIES;
+
+    public synchronized int getMaxDiskEntries() {
+        return (this.maxDiskEntries);
+    }
+
+    public synchronized void setMaxDiskEntries(int maxDiskEntries) {
+        this.maxDiskEntries = maxDiskEntries;
+    }
+
+
+    /**
+     * Return the maximum number of entries held in memory.
+     */
+    public synchronized int getMaxEntries() {
+
+        return (entries.getMaximumSize());
+
+    }
+
+
+    /**
+     * Set the maximum number of entries held in memory.
+     *
+     * @param maxEntries The new maximum
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+
+        entries.setMaximumSize(maxEntries);
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Remove all entries from both tiers of this cache.
+     */
+    public void clear() {
+
+        File directory = null;
+        synchronized (this) {
+            entries.clear();
+            files.clear();
+            fileBytes = 0L;
+            directory = this.directory;
+        }
+        if (directory == null)
+            return;
+        File files[] = directory.listFiles();
+        if (files == null)
+            return;                 // Not a directory, or unreadable
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].getName().endsWith(SUFFIX))
+                files[i].delete();
+        }
+
+    }
+
+
+    /**
+     * Return the cached entry for the specified URL, if any; otherwise
+     * return <code>null</code>.  An entry found only on disk is promoted
+     * back into the in-memory tier.
+     *
+     * @param url External form of the URL to look up
+     */
+    public ResponseCacheEntry get(String url) {
+
+        // Look in the in-memory tier first
+        File directory = null;
+        synchronized (this) {
+            ResponseCacheEntry entry = (ResponseCacheEntry) entries.get(url);
+            if (entry != null)
+                return (entry);
+            directory = this.directory;
+        }
+        if (directory == null)
+            return (null);
+
+        // Fall back to the on-disk tier
+        synchronized (lock(url)) {
+            ResponseCacheEntry entry = load(directory, url);
+            if (entry == null)
+                return (null);
+            synchronized (this) {
+                ResponseCacheEntry current =
+                    (ResponseCacheEntry) entries.get(url);
+                if (current != null)
+                    return (current);
+                entries.put(url, entry);
+            }
+            return (entry);
+        }
+
+    }
+
+
+    /**
+     * Store the specified entry in this cache, replacing any previous entry
+     * for the same URL.
+     *
+     * @param entry The entry to be stored
+     */
+    public void put(ResponseCacheEntry entry) {
+
+        synchronized (lock(entry.getUrl())) {
+            File directory = null;
+            synchronized (this) {
+                entries.put(entry.getUrl(), entry);
+                directory = this.directory;
+            }
+            if (directory != null)
+                store(directory, entry);
+        }
+
+    }
+
+
+    /**
+     * Remove any entry for the specified URL from both tiers of this cache.
+     *
+     * @param url External form of the URL to be removed
+     */
+    public void remove(String url) {
+
+        synchronized (lock(url)) {
+            File directory = null;
+            synchronized (this) {
+                entries.remove(url);
+                directory = this.directory;
+            }
+            if (directory != null) {
+                File file = file(directory, url);
+                file.delete();
+                touch(file, -1L);
+            }
+        }
+
+    }
+
+
+    /**
+     * Return the number of entries currently held in memory.
+     */
+    public synchronized int size() {
+
+        return (entries.size());
+
+    }
+
+
+    // ------------------------------------------------------- Static Variables
+
+
+    /**
+     * The singleton cache instance.
+     */
+    protected static ResponseCache cache = null;
+
+
+    /**
+     * The file name suffix of entries in the on-disk tier.
+     */
+    protected static final String SUFFIX = ".cache";
+
+
+    /**
+     * The hexadecimal digits used to build entry file names.
+     */
+    protected static final String HEX = "0123456789abcdef";
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Factory method to return a Singleton (per class loader)
+     * <code>ResponseCache</code> instance.
+     */
+    public static synchronized ResponseCache getCache() {
+
+        if (cache == null)
+            cache = new ResponseCache();
+        return (cache);
+
+    }
+
+
+    /**
+     * Create a cache entry for a response that has just been retrieved over
+     * the specified connection, or return <code>null</code> if the response
+     * headers do not allow it to be cached usefully.
+     *
+     * @param url External form of the URL that was retrieved
+     * @param conn The connection the content was retrieved over
+     * @param content The content that was retrieved
+     * @param now The time (in milliseconds) the request was issued
+     */
+    public static ResponseCacheEntry createEntry(String url,
+                                                 URLConnection conn,
+                                                 String content, long now) {
+
+        String cacheControl = conn.getHeaderField("Cache-Control");
+        if ((cacheControl != null) &&
+            (cacheControl.indexOf("no-store") >= 0))
+            return (null);
+        ResponseCacheEntry entry =
+            new ResponseCacheEntry(url, content,
+                                   conn.getHeaderField("ETag"),
+                                   conn.getLastModified(),
+                                   expiration(conn, now));
+        if ((entry.getExpires() <= now) && !entry.isValidatable())
+            return (null);          // Could never be used again
+        return (entry);
+
+    }
+
+
+    /**
+     * Calculate the time until which a response retrieved over the
+     * specified connection is fresh, based on the <code>max-age</code>
+     * and <code>no-cache</code> directives of <code>Cache-Control</code>
+     * (which take precedence) and the <code>Expires</code> header.
+     *
+     * @param conn The connection the response was retrieved over
+     * @param now The time (in milliseconds) the request was issued
+     */
+    public static long expiration(URLConnection conn, long now) {
+
+        String cacheControl = conn.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            if (cacheControl.indexOf("no-cache") >= 0)
+                return (0L);
+            int start = cacheControl.indexOf("max-age=");
+            if (start >= 0) {
+                start += 8;
+                int end = start;
+                while ((end < cacheControl.length()) &&
+                       Character.isDigit(cacheControl.charAt(end)))
+                    end++;
+                try {
+                    return (now + 1000L *
+                            Long.parseLong(cacheControl.substring(start, end)));
+                } catch (NumberFormatException e) {
+                    return (0L);
+                }
+            }
+        }
+        return (conn.getExpiration());
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Delete the specified files evicted from the on-disk tier, if any.
+     *
+     * @param evicted The files to be deleted, or <code>null</code>
+     */
+    protected void delete(File evicted[]) {
+
+        if (evicted == null)
+            return;
+        for (int i = 0; i < evicted.length; i++)
+            evicted[i].delete();
+
+    }
+
+
+    /**
+     * Return the file in the on-disk tier for the specified URL, named by
+     * the hexadecimal SHA-1 digest of the URL.
+     *
+     * @param directory Directory of the on-disk tier
+     * @param url External form of the URL
+     */
+    protected File file(File directory, String url) {
+
+        byte digest[] = null;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest
+                (url.getBytes("UTF-8"));
+        } catch (Exception e) {
+            // Every Java platform is required to support both of these
+            throw new IllegalStateException(e.toString());
+        }
+        StringBuffer sb = new StringBuffer(2 * digest.length + 6);
+        for (int i = 0; i < digest.length; i++) {
+            sb.append(HEX.charAt((digest[i] >> 4) & 0x0f));
+            sb.append(HEX.charAt(digest[i] & 0x0f));
+        }
+        sb.append(SUFFIX);
+        return (new File(directory, sb.toString()));
+
+    }
+
+
+    /**
+     * Return the stripe lock serializing disk access for the specified URL.
+     *
+     * @param url External form of the URL
+     */
+    protected Object lock(String url) {
+
+        int hash = url.hashCode();
+        hash ^= (hash >>> 16);
+        return (locks[hash & (STRIPES - 1)]);
+
+    }
+
+
+    /**
+     * Load the entry for the specified URL from the on-disk tier, if it
+     * exists there.  Otherwise, return <code>null</code>.  The caller must
+     * hold the stripe lock for this URL.
+     *
+     * @param directory Directory of the on-disk tier
+     * @param url External form of the URL
+     */
+    protected ResponseCacheEntry load(File directory, String url) {
+
+        File file = file(directory, url);
+        if (!file.exists()) {
+            touch(file, -1L);
+            return (null);
+        }
+        ObjectInputStream ois = null;
+        try {
+            ois = new ObjectInputStream
+                (new BufferedInputStream(new FileInputStream(file)));
+            ResponseCacheEntry entry = (ResponseCacheEntry) ois.readObject();
+            if (!url.equals(entry.getUrl()))
+                return (null);      // Stored for some other URL
+            delete(touch(file, file.length()));
+            return (entry);
+        } catch (Throwable t) {
+            file.delete();          // Unreadable, so discard it
+            touch(file, -1L);
+            return (null);
+        } finally {
+            if (ois != null) {
+                try {
+                    ois.close();
+                } catch (Throwable t) {
+                    ;
+                }
+            }
+        }
+
+    }
+
+
+    /**
+     * Store the specified entry in the on-disk tier, and delete the least
+     * recently used files if it is now over either of its bounds.
+     * Failures are ignored, because the entry is still held in memory.
+     * The caller must hold the stripe lock for the URL of this entry.
+     *
+     * @param directory Directory of the on-disk tier
+     * @param entry The entry to be stored
+     */
+    protected void store(File directory, ResponseCacheEntry entry) {
+
+        File file = file(directory, entry.getUrl());
+        ObjectOutputStream oos = null;
+        boolean stored = false;
+        try {
+            oos = new ObjectOutputStream
+                (new BufferedOutputStream(new FileOutputStream(file)));
+            oos.writeObject(entry);
+            oos.close();
+            oos = null;
+            stored = true;
+        } catch (Throwable t) {
+            ;
+        } finally {
+            if (oos != null) {
+                try {
+                    oos.close();
+                } catch (Throwable t) {
+                    ;
+                }
+            }
+        }
+        if (stored) {
+            delete(touch(file, file.length()));
+        } else {
+            file.delete();
+            touch(file, -1L);
+        }
+
+    }
+
+
+    /**
+     * Record that the specified file of the on-disk tier has just been
+     * used and has the specified length, or has been deleted if the length
+     * is negative.  Return the least recently used files that must be
+     * deleted to keep the on-disk tier within its bounds (which may
+     * include this file), or <code>null</code> if there are none.  The
+     * files are removed from our records, but the caller must delete them,
+     * outside the monitor of this cache.
+     *
+     * @param file The file that was used
+     * @param length The length of the file, or -1 if it was deleted
+     */
+    protected synchronized File[] touch(File file, long length) {
+
+        Long old = (Long) files.remove(file.getName());
+        if (old != null)
+            fileBytes -= old.longValue();
+        if (length < 0L)
+            return (null);
+        files.put(file.getName(), Long.valueOf(length));
+        fileBytes += length;
+
+        ArrayList evicted = null;
+        while (!files.isEmpty() &&
+               ((files.size() > maxDiskEntries) ||
+                (fileBytes > maxDiskBytes))) {
+            String name = (String) files.getFirstKey();
+            fileBytes -= ((Long) files.remove(name)).longValue();
+            if (evicted == null)
+                evicted = new ArrayList();
+            evicted.add(new File(file.getParentFile(), name));
+        }
+        if (evicted == null)
+            return (null);
+        return ((File[]) evicted.toArray(new File[evicted.size()]));
+
+    }
+
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.workflow.io;
+
+
+import java.io.Serializable;
+
+
+/**
+ * <p>A single response held by a <code>ResponseCache</code>, together with
+ * the validators (<code>ETag</code> and <code>Last-Modified</code>) needed
+ * to revalidate it with a conditional request, and the time until which it
+ * may be served without contacting the origin server at all.</p>
+ *
+ * <p>Instances are immutable; revalidation creates a new entry.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ResponseCacheEntry implements Serializable {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of entries stored in the on-disk tier.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new cache entry with the specified values.
+     *
+     * @param url External form of the URL this content was retrieved from
+     * @param content Content of the response
+     * @param etag Value of the <code>ETag</code> header (if any)
+     * @param lastModified Value of the <code>Last-Modified</code> header,
+     *  or zero if there was none
+     * @param expires Time (in milliseconds) until which this entry is fresh,
+     *  or zero if it must be revalidated on every use
+     */
+    public ResponseCacheEntry(String url, String content, String etag,
+                              long lastModified, long expires) {
+
+        super();
+        this.url = url;
+        this.content = content;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.expires = expires;
+
+    }
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The content of the cached response.
+     */
+    protected String content = null;
+
+    public String getContent() {
+        return (this.content);
+    }
+
+
+    /**
+     * The entity tag of the cached response (if any).
+     */
+    protected String etag = null;
+
+    public String getETag() {
+        return (this.etag);
+    }
+
+
+    /**
+     * The time (in milliseconds) until which this entry is fresh.
+     */
+    protected long expires = 0L;
+
+    public long getExpires() {
+        return (this.expires);
+    }
+
+
+    /**
+     * The last modified date of the cached response, or zero.
+     */
+    protected long lastModified = 0L;
+
+    public long getLastModified() {
+        return (this.lastModified);
+    }
+
+
+    /**
+     * The external form of the URL the content was retrieved from.
+     */
+    protected String url = null;
+
+    public String getUrl() {
+        return (this.url);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * May this entry be served at the specified time without revalidating
+     * it with the origin server?
+     *
+     * @param now The current time in milliseconds
+     */
+    public boolean isFresh(long now) {
+
+        return (now < expires);
+
+    }
+
+
+    /**
+     * Can this entry be revalidated with a conditional request?
+     */
+    public boolean isValidatable() {
+
+        return ((etag != null) || (lastModified > 0L));
+
+    }
+
+
+    /**
+     * Return a new entry with the same content and validators as this one,
+     * but fresh until the specified time.  This is used after the origin
+     * server responds to a conditional request with "304 Not Modified".
+     *
+     * @param expires Time (in milliseconds) until which the new entry
+     *  is fresh
+     */
+    public ResponseCacheEntry revalidate(long expires) {
+
+        return (new ResponseCacheEntry(url, content, etag,
+                                       lastModified, expires));
+
+    }
+
+
+    /**
+     * Render a printable version of this object.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("ResponseCacheEntry[url=");
+        sb.append(url);
+        if (etag != null) {
+            sb.append(", etag=");
+            sb.append(etag);
+        }
+        sb.append(", lastModified=");
+        sb.append(lastModified);
+        sb.append(", expires=");
+        sb.append(expires);
+        sb.append("]");
+        return (sb.toString());
+
+    }
+
+
+}
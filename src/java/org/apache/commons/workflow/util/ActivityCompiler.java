@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import org.apache.commons.workflow.Activity;
+
+
+/**
+ * <p>Build time tool that parses XML Activity definitions and saves each of
+ * them in the binary form written by <code>ActivitySerializer</code>, so
+ * that they can be loaded at startup without parsing XML.  Each output
+ * file has the name of the corresponding input file, with its extension
+ * (if any) replaced by <code>ActivitySerializer.SUFFIX</code>, and is
+ * written to the output directory (if specified) or next to the input
+ * file.</p>
+ *
+ * <p>The <code>-O</code> option rewrites each Activity with
+ * <code>ActivityOptimizer</code> before it is saved.</p>
+ *
+ * <p>Usage:  <code>java org.apache.commons.workflow.util.ActivityCompiler
+ * [-d {output-directory}] [-O] {XML-file} ...</code></p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ActivityCompiler {
+
+
+    // ----------------------------------------------------------- Main Program
+
+
+    /**
+     * The main program for the compiler.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String args[]) {
+
+        // Process the command line arguments
+        File directory = null;
+        boolean optimize = false;
+        int first = 0;
+        while (first < args.length) {
+            if ((first + 1 < args.length) && "-d".equals(args[first])) {
+                directory = new File(args[first + 1]);
+                first += 2;
+            } else if ("-O".equals(args[first])) {
+                optimize = true;
+                first++;
+            } else
+                break;
+        }
+        if (args.length <= first) {
+            System.out.println("Usage:  java org.apache.commons.workflow.util.ActivityCompiler [-d {output-directory}] [-O] {XML-file} ...");
+            System.exit(1);
+        }
+
+        // Compile each of the specified files
+        ActivityParser parser = new ActivityParser();
+        parser.setOptimize(optimize);
+        boolean ok = true;
+        for (int i = first; i < args.length; i++) {
+            File input = new File(args[i]);
+            try {
+                File output = compile(parser, input, directory);
+                System.out.println("ActivityCompiler:  " + input +
+                                   " -> " + output);
+            } catch (Throwable t) {
+                System.out.println("ActivityCompiler:  Cannot compile " +
+                                   input);
+                t.printStackTrace(System.out);
+                ok = false;
+            }
+        }
+        if (!ok)
+            System.exit(1);
+
+    }
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Compile the specified XML definition file into binary form, and
+     * return the output file.
+     *
+     * @param parser Parser used to read the XML definition
+     * @param input The XML definition file
+     * @param directory Directory for the output file, or <code>null</code>
+     *  for the directory containing the input file
+     *
+     * @exception Exception if the definition cannot be parsed or written
+     */
+    public static File compile(ActivityParser parser, File input,
+                               File directory) throws Exception {
+
+        Activity activity = parser.parse(input);
+        if (activity == null)
+            throw new IllegalArgumentException
+                ("No activity defined in " + input);
+
+        // Calculate the output file name
+        String name = input.getName();
+        int period = name.lastIndexOf('.');
+        if (period > 0)
+            name = name.substring(0, period);
+        if (directory == null)
+            directory = input.getAbsoluteFile().getParentFile();
+        else if (!directory.exists())
+            directory.mkdirs();
+        File output = new File(directory, name + ActivitySerializer.SUFFIX);
+
+        // Write the binary form
+        OutputStream stream = new FileOutputStream(output);
+        try {
+            ActivitySerializer.write(activity, stream);
+        } finally {
+            stream.close();
+        }
+        return (output);
+
+    }
+
+
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Registry;
+import org.apache.commons.workflow.base.LazyActivity;
+
+
+/**
+ * <p>Loads a catalog of Activity definitions (XML, or the binary form
+ * produced by <code>ActivityCompiler</code>) in parallel, and registers the
+ * resulting Activities with a <code>Registry</code>.  The definitions are
+ * divided among <code>threads</code> worker threads, each of which uses its
+ * own <code>ActivityParser</code> (and therefore its own Digester, which
+ * is not thread-safe).  Activities are registered in the order in which
+ * their definitions were specified, once all of them have been loaded, so
+ * that version numbers do not depend on thread scheduling.</p>
+ *
+ * <p>A definition that cannot be loaded does not prevent the others from
+ * being loaded and registered; the outcome of each one is reported in the
+ * returned array of <code>LoadResult</code> instances.</p>
+ *
+ * <p>If the <code>lazy</code> property is set, only the identifier of each
+ * Activity is read, and a <code>LazyActivity</code> is registered, whose
+ * Steps are built from its definition when they are first needed.  This
+ * makes loading a large catalog, most of which is rarely used, much
+ * cheaper in both time and memory; however, errors in the body of a
+ * definition are then not reported until it is first used.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ActivityLoader implements Runnable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new loader for the specified Registry.
+     *
+     * @param registry The Registry to be updated, or <code>null</code> to
+     *  load definitions without registering them
+     */
+    public ActivityLoader(Registry registry) {
+
+        super();
+        this.registry = registry;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The index of the next definition to be claimed by a worker thread.
+     */
+    protected int next = 0;
+
+
+    /**
+     * The outcome of loading each definition in the current load.
+     */
+    protected LoadResult results[] = null;
+
+
+    /**
+     * The definitions being loaded in the current load.
+     */
+    protected URL urls[] = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Should we register <code>LazyActivity</code> instances, rather than
+     * fully built Activities?
+     */
+    protected boolean lazy = false;
+
+    public boolean getLazy() {
+        return (this.lazy);
+    }
+
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+
+    /**
+     * Should each Activity be rewritten by <code>ActivityOptimizer</code>
+     * when its Steps are built?
+     */
+    protected boolean optimize = false;
+
+    public boolean getOptimize() {
+        return (this.optimize);
+    }
+
+    public void setOptimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+
+    /**
+     * The Registry we update.
+     */
+    protected Registry registry = null;
+
+    public Registry getRegistry() {
+        return (this.registry);
+    }
+
+
+    /**
+     * The number of worker threads used to load definitions.
+     */
+    protected int threads = 4;
+
+    public int getThreads() {
+        return (this.threads);
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Load all of the definition files (with an <code>.xml</code> or
+     * <code>ActivitySerializer.SUFFIX</code> extension) in the specified
+     * directory.
+     *
+     * @param directory The directory containing the definitions
+     *
+     * @exception Exception if the directory cannot be listed
+     */
+    public LoadResult[] load(File directory) throws Exception {
+
+        File files[] = directory.listFiles();
+        if (files == null)
+            throw new IllegalArgumentException("Cannot list " + directory);
+        Arrays.sort(files);
+        ArrayList list = new ArrayList();
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].isFile() && isDefinition(files[i].getName()))
+                list.add(files[i].toURI().toURL());
+        }
+        return (load((URL[]) list.toArray(new URL[list.size()])));
+
+    }
+
+
+    /**
+     * Load all of the definition resources (with an <code>.xml</code> or
+     * <code>ActivitySerializer.SUFFIX</code> extension) in the specified
+     * directory of the class path of the specified class loader.  The
+     * directory may be in the file system or in a JAR file.
+     *
+     * @param loader The class loader whose class path is searched
+     * @param path Resource path of the directory containing the
+     *  definitions, such as <code>com/mycompany/activities</code>
+     *
+     * @exception Exception if the directory cannot be found or listed
+     */
+    public LoadResult[] load(ClassLoader loader, String path)
+        throws Exception {
+
+        if (path.endsWith("/"))
+            path = path.substring(0, path.length() - 1);
+        URL url = loader.getResource(path);
+        if (url == null)
+            throw new IllegalArgumentException("Cannot find " + path);
+        if ("file".equals(url.getProtocol()))
+            return (load(file(url)));
+        if (!"jar".equals(url.getProtocol()))
+            throw new IllegalArgumentException("Cannot list " + url);
+
+        // List the matching entries of the JAR file
+        JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
+        String prefix = path + "/";
+        ArrayList names = new ArrayList();
+        Enumeration entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String name = ((JarEntry) entries.nextElement()).getName();
+            if (name.startsWith(prefix) &&
+                (name.indexOf('/', prefix.length()) < 0) &&
+                isDefinition(name))
+                names.add(name);
+        }
+        String sorted[] = (String[]) names.toArray(new String[names.size()]);
+        Arrays.sort(sorted);
+        URL urls[] = new URL[sorted.length];
+        for (int i = 0; i < sorted.length; i++)
+            urls[i] = loader.getResource(sorted[i]);
+        return (load(urls));
+
+    }
+
+
+    /**
+     * Load the definitions at the specified URLs.
+     *
+     * @param urls URLs of the definitions to be loaded
+     *
+     * @exception InterruptedException if we are interrupted while waiting
+     *  for our worker threads
+     */
+    public synchronized LoadResult[] load(URL urls[])
+        throws InterruptedException {
+
+        // Load the definitions, using up to "threads" threads
+        this.urls = urls;
+        this.results = new LoadResult[urls.length];
+        this.next = 0;
+        int count = Math.min(threads, urls.length);
+        if (count <= 1) {
+            run();
+        } else {
+            Thread workers[] = new Thread[count];
+            for (int i = 0; i < count; i++) {
+                workers[i] = new Thread(this, "ActivityLoader-" + i);
+                workers[i].setDaemon(true);
+                workers[i].start();
+            }
+            for (int i = 0; i < count; i++)
+                workers[i].join();
+        }
+        LoadResult loaded[] = this.results;
+        this.urls = null;
+        this.results = null;
+
+        // Register the Activities in input order
+        if (registry != null) {
+            for (int i = 0; i < loaded.length; i++) {
+                if (loaded[i].getActivity() != null)
+                    registry.addActivity(loaded[i].getActivity());
+            }
+        }
+        return (loaded);
+
+    }
+
+
+    /**
+     * Load definitions until all of them have been claimed.  This method
+     * is executed by each worker thread.
+     */
+    public void run() {
+
+        ActivityParser parser = new ActivityParser();
+        parser.setOptimize(optimize);
+        while (true) {
+            int index = claim();
+            if (index < 0)
+                break;
+            results[index] = load(parser, urls[index]);
+        }
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Claim the next definition to be loaded, and return its index, or
+     * return <code>-1</code> if all of them have been claimed.  This
+     * synchronizes on the array of definitions, because our own lock is
+     * held by <code>load()</code> while it waits for the worker threads.
+     */
+    protected int claim() {
+
+        synchronized (urls) {
+            if (next >= urls.length)
+                return (-1);
+            return (next++);
+        }
+
+    }
+
+
+    /**
+     * Return the file or directory identified by the specified
+     * <code>file:</code> URL, decoding any escaped characters (such as
+     * spaces) in its path.
+     *
+     * @param url The URL to be converted
+     */
+    protected File file(URL url) {
+
+        try {
+            return (new File(new URI(url.toExternalForm())));
+        } catch (URISyntaxException e) {
+            return (new File(url.getPath()));   // Not escaped at all
+        }
+
+    }
+
+
+    /**
+     * Is a resource with the specified name an Activity definition that
+     * we should load?  By default, names with an <code>.xml</code> or
+     * <code>ActivitySerializer.SUFFIX</code> extension are loaded.
+     *
+     * @param name The resource name to be checked
+     */
+    protected boolean isDefinition(String name) {
+
+        return (name.endsWith(".xml") ||
+                name.endsWith(ActivitySerializer.SUFFIX));
+
+    }
+
+
+    /**
+     * Load the definition at the specified URL, and return the outcome.
+     *
+     * @param parser The parser to be used
+     * @param url The URL of the definition
+     */
+    protected LoadResult load(ActivityParser parser, URL url) {
+
+        long start = System.currentTimeMillis();
+        Activity activity = null;
+        Throwable exception = null;
+        InputStream stream = null;
+        try {
+            stream = url.openStream();
+            if (lazy) {
+                LazyActivity lazyActivity =
+                    new LazyActivity(parser.parseId(stream), url);
+                lazyActivity.setOptimize(optimize);
+                activity = lazyActivity;
+            } else
+                activity = parser.parse(stream);
+            if (activity == null)
+                throw new IllegalArgumentException
+                    ("No activity defined in " + url);
+        } catch (Throwable t) {
+            activity = null;
+            exception = t;
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (Throwable t) {
+                    ;
+                }
+            }
+        }
+        return (new LoadResult(url.toExternalForm(), activity, exception,
+                               System.currentTimeMillis() - start));
+
+    }
+
+
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.Owner;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.base.FusedStep;
+import org.apache.commons.workflow.core.CatchStep;
+import org.apache.commons.workflow.core.ConstructStep;
+import org.apache.commons.workflow.core.DuplicateStep;
+import org.apache.commons.workflow.core.ExitStep;
+import org.apache.commons.workflow.core.FinallyStep;
+import org.apache.commons.workflow.core.GetStep;
+import org.apache.commons.workflow.core.GotoStep;
+import org.apache.commons.workflow.core.InvokeStep;
+import org.apache.commons.workflow.core.LoadStep;
+import org.apache.commons.workflow.core.PopStep;
+import org.apache.commons.workflow.core.PutStep;
+import org.apache.commons.workflow.core.RemoveStep;
+import org.apache.commons.workflow.core.StringStep;
+import org.apache.commons.workflow.core.SwapStep;
+import org.apache.commons.workflow.core.TimeoutStep;
+import org.apache.commons.workflow.core.TransactionStep;
+
+
+/**
+ * <p>Static methods to rewrite the Steps of a parsed <code>Activity</code>
+ * (and of each Block within it) so that it performs the same work with
+ * fewer Step dispatches.  Each list of Steps is processed in three
+ * passes:</p>
+ * <ul>
+ * <li>Steps that follow an <code>ExitStep</code> or a (core)
+ *     <code>GotoStep</code> are removed, up to the next Step that is
+ *     the target of a transfer of control, or a <code>CatchStep</code>
+ *     or <code>FinallyStep</code>.</li>
+ * <li>Adjacent pairs of Steps that cancel each other out are removed:
+ *     duplicate then pop, swap then swap, and string then pop.</li>
+ * <li>Runs of adjacent Steps that never transfer control (construct,
+ *     duplicate, get, invoke, load, pop, put, remove, string, and swap)
+ *     are replaced by a single <code>FusedStep</code>.</li>
+ * </ul>
+ *
+ * <p>A Step whose identifier is the target of a transfer of control in
+ * the same list is never removed, and is never fused into the middle of
+ * a run.  If the list contains a <code>web:goto</code> Step, whose target
+ * is chosen by a request parameter, every Step with an identifier is
+ * treated as a target.</p>
+ *
+ * <p>Listeners see a single <code>beforeStep()</code> and
+ * <code>afterStep()</code> event for each fused step, and none for removed
+ * Steps.  Removing a cancelling pair also removes the error that it would
+ * have reported on an empty evaluation stack.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ActivityOptimizer {
+
+
+    // ------------------------------------------------------- Static Variables
+
+
+    /**
+     * The Step classes that never transfer control, and so may be fused.
+     * Subclasses are not included, because they may change that.
+     */
+    protected static final Class FUSABLE[] = {
+        ConstructStep.class, DuplicateStep.class, GetStep.class,
+        InvokeStep.class, LoadStep.class, PopStep.class, PutStep.class,
+        RemoveStep.class, StringStep.class, SwapStep.class
+    };
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Optimize the Steps of the specified Activity, and of all of the Blocks
+     * within it, and return the number of Step dispatches that were
+     * eliminated.
+     *
+     * @param activity The Activity to be optimized
+     */
+    public static int optimize(Activity activity) {
+
+        return (optimize((Owner) activity));
+
+    }
+
+
+    /**
+     * Optimize the Steps of the specified Owner, and of all of the Blocks
+     * within it, and return the number of Step dispatches that were
+     * eliminated.
+     *
+     * @param owner The Activity or Block to be optimized
+     */
+    protected static int optimize(Owner owner) {
+
+        // Remember the nested Steps of each Block, because replacing the
+        // Steps of a Block clears the Steps of any Blocks nested in it
+        Step steps[] = owner.getSteps();
+        HashMap nested = new HashMap();
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] instanceof Block)
+                nested.put(steps[i], ((Block) steps[i]).getSteps());
+        }
+
+        // Rewrite the Steps of this Owner
+        HashSet targets = targets(steps);
+        ArrayList list = reachable(steps, targets);
+        list = cancel(list, targets);
+        list = fuse(list, targets);
+        int eliminated = steps.length - list.size();
+        boolean replaced = (eliminated > 0);
+        if (replaced)
+            owner.setSteps((Step[]) list.toArray(new Step[list.size()]));
+
+        // Restore and optimize the Steps of each remaining Block
+        for (int i = 0; i < list.size(); i++) {
+            Step step = (Step) list.get(i);
+            if (!(step instanceof Block))
+                continue;
+            if (replaced)
+                ((Block) step).setSteps((Step[]) nested.get(step));
+            eliminated += optimize((Owner) step);
+        }
+        return (eliminated);
+
+    }
+
+
+    /**
+     * Remove adjacent pairs of Steps that cancel each other out.  Removing
+     * one pair may make the Steps around it a cancelling pair as well.
+     *
+     * @param steps The Steps to be processed
+     * @param targets The identifiers of Steps that are targets
+     */
+    protected static ArrayList cancel(ArrayList steps, HashSet targets) {
+
+        ArrayList list = new ArrayList();
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = (Step) steps.get(i);
+            if (list.size() > 0) {
+                Step last = (Step) list.get(list.size() - 1);
+                if (cancels(last, step) &&
+                    !isTarget(last, targets) && !isTarget(step, targets)) {
+                    list.remove(list.size() - 1);
+                    continue;
+                }
+            }
+            list.add(step);
+        }
+        return (list);
+
+    }
+
+
+    /**
+     * Do the specified adjacent Steps cancel each other out?
+     *
+     * @param first The first Step
+     * @param second The Step that follows it
+     */
+    protected static boolean cancels(Step first, Step second) {
+
+        Class a = first.getClass();
+        Class b = second.getClass();
+        if ((a == DuplicateStep.class) && (b == PopStep.class))
+            return (true);
+        else if ((a == SwapStep.class) && (b == SwapStep.class))
+            return (true);
+        else if ((a == StringStep.class) && (b == PopStep.class))
+            return (((StringStep) first).getValue() != null);
+        else
+            return (false);
+
+    }
+
+
+    /**
+     * Replace runs of adjacent fusable Steps with a single
+     * <code>FusedStep</code>.  A run may start with a target, but does not
+     * extend past the next one.
+     *
+     * @param steps The Steps to be processed
+     * @param targets The identifiers of Steps that are targets
+     */
+    protected static ArrayList fuse(ArrayList steps, HashSet targets) {
+
+        ArrayList list = new ArrayList();
+        int i = 0;
+        while (i < steps.size()) {
+            int j = i + 1;
+            if (isFusable((Step) steps.get(i))) {
+                while ((j < steps.size()) &&
+                       isFusable((Step) steps.get(j)) &&
+                       !isTarget((Step) steps.get(j), targets))
+                    j++;
+            }
+            if (j - i > 1) {
+                Step run[] = new Step[j - i];
+                for (int k = i; k < j; k++)
+                    run[k - i] = (Step) steps.get(k);
+                list.add(new FusedStep(run));
+            } else {
+                list.add(steps.get(i));
+            }
+            i = j;
+        }
+        return (list);
+
+    }
+
+
+    /**
+     * May the specified Step be fused with its neighbors?
+     *
+     * @param step The Step to be checked
+     */
+    protected static boolean isFusable(Step step) {
+
+        for (int i = 0; i < FUSABLE.length; i++) {
+            if (step.getClass() == FUSABLE[i])
+                return (true);
+        }
+        return (false);
+
+    }
+
+
+    /**
+     * Is the specified Step the target of a transfer of control?
+     *
+     * @param step The Step to be checked
+     * @param targets The identifiers of Steps that are targets, or
+     *  <code>null</code> if any Step with an identifier may be
+     */
+    protected static boolean isTarget(Step step, HashSet targets) {
+
+        if (step.getId() == null)
+            return (false);
+        else if (targets == null)
+            return (true);
+        else
+            return (targets.contains(step.getId()));
+
+    }
+
+
+    /**
+     * Return the Steps that can be reached, omitting those that follow an
+     * unconditional transfer of control up to the next target (or the next
+     * Step that is reached when an exception is thrown).
+     *
+     * @param steps The Steps to be processed
+     * @param targets The identifiers of Steps that are targets
+     */
+    protected static ArrayList reachable(Step steps[], HashSet targets) {
+
+        ArrayList list = new ArrayList();
+        boolean reachable = true;
+        for (int i = 0; i < steps.length; i++) {
+            if (!reachable && !isTarget(steps[i], targets) &&
+                !(steps[i] instanceof CatchStep) &&
+                !(steps[i] instanceof FinallyStep))
+                continue;               // Not reached by an exception
+            list.add(steps[i]);
+            Class clazz = steps[i].getClass();
+            reachable =
+                (clazz != ExitStep.class) && (clazz != GotoStep.class);
+        }
+        return (list);
+
+    }
+
+
+    /**
+     * Return the identifiers of the Steps in the specified list that are
+     * the targets of a transfer of control from a Step in the same list,
+     * or <code>null</code> if any Step may be a target.
+     *
+     * @param steps The Steps to be processed
+     */
+    protected static HashSet targets(Step steps[]) {
+
+        HashSet targets = new HashSet();
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] instanceof GotoStep)       // Includes and, or, ...
+                targets.add(((GotoStep) steps[i]).getStep());
+            else if (steps[i] instanceof TransactionStep)
+                targets.add(((TransactionStep) steps[i]).getStep());
+            else if (steps[i] instanceof TimeoutStep)
+                targets.add(((TimeoutStep) steps[i]).getStep());
+            else if (steps[i] instanceof
+                     org.apache.commons.workflow.web.GotoStep)
+                return (null);
+        }
+        return (targets);
+
+    }
+
+
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.apache.commons.digester.Digester;
+import org.apache.commons.digester.RuleSet;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.BaseRuleSet;
+import org.apache.commons.workflow.core.CoreRuleSet;
+import org.apache.commons.workflow.io.IoRuleSet;
+import org.xml.sax.SAXException;
+
+
+/**
+ * <p>Reads Activity definitions, either as XML documents using the Steps
+ * of the <code>base</code>, <code>core</code> and <code>io</code> packages
+ * (plus those of the <code>web</code> package, if the servlet API is
+ * available, and of any <code>RuleSet</code> registered with
+ * <code>addRuleSet()</code>), or in the binary form written by
+ * <code>ActivitySerializer</code>.  The form is recognized from the first
+ * bytes of the definition, so callers need not know which one they
+ * have.  Alternatively, just the identifier of the Activity may be read,
+ * which is much cheaper than building all of its Steps.</p>
+ *
+ * <p><strong>WARNING</strong> - Like the Digester it wraps, an instance of
+ * this class is not thread-safe.  It may be reused for any number of
+ * definitions, but only by one thread at a time.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ActivityParser {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new parser.
+     */
+    public ActivityParser() {
+
+        super();
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The class name of the RuleSet for the <code>web</code> package, which
+     * is loaded by name so that this class does not depend on the servlet
+     * API.
+     */
+    public static final String WEB_RULE_SET =
+        "org.apache.commons.workflow.web.WebRuleSet";
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The Activity most recently constructed by our Digester.
+     */
+    protected Activity activity = null;
+
+
+    /**
+     * The Digester used to parse XML definitions, created when first
+     * needed.
+     */
+    protected Digester digester = null;
+
+
+    /**
+     * The RuleSets registered with <code>addRuleSet()</code>, in the order
+     * they were added.
+     */
+    protected ArrayList ruleSets = new ArrayList();
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Should each Activity be rewritten by <code>ActivityOptimizer</code>
+     * after it has been read?
+     */
+    protected boolean optimize = false;
+
+    public boolean getOptimize() {
+        return (this.optimize);
+    }
+
+    public void setOptimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+
+    /**
+     * Should each Activity be checked by <code>ActivityVerifier</code>
+     * (after any optimization), recording its stack profile?
+     */
+    protected boolean verify = false;
+
+    public boolean getVerify() {
+        return (this.verify);
+    }
+
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Register a RuleSet recognizing additional Steps in XML definitions,
+     * after those of the standard Step libraries.
+     *
+     * @param ruleSet The RuleSet to be added
+     */
+    public void addRuleSet(RuleSet ruleSet) {
+
+        ruleSets.add(ruleSet);
+        digester = null;            // Reconfigure when next needed
+
+    }
+
+
+    /**
+     * Read the Activity defined in the specified file.
+     *
+     * @param file The definition file
+     *
+     * @exception IOException if an input/output error occurs
+     * @exception SAXException if an XML definition cannot be parsed
+     */
+    public Activity parse(File file) throws IOException, SAXException {
+
+        InputStream stream = new FileInputStream(file);
+        try {
+            return (parse(stream));
+        } finally {
+            try {
+                stream.close();
+            } catch (Throwable t) {
+                ;
+            }
+        }
+
+    }
+
+
+    /**
+     * Read the Activity defined in the specified stream, which is not
+     * closed.  Returns <code>null</code> if an XML definition contains no
+     * <code>&lt;activity&gt;</code> element.
+     *
+     * @param stream The stream containing the definition
+     *
+     * @exception IOException if an input/output error occurs, or a Step
+     *  class in a binary definition cannot be found
+     * @exception SAXException if an XML definition cannot be parsed
+     */
+    public Activity parse(InputStream stream)
+        throws IOException, SAXException {
+
+        // Look at the header to recognize binary definitions
+        BufferedInputStream bis = new BufferedInputStream(stream);
+        if (isSerialized(bis)) {
+            try {
+                return (prepare(ActivitySerializer.read(bis)));
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Cannot load class " + e.getMessage());
+            }
+        }
+
+        // Parse an XML definition
+        Digester digester = getDigester();
+        digester.clear();
+        digester.push(this);
+        activity = null;
+        try {
+            digester.parse(bis);
+            return (prepare(activity));
+        } finally {
+            activity = null;
+            digester.clear();
+        }
+
+    }
+
+
+    /**
+     * Read just the identifier of the Activity defined in the specified
+     * stream, which is not closed.  The identifier is returned as
+     * <code>null</code> if the Activity does not have one.
+     *
+     * @param stream The stream containing the definition
+     *
+     * @exception IOException if an input/output error occurs
+     * @exception SAXException if an XML definition cannot be parsed, or
+     *  its root element is not an <code>&lt;activity&gt;</code>
+     */
+    public String parseId(InputStream stream)
+        throws IOException, SAXException {
+
+        BufferedInputStream bis = new BufferedInputStream(stream);
+        if (isSerialized(bis))
+            return (ActivitySerializer.readId(bis));
+
+        // Parse the XML definition just as far as the root element
+        HeaderHandler handler = new HeaderHandler();
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setValidating(false);
+            SAXParser parser = factory.newSAXParser();
+            parser.parse(bis, handler);
+        } catch (SAXException e) {
+            if (e != HeaderHandler.STOP)
+                throw e;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SAXException(e);
+        }
+        if (!"activity".equals(handler.root))
+            throw new SAXException("Root element is not an activity");
+        return (handler.id);
+
+    }
+
+
+    /**
+     * Save the Activity that our Digester has constructed.  This method
+     * should only be called by our Digester.
+     *
+     * @param activity The newly constructed Activity
+     */
+    public void setActivity(Activity activity) {
+
+        this.activity = activity;
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Does the specified stream contain an Activity in binary form?  The
+     * stream is left positioned at its start.
+     *
+     * @param stream The stream containing the definition
+     *
+     * @exception IOException if an input/output error occurs
+     */
+    protected boolean isSerialized(BufferedInputStream stream)
+        throws IOException {
+
+        byte header[] = new byte[ActivitySerializer.MAGIC.length];
+        stream.mark(header.length);
+        int length = 0;
+        while (length < header.length) {
+            int n = stream.read(header, length, header.length - length);
+            if (n < 0)
+                break;
+            length += n;
+        }
+        stream.reset();
+        return (ActivitySerializer.isSerialized(header, length));
+
+    }
+
+
+    /**
+     * Rewrite the specified Activity with <code>ActivityOptimizer</code>,
+     * and check it with <code>ActivityVerifier</code>, as requested by our
+     * properties, and return it.
+     *
+     * @param activity The Activity that has been read (if any)
+     *
+     * @exception SAXException if the Activity fails verification
+     */
+    protected Activity prepare(Activity activity) throws SAXException {
+
+        if (activity == null)
+            return (null);
+        if (optimize)
+            ActivityOptimizer.optimize(activity);
+        if (verify) {
+            try {
+                ActivityVerifier.verify(activity);
+            } catch (StepException e) {
+                throw new SAXException("Activity " + activity.getId() +
+                                       " failed verification: " +
+                                       e.getMessage() + " at " +
+                                       e.getStep(), e);
+            }
+        }
+        return (activity);
+
+    }
+
+
+    /**
+     * Return the Digester used to parse XML definitions, creating and
+     * configuring it if necessary.
+     */
+    protected Digester getDigester() {
+
+        if (digester != null)
+            return (digester);
+
+        // Construct and configure a new Digester instance
+        digester = new Digester();
+        digester.setNamespaceAware(true);
+        digester.setValidating(false);
+
+        // Add rules to recognize the built-in steps that we know about
+        BaseRuleSet brs = new BaseRuleSet();
+        digester.addRuleSet(brs);
+        digester.addRuleSet(new CoreRuleSet());
+        digester.addRuleSet(new IoRuleSet());
+        RuleSet web = webRuleSet();
+        if (web != null)
+            digester.addRuleSet(web);
+        for (int i = 0; i < ruleSets.size(); i++)
+            digester.addRuleSet((RuleSet) ruleSets.get(i));
+
+        // Add a rule to register the Activity being created
+        digester.setRuleNamespaceURI(brs.getNamespaceURI());
+        digester.addSetNext("activity", "setActivity",
+                            "org.apache.commons.workflow.Activity");
+
+        return (digester);
+
+    }
+
+
+
+    /**
+     * Return a new instance of the RuleSet for the <code>web</code>
+     * package, or <code>null</code> if it (or the servlet API it depends
+     * on) cannot be loaded.
+     */
+    protected RuleSet webRuleSet() {
+
+        try {
+            Class clazz = Class.forName(WEB_RULE_SET, true,
+                                        ActivityParser.class.getClassLoader());
+            return ((RuleSet) clazz.getConstructor(new Class[0])
+                    .newInstance(new Object[0]));
+        } catch (Throwable t) {
+            return (null);
+        }
+
+    }
+
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import org.apache.commons.workflow.Activity;
+
+
+/**
+ * <p>Static methods to save a parsed <code>Activity</code> (including all of
+ * its Steps, their properties and Descriptors, and the nesting of Blocks)
+ * in a compact binary form, and to rebuild it without parsing XML.  The
+ * binary form starts with the <code>MAGIC</code> header, so that it can be
+ * told apart from an XML definition by reading its first few bytes,
+ * followed by the identifier of the Activity (so that it can be indexed
+ * without being loaded) and then the Java serialized form of the
+ * Activity.</p>
+ *
+ * <p>The Activity and all of its Steps and Descriptors must be
+ * <code>Serializable</code>, as the base implementations are.  Binary
+ * definitions should be regenerated (see <code>ActivityCompiler</code>)
+ * whenever the Step classes they use are changed.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ActivitySerializer {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The header that identifies the binary form of an Activity.
+     */
+    public static final byte MAGIC[] = { 'W', 'F', 'A', '2' };
+
+
+    /**
+     * The conventional file name suffix of a binary Activity definition.
+     */
+    public static final String SUFFIX = ".ser";
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Does the specified header (the first bytes of a definition) identify
+     * the binary form of an Activity?
+     *
+     * @param header The first bytes of the definition
+     * @param length The number of valid bytes in <code>header</code>
+     */
+    public static boolean isSerialized(byte header[], int length) {
+
+        if (length < MAGIC.length)
+            return (false);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i])
+                return (false);
+        }
+        return (true);
+
+    }
+
+
+    /**
+     * Read an Activity in binary form from the specified stream, which is
+     * not closed.
+     *
+     * @param stream The stream to read from
+     *
+     * @exception ClassNotFoundException if a Step class cannot be found
+     * @exception IOException if an input/output error occurs, or the stream
+     *  does not contain an Activity in binary form
+     */
+    public static Activity read(InputStream stream)
+        throws ClassNotFoundException, IOException {
+
+        if (!(stream instanceof BufferedInputStream))
+            stream = new BufferedInputStream(stream);
+        readId(stream);
+        ObjectInputStream ois = new ObjectInputStream(stream);
+        return ((Activity) ois.readObject());
+
+    }
+
+
+    /**
+     * Read just the identifier of an Activity in binary form from the
+     * specified stream, which is not closed.  The identifier is returned as
+     * <code>null</code> if the Activity did not have one.
+     *
+     * @param stream The stream to read from
+     *
+     * @exception IOException if an input/output error occurs, or the stream
+     *  does not contain an Activity in binary form
+     */
+    public static String readId(InputStream stream) throws IOException {
+
+        DataInputStream dis = new DataInputStream(stream);
+        byte header[] = new byte[MAGIC.length];
+        dis.readFully(header);
+        if (!isSerialized(header, header.length))
+            throw new StreamCorruptedException
+                ("Not a binary Activity definition");
+        if (!dis.readBoolean())
+            return (null);
+        return (dis.readUTF());
+
+    }
+
+
+    /**
+     * Write the specified Activity in binary form to the specified stream,
+     * which is flushed but not closed.
+     *
+     * @param activity The Activity to be written
+     * @param stream The stream to write to
+     *
+     * @exception IOException if an input/output error occurs, or some part
+     *  of the Activity is not Serializable
+     */
+    public static void write(Activity activity, OutputStream stream)
+        throws IOException {
+
+        DataOutputStream dos =
+            new DataOutputStream(new BufferedOutputStream(stream));
+        dos.write(MAGIC);
+        dos.writeBoolean(activity.getId() != null);
+        if (activity.getId() != null)
+            dos.writeUTF(activity.getId());
+        ObjectOutputStream oos = new ObjectOutputStream(dos);
+        oos.writeObject(activity);
+        oos.flush();
+
+    }
+
+
+}
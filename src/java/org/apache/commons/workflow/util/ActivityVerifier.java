@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.Iterator;
+import org.apache.commons.workflow.Owner;
+import org.apache.commons.workflow.StackEffect;
+import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.StepException;
+import org.apache.commons.workflow.base.BaseActivity;
+import org.apache.commons.workflow.base.BaseBlock;
+import org.apache.commons.workflow.base.FusedStep;
+import org.apache.commons.workflow.base.StackProfile;
+import org.apache.commons.workflow.core.BreakStep;
+import org.apache.commons.workflow.core.CatchStep;
+import org.apache.commons.workflow.core.ContinueStep;
+import org.apache.commons.workflow.core.ExitStep;
+import org.apache.commons.workflow.core.GotoStep;
+import org.apache.commons.workflow.core.RetryStep;
+import org.apache.commons.workflow.core.TimeoutStep;
+import org.apache.commons.workflow.core.TransactionStep;
+import org.apache.commons.workflow.core.TryStep;
+
+
+/**
+ * <p>Calculates the <code>StackProfile</code> of an Activity, in the manner
+ * of a bytecode verifier, by following every path through its Steps with
+ * the range of evaluation stack depths that are possible at each Step.
+ * The effect of each Step is taken from its <code>StackEffect</code>
+ * declaration, and control is followed through <code>core:goto</code> and
+ * its conditional variants, <code>core:exit</code>, <code>core:break</code>
+ * and <code>core:continue</code>, the conditional and repeating Blocks
+ * based on <code>BaseBlock</code>, and from <code>core:transaction</code>
+ * to its rollback Step (with the exception pushed).  A path that reaches
+ * any other Step is not followed further, and the resulting profile is
+ * marked as incomplete.  So is the profile of an Activity containing a
+ * <code>core:try</code> Block, because the paths taken by exceptions to its
+ * <code>core:catch</code> and <code>core:finally</code> Blocks, with
+ * unknown stack depths, are not followed, or a <code>core:retry</code> or
+ * <code>core:timeout</code> Block, for the same reason.</p>
+ *
+ * <p>Verification fails with a <code>StepException</code> that identifies
+ * the offending Step if a transfer of control names a Step that does not
+ * exist, or a break or continue Step is not nested inside an Iterator.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ActivityVerifier {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a verifier for the specified Activity.
+     *
+     * @param activity The Activity to be verified
+     */
+    protected ActivityVerifier(Activity activity) {
+
+        super();
+        this.activity = activity;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The number of times the range of depths at a Step may widen before
+     * the evaluation stack is treated as growing without a fixed limit.
+     */
+    protected static final int MAX_VISITS = 32;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The Activity being verified.
+     */
+    protected Activity activity = null;
+
+
+    /**
+     * Were the effects of all reachable Steps known?
+     */
+    protected boolean complete = true;
+
+
+    /**
+     * The range of depths (relative to the depth when the Activity
+     * starts) on entry to each Step that has been reached, keyed by Step.
+     * Each range is an array of the lowest and highest depth.
+     */
+    protected HashMap entries = new HashMap();
+
+
+    /**
+     * The number of items required on entry to the Activity, so that no
+     * Step pops more items than the evaluation stack holds on any path,
+     * even one on which the stack is at the lowest depth possible.
+     */
+    protected int input = 0;
+
+
+    /**
+     * The highest depth reached (relative to the depth when the Activity
+     * starts).
+     */
+    protected int maxDepth = 0;
+
+
+    /**
+     * Does the evaluation stack grow without a fixed limit?
+     */
+    protected boolean unbounded = false;
+
+
+    /**
+     * The ranges of depths on return to each Block from its last nested
+     * Step, keyed by Block.
+     */
+    protected HashMap returns = new HashMap();
+
+
+    /**
+     * The number of times the range of depths at each Step (or return to
+     * a Block) has widened, keyed by the current range array.
+     */
+    protected HashMap visits = new HashMap();
+
+
+    /**
+     * The Steps (or Blocks being returned to) waiting to be processed.
+     * Each entry is the Step followed by <code>Boolean.TRUE</code> for a
+     * return to a Block.
+     */
+    protected ArrayList work = new ArrayList();
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Calculate the stack profile of the specified Activity, record it on
+     * the Activity (if it is a <code>BaseActivity</code>), and return it.
+     *
+     * @param activity The Activity to be verified
+     *
+     * @exception StepException if the Activity cannot be executed
+     *  correctly
+     */
+    public static StackProfile verify(Activity activity)
+        throws StepException {
+
+        ActivityVerifier verifier = new ActivityVerifier(activity);
+        StackProfile profile = verifier.verify();
+        if (activity instanceof BaseActivity)
+            ((BaseActivity) activity).setProfile(profile);
+        return (profile);
+
+    }
+
+
+    /**
+     * Return the largest number of Blocks nested inside each other within
+     * the specified Owner.
+     *
+     * @param owner The Activity or Block to be examined
+     */
+    protected static int nesting(Owner owner) {
+
+        int result = 0;
+        Step steps[] = owner.getSteps();
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] instanceof Block)
+                result = Math.max(result, 1 + nesting((Block) steps[i]));
+        }
+        return (result);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Apply the stack effect of the specified Step to the specified range
+     * of depths, and return the resulting range, or <code>null</code> if
+     * the effect is not known.
+     *
+     * @param step The Step whose effect is applied
+     * @param range The lowest and highest depth before the Step
+     */
+    protected int[] apply(Step step, int range[]) {
+
+        if (step instanceof FusedStep) {
+            Step steps[] = ((FusedStep) step).getSteps();
+            for (int i = 0; (range != null) && (i < steps.length); i++)
+                range = apply(steps[i], range);
+            return (range);
+        }
+        if (!(step instanceof StackEffect)) {
+            complete = false;
+            return (null);
+        }
+        StackEffect effect = (StackEffect) step;
+        int pops = effect.getStackPops();
+        input = Math.max(input, pops - range[0]);
+        int result[] = new int[] {
+            range[0] - pops + effect.getMinStackPushes(),
+            range[1] - pops + effect.getMaxStackPushes()
+        };
+        maxDepth = Math.max(maxDepth, result[1]);
+        return (result);
+
+    }
+
+
+    /**
+     * Return the closest Iterator enclosing the specified Step.
+     *
+     * @param step The break or continue Step
+     *
+     * @exception StepException if there is no such Iterator
+     */
+    protected Block iterator(Step step) throws StepException {
+
+        Owner owner = step.getOwner();
+        while (owner instanceof Step) {
+            if (owner instanceof Iterator)
+                return ((Block) owner);
+            owner = ((Step) owner).getOwner();
+        }
+        throw new StepException("Must be nested in an Iterator block", step);
+
+    }
+
+
+    /**
+     * Merge the specified range of depths into those already recorded for
+     * a Step (or a return to a Block), and schedule it to be processed if
+     * they have widened.
+     *
+     * @param step The Step (or Block being returned to)
+     * @param ret Is this a return to a Block from its last nested Step?
+     * @param range The lowest and highest depth
+     */
+    protected void merge(Step step, boolean ret, int range[]) {
+
+        HashMap ranges = ret ? returns : entries;
+        int old[] = (int[]) ranges.get(step);
+        if (old == null) {
+            ranges.put(step, range);
+            visits.put(range, Integer.valueOf(0));
+        } else {
+            if ((range[0] >= old[0]) && (range[1] <= old[1]))
+                return;
+            int count = ((Integer) visits.get(old)).intValue() + 1;
+            if (count > MAX_VISITS) {
+                if (range[1] > old[1])
+                    unbounded = true;   // Stop widening this range
+                return;
+            }
+            int merged[] = new int[] {
+                Math.min(range[0], old[0]), Math.max(range[1], old[1])
+            };
+            visits.remove(old);
+            visits.put(merged, Integer.valueOf(count));
+            ranges.put(step, merged);
+        }
+        work.add(step);
+        work.add(ret ? Boolean.TRUE : Boolean.FALSE);
+
+    }
+
+
+    /**
+     * Process the specified Step with the range of depths recorded for it.
+     *
+     * @param step The Step to be processed
+     *
+     * @exception StepException if the Step cannot be executed correctly
+     */
+    protected void process(Step step) throws StepException {
+
+        int range[] = apply(step, (int[]) entries.get(step));
+        if (range == null)
+            return;
+
+        // Follow the transfers of control this Step may make
+        Class clazz = step.getClass();
+        if (clazz == ExitStep.class) {
+            return;
+        } else if (step instanceof GotoStep) {
+            String id = ((GotoStep) step).getStep();
+            Step target = (id == null) ? null : step.getOwner().findStep(id);
+            if (target == null)
+                throw new StepException("Cannot find step '" + id + "'",
+                                        step);
+            merge(target, false, range);
+            if (clazz == GotoStep.class)
+                return;
+        } else if (clazz == BreakStep.class) {
+            Block block = iterator(step);
+            successor(block, block.getNextStep(), range);
+            return;
+        } else if (clazz == ContinueStep.class) {
+            merge(iterator(step), true, range);
+            return;
+        } else if (step instanceof CatchStep) {
+            complete = false;   // Entered only by exceptions, not followed
+        } else if (step instanceof BaseBlock) {
+            if ((step instanceof TryStep) || (step instanceof RetryStep) ||
+                (step instanceof TimeoutStep))
+                complete = false;       // Paths of exceptions not followed
+            Step first = ((Block) step).getFirstStep();
+            if (first != null)
+                merge(first, false, range);
+            if ((step instanceof TransactionStep) &&
+                (((TransactionStep) step).getStep() != null)) {
+                String id = ((TransactionStep) step).getStep();
+                Step target = step.getOwner().findStep(id);
+                if (target == null)
+                    throw new StepException("Cannot find step '" + id + "'",
+                                            step);
+                merge(target, false,
+                      new int[] { range[0] + 1, range[1] + 1 });
+            }
+        }
+        successor(step, step.getNextStep(), range);
+
+    }
+
+
+    /**
+     * Process a return to the specified Block from its last nested Step,
+     * or from a continue Step, with the range of depths recorded for it.
+     *
+     * @param block The Block being returned to
+     *
+     * @exception StepException if the Block cannot be executed correctly
+     */
+    protected void processReturn(Block block) throws StepException {
+
+        int range[] = (int[]) returns.get(block);
+        if (block instanceof Iterator) {
+            range = apply(block, range);        // Condition is reevaluated
+            if (range == null)
+                return;
+            Step first = block.getFirstStep();
+            if (first != null)
+                merge(first, false, range);
+        }
+        successor(block, block.getNextStep(), range);
+
+    }
+
+
+    /**
+     * Schedule the Step that follows the specified Step in sequence.
+     *
+     * @param step The Step just processed
+     * @param next The Step that follows it, if any
+     * @param range The lowest and highest depth after the Step
+     */
+    protected void successor(Step step, Step next, int range[]) {
+
+        if (next == null)
+            return;                     // End of the Activity
+        else if (next == step.getOwner())
+            merge(next, true, range);   // Return to the enclosing Block
+        else
+            merge(next, false, range);
+
+    }
+
+
+    /**
+     * Follow every path through our Activity, and return its profile.
+     *
+     * @exception StepException if the Activity cannot be executed
+     *  correctly
+     */
+    protected StackProfile verify() throws StepException {
+
+        Step first = activity.getFirstStep();
+        if (first != null)
+            merge(first, false, new int[] { 0, 0 });
+        while (work.size() > 0) {
+            Step step = (Step) work.remove(0);
+            boolean ret = ((Boolean) work.remove(0)).booleanValue();
+            if (ret) {
+                if (!(step instanceof BaseBlock)) {
+                    complete = false;           // Unknown Block semantics
+                    continue;
+                }
+                processReturn((Block) step);
+            } else {
+                if ((step instanceof Block) && !(step instanceof BaseBlock)) {
+                    complete = false;
+                    continue;
+                }
+                process(step);
+            }
+        }
+        return (new StackProfile(input,
+                                 unbounded ? -1 : input + maxDepth,
+                                 nesting(activity), complete));
+
+    }
+
+
+}
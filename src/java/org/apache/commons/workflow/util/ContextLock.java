@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.LinkedList;
+
+
+/**
+ * <p>A fair, non-reentrant mutual exclusion lock that serializes the
+ * execution of a single <code>Context</code> by several threads.  Threads
+ * that must wait are granted the lock in the order in which they asked for
+ * it, and may limit how long they are prepared to wait; the number of
+ * waiting threads may also be limited, so that excess requests can be
+ * rejected immediately rather than tying up more threads.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ContextLock {
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The thread currently holding this lock, if any.
+     */
+    protected Thread owner = null;
+
+
+    /**
+     * The threads waiting for this lock, in arrival order.
+     */
+    protected LinkedList waiters = new LinkedList();
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Return the number of threads currently waiting for this lock.
+     */
+    public synchronized int getWaiting() {
+
+        return (waiters.size());
+
+    }
+
+
+    /**
+     * Is this lock currently held by some thread?
+     */
+    public synchronized boolean isLocked() {
+
+        return (owner != null);
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Acquire this lock, waiting behind any threads that asked for it
+     * earlier.  Return <code>true</code> if it was acquired, or
+     * <code>false</code> if the specified maximum number of threads were
+     * already waiting, or the specified time elapsed first.
+     *
+     * @param timeout Maximum number of milliseconds to wait, or zero to
+     *  wait indefinitely
+     * @param maxWaiting Maximum number of threads that may be waiting, or
+     *  zero for no limit
+     *
+     * @exception InterruptedException if we are interrupted while waiting
+     */
+    public synchronized boolean acquire(long timeout, int maxWaiting)
+        throws InterruptedException {
+
+        Thread current = Thread.currentThread();
+        if (owner == current)
+            throw new IllegalStateException("Lock is already held");
+        if ((owner == null) && waiters.isEmpty()) {
+            owner = current;
+            return (true);
+        }
+        if ((maxWaiting > 0) && (waiters.size() >= maxWaiting))
+            return (false);
+
+        // Wait until we are at the head of the queue and the lock is free
+        long deadline = (timeout > 0L) ?
+            System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+        waiters.addLast(current);
+        try {
+            while ((owner != null) || (waiters.getFirst() != current)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0L)
+                    return (false);
+                wait((timeout > 0L) ? remaining : 0L);
+            }
+            owner = current;
+            return (true);
+        } finally {
+            waiters.remove(current);
+            notifyAll();        // The head of the queue may have changed
+        }
+
+    }
+
+
+    /**
+     * Release this lock, which must be held by the calling thread.
+     */
+    public synchronized void release() {
+
+        if (owner != Thread.currentThread())
+            throw new IllegalStateException("Lock is not held");
+        owner = null;
+        notifyAll();
+
+    }
+
+
+}
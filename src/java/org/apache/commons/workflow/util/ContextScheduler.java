@@ -0,0 +1,458 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.base.BaseContext;
+
+
+/**
+ * <p>Resumes suspended <code>Contexts</code> after a delay, so that a Step
+ * that must wait (such as a <code>core:retry</code> backing off between
+ * attempts) can suspend its Context instead of blocking the thread that
+ * is executing it.  Scheduled Contexts are held by a hierarchical
+ * <code>TimingWheel</code> advanced by a background timer thread, so that
+ * scheduling and cancelling take constant time even with hundreds of
+ * thousands of Contexts pending, and are resumed by calling
+ * <code>execute()</code> on one of <code>workers</code> background worker
+ * threads, so that a long Activity does not delay the others.  All of
+ * these are daemon threads, started when the first Context is
+ * scheduled.</p>
+ *
+ * <p>A Context is scheduled at most once: scheduling it again replaces
+ * the earlier time.  A <code>BaseContext</code> is never resumed later
+ * than its <code>deadline</code>, so that a <code>core:timeout</code>
+ * Block can end while it waits.</p>
+ *
+ * <p>A scheduled Context is resumed only if that resumption is still its
+ * current one, and it is still suspended.  A <code>BaseContext</code>
+ * records the scheduler that is due to resume it, and its
+ * <code>execute()</code> method cancels that resumption, so a Context
+ * resumed by another thread in the meantime is not resumed again.</p>
+ *
+ * <p>The lock returned by <code>BaseContext.getLock()</code> is held while
+ * a Context is resumed, so any other thread that executes a Context that
+ * may have been scheduled (as <code>ActivityServlet</code> does) must hold
+ * it too.  An exception thrown by a resumed Context is reported to its
+ * <code>ContextListeners</code>, and logged.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ContextScheduler implements Runnable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new scheduler with the default tick length and number of
+     * worker threads.
+     */
+    public ContextScheduler() {
+
+        this(DEFAULT_TICK, DEFAULT_WORKERS);
+
+    }
+
+
+    /**
+     * Construct a new scheduler with the specified parameters.
+     *
+     * @param tick Length (in milliseconds) of a tick of our timing wheel,
+     *  which is the precision with which Contexts are resumed
+     * @param workers Number of worker threads that resume Contexts
+     */
+    public ContextScheduler(long tick, int workers) {
+
+        super();
+        this.wheel = new TimingWheel(tick, DEFAULT_SLOTS,
+                                     System.currentTimeMillis());
+        this.tick = tick;
+        this.workers = Math.max(workers, 1);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The default number of slots in each level of our timing wheel.
+     */
+    public static final int DEFAULT_SLOTS = 256;
+
+
+    /**
+     * The default length of a tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK = 10L;
+
+
+    /**
+     * The default number of worker threads.
+     */
+    public static final int DEFAULT_WORKERS = 4;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The logger for this class.
+     */
+    protected static Log log = LogFactory.getLog(ContextScheduler.class);
+
+
+    /**
+     * The entries of our timing wheel that are due, in the order their
+     * Contexts will be resumed.
+     */
+    protected LinkedList ready = new LinkedList();
+
+
+    /**
+     * The background timer thread, if started.
+     */
+    protected Thread thread = null;
+
+
+    /**
+     * The background worker threads, if started.
+     */
+    protected Thread threads[] = null;
+
+
+    /**
+     * The entry of our timing wheel for each scheduled Context, keyed by
+     * Context.  An entry remains here after it is due, until its Context
+     * is resumed or its resumption is cancelled.
+     */
+    protected HashMap timers = new HashMap();
+
+
+    /**
+     * The timing wheel holding the scheduled Contexts.
+     */
+    protected TimingWheel wheel = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * Return the time (in milliseconds since the epoch) at which the
+     * specified Context is due to be resumed, rounded up to a tick, or
+     * zero if it is not scheduled.
+     *
+     * @param context The Context whose resumption is to be returned
+     */
+    public synchronized long getDue(Context context) {
+
+        TimerEntry entry = (TimerEntry) timers.get(context);
+        if (entry == null)
+            return (0L);
+        return (entry.tick * tick);
+
+    }
+
+
+    /**
+     * The number of Contexts scheduled but not yet due.
+     */
+    public synchronized int getPending() {
+        return (wheel.size());
+    }
+
+
+    /**
+     * The length of a tick of our timing wheel in milliseconds.
+     */
+    protected long tick = 0L;
+
+    public long getTick() {
+        return (this.tick);
+    }
+
+
+    /**
+     * The number of worker threads that resume Contexts.
+     */
+    protected int workers = 0;
+
+    public int getWorkers() {
+        return (this.workers);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Perform the work of our timer thread or of a worker thread, until it
+     * is stopped.
+     */
+    public void run() {
+
+        boolean timer = false;
+        synchronized (this) {
+            timer = (thread == Thread.currentThread());
+        }
+        if (timer)
+            advance();
+        else
+            work();
+
+    }
+
+
+    /**
+     * Cancel the scheduled resumption of the specified Context, if any,
+     * even if it is already due.  Return <code>true</code> if it had been
+     * scheduled and not yet resumed.
+     *
+     * @param context The Context whose resumption is to be cancelled
+     */
+    public synchronized boolean cancel(Context context) {
+
+        TimerEntry entry = (TimerEntry) timers.remove(context);
+        if (entry == null)
+            return (false);
+        wheel.cancel(entry);
+        if ((context instanceof BaseContext) &&
+            (((BaseContext) context).getScheduler() == this))
+            ((BaseContext) context).setScheduler(null);
+        return (true);
+
+    }
+
+
+    /**
+     * Resume the specified suspended Context after the specified delay,
+     * or at its deadline if that is earlier, instead of at any time for
+     * which it was scheduled before.
+     *
+     * @param context The Context to be resumed
+     * @param delay Minimum number of milliseconds before it is resumed
+     */
+    public synchronized void schedule(Context context, long delay) {
+
+        long now = System.currentTimeMillis();
+        long when = now + delay;
+        if (context instanceof BaseContext) {
+            long deadline = ((BaseContext) context).getDeadline();
+            if ((deadline > 0L) && (deadline < when))
+                when = deadline;
+            ((BaseContext) context).setScheduler(this);
+        }
+        TimerEntry entry = (TimerEntry) timers.remove(context);
+        if (entry != null)
+            wheel.cancel(entry);
+        timers.put(context, wheel.add(context, when, now));
+        start();
+        notifyAll();
+
+    }
+
+
+    /**
+     * Start our timer and worker threads, if they are not already running.
+     */
+    public synchronized void start() {
+
+        if (thread != null)
+            return;
+        thread = new Thread(this, "ContextScheduler");
+        thread.setDaemon(true);
+        threads = new Thread[workers];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(this, "ContextScheduler-" + i);
+            threads[i].setDaemon(true);
+        }
+        thread.start();
+        for (int i = 0; i < threads.length; i++)
+            threads[i].start();
+
+    }
+
+
+    /**
+     * Stop our timer and worker threads, if they are running.  Contexts
+     * that are scheduled but not yet resumed remain scheduled, and will be
+     * resumed if the threads are started again.
+     */
+    public synchronized void stop() {
+
+        if (thread == null)
+            return;
+        Thread stopped[] = threads;
+        thread.interrupt();
+        thread = null;
+        threads = null;
+        for (int i = 0; i < stopped.length; i++)
+            stopped[i].interrupt();
+
+    }
+
+
+    // ------------------------------------------------------- Static Variables
+
+
+    /**
+     * The singleton scheduler instance.
+     */
+    protected static ContextScheduler scheduler = null;
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Factory method to return a Singleton (per class loader)
+     * <code>ContextScheduler</code> instance.
+     */
+    public static synchronized ContextScheduler getScheduler() {
+
+        if (scheduler == null)
+            scheduler = new ContextScheduler();
+        return (scheduler);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Advance our timing wheel once per tick, handing Contexts that are
+     * due to our worker threads, until our timer thread is stopped.
+     */
+    protected void advance() {
+
+        ArrayList expired = new ArrayList();
+        while (true) {
+            synchronized (this) {
+                if (thread != Thread.currentThread())
+                    break;
+                wheel.advance(System.currentTimeMillis(), expired);
+                if (expired.isEmpty()) {
+                    try {
+                        wait(wheel.isEmpty() ? 0L : tick);
+                    } catch (InterruptedException e) {
+                        ;
+                    }
+                    continue;
+                }
+            }
+            synchronized (ready) {
+                ready.addAll(expired);
+                ready.notifyAll();
+            }
+            expired.clear();
+        }
+
+    }
+
+
+    /**
+     * Is the current thread one of our running worker threads?
+     */
+    protected synchronized boolean isWorker() {
+
+        if (threads == null)
+            return (false);
+        Thread current = Thread.currentThread();
+        for (int i = 0; i < threads.length; i++) {
+            if (threads[i] == current)
+                return (true);
+        }
+        return (false);
+
+    }
+
+
+    /**
+     * Resume execution of the Context of the specified entry while holding
+     * its lock (if it has one), unless the entry is no longer the current
+     * scheduled resumption of the Context, or the Context is no longer
+     * suspended.
+     *
+     * @param entry The entry that is due
+     */
+    protected void resume(TimerEntry entry) {
+
+        Context context = (Context) entry.item;
+        ContextLock lock = null;
+        if (context instanceof BaseContext)
+            lock = ((BaseContext) context).getLock();
+        try {
+            if (lock != null)
+                lock.acquire(0L, 0);
+            try {
+                synchronized (this) {
+                    if (timers.get(context) != entry)
+                        return;
+                    cancel(context);
+                }
+                if (context.getSuspend() && (context.getActivity() != null))
+                    context.execute();
+            } finally {
+                if (lock != null)
+                    lock.release();
+            }
+        } catch (Throwable t) {
+            log.error("Exception resuming " + context, t);
+        }
+
+    }
+
+
+    /**
+     * Resume Contexts as they become due, until this worker thread is
+     * stopped.
+     */
+    protected void work() {
+
+        while (true) {
+            TimerEntry entry = null;
+            synchronized (ready) {
+                while (ready.isEmpty()) {
+                    if (!isWorker())
+                        return;
+                    try {
+                        ready.wait();
+                    } catch (InterruptedException e) {
+                        ;
+                    }
+                }
+                entry = (TimerEntry) ready.removeFirst();
+            }
+            resume(entry);
+        }
+
+    }
+
+
+}
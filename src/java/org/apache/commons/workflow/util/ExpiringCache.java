@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+import org.apache.commons.collections.LRUMap;
+
+
+/**
+ * <p><strong>ExpiringCache</strong> is a bounded cache whose entries expire
+ * a fixed time after they were stored.  When it is full, the least recently
+ * used entry is evicted to make room for a new one; expired entries are
+ * discarded when they are next looked up.</p>
+ *
+ * <p>All public methods are synchronized, so a single instance may be shared
+ * by all of the <code>Contexts</code> in an application.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class ExpiringCache {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new cache with the default maximum size, whose entries
+     * never expire.
+     */
+    public ExpiringCache() {
+
+        this(DEFAULT_MAX_ENTRIES, 0L);
+
+    }
+
+
+    /**
+     * Construct a new cache with the specified maximum size and time to
+     * live.
+     *
+     * @param maxEntries Maximum number of entries held
+     * @param ttl Number of milliseconds an entry remains valid after it
+     *  was stored, or zero if entries never expire
+     */
+    public ExpiringCache(int maxEntries, long ttl) {
+
+        super();
+        this.entries = new LRUMap(maxEntries);
+        this.ttl = ttl;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The default maximum number of entries held.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The cached <code>ExpiringEntry</code> instances, keyed by the keys
+     * they were stored under.
+     */
+    protected LRUMap entries = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The number of milliseconds an entry remains valid after it was
+     * stored, or zero if entries never expire.
+     */
+    protected long ttl = 0L;
+
+    public synchronized long getTtl() {
+        return (this.ttl);
+    }
+
+    public synchronized void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+
+    /**
+     * Return the maximum number of entries held.
+     */
+    public synchronized int getMaxEntries() {
+
+        return (entries.getMaximumSize());
+
+    }
+
+
+    /**
+     * Set the maximum number of entries held.
+     *
+     * @param maxEntries The new maximum
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+
+        entries.setMaximumSize(maxEntries);
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Remove all entries from this cache.
+     */
+    public synchronized void clear() {
+
+        entries.clear();
+
+    }
+
+
+    /**
+     * Return the value stored under the specified key, if it has not
+     * expired.  Otherwise, return <code>null</code>.
+     *
+     * @param key Key to look up
+     */
+    public synchronized Object get(Object key) {
+
+        ExpiringEntry entry = (ExpiringEntry) entries.get(key);
+        if (entry == null)
+            return (null);
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            return (null);
+        }
+        return (entry.getValue());
+
+    }
+
+
+    /**
+     * Store the specified value under the specified key, replacing any
+     * previous value.
+     *
+     * @param key Key to store the value under
+     * @param value The value to be stored
+     */
+    public synchronized void put(Object key, Object value) {
+
+        long expires = Long.MAX_VALUE;
+        if (ttl > 0L)
+            expires = System.currentTimeMillis() + ttl;
+        entries.put(key, new ExpiringEntry(value, expires));
+
+    }
+
+
+    /**
+     * Remove any value stored under the specified key.
+     *
+     * @param key Key to be removed
+     */
+    public synchronized void remove(Object key) {
+
+        entries.remove(key);
+
+    }
+
+
+    /**
+     * Return the number of entries currently held, including any that
+     * have expired but have not yet been discarded.
+     */
+    public synchronized int size() {
+
+        return (entries.size());
+
+    }
+
+
+}
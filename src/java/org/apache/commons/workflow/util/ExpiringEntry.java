@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+/**
+ * <p>A value held by an <code>ExpiringCache</code>, together with the time
+ * at which it expires.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class ExpiringEntry {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new entry with the specified values.
+     *
+     * @param value The cached value
+     * @param expires Time (in milliseconds) at which this entry expires
+     */
+    ExpiringEntry(Object value, long expires) {
+
+        super();
+        this.value = value;
+        this.expires = expires;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The time (in milliseconds) at which this entry expires.
+     */
+    protected long expires = 0L;
+
+
+    /**
+     * The cached value.
+     */
+    protected Object value = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    Object getValue() {
+
+        return (this.value);
+
+    }
+
+
+    boolean isExpired(long now) {
+
+        return (now >= expires);
+
+    }
+
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+
+/**
+ * <p>SAX handler used by <code>ActivityParser</code> to read just the
+ * header (the attributes of the root <code>&lt;activity&gt;</code>
+ * element) of an XML Activity definition.  Parsing is abandoned, by
+ * throwing <code>STOP</code>, as soon as the root element has been
+ * seen.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class HeaderHandler extends DefaultHandler {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The exception thrown to abandon parsing after the root element.
+     */
+    static final SAXException STOP =
+        new SAXException("Activity header has been read");
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The identifier of the Activity, if any.
+     */
+    protected String id = null;
+
+
+    /**
+     * The local name of the root element.
+     */
+    protected String root = null;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Record the header of the Activity from the root element, and stop
+     * parsing.
+     *
+     * @param namespaceURI Namespace URI of this element
+     * @param localName Local name of this element
+     * @param qName Qualified name of this element
+     * @param attributes Attributes of this element
+     *
+     * @exception SAXException always, to stop parsing
+     */
+    public void startElement(String namespaceURI, String localName,
+                             String qName, Attributes attributes)
+        throws SAXException {
+
+        root = localName;
+        id = attributes.getValue("id");
+        throw STOP;
+
+    }
+
+
+}
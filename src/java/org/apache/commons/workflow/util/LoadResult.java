@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import org.apache.commons.workflow.Activity;
+
+
+/**
+ * <p>The outcome of loading a single Activity definition with
+ * <code>ActivityLoader</code>:  either the Activity that was loaded, or the
+ * exception that prevented it from being loaded, together with the time
+ * that was taken.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class LoadResult {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new result with the specified values.
+     *
+     * @param name Name (usually a URL) of the definition
+     * @param activity The Activity that was loaded, or <code>null</code>
+     * @param exception The exception that was thrown, or <code>null</code>
+     * @param elapsed Time (in milliseconds) taken to load the definition
+     */
+    public LoadResult(String name, Activity activity, Throwable exception,
+                      long elapsed) {
+
+        super();
+        this.name = name;
+        this.activity = activity;
+        this.exception = exception;
+        this.elapsed = elapsed;
+
+    }
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The Activity that was loaded, if successful.
+     */
+    protected Activity activity = null;
+
+    public Activity getActivity() {
+        return (this.activity);
+    }
+
+
+    /**
+     * The time (in milliseconds) taken to load the definition.
+     */
+    protected long elapsed = 0L;
+
+    public long getElapsed() {
+        return (this.elapsed);
+    }
+
+
+    /**
+     * The exception that prevented the definition from being loaded, if
+     * unsuccessful.
+     */
+    protected Throwable exception = null;
+
+    public Throwable getException() {
+        return (this.exception);
+    }
+
+
+    /**
+     * The name (usually a URL) of the definition.
+     */
+    protected String name = null;
+
+    public String getName() {
+        return (this.name);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Render a printable version of this object.
+     */
+    public String toString() {
+
+        StringBuffer sb = new StringBuffer("LoadResult[name=");
+        sb.append(name);
+        if (activity != null) {
+            sb.append(", activity=");
+            sb.append(activity.getId());
+        }
+        if (exception != null) {
+            sb.append(", exception=");
+            sb.append(exception);
+        }
+        sb.append(", elapsed=");
+        sb.append(elapsed);
+        sb.append("]");
+        return (sb.toString());
+
+    }
+
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.HashMap;
+
+
+/**
+ * <p><strong>PersistentMap</strong> is an immutable map from String keys to
+ * values, stored in a hash array mapped trie.  <code>put()</code> and
+ * <code>remove()</code> return a new map rather than changing this one,
+ * copying only the nodes on the path to the changed key and sharing the
+ * rest, so keeping an old version of a map costs nothing.  This makes it
+ * suitable for taking snapshots of a <code>Scope</code> in constant
+ * time.</p>
+ *
+ * <p>Instances are immutable, and so may be shared freely between
+ * threads.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class PersistentMap {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new map with the specified contents.
+     *
+     * @param root The root node of the trie
+     * @param size The number of mappings in the trie
+     */
+    PersistentMap(TrieNode root, int size) {
+
+        super();
+        this.root = root;
+        this.size = size;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The map with no mappings.
+     */
+    public static final PersistentMap EMPTY =
+        new PersistentMap(TrieNode.EMPTY, 0);
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The root node of our trie.
+     */
+    protected TrieNode root = null;
+
+
+    /**
+     * The number of mappings in our trie.
+     */
+    protected int size = 0;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public boolean containsKey(String key) {
+
+        return (get(key) != null);
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key, or
+     * <code>null</code> if there is none.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(String key) {
+
+        if (key == null)
+            return (null);
+        return (root.get(0, key.hashCode(), key));
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map is empty.
+     */
+    public boolean isEmpty() {
+
+        return (size == 0);
+
+    }
+
+
+    /**
+     * Return a map like this one, but with the specified key associated
+     * with the specified value.
+     *
+     * @param key Key with which the value should be associated
+     *  (cannot be null)
+     * @param value Value to be associated with this key (cannot be null)
+     *
+     * @exception IllegalArgumentException if <code>key</code> or
+     *  <code>value</code> is null
+     */
+    public PersistentMap put(String key, Object value) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        if (value == null)
+            throw new IllegalArgumentException("Value cannot be null");
+        int hash = key.hashCode();
+        int n = size;
+        if (root.get(0, hash, key) == null)
+            n++;
+        TrieNode result = root.put(0, hash, key, value);
+        if (result == root)
+            return (this);
+        return (new PersistentMap(result, n));
+
+    }
+
+
+    /**
+     * Return a map like this one, but without the specified key.  If the
+     * key is not present, this map itself is returned.
+     *
+     * @param key Key to be removed
+     */
+    public PersistentMap remove(String key) {
+
+        if (key == null)
+            return (this);
+        TrieNode result = root.remove(0, key.hashCode(), key);
+        if (result == root)
+            return (this);
+        return (new PersistentMap(result, size - 1));
+
+    }
+
+
+    /**
+     * Return the number of mappings in this map.
+     */
+    public int size() {
+
+        return (size);
+
+    }
+
+
+    /**
+     * Return a new HashMap containing the mappings in this map.
+     */
+    public HashMap toMap() {
+
+        HashMap map = new HashMap();
+        root.fill(map);
+        return (map);
+
+    }
+
+
+    /**
+     * Render a printable version of this object.
+     */
+    public String toString() {
+
+        return ("PersistentMap" + toMap());
+
+    }
+
+
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.util;
+
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Registry;
+
+
+/**
+ * <p>Watches a directory of Activity definition files (XML, or the binary
+ * form produced by <code>ActivityCompiler</code>), or a single such file,
+ * and registers a new version of each Activity in a <code>Registry</code>
+ * whenever its definition file is added or modified.  Checks are performed
+ * by polling file modification times, either on demand by calling
+ * <code>scan()</code> or periodically by a background daemon thread
+ * started by <code>start()</code>.</p>
+ *
+ * <p>Files are only ever added to the Registry.  Deleting a definition file
+ * does not remove its Activity, and a definition that fails to parse
+ * leaves the previous version in place; the failure is logged, recorded
+ * and returned by <code>getFailures()</code>, and the file is retried by
+ * every check until it is loaded successfully (so that a file that was
+ * only partly written when it was first checked is loaded once it is
+ * complete).</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class RegistryWatcher implements Runnable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new watcher for the specified Registry and definition
+     * file or directory.
+     *
+     * @param registry The Registry to be updated
+     * @param file The definition file, or a directory of definition files
+     * @param interval Milliseconds between checks made by our background
+     *  thread
+     */
+    public RegistryWatcher(Registry registry, File file, long interval) {
+
+        super();
+        this.registry = registry;
+        this.file = file;
+        this.interval = interval;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The last failure to load each definition file, keyed by File.
+     */
+    protected HashMap failures = new HashMap();
+
+
+    /**
+     * The logger for this class.
+     */
+    protected static Log log = LogFactory.getLog(RegistryWatcher.class);
+
+
+    /**
+     * The last modified time of each definition file when it was last
+     * loaded (or recorded without loading), keyed by File.
+     */
+    protected HashMap modified = new HashMap();
+
+
+    /**
+     * The parser used to read definition files.
+     */
+    protected ActivityParser parser = new ActivityParser();
+
+
+    /**
+     * The background thread performing periodic checks, if started.
+     */
+    protected Thread thread = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The definition file, or directory of definition files, we watch.
+     */
+    protected File file = null;
+
+    public File getFile() {
+        return (this.file);
+    }
+
+
+    /**
+     * The number of milliseconds between checks by our background thread.
+     */
+    protected long interval = 0L;
+
+    public long getInterval() {
+        return (this.interval);
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+
+    /**
+     * Are definitions rewritten by <code>ActivityOptimizer</code> when they
+     * are reloaded?
+     */
+    public synchronized boolean getOptimize() {
+        return (parser.getOptimize());
+    }
+
+    public synchronized void setOptimize(boolean optimize) {
+        parser.setOptimize(optimize);
+    }
+
+
+    /**
+     * The Registry we update.
+     */
+    protected Registry registry = null;
+
+    public Registry getRegistry() {
+        return (this.registry);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return the most recent failure to load each definition file that
+     * has not been loaded successfully since, keyed by File.
+     */
+    public synchronized Map getFailures() {
+
+        return ((Map) failures.clone());
+
+    }
+
+
+    /**
+     * Perform periodic checks until our background thread is stopped.
+     */
+    public void run() {
+
+        while (true) {
+            synchronized (this) {
+                if (thread != Thread.currentThread())
+                    break;
+            }
+            scan(true);
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                ;
+            }
+        }
+
+    }
+
+
+    /**
+     * Check the modification times of our definition files, and return the
+     * number of files that were added or modified since they were last
+     * loaded.  If <code>load</code> is true, those files are parsed and
+     * their Activities are registered, and the modification time of each
+     * file is recorded once it has been loaded successfully; otherwise,
+     * their current modification times are just recorded (which is useful
+     * when they have already been loaded by some other means).
+     *
+     * @param load Should added or modified files be loaded?
+     */
+    public synchronized int scan(boolean load) {
+
+        File files[] = null;
+        boolean single = !file.isDirectory();
+        if (single)
+            files = new File[] { file };
+        else
+            files = file.listFiles();
+        if (files == null)
+            return (0);
+
+        int count = 0;
+        for (int i = 0; i < files.length; i++) {
+            if (single ? !files[i].isFile() : !isDefinition(files[i]))
+                continue;
+            Long lastModified = Long.valueOf(files[i].lastModified());
+            if (lastModified.equals(modified.get(files[i])))
+                continue;
+            count++;
+            if (!load) {
+                modified.put(files[i], lastModified);
+                continue;
+            }
+            try {
+                Activity activity = parser.parse(files[i]);
+                if (activity == null)
+                    throw new IllegalArgumentException
+                        ("No activity defined in " + files[i]);
+                registry.addActivity(activity);
+                modified.put(files[i], lastModified);
+                failures.remove(files[i]);
+            } catch (Throwable t) {
+                if (failures.put(files[i], t) == null)
+                    log.warn("Cannot load activity from " + files[i], t);
+                else if (log.isDebugEnabled())
+                    log.debug("Still cannot load activity from " +
+                              files[i], t);
+            }
+        }
+        return (count);
+
+    }
+
+
+    /**
+     * Start a background daemon thread that checks our definition files
+     * every <code>interval</code> milliseconds, if it is not already
+     * running.
+     */
+    public synchronized void start() {
+
+        if (thread != null)
+            return;
+        thread = new Thread(this, "RegistryWatcher[" + file + "]");
+        thread.setDaemon(true);
+        thread.start();
+
+    }
+
+
+    /**
+     * Stop our background thread, if it is running.
+     */
+    public synchronized void stop() {
+
+        if (thread == null)
+            return;
+        Thread stopped = thread;
+        thread = null;
+        stopped.interrupt();
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Is the specified file in our directory an Activity definition file
+     * that we should watch?  By default, files with an <code>.xml</code> extension and
+     * files with the <code>ActivitySerializer.SUFFIX</code> extension are
+     * watched.
+     *
+     * @param file The file to be checked
+     */
+    protected boolean isDefinition(File file) {
+
+        if (!file.isFile())
+            return (false);
+        String name = file.getName();
+        return (name.endsWith(".xml") ||
+                name.endsWith(ActivitySerializer.SUFFIX));
+
+    }
+
+
+}
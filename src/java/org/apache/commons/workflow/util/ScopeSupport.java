@@ -17,6 +17,7 @@
 package org.apache.commons.workflow.util;
 
 
+import java.util.Collections;
 import java.util.Map;
 import org.apache.commons.workflow.Scope;
 import org.apache.commons.workflow.ScopeEvent;
@@ -28,6 +29,10 @@ import org.apache.commons.workflow.ScopeListener;
  * firing of <code>ScopeEvents</code> to registered
  * <code>ScopeListeners</code>.
  *
+ * <p>The set of listeners is replaced, never modified, when a listener is
+ * added or removed, so events are fired without taking any lock, even
+ * when many threads change a shared <code>Scope</code> at once.</p>
+ *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
  */
@@ -56,8 +61,15 @@ public class ScopeSupport {
 
     /**
      * The set of registered <code>ScopeListener</code> event listeners.
+     * This array is never modified after it has been assigned.
      */
-    protected ScopeListener listeners[] = new ScopeListener[0];
+    protected volatile ScopeListener listeners[] = new ScopeListener[0];
+
+
+    /**
+     * The lock that serializes changes to the set of listeners.
+     */
+    protected Object lock = new Object();
 
 
     /**
@@ -77,7 +89,7 @@ public class ScopeSupport {
      */
     public void addScopeListener(ScopeListener listener) {
 
-      synchronized (listeners) {
+      synchronized (lock) {
           ScopeListener results[] =
             new ScopeListener[listeners.length + 1];
           System.arraycopy(listeners, 0, results, 0, listeners.length);
@@ -88,6 +100,17 @@ public class ScopeSupport {
     }
 
 
+    /**
+     * Return <code>true</code> if any listeners are registered, so that
+     * callers can avoid preparing events that nobody will receive.
+     */
+    public boolean hasListeners() {
+
+        return (listeners.length > 0);
+
+    }
+
+
     /**
      * Remove a listener that is notified each time beans are added,
      * replaced, or removed in this scope.
@@ -96,7 +119,7 @@ public class ScopeSupport {
      */
     public void removeScopeListener(ScopeListener listener) {
 
-        synchronized (listeners) {
+        synchronized (lock) {
             int n = -1;
             for (int i = 0; i < listeners.length; i++) {
                 if (listeners[i] == listener) {
@@ -130,13 +153,10 @@ public class ScopeSupport {
      */
     public void fireBeanAdded(String key, Object value) {
 
-        if (listeners.length == 0)
+        ScopeListener interested[] = listeners;
+        if (interested.length == 0)
             return;
         ScopeEvent event = new ScopeEvent(scope, key, value);
-        ScopeListener interested[] = null;
-        synchronized (listeners) {
-            interested = (ScopeListener[]) listeners.clone();
-        }
         for (int i = 0; i < interested.length; i++)
             interested[i].beanAdded(event);
 
@@ -151,13 +171,10 @@ public class ScopeSupport {
      */
     public void fireBeanRemoved(String key, Object value) {
 
-        if (listeners.length == 0)
+        ScopeListener interested[] = listeners;
+        if (interested.length == 0)
             return;
         ScopeEvent event = new ScopeEvent(scope, key, value);
-        ScopeListener interested[] = null;
-        synchronized (listeners) {
-            interested = (ScopeListener[]) listeners.clone();
-        }
         for (int i = 0; i < interested.length; i++)
             interested[i].beanRemoved(event);
 
@@ -172,13 +189,10 @@ public class ScopeSupport {
      */
     public void fireBeanReplaced(String key, Object value) {
 
-        if (listeners.length == 0)
+        ScopeListener interested[] = listeners;
+        if (interested.length == 0)
             return;
         ScopeEvent event = new ScopeEvent(scope, key, value);
-        ScopeListener interested[] = null;
-        synchronized (listeners) {
-            interested = (ScopeListener[]) listeners.clone();
-        }
         for (int i = 0; i < interested.length; i++)
             interested[i].beanReplaced(event);
 
@@ -186,17 +200,30 @@ public class ScopeSupport {
 
 
     /**
-     * Fire a <code>scopeCleared()</code> event to all registered listeners.
+     * Fire a <code>scopeCleared()</code> event to all registered listeners,
+     * without the beans that were removed.
      */
     public void fireScopeCleared() {
 
-        if (listeners.length == 0)
+        fireScopeCleared(null);
+
+    }
+
+
+    /**
+     * Fire a <code>scopeCleared()</code> event to all registered listeners.
+     *
+     * @param beans The beans that were removed, keyed by their keys, or
+     *  <code>null</code> if they are not known
+     */
+    public void fireScopeCleared(Map beans) {
+
+        ScopeListener interested[] = listeners;
+        if (interested.length == 0)
             return;
-        ScopeEvent event = new ScopeEvent(scope, null, null);
-        ScopeListener interested[] = null;
-        synchronized (listeners) {
-            interested = (ScopeListener[]) listeners.clone();
-        }
+        if (beans != null)
+            beans = Collections.unmodifiableMap(beans);
+        ScopeEvent event = new ScopeEvent(scope, null, beans);
         for (int i = 0; i < interested.length; i++)
             interested[i].scopeCleared(event);
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+/**
+ * <p>An item scheduled in a <code>TimingWheel</code>, linked into the list
+ * of entries in its slot so that it can be moved or cancelled in constant
+ * time.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class TimerEntry {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new entry with the specified values.
+     *
+     * @param item The scheduled item
+     * @param tick The tick at which this entry expires
+     */
+    TimerEntry(Object item, long tick) {
+
+        super();
+        this.item = item;
+        this.tick = tick;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The scheduled item.
+     */
+    protected Object item = null;
+
+
+    /**
+     * The level of the wheel holding this entry, or -1 if it is not
+     * scheduled.
+     */
+    protected int level = -1;
+
+
+    /**
+     * The next entry in the same slot, if any.
+     */
+    protected TimerEntry next = null;
+
+
+    /**
+     * The previous entry in the same slot, if any.
+     */
+    protected TimerEntry previous = null;
+
+
+    /**
+     * The tick at which this entry expires.
+     */
+    protected long tick = 0L;
+
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.List;
+
+
+/**
+ * <p>A hierarchical timing wheel, which holds items until the times at
+ * which they are due.  Time is divided into ticks of <code>tick</code>
+ * milliseconds.  The wheel has <code>LEVELS</code> levels of
+ * <code>size</code> slots each: a slot of the lowest level holds the items
+ * due in a single tick, and a slot of each higher level holds the items
+ * due in a span of <code>size</code> slots of the level below.  An item is
+ * linked into the slot of the lowest level whose span covers it, so adding
+ * and cancelling items take constant time however many are pending.  As
+ * the lowest level comes round to each slot of a higher level, the items
+ * in that slot are moved down, so that advancing the wheel by one tick
+ * only visits the items that are due or about to be.</p>
+ *
+ * <p>Items are never reported early, but may be reported up to a tick
+ * late.  Items due further ahead than the span of the highest level are
+ * held there, and moved again each time that level comes round to them.
+ * No synchronization is performed by this class.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class TimingWheel {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new wheel with the specified parameters.
+     *
+     * @param tick Length of a tick in milliseconds
+     * @param size Minimum number of slots in each level, which is rounded
+     *  up to a power of two
+     * @param now The current time in milliseconds
+     */
+    TimingWheel(long tick, int size, long now) {
+
+        super();
+        if (tick <= 0L)
+            throw new IllegalArgumentException("Tick must be positive");
+        int bits = 1;
+        while ((1 << bits) < size)
+            bits++;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.slots = new TimerEntry[LEVELS][1 << bits];
+        this.tick = tick;
+        this.current = now / tick;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The number of levels in a wheel.
+     */
+    static final int LEVELS = 4;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The number of bits of a tick that select a slot in each level.
+     */
+    protected int bits = 0;
+
+
+    /**
+     * The last tick that has been processed.
+     */
+    protected long current = 0L;
+
+
+    /**
+     * The mask selecting a slot from the bits for a level.
+     */
+    protected int mask = 0;
+
+
+    /**
+     * The number of pending entries.
+     */
+    protected int size = 0;
+
+
+    /**
+     * The first entry in each slot of each level, if any.
+     */
+    protected TimerEntry slots[][] = null;
+
+
+    /**
+     * The length of a tick in milliseconds.
+     */
+    protected long tick = 0L;
+
+
+    // -------------------------------------------------------- Package Methods
+
+
+    /**
+     * Schedule the specified item for the specified time, and return the
+     * entry that records it.  An item whose time has already passed is due
+     * at the next tick.
+     *
+     * @param item The item to be scheduled
+     * @param deadline The time (in milliseconds) at which it is due
+     * @param now The current time in milliseconds, which brings an empty
+     *  wheel up to date
+     */
+    TimerEntry add(Object item, long deadline, long now) {
+
+        if ((size == 0) && (now / tick > current))
+            current = now / tick;       // Nothing to report in between
+        long when = (deadline + tick - 1) / tick;
+        if (when <= current)
+            when = current + 1;
+        TimerEntry entry = new TimerEntry(item, when);
+        link(entry);
+        size++;
+        return (entry);
+
+    }
+
+
+    /**
+     * Advance this wheel to the specified time, removing the entries that
+     * are then due and adding them to the specified list.
+     *
+     * @param now The current time in milliseconds
+     * @param expired List to which due entries are added
+     */
+    void advance(long now, List expired) {
+
+        long target = now / tick;
+        while (current < target) {
+            if (size == 0) {
+                current = target;
+                break;
+            }
+            current++;
+
+            // Move down the entries of each higher level that comes round
+            for (int level = 1; level < LEVELS; level++) {
+                if ((current & ((1L << (bits * level)) - 1)) != 0)
+                    break;
+                int slot = (int) ((current >>> (bits * level)) & mask);
+                TimerEntry entry = slots[level][slot];
+                slots[level][slot] = null;
+                while (entry != null) {
+                    TimerEntry next = entry.next;
+                    entry.next = null;
+                    entry.previous = null;
+                    link(entry);
+                    entry = next;
+                }
+            }
+
+            // Report the entries due in this tick
+            int slot = (int) (current & mask);
+            TimerEntry entry = slots[0][slot];
+            slots[0][slot] = null;
+            while (entry != null) {
+                TimerEntry next = entry.next;
+                entry.next = null;
+                entry.previous = null;
+                entry.level = -1;
+                size--;
+                expired.add(entry);
+                entry = next;
+            }
+        }
+
+    }
+
+
+    /**
+     * Cancel the specified entry, if it is still scheduled.  Return
+     * <code>true</code> if it was cancelled.
+     *
+     * @param entry The entry to be cancelled
+     */
+    boolean cancel(TimerEntry entry) {
+
+        if (entry.level < 0)
+            return (false);
+        if (entry.previous != null)
+            entry.previous.next = entry.next;
+        else
+            slots[entry.level][slot(entry)] = entry.next;
+        if (entry.next != null)
+            entry.next.previous = entry.previous;
+        entry.next = null;
+        entry.previous = null;
+        entry.level = -1;
+        size--;
+        return (true);
+
+    }
+
+
+    boolean isEmpty() {
+
+        return (size == 0);
+
+    }
+
+
+    int size() {
+
+        return (size);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Link the specified entry into the slot of the lowest level whose span
+     * covers the time until it is due.
+     *
+     * @param entry The entry to be linked
+     */
+    protected void link(TimerEntry entry) {
+
+        long delta = entry.tick - current;
+        int level = 0;
+        while ((level < LEVELS - 1) &&
+               (delta >= (1L << (bits * (level + 1)))))
+            level++;
+        entry.level = level;
+        int slot = slot(entry);
+        entry.next = slots[level][slot];
+        if (entry.next != null)
+            entry.next.previous = entry;
+        slots[level][slot] = entry;
+
+    }
+
+
+    /**
+     * Return the slot, within its level, of the specified entry.
+     *
+     * @param entry The entry whose slot is to be returned
+     */
+    protected int slot(TimerEntry entry) {
+
+        return ((int) ((entry.tick >>> (bits * entry.level)) & mask));
+
+    }
+
+
+}
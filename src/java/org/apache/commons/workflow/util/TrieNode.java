@@ -0,0 +1,310 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.Map;
+
+
+/**
+ * <p>An immutable node of the hash array mapped trie behind a
+ * <code>PersistentMap</code>.  Each level of the trie consumes five bits
+ * of the hash code of a key; a node holds a bitmap of the slots in use,
+ * and an array with a pair of elements for each one.  A pair is either a
+ * key and its value, or <code>null</code> and the child node for keys
+ * sharing that slot.  Once all of the hash bits have been consumed, a node
+ * holds a plain list of pairs whose keys have the same hash code.</p>
+ *
+ * <p>Changes return a new node that shares every unchanged child with the
+ * original.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class TrieNode {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new node with the specified contents.
+     *
+     * @param bitmap The slots in use
+     * @param array The pairs for the slots in use
+     */
+    TrieNode(int bitmap, Object array[]) {
+
+        super();
+        this.bitmap = bitmap;
+        this.array = array;
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The node with no slots in use.
+     */
+    static final TrieNode EMPTY = new TrieNode(0, new Object[0]);
+
+
+    /**
+     * The number of hash bits consumed at each level of the trie.
+     */
+    static final int BITS = 5;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The pairs for the slots in use, in slot order.
+     */
+    private Object array[] = null;
+
+
+    /**
+     * The slots in use.
+     */
+    private int bitmap = 0;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    /**
+     * Copy all of the mappings below this node into the specified map.
+     *
+     * @param map The map to be filled
+     */
+    void fill(Map map) {
+
+        for (int i = 0; i < array.length; i += 2) {
+            if (array[i] == null)
+                ((TrieNode) array[i + 1]).fill(map);
+            else
+                map.put(array[i], array[i + 1]);
+        }
+
+    }
+
+
+    /**
+     * Return the value associated with the specified key below this node,
+     * or <code>null</code> if there is none.
+     *
+     * @param shift The number of hash bits consumed above this node
+     * @param hash The hash code of the key
+     * @param key The key to be looked up
+     */
+    Object get(int shift, int hash, String key) {
+
+        if (shift >= 32) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i]))
+                    return (array[i + 1]);
+            }
+            return (null);
+        }
+        int bit = bit(shift, hash);
+        if ((bitmap & bit) == 0)
+            return (null);
+        int i = index(bit);
+        if (array[i] == null)
+            return (((TrieNode) array[i + 1]).get(shift + BITS, hash, key));
+        if (key.equals(array[i]))
+            return (array[i + 1]);
+        return (null);
+
+    }
+
+
+    /**
+     * Return a node like this one, but with the specified key associated
+     * with the specified value.
+     *
+     * @param shift The number of hash bits consumed above this node
+     * @param hash The hash code of the key
+     * @param key The key to be added or replaced
+     * @param value The new value
+     */
+    TrieNode put(int shift, int hash, String key, Object value) {
+
+        if (shift >= 32) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i]))
+                    return (new TrieNode(bitmap, set(i + 1, value)));
+            }
+            return (new TrieNode(bitmap, insert(array.length, key, value)));
+        }
+        int bit = bit(shift, hash);
+        int i = index(bit);
+        if ((bitmap & bit) == 0)
+            return (new TrieNode(bitmap | bit, insert(i, key, value)));
+        Object k = array[i];
+        Object v = array[i + 1];
+        if (k == null) {
+            TrieNode child =
+                ((TrieNode) v).put(shift + BITS, hash, key, value);
+            return (new TrieNode(bitmap, set(i + 1, child)));
+        }
+        if (key.equals(k)) {
+            if (value == v)
+                return (this);
+            return (new TrieNode(bitmap, set(i + 1, value)));
+        }
+        TrieNode child = EMPTY.put(shift + BITS, k.hashCode(),
+                                   (String) k, v);
+        child = child.put(shift + BITS, hash, key, value);
+        Object results[] = set(i + 1, child);
+        results[i] = null;
+        return (new TrieNode(bitmap, results));
+
+    }
+
+
+    /**
+     * Return a node like this one, but without the specified key.  If the
+     * key is not present, this node itself is returned.
+     *
+     * @param shift The number of hash bits consumed above this node
+     * @param hash The hash code of the key
+     * @param key The key to be removed
+     */
+    TrieNode remove(int shift, int hash, String key) {
+
+        if (shift >= 32) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i]))
+                    return (new TrieNode(bitmap, delete(i)));
+            }
+            return (this);
+        }
+        int bit = bit(shift, hash);
+        if ((bitmap & bit) == 0)
+            return (this);
+        int i = index(bit);
+        if (array[i] != null) {
+            if (!key.equals(array[i]))
+                return (this);
+            return (new TrieNode(bitmap & ~bit, delete(i)));
+        }
+        TrieNode child = (TrieNode) array[i + 1];
+        TrieNode result = child.remove(shift + BITS, hash, key);
+        if (result == child)
+            return (this);
+        if (result.array.length == 0)
+            return (new TrieNode(bitmap & ~bit, delete(i)));
+        Object results[] = null;
+        if ((result.array.length == 2) && (result.array[0] != null)) {
+            results = set(i + 1, result.array[1]);     // Pull the last
+            results[i] = result.array[0];              // pair up a level
+        } else
+            results = set(i + 1, result);
+        return (new TrieNode(bitmap, results));
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    /**
+     * Return the bitmap bit for the specified hash code at this level.
+     *
+     * @param shift The number of hash bits consumed above this node
+     * @param hash The hash code
+     */
+    private static int bit(int shift, int hash) {
+
+        return (1 << ((hash >>> shift) & 31));
+
+    }
+
+
+    /**
+     * Return a copy of our array without the pair at the specified index.
+     *
+     * @param i Index of the pair's first element
+     */
+    private Object[] delete(int i) {
+
+        Object results[] = new Object[array.length - 2];
+        System.arraycopy(array, 0, results, 0, i);
+        System.arraycopy(array, i + 2, results, i, array.length - i - 2);
+        return (results);
+
+    }
+
+
+    /**
+     * Return the index in our array of the pair for the specified bit.
+     *
+     * @param bit The bitmap bit
+     */
+    private int index(int bit) {
+
+        int n = bitmap & (bit - 1);
+        n = n - ((n >>> 1) & 0x55555555);
+        n = (n & 0x33333333) + ((n >>> 2) & 0x33333333);
+        n = (n + (n >>> 4)) & 0x0f0f0f0f;
+        n = (n * 0x01010101) >>> 24;
+        return (2 * n);
+
+    }
+
+
+    /**
+     * Return a copy of our array with a new pair at the specified index.
+     *
+     * @param i Index of the new pair's first element
+     * @param key The first element of the pair
+     * @param value The second element of the pair
+     */
+    private Object[] insert(int i, Object key, Object value) {
+
+        Object results[] = new Object[array.length + 2];
+        System.arraycopy(array, 0, results, 0, i);
+        results[i] = key;
+        results[i + 1] = value;
+        System.arraycopy(array, i, results, i + 2, array.length - i);
+        return (results);
+
+    }
+
+
+    /**
+     * Return a copy of our array with the specified element replaced.
+     *
+     * @param i Index of the element to be replaced
+     * @param value The new element
+     */
+    private Object[] set(int i, Object value) {
+
+        Object results[] = (Object[]) array.clone();
+        results[i] = value;
+        return (results);
+
+    }
+
+
+}
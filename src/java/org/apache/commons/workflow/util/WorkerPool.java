@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.workflow.util;
+
+
+import java.util.LinkedList;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * <p>A fixed number of daemon worker threads that run queued
+ * <code>Runnable</code> tasks in the order they were queued, so that Steps
+ * which perform work concurrently (such as <code>io:getAll</code>) share
+ * a bounded number of threads rather than starting new ones on every
+ * execution.  The threads are started when the first task is queued.</p>
+ *
+ * <p>Because the pool is bounded, a task may wait in the queue for some
+ * time when all of the workers are busy.  Callers that must not depend on
+ * a worker becoming free should perform the same work on their own thread
+ * as well, as <code>io:getAll</code> does.  An exception thrown by a task
+ * is logged and does not stop the worker.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class WorkerPool implements Runnable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new pool with the default number of worker threads.
+     */
+    public WorkerPool() {
+
+        this(DEFAULT_WORKERS);
+
+    }
+
+
+    /**
+     * Construct a new pool with the specified number of worker threads.
+     *
+     * @param workers Number of worker threads
+     */
+    public WorkerPool(int workers) {
+
+        super();
+        this.workers = Math.max(workers, 1);
+
+    }
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The default number of worker threads.
+     */
+    public static final int DEFAULT_WORKERS = 8;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The logger for this class.
+     */
+    protected static Log log = LogFactory.getLog(WorkerPool.class);
+
+
+    /**
+     * The tasks waiting for a worker, in the order they will be run.
+     */
+    protected LinkedList tasks = new LinkedList();
+
+
+    /**
+     * The worker threads, if started.
+     */
+    protected Thread threads[] = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The number of tasks waiting for a worker.
+     */
+    public synchronized int getQueued() {
+        return (tasks.size());
+    }
+
+
+    /**
+     * The number of worker threads.
+     */
+    protected int workers = 0;
+
+    public int getWorkers() {
+        return (this.workers);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Queue the specified task to be run by one of our worker threads.
+     *
+     * @param task The task to be run
+     */
+    public synchronized void execute(Runnable task) {
+
+        tasks.addLast(task);
+        start();
+        notify();
+
+    }
+
+
+    /**
+     * Run queued tasks until this worker thread is stopped.
+     */
+    public void run() {
+
+        while (true) {
+            Runnable task = null;
+            synchronized (this) {
+                while (tasks.isEmpty()) {
+                    if (!isWorker())
+                        return;
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        ;
+                    }
+                }
+                if (!isWorker())
+                    return;
+                task = (Runnable) tasks.removeFirst();
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.error("Exception running " + task, t);
+            }
+        }
+
+    }
+
+
+    /**
+     * Start our worker threads, if they are not already running.
+     */
+    public synchronized void start() {
+
+        if (threads != null)
+            return;
+        threads = new Thread[workers];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(this, "WorkerPool-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+    }
+
+
+    /**
+     * Stop our worker threads, if they are running, once they finish the
+     * tasks they are running.  Queued tasks remain queued, and will be run
+     * if the threads are started again.
+     */
+    public synchronized void stop() {
+
+        if (threads == null)
+            return;
+        Thread stopped[] = threads;
+        threads = null;
+        for (int i = 0; i < stopped.length; i++)
+            stopped[i].interrupt();
+
+    }
+
+
+    // ------------------------------------------------------- Static Variables
+
+
+    /**
+     * The singleton pool instance.
+     */
+    protected static WorkerPool pool = null;
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Factory method to return a Singleton (per class loader)
+     * <code>WorkerPool</code> instance.
+     */
+    public static synchronized WorkerPool getPool() {
+
+        if (pool == null)
+            pool = new WorkerPool();
+        return (pool);
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Is the current thread one of our running worker threads?  The caller
+     * must hold our monitor.
+     */
+    protected boolean isWorker() {
+
+        if (threads == null)
+            return (false);
+        Thread current = Thread.currentThread();
+        for (int i = 0; i < threads.length; i++) {
+            if (threads[i] == current)
+                return (true);
+        }
+        return (false);
+
+    }
+
+
+}
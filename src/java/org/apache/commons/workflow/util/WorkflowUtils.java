@@ -17,6 +17,17 @@
 package org.apache.commons.workflow.util;
 
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.Owner;
+import org.apache.commons.workflow.Step;
+
+
 /**
  * General purpose static utility methods for the Workflow engine.
  *
@@ -27,6 +38,141 @@ package org.apache.commons.workflow.util;
 public class WorkflowUtils {
 
 
+    /**
+     * Return the Step identified by the specified path (as returned by
+     * <code>getStepPath()</code>) within the specified Activity, or
+     * <code>null</code> if there is no such Step.
+     *
+     * @param activity Activity containing the requested Step
+     * @param path Path of the requested Step
+     */
+    public static Step findStepPath(Activity activity, String path) {
+
+        Owner owner = activity;
+        Step step = null;
+        int start = 0;
+        while (start <= path.length()) {
+            if (owner == null)
+                return (null);
+            int end = path.indexOf('/', start);
+            if (end < 0)
+                end = path.length();
+            int index = 0;
+            try {
+                index = Integer.parseInt(path.substring(start, end));
+            } catch (NumberFormatException e) {
+                return (null);
+            }
+            Step steps[] = owner.getSteps();
+            if ((index < 0) || (index >= steps.length))
+                return (null);
+            step = steps[index];
+            owner = (step instanceof Block) ? (Block) step : null;
+            start = end + 1;
+        }
+        return (step);
+
+    }
+
+
+    /**
+     * Return the Activity that ultimately owns the specified Step, or
+     * <code>null</code> if it is not part of an Activity.
+     *
+     * @param step Step whose Activity is requested
+     */
+    public static Activity getActivity(Step step) {
+
+        Owner owner = step.getOwner();
+        while (owner instanceof Block)
+            owner = ((Block) owner).getOwner();
+        if (owner instanceof Activity)
+            return ((Activity) owner);
+        else
+            return (null);
+
+    }
+
+
+    /**
+     * Return a digest (as a hexadecimal SHA-1 hash) of the definition of
+     * the specified Activity: its identifier and the serialized form of
+     * each of its Steps (including the Steps nested in Blocks), so that
+     * separately loaded copies of the same definition have the same
+     * digest.  A Step that is not <code>Serializable</code> is represented
+     * by its class and <code>toString()</code> rendering instead.
+     *
+     * @param activity Activity whose digest is requested
+     *
+     * @exception IOException if a Step cannot be serialized
+     */
+    public static String getDigest(Activity activity) throws IOException {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(activity.getId());
+        Step steps[] = activity.getSteps();
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] instanceof Serializable) {
+                oos.writeObject(steps[i]);
+            } else {
+                oos.writeObject(steps[i].getClass().getName());
+                oos.writeObject(steps[i].toString());
+            }
+        }
+        oos.close();
+
+        byte digest[] = null;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest
+                (baos.toByteArray());
+        } catch (Exception e) {
+            // Every Java platform is required to support SHA-1
+            throw new IllegalStateException(e.toString());
+        }
+        StringBuffer sb = new StringBuffer(2 * digest.length);
+        for (int i = 0; i < digest.length; i++) {
+            sb.append(HEX.charAt((digest[i] >> 4) & 0x0f));
+            sb.append(HEX.charAt(digest[i] & 0x0f));
+        }
+        return (sb.toString());
+
+    }
+
+
+    /**
+     * Return a path that identifies the specified Step within its Activity,
+     * even if it has no identifier.  The path is the position of the Step
+     * within its owner, preceded by the path of that owner if it is a
+     * Block, separated by slashes (for example, "3/0/2").
+     *
+     * @param step Step whose path is requested
+     *
+     * @exception IllegalArgumentException if the Step is not one of
+     *  the Steps of its owner
+     */
+    public static String getStepPath(Step step) {
+
+        Owner owner = step.getOwner();
+        Step steps[] = owner.getSteps();
+        int index = -1;
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] == step) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0)
+            throw new IllegalArgumentException
+                ("Step is not part of its owner");
+        if (owner instanceof Block)
+            return (getStepPath((Block) owner) + "/" + index);
+        else
+            return (String.valueOf(index));
+
+    }
+
+
     /**
      * Parse the character encoding from the specified content type header.
      * If the content type is null, or there is no explicit character encoding,
@@ -54,4 +200,10 @@ public class WorkflowUtils {
     }
 
 
+    /**
+     * The hexadecimal digits used by <code>getDigest()</code>.
+     */
+    private static final String HEX = "0123456789abcdef";
+
+
 }
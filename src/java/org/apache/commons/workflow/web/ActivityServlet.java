@@ -17,26 +17,37 @@
 package org.apache.commons.workflow.web;
 
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
 import javax.servlet.ServletException;
 import javax.servlet.UnavailableException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
-import org.apache.commons.digester.Digester;
 import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.ContextEvent;
 import org.apache.commons.workflow.ContextListener;
+import org.apache.commons.workflow.Registry;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
-import org.apache.commons.workflow.base.BaseRuleSet;
-import org.apache.commons.workflow.core.CoreRuleSet;
-import org.apache.commons.workflow.io.IoRuleSet;
+import org.apache.commons.workflow.base.BaseRegistry;
+import org.apache.commons.workflow.base.StackProfile;
+import org.apache.commons.workflow.util.ActivityLoader;
+import org.apache.commons.workflow.util.ActivityParser;
+import org.apache.commons.workflow.util.ActivitySerializer;
+import org.apache.commons.workflow.util.ActivityVerifier;
+import org.apache.commons.workflow.util.ContextScheduler;
+import org.apache.commons.workflow.util.LoadResult;
+import org.apache.commons.workflow.util.RegistryWatcher;
 import org.apache.commons.workflow.web.WebContext;
-import org.apache.commons.workflow.web.WebRuleSet;
 
 
 /**
@@ -49,18 +60,90 @@ import org.apache.commons.workflow.web.WebRuleSet;
  *
  * <p>Initialization parameters (defaults in square brackets):</p>
  * <ul>
- * <li><strong>activity</strong> - Context-relative resource path to the
- *     definition file for the Activity that is supported by this servlet.</li>
+ * <li><strong>activity</strong> - Context-relative resource path (starting
+ *     with "/") to the definition file for the Activity that is supported
+ *     by this servlet, either as XML or in the binary form produced by
+ *     <code>ActivityCompiler</code>.  A value that does not start with "/"
+ *     is first looked up as the identifier of an Activity that has already
+ *     been registered with the <code>Registry</code> (for example, from a
+ *     catalog), and is treated as a resource path only if there is no
+ *     such Activity.</li>
  * <li><strong>attribute</strong> - Name of the session attribute under
  *     which our current <code>Context</code> implementation is stored.
  *     [org.apache.commons.workflow.web.CONTEXT]</li>
+ * <li><strong>catalog</strong> - Context-relative resource path of a
+ *     directory of activity definition files, which are loaded in parallel
+ *     and registered with the <code>Registry</code> when this servlet is
+ *     initialized.</li>
  * <li><strong>debug</strong> - The debugging detail level for this
  *     servlet, which controls how much information is logged.  [0]</li>
+ * <li><strong>depth</strong> - Maximum number of calls to subordinate
+ *     Activities that may be pending at once in each <code>Context</code>,
+ *     or zero for no limit.  Deeper (non-tail) calls fail with an
+ *     exception.  [0]</li>
  * <li><strong>detail</strong> - The debugging detail level for the Digester
  *     we utilize in <code>initMapping()</code>, which logs to System.out
  *     instead of the servlet log.  [0]</li>
+ * <li><strong>lazy</strong> - Should only the identifiers of the activities
+ *     in the catalog be read at initialization time, with each one being
+ *     parsed the first time it is used?  [false]</li>
+ * <li><strong>optimize</strong> - Should each activity be rewritten by
+ *     <code>ActivityOptimizer</code> after it is parsed, so that it
+ *     executes with fewer Step dispatches?  Listeners then see fused
+ *     Steps rather than the Steps in the definition.  [false]</li>
+ * <li><strong>queue</strong> - Maximum number of requests for the same
+ *     session that may be waiting for the one being processed, or zero
+ *     for no limit.  Further requests are rejected immediately with a
+ *     "503 Service Unavailable" status.  [0]</li>
+ * <li><strong>pool</strong> - Maximum number of idle Contexts retained for
+ *     reuse in stateless mode.  [16]</li>
+ * <li><strong>reload</strong> - Number of seconds between checks for a
+ *     modified activity definition file, or zero to disable reloading.
+ *     Reloading requires the definition file to be accessible as a
+ *     file.  [0]</li>
+ * <li><strong>stateless</strong> - Set to <code>true</code> for an Activity
+ *     that always completes within a single request.  Each request then
+ *     borrows a Context from a pool, instead of using one stored in the
+ *     user's session, and no session is created.  Such Contexts have no
+ *     "session" scope, and an Activity that suspends (other than to wait
+ *     for a scheduled resumption) is reported as an error.  The
+ *     <code>queue</code> and <code>timeout</code> parameters do not
+ *     apply.  [false]</li>
+ * <li><strong>timeout</strong> - Maximum number of milliseconds a request
+ *     waits for earlier requests for the same session to be processed,
+ *     or zero to wait as long as necessary.  A request that times out is
+ *     rejected with a "503 Service Unavailable" status.  [0]</li>
+ * <li><strong>verify</strong> - Should our activity be checked by
+ *     <code>ActivityVerifier</code> at initialization time?  An activity
+ *     that fails verification, or that needs items on its evaluation stack
+ *     when it starts, makes this servlet unavailable.  [false]</li>
  * </ul>
  *
+ * <p>Requests for the same session are processed one at a time, in the
+ * order in which they arrived.</p>
+ *
+ * <p>A Step that waits by scheduling its Context to be resumed later
+ * (such as <code>core:delay</code>, or <code>core:retry</code> backing off
+ * between attempts) cannot be resumed by the <code>ContextScheduler</code>
+ * on behalf of a request, because the response would have been sent by
+ * then.  Instead, the request thread takes over the scheduled resumption:
+ * it waits until the Context is due (no later than the deadline of any
+ * enclosing <code>core:timeout</code>), and then resumes it, so that the
+ * wait is part of the same request, in both session and stateless
+ * modes.  Other requests for the same session wait for it to finish, as
+ * they do for any other step.</p>
+ *
+ * <p>If the Activity has an identifier, it is registered with the
+ * <code>Registry</code> returned by <code>BaseRegistry.getRegistry()</code>,
+ * and each new execution uses the current version registered there.
+ * Executions that are already in progress (including suspended ones)
+ * continue with the version they started with.</p>
+ *
+ * <p>A Context that was persisted with its session, or replicated from
+ * another server in a cluster, refers to its Activity by identifier and
+ * version, and is associated with the current session and servlet context
+ * again the first time it is used.</p>
+ *
  * @author Craig R. McClanahan
  * @version $Revision$ $Date$
  */
@@ -91,12 +174,63 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
     private int debug = 0;
 
 
+    /**
+     * The maximum number of pending calls in each Context, or zero for
+     * no limit.
+     */
+    private int depth = 0;
+
+
     /**
      * The debugging detail level for our Digester.
      */
     private int detail = 0;
 
 
+    /**
+     * Should parsed activities be rewritten by ActivityOptimizer?
+     */
+    private boolean optimize = false;
+
+
+    /**
+     * The pool of Contexts used in stateless mode, if any.
+     */
+    private WebContextPool pool = null;
+
+
+    /**
+     * The maximum number of requests that may be waiting for the same
+     * Context, or zero for no limit.
+     */
+    private int queue = 0;
+
+
+    /**
+     * The Registry with which our Activity is registered, if any.
+     */
+    private Registry registry = null;
+
+
+    /**
+     * The maximum number of milliseconds to wait for the same Context,
+     * or zero to wait indefinitely.
+     */
+    private long timeout = 0L;
+
+
+    /**
+     * Should our Activity be checked by ActivityVerifier?
+     */
+    private boolean verify = false;
+
+
+    /**
+     * The watcher that reloads our activity definition file, if any.
+     */
+    private RegistryWatcher watcher = null;
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -105,7 +239,10 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
      */
     public void destroy() {
 
-        ; // No processing required
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
 
     }
 
@@ -141,6 +278,19 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
                        HttpServletResponse response)
         throws IOException, ServletException {
 
+        // Select the current version of our Activity
+        Activity current = null;
+        if (registry != null)
+            current = registry.findActivity(activity.getId());
+        if (current == null)
+            current = activity;
+
+        // Execute stateless Activities in a pooled Context
+        if (pool != null) {
+            execute(current, request, response);
+            return;
+        }
+
         // Acquire or create the current Context for this user
         HttpSession session = request.getSession(true);
         WebContext context = (WebContext)
@@ -149,24 +299,64 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
             if (debug >= 1)
                 log("{" + session.getId() + "} Creating new Context");
             context = new WebContext();
-            context.setActivity(activity);
+            context.setActivity(current);
+            context.setMaxCallDepth(depth);
             context.setHttpSession(session);
             context.setServletContext(getServletContext());
             if (debug >= 3)
                 context.addContextListener(this);
             session.setAttribute(attribute, context);
-        }                
+        }
 
+        // Wait for our turn to execute this Context
+        boolean acquired = false;
+        try {
+            acquired = context.getLock().acquire(timeout, queue);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            if (debug >= 1)
+                log("{" + session.getId() + "} Context is busy");
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                               "Previous request is still being processed");
+            return;
+        }
+
+        // Execute the next stage of the current Activity (the lock also
+        // makes changes by the previous request visible to this thread)
+        try {
 
-        // Execute the next stage of the current Activity
-        synchronized (context) {
+            // Reattach a Context that was replicated from another server,
+            // while no other request can be using it
+            if (context.getServletContext() == null) {
+                if (debug >= 1)
+                    log("{" + session.getId() +
+                        "} Restoring replicated Context");
+                context.setHttpSession(session);
+                context.setServletContext(getServletContext());
+                context.setMaxCallDepth(depth);
+                if (debug >= 3)
+                    context.addContextListener(this);
+            }
 
-            // If we are not already executing our associated Activity, call it
-            if (!activity.equals(context.getActivity())) {
+            // If we are not already executing our associated Activity, call
+            // it; if we completed an earlier version of it, switch versions
+            Activity running = context.getActivity();
+            if (!isVersion(running, current)) {
                 if (debug >= 2)
                     log("{" + session.getId() + "} calling Activity " +
-                        activity.getId());
-                context.call(activity);
+                        current.getId());
+                context.call(current);
+            } else if ((running != current) &&
+                       (context.getNextStep() == null) &&
+                       (context.getCalls().length == 0)) {
+                if (debug >= 2)
+                    log("{" + session.getId() + "} switching to version " +
+                        registry.getVersion(current) + " of Activity " +
+                        current.getId());
+                context.setActivity(current);
             }
 
             // Associate our context with the current request and response
@@ -177,8 +367,8 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
             try {
                 if (debug >= 2)
                     log("{" + session.getId() + "} executing Activity " +
-                        activity.getId());
-                context.execute();
+                        current.getId());
+                execute(context);
             } catch (StepException e) {
                 if (e.getCause() == null)
                     throw new ServletException(e.getMessage(), e);
@@ -186,6 +376,9 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
                     throw new ServletException(e.getMessage(), e.getCause());
             }
 
+        } finally {
+            unschedule(context);
+            context.getLock().release();
         }
 
     }
@@ -219,20 +412,122 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
             }
         }
 
+        // Record the limits on requests waiting for the same Context
+        String queue = getServletConfig().getInitParameter("queue");
+        if (queue != null) {
+            try {
+                this.queue = Integer.parseInt(queue);
+            } catch (NumberFormatException e) {
+                throw new UnavailableException
+                    ("Queue initialization parameter must be an integer");
+            }
+        }
+        String timeout = getServletConfig().getInitParameter("timeout");
+        if (timeout != null) {
+            try {
+                this.timeout = Long.parseLong(timeout);
+            } catch (NumberFormatException e) {
+                throw new UnavailableException
+                    ("Timeout initialization parameter must be an integer");
+            }
+        }
+
+        // Record the limit on pending calls in each Context
+        String depth = getServletConfig().getInitParameter("depth");
+        if (depth != null) {
+            try {
+                this.depth = Integer.parseInt(depth);
+            } catch (NumberFormatException e) {
+                throw new UnavailableException
+                    ("Depth initialization parameter must be an integer");
+            }
+        }
+
+        // Configure stateless mode, if requested
+        if ("true".equalsIgnoreCase
+            (getServletConfig().getInitParameter("stateless"))) {
+            int maxIdle = 16;
+            String pool = getServletConfig().getInitParameter("pool");
+            if (pool != null) {
+                try {
+                    maxIdle = Integer.parseInt(pool);
+                } catch (NumberFormatException e) {
+                    throw new UnavailableException
+                        ("Pool initialization parameter must be an integer");
+                }
+            }
+            this.pool = new WebContextPool(getServletContext(),
+                                           (this.debug >= 3) ? this : null,
+                                           maxIdle);
+        }
+
+        // Record whether activities should be optimized and verified
+        this.optimize = "true".equalsIgnoreCase
+            (getServletConfig().getInitParameter("optimize"));
+        this.verify = "true".equalsIgnoreCase
+            (getServletConfig().getInitParameter("verify"));
+
         // Record the attribute name for our current Context
         String attribute = getServletConfig().getInitParameter("attribute");
         if (attribute != null)
             this.attribute = attribute;
 
-        // Parse the activity definition file for our Activity
+        // Load the catalog of activity definitions, if any
+        String catalog = getServletConfig().getInitParameter("catalog");
+        if (catalog != null)
+            load(catalog);
+
+        // Look up a registered Activity, if identified
         String path = getServletConfig().getInitParameter("activity");
         if (path == null)
             throw new UnavailableException
                 ("Must specify an 'activity' attribute");
+        if (!path.startsWith("/")) {
+            registry = BaseRegistry.getRegistry();
+            activity = registry.findActivity(path);
+            if (activity != null) {
+                if (verify)
+                    verify();
+                return;
+            }
+            registry = null;        // Not an identifier, so a resource path
+        }
+
+        // Parse the activity definition file for our Activity
         parse(path);
         if (activity == null)
             throw new UnavailableException("No activity defined in resource "
                                            + path);
+        if (verify)
+            verify();
+
+        // Register our Activity, and watch for new versions if requested
+        if (activity.getId() == null)
+            return;
+        registry = BaseRegistry.getRegistry();
+        registry.addActivity(activity);
+        String reload = getServletConfig().getInitParameter("reload");
+        if (reload == null)
+            return;
+        int seconds = 0;
+        try {
+            seconds = Integer.parseInt(reload);
+        } catch (NumberFormatException e) {
+            throw new UnavailableException
+                ("Reload initialization parameter must be an integer");
+        }
+        if (seconds <= 0)
+            return;
+        String realPath = getServletContext().getRealPath(path);
+        if (realPath == null) {
+            log("Cannot reload resource " + path + " (not a file)");
+            return;
+        }
+        watcher = new RegistryWatcher(registry, new File(realPath),
+                                      seconds * 1000L);
+        watcher.setOptimize(optimize);
+        watcher.scan(false);
+        watcher.start();
 
     }
 
@@ -263,9 +558,8 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
     public void afterActivity(ContextEvent event) {
 
         WebContext context = (WebContext) event.getContext();
-        HttpSession session = context.getHttpSession();
         StringBuffer sb = new StringBuffer("{");
-        sb.append(session.getId());
+        sb.append(getId(context));
         sb.append("} afterActivity");
         log(sb.toString());
 
@@ -281,9 +575,8 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
     public void afterStep(ContextEvent event) {
 
         WebContext context = (WebContext) event.getContext();
-        HttpSession session = context.getHttpSession();
         StringBuffer sb = new StringBuffer("{");
-        sb.append(session.getId());
+        sb.append(getId(context));
         sb.append("} afterStep ");
         sb.append(event.getStep());
         if (context.getSuspend())
@@ -307,9 +600,8 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
     public void beforeActivity(ContextEvent event) {
 
         WebContext context = (WebContext) event.getContext();
-        HttpSession session = context.getHttpSession();
         StringBuffer sb = new StringBuffer("{");
-        sb.append(session.getId());
+        sb.append(getId(context));
         sb.append("} beforeActivity");
         log(sb.toString());
 
@@ -324,9 +616,8 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
     public void beforeStep(ContextEvent event) {
 
         WebContext context = (WebContext) event.getContext();
-        HttpSession session = context.getHttpSession();
         StringBuffer sb = new StringBuffer("{");
-        sb.append(session.getId());
+        sb.append(getId(context));
         sb.append("} beforeStep ");
         sb.append(event.getStep());
         log(sb.toString());
@@ -337,6 +628,200 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
     // -------------------------------------------------------- Private Methods
 
 
+    /**
+     * Execute the specified Activity to completion, in stateless mode,
+     * using a Context borrowed from our pool.
+     *
+     * @param activity The Activity to be executed
+     * @param request The servlet request we are processing
+     * @param response The servlet response we are processing
+     *
+     * @exception ServletException if the Activity throws an exception,
+     *  or suspends
+     */
+    private void execute(Activity activity, HttpServletRequest request,
+                         HttpServletResponse response)
+        throws ServletException {
+
+        WebContext context = pool.borrow();
+        boolean acquired = false;
+        try {
+            context.getLock().acquire(0L, 0);
+            acquired = true;
+            context.setActivity(activity);
+            context.setMaxCallDepth(depth);
+            context.setServletRequest(request);
+            context.setServletResponse(response);
+            if (debug >= 2)
+                log("{" + getId(context) + "} executing Activity " +
+                    activity.getId());
+            execute(context);
+            if (context.getSuspend())
+                throw new ServletException("Activity " + activity.getId() +
+                                           " suspended in stateless mode");
+        } catch (StepException e) {
+            if (e.getCause() == null)
+                throw new ServletException(e.getMessage(), e);
+            else
+                throw new ServletException(e.getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted waiting for Context", e);
+        } finally {
+            if (acquired) {
+                unschedule(context);
+                context.getLock().release();
+            }
+            pool.release(context);
+        }
+
+    }
+
+
+    /**
+     * Execute the specified Context until it ends, or suspends without
+     * being scheduled to resume.  Each time it is scheduled to resume
+     * later, take over that resumption:  wait on this thread until it is
+     * due, and resume it here.  The caller must hold its lock.
+     *
+     * @param context The Context to be executed
+     *
+     * @exception ServletException if this thread is interrupted while
+     *  waiting
+     * @exception StepException if a Step throws an exception
+     */
+    private void execute(WebContext context)
+        throws ServletException, StepException {
+
+        context.execute();
+        while (true) {
+            ContextScheduler scheduler = context.getScheduler();
+            if (scheduler == null)
+                return;
+            long due = scheduler.getDue(context);
+            if (!scheduler.cancel(context))
+                return;
+            long wait = due - System.currentTimeMillis();
+            if (debug >= 2)
+                log("{" + getId(context) + "} waiting " + wait +
+                    "ms to resume");
+            try {
+                if (wait > 0L)
+                    Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted waiting to resume " +
+                                           "Context", e);
+            }
+            context.execute();
+        }
+
+    }
+
+
+    /**
+     * Return an identifier for the specified Context in log messages:  the
+     * session identifier, or "stateless" for a pooled Context.
+     *
+     * @param context The Context to be identified
+     */
+    private String getId(WebContext context) {
+
+        HttpSession session = context.getHttpSession();
+        if (session == null)
+            return ("stateless");
+        return (session.getId());
+
+    }
+
+
+    /**
+     * Is the specified running Activity the same as, or another version of,
+     * the specified current Activity?
+     *
+     * @param running The Activity being executed by a Context (if any)
+     * @param current The current version of our Activity
+     */
+    private boolean isVersion(Activity running, Activity current) {
+
+        if (running == current)
+            return (true);
+        if ((running == null) || (current.getId() == null))
+            return (false);
+        return (current.getId().equals(running.getId()));
+
+    }
+
+
+    /**
+     * Load and register the activity definition files in the specified
+     * directory, in parallel.
+     *
+     * @param catalog Context-relative resource path of the directory
+     *  containing the activity definition files
+     *
+     * @exception ServletException if the directory cannot be listed
+     */
+    private void load(String catalog) throws ServletException {
+
+        // Identify the activity definition files in the catalog
+        if (!catalog.endsWith("/"))
+            catalog += "/";
+        Set paths = getServletContext().getResourcePaths(catalog);
+        if (paths == null)
+            throw new UnavailableException("Cannot access catalog " +
+                                           catalog);
+        ArrayList list = new ArrayList(paths);
+        Collections.sort(list);
+        ArrayList urls = new ArrayList();
+        try {
+            Iterator items = list.iterator();
+            while (items.hasNext()) {
+                String item = (String) items.next();
+                if (item.endsWith(".xml") ||
+                    item.endsWith(ActivitySerializer.SUFFIX))
+                    urls.add(getServletContext().getResource(item));
+            }
+        } catch (IOException e) {
+            log("Cannot access catalog " + catalog, e);
+            throw new UnavailableException("Cannot access catalog " +
+                                           catalog);
+        }
+
+        // Load and register them, and report the outcome of each
+        long start = System.currentTimeMillis();
+        LoadResult results[] = null;
+        try {
+            ActivityLoader loader =
+                new ActivityLoader(BaseRegistry.getRegistry());
+            loader.setLazy("true".equalsIgnoreCase
+                           (getServletConfig().getInitParameter("lazy")));
+            loader.setOptimize(optimize);
+            results = loader.load
+                ((URL[]) urls.toArray(new URL[urls.size()]));
+        } catch (InterruptedException e) {
+            throw new UnavailableException("Interrupted loading catalog " +
+                                           catalog);
+        }
+        int failures = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].getException() != null) {
+                failures++;
+                log("Cannot load " + results[i].getName(),
+                    results[i].getException());
+            } else if (debug >= 1) {
+                log("Loaded activity " + results[i].getActivity().getId() +
+                    " from " + results[i].getName() + " in " +
+                    results[i].getElapsed() + "ms");
+            }
+        }
+        log("Loaded " + (results.length - failures) + " of " +
+            results.length + " activities from catalog " + catalog +
+            " in " + (System.currentTimeMillis() - start) + "ms");
+
+    }
+
+
     /**
      * Parse the specified activity definition file for this instance.
      *
@@ -350,31 +835,20 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
         // Get an input source for the specified path
         InputStream is =
             getServletContext().getResourceAsStream(path);
-        if (is == null)
+        if (is == null) {
+            if (!path.startsWith("/"))
+                throw new UnavailableException
+                    ("No activity '" + path + "' has been registered, " +
+                     "and there is no such resource");
             throw new UnavailableException("Cannot access resource " +
                                            path);
-
-        // Configure a Digester instance to parse our definition file
-        Digester digester = new Digester();
-        digester.setNamespaceAware(true);
-        digester.setValidating(false);
-        digester.push(this);
-
-        // Add rules to recognize the built-in steps that we know about
-        BaseRuleSet brs = new BaseRuleSet();
-        digester.addRuleSet(brs);
-        digester.addRuleSet(new CoreRuleSet());
-        digester.addRuleSet(new IoRuleSet());
-        digester.addRuleSet(new WebRuleSet());
-
-        // Add a rule to register the Activity being created
-        digester.setRuleNamespaceURI(brs.getNamespaceURI());
-        digester.addSetNext("activity", "setActivity",
-                            "org.apache.commons.workflow.Activity");
+        }
 
         // Parse the activity definition file
         try {
-            digester.parse(is);
+            ActivityParser parser = new ActivityParser();
+            parser.setOptimize(optimize);
+            activity = parser.parse(is);
         } catch (Throwable t) {
             log("Cannot parse resource " + path, t);
             throw new UnavailableException("Cannot parse resource " + path);
@@ -389,4 +863,50 @@ public class ActivityServlet extends HttpServlet implements ContextListener {
     }
 
 
+    /**
+     * Cancel the scheduled resumption of the specified Context, if any
+     * (left by a request that failed), so that it is not executed after
+     * the response for that request has been sent.  The caller must hold
+     * its lock.
+     *
+     * @param context The Context whose resumption is to be cancelled
+     */
+    private void unschedule(WebContext context) {
+
+        ContextScheduler scheduler = context.getScheduler();
+        if (scheduler != null)
+            scheduler.cancel(context);
+
+    }
+
+
+    /**
+     * Check our Activity with ActivityVerifier.  Because each request starts
+     * with an empty evaluation stack, an Activity that needs items on it
+     * when it starts is rejected as well.
+     *
+     * @exception ServletException if our Activity fails verification
+     */
+    private void verify() throws ServletException {
+
+        StackProfile profile = null;
+        try {
+            profile = ActivityVerifier.verify(activity);
+        } catch (StepException e) {
+            log("Activity " + activity.getId() + " failed verification at " +
+                e.getStep(), e);
+            throw new UnavailableException("Activity " + activity.getId() +
+                                           " failed verification: " +
+                                           e.getMessage());
+        }
+        if (profile.getInput() > 0)
+            throw new UnavailableException("Activity " + activity.getId() +
+                                           " needs " + profile.getInput() +
+                                           " items on its evaluation stack");
+        if (debug >= 1)
+            log("Verified activity " + activity.getId() + ": " + profile);
+
+    }
+
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.commons.workflow.util.MapEntry;
+
+
+/**
+ * <p>An iterator over the attributes of an <code>AttributeScope</code>,
+ * which walks the attribute names of the underlying object directly.  It
+ * supports <code>remove()</code> if the attribute name enumeration of the
+ * underlying object tolerates concurrent removal (as those of most
+ * containers do, because they enumerate a copy of the names).</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class AttributeIterator implements Iterator {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new iterator over the specified scope.
+     *
+     * @param scope The scope whose attributes we iterate over
+     * @param type The type of element to be returned
+     */
+    AttributeIterator(AttributeScope scope, int type) {
+
+        super();
+        this.scope = scope;
+        this.type = type;
+        this.names = scope.getAttributeNames();
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The name of the attribute most recently returned, if it may still
+     * be removed.
+     */
+    protected String last = null;
+
+
+    /**
+     * The attribute names still to be returned.
+     */
+    protected Enumeration names = null;
+
+
+    /**
+     * The scope whose attributes we iterate over.
+     */
+    protected AttributeScope scope = null;
+
+
+    /**
+     * The type of element to be returned.
+     */
+    protected int type = AttributeScope.KEYS;
+
+
+    // ------------------------------------------------------- Iterator Methods
+
+
+    /**
+     * Return <code>true</code> if there are more elements.
+     */
+    public boolean hasNext() {
+
+        return (names.hasMoreElements());
+
+    }
+
+
+    /**
+     * Return the next element.
+     *
+     * @exception NoSuchElementException if there are no more elements
+     */
+    public Object next() {
+
+        last = (String) names.nextElement();
+        if (type == AttributeScope.KEYS)
+            return (last);
+        else if (type == AttributeScope.VALUES)
+            return (scope.getAttribute(last));
+        else
+            return (new MapEntry(last, scope.getAttribute(last)));
+
+    }
+
+
+    /**
+     * Remove the attribute most recently returned by <code>next()</code>.
+     *
+     * @exception IllegalStateException if <code>next()</code> has not
+     *  been called since the last call to this method
+     */
+    public void remove() {
+
+        if (last == null)
+            throw new IllegalStateException("No current element");
+        scope.remove(last);
+        last = null;
+
+    }
+
+
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.workflow.base.BaseScope;
+
+
+/**
+ * <strong>AttributeScope</strong> is an abstract <code>Scope</code>
+ * implementation corresponding to the attributes of a servlet API object
+ * (such as a request, session, or servlet context).  Subclasses need only
+ * provide access to the attributes of the underlying object.
+ *
+ * <p>The collections returned by <code>keySet()</code>,
+ * <code>entrySet()</code>, and <code>values()</code> are views that are
+ * created once and iterate over the attribute names of the underlying
+ * object directly, rather than copies of its attributes.  They always
+ * reflect its current attributes, including those set or removed by other
+ * parts of the application.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public abstract class AttributeScope extends BaseScope {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * Iteration type that returns attribute names.
+     */
+    static final int KEYS = 0;
+
+
+    /**
+     * Iteration type that returns attribute values.
+     */
+    static final int VALUES = 1;
+
+
+    /**
+     * Iteration type that returns <code>Map.Entry</code> instances.
+     */
+    static final int ENTRIES = 2;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The view returned by <code>entrySet()</code>, once it has been
+     * created.
+     */
+    protected Set entryView = null;
+
+
+    /**
+     * The view returned by <code>keySet()</code>, once it has been created.
+     */
+    protected Set keyView = null;
+
+
+    /**
+     * The view returned by <code>values()</code>, once it has been created.
+     */
+    protected Collection valueView = null;
+
+
+    // ------------------------------------------------------------ Map Methods
+
+
+    /**
+     * Remove all beans from this Map and call <code>scopeCleared() on
+     * all registered <code>ScopeListeners</code>, with the removed beans.
+     */
+    public void clear() {
+
+        // Accumulate a list of the elements to be cleared
+        Enumeration names = getAttributeNames();
+        ArrayList list = new ArrayList();
+        while (names.hasMoreElements()) {
+            list.add((String) names.nextElement());
+        }
+
+        // Erase the accumulated elements
+        HashMap beans = null;
+        if (support.hasListeners())
+            beans = new HashMap();
+        int n = list.size();
+        for (int i = 0; i < n; i++) {
+            String name = (String) list.get(i);
+            if (beans != null)
+                beans.put(name, getAttribute(name));
+            removeAttribute(name);
+        }
+        support.fireScopeCleared(beans);
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public boolean containsKey(Object key) {
+
+        return (getAttribute((String) key) != null);
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map contains the specified value.
+     *
+     * @param value Value to be looked up
+     */
+    public boolean containsValue(Object value) {
+
+        // Attribute values are never null
+        if (value == null)
+            return (false);
+
+        // Check all existing attributes for a match
+        Enumeration names = getAttributeNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            if (value.equals(getAttribute(name)))
+                return (true);
+        }
+        return (false);
+
+    }
+
+
+    /**
+     * Return a set view of the mappings contained in this map.
+     */
+    public Set entrySet() {
+
+        if (entryView == null)
+            entryView = new AttributeSet(this, ENTRIES);
+        return (entryView);
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(Object key) {
+
+        return (get((String) key));
+
+    }
+
+
+    /**
+     * Return the value to which this map maps the specified key.
+     *
+     * @param key Key to be looked up
+     */
+    public Object get(String key) {
+
+        return (getAttribute(key));
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this map is empty.
+     */
+    public boolean isEmpty() {
+
+        return (!getAttributeNames().hasMoreElements());
+
+    }
+
+
+    /**
+     * Return a set view of the keys contained in this map.
+     */
+    public Set keySet() {
+
+        if (keyView == null)
+            keyView = new AttributeSet(this, KEYS);
+        return (keyView);
+
+    }
+
+
+    /**
+     * Add or replace the bean associated with the specified key.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     */
+    public Object put(Object key, Object bean) {
+
+        return (put((String) key, bean));
+
+    }
+
+
+    /**
+     * Add the specified bean, associated with the specified key, to this
+     * scope and replace any previous bean associated with this key.  If
+     * the bean was added, call <code>beanAdded()</code> on all registered
+     * listeners after the add is done.  If an old bean was replaced,
+     * call <code>beanReplaced()</code> (passing the old value in the event)
+     * on all registered <code>ScopeListeners</code> after the removal
+     * is done.  If a bean was replaced, the old value is also returned;
+     * otherwise <code>null</code> is returned.
+     *
+     * @param key Key with which the new value should be associated
+     *  (cannot be null)
+     * @param bean Bean to be associated with this key (cannot be null)
+     *
+     * @exception IllegalArgumentException if <code>key</code> or
+     *  <code>bean</code> is null
+     */
+    public Object put(String key, Object bean) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        if (bean == null)
+            throw new IllegalArgumentException("Value cannot be null");
+
+        Object old = getAttribute(key);
+        if (old != null) {
+            setAttribute(key, bean);
+            support.fireBeanReplaced(key, old);
+        } else {
+            setAttribute(key, bean);
+            support.fireBeanAdded(key, bean);
+        }
+        return (old);
+
+    }
+
+
+    /**
+     * Copy all of the mappings from the specified map into this map,
+     * firing appropriate <code>beanAdded()</code> and
+     * <code>beanReplaced()</code> events along the way.
+     *
+     * @param in Map whose contents are to be added
+     */
+    public void putAll(Map in) {
+
+        Iterator keys = in.keySet().iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            put(key, in.get(key));
+        }
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any), and return
+     * the old value if removed.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     */
+    public Object remove(Object key) {
+
+        return (remove((String) key));
+
+    }
+
+
+    /**
+     * Remove the bean associated with the specified key (if any).  If such
+     * a bean is found and removed, call <code>beanRemoved()</code> on all
+     * registered <code>ScopeListeners</code> after the removal is done.
+     * Return the old value (if any); otherwise return <code>null</code>.
+     *
+     * @param key Key of the bean to remove (cannot be null)
+     *
+     * @exception IllegalArgumentException if <code>key</code> is null
+     */
+    public Object remove(String key) {
+
+        if (key == null)
+            throw new IllegalArgumentException("Key cannot be null");
+        Object old = getAttribute(key);
+        if (old != null) {
+            removeAttribute(key);
+            support.fireBeanRemoved(key, old);
+            return (old);
+        }
+        return (null);
+
+    }
+
+
+    /**
+     * Return the number of key-value mappings in this map.
+     */
+    public int size() {
+
+        Enumeration names = getAttributeNames();
+        int n = 0;
+        while (names.hasMoreElements()) {
+            names.nextElement();
+            n++;
+        }
+        return (n);
+
+    }
+
+
+    /**
+     * Return a Collection view of the values contained in this map.
+     */
+    public Collection values() {
+
+        if (valueView == null)
+            valueView = new AttributeValues(this);
+        return (valueView);
+
+    }
+
+
+    // ------------------------------------------------------ Attribute Methods
+
+
+    /**
+     * Return the value of the specified attribute of the underlying object,
+     * or <code>null</code> if there is no such attribute.
+     *
+     * @param name Name of the requested attribute
+     */
+    protected abstract Object getAttribute(String name);
+
+
+    /**
+     * Return the names of the attributes of the underlying object.
+     */
+    protected abstract Enumeration getAttributeNames();
+
+
+    /**
+     * Remove the specified attribute of the underlying object.
+     *
+     * @param name Name of the attribute to be removed
+     */
+    protected abstract void removeAttribute(String name);
+
+
+    /**
+     * Set the specified attribute of the underlying object.
+     *
+     * @param name Name of the attribute to be set
+     * @param value New value of the attribute
+     */
+    protected abstract void setAttribute(String name, Object value);
+
+
+}
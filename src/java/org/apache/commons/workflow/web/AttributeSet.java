@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+
+
+/**
+ * <p>The set of attribute names or <code>Map.Entry</code> instances of an
+ * <code>AttributeScope</code>, as returned by its <code>keySet()</code>
+ * and <code>entrySet()</code> methods.  This is a view of the attributes
+ * of the underlying object, not a copy.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class AttributeSet extends AbstractSet {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new view of the specified scope.
+     *
+     * @param scope The scope whose attributes we represent
+     * @param type <code>AttributeScope.KEYS</code> or
+     *  <code>AttributeScope.ENTRIES</code>
+     */
+    AttributeSet(AttributeScope scope, int type) {
+
+        super();
+        this.scope = scope;
+        this.type = type;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The scope whose attributes we represent.
+     */
+    protected AttributeScope scope = null;
+
+
+    /**
+     * The type of element we contain.
+     */
+    protected int type = AttributeScope.KEYS;
+
+
+    // ----------------------------------------------------- Collection Methods
+
+
+    /**
+     * Remove all attributes of the underlying scope.
+     */
+    public void clear() {
+
+        scope.clear();
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this set contains the specified element.
+     *
+     * @param element Element to be looked up
+     */
+    public boolean contains(Object element) {
+
+        if (type == AttributeScope.KEYS)
+            return ((element instanceof String) &&
+                    scope.containsKey(element));
+        if (!(element instanceof Map.Entry))
+            return (false);
+        Map.Entry entry = (Map.Entry) element;
+        if (!(entry.getKey() instanceof String))
+            return (false);
+        Object value = scope.get(entry.getKey());
+        return ((value != null) && value.equals(entry.getValue()));
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this set is empty.
+     */
+    public boolean isEmpty() {
+
+        return (scope.isEmpty());
+
+    }
+
+
+    /**
+     * Return an iterator over the elements of this set.
+     */
+    public Iterator iterator() {
+
+        return (new AttributeIterator(scope, type));
+
+    }
+
+
+    /**
+     * Remove the specified element (and its attribute) from this set.
+     *
+     * @param element Element to be removed
+     */
+    public boolean remove(Object element) {
+
+        if (!contains(element))
+            return (false);
+        if (type == AttributeScope.KEYS)
+            scope.remove(element);
+        else
+            scope.remove(((Map.Entry) element).getKey());
+        return (true);
+
+    }
+
+
+    /**
+     * Return the number of elements in this set.
+     */
+    public int size() {
+
+        return (scope.size());
+
+    }
+
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+
+
+/**
+ * <p>The collection of attribute values of an <code>AttributeScope</code>,
+ * as returned by its <code>values()</code> method.  This is a view of the
+ * attributes of the underlying object, not a copy.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class AttributeValues extends AbstractCollection {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new view of the specified scope.
+     *
+     * @param scope The scope whose attributes we represent
+     */
+    AttributeValues(AttributeScope scope) {
+
+        super();
+        this.scope = scope;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The scope whose attributes we represent.
+     */
+    protected AttributeScope scope = null;
+
+
+    // ----------------------------------------------------- Collection Methods
+
+
+    /**
+     * Remove all attributes of the underlying scope.
+     */
+    public void clear() {
+
+        scope.clear();
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this collection contains the specified
+     * value.
+     *
+     * @param value Value to be looked up
+     */
+    public boolean contains(Object value) {
+
+        return (scope.containsValue(value));
+
+    }
+
+
+    /**
+     * Return <code>true</code> if this collection is empty.
+     */
+    public boolean isEmpty() {
+
+        return (scope.isEmpty());
+
+    }
+
+
+    /**
+     * Return an iterator over the values in this collection.
+     */
+    public Iterator iterator() {
+
+        return (new AttributeIterator(scope, AttributeScope.VALUES));
+
+    }
+
+
+    /**
+     * Return the number of values in this collection.
+     */
+    public int size() {
+
+        return (scope.size());
+
+    }
+
+
+}
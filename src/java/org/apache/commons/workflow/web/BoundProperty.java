@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.Converter;
+
+
+/**
+ * <p>A single writable property of a bean class, together with the
+ * converter for its type, as precomputed by a <code>PropertyBinder</code>.
+ * Values are converted exactly as <code>BeanUtils.populate()</code> would
+ * convert them.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class BoundProperty {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new bound property for the specified write method.
+     *
+     * @param method The property setter method
+     */
+    BoundProperty(Method method) {
+
+        super();
+        this.method = method;
+        this.type = method.getParameterTypes()[0];
+        if (!type.isArray() && (type != String.class)) {
+            converter = ConvertUtils.lookup(type);
+            if (converter == null)
+                converter = ConvertUtils.lookup(String.class);
+        }
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The converter for a scalar property that is not a String.
+     */
+    protected Converter converter = null;
+
+
+    /**
+     * The property setter method.
+     */
+    protected Method method = null;
+
+
+    /**
+     * The type of the property.
+     */
+    protected Class type = null;
+
+
+    // --------------------------------------------------------- Package Methods
+
+
+    /**
+     * Set this property of the specified bean from the specified
+     * request parameter values.  A scalar property is set from the first
+     * value.
+     *
+     * @param bean The bean whose property is to be set
+     * @param values The request parameter values
+     *
+     * @exception IllegalAccessException if the setter is not accessible
+     * @exception InvocationTargetException if the setter throws an
+     *  exception
+     */
+    void set(Object bean, String values[])
+        throws IllegalAccessException, InvocationTargetException {
+
+        Object value = null;
+        if (type == String[].class)
+            value = values;
+        else if (type.isArray())
+            value = ConvertUtils.convert(values, type.getComponentType());
+        else if (values.length == 0)
+            value = (converter == null) ? null : converter.convert(type, null);
+        else if (converter == null)
+            value = values[0];
+        else
+            value = converter.convert(type, values[0]);
+        method.invoke(bean, new Object[] { value });
+
+    }
+
+
+}
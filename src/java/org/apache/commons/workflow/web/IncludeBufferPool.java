@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import org.apache.commons.collections.ArrayStack;
+
+
+/**
+ * <p>A pool of the buffers used by <code>IncludeResponse23</code> to
+ * accumulate included content, so that their storage can be reused by
+ * later includes instead of being grown again from scratch.  Buffers that
+ * have grown larger than <code>MAX_RETAINED</code> are not kept.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class IncludeBufferPool {
+
+
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The maximum number of idle buffers of each kind that are kept.
+     */
+    static final int MAX_IDLE = 16;
+
+
+    /**
+     * The maximum size (in bytes or characters) of a buffer that is kept.
+     */
+    static final int MAX_RETAINED = 64 * 1024;
+
+
+    // ------------------------------------------------------- Static Variables
+
+
+    /**
+     * The idle byte buffers.
+     */
+    private static ArrayStack streams = new ArrayStack();
+
+
+    /**
+     * The idle character buffers.
+     */
+    private static ArrayStack writers = new ArrayStack();
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Return an empty byte buffer.
+     */
+    static synchronized ByteArrayOutputStream getStream() {
+
+        if (streams.empty())
+            return (new ByteArrayOutputStream());
+        else
+            return ((ByteArrayOutputStream) streams.pop());
+
+    }
+
+
+    /**
+     * Return an empty character buffer.
+     */
+    static synchronized CharArrayWriter getWriter() {
+
+        if (writers.empty())
+            return (new CharArrayWriter());
+        else
+            return ((CharArrayWriter) writers.pop());
+
+    }
+
+
+    /**
+     * Return a byte buffer that is no longer in use to this pool.
+     *
+     * @param stream The buffer to be returned
+     */
+    static synchronized void release(ByteArrayOutputStream stream) {
+
+        if ((stream.size() <= MAX_RETAINED) && (streams.size() < MAX_IDLE)) {
+            stream.reset();
+            streams.push(stream);
+        }
+
+    }
+
+
+    /**
+     * Return a character buffer that is no longer in use to this pool.
+     *
+     * @param writer The buffer to be returned
+     */
+    static synchronized void release(CharArrayWriter writer) {
+
+        if ((writer.size() <= MAX_RETAINED) && (writers.size() < MAX_IDLE)) {
+            writer.reset();
+            writers.push(writer);
+        }
+
+    }
+
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.Writer;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+
+/**
+ * <p>The content of an application resource whose inclusion has been
+ * deferred by <code>IncludeStep23</code>.  The resource is not processed
+ * until <code>writeTo()</code> is called, and its output is then passed
+ * straight through to the Writer supplied by the consumer, without being
+ * buffered.  Because the include uses the request and response that
+ * were current when the Step was executed, it must be consumed before
+ * the processing of that request completes.</p>
+ *
+ * <p>Consumers that only understand Strings may call
+ * <code>toString()</code>, which buffers the content instead.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class IncludeContent {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new deferred include according to the specified
+     * parameters.
+     *
+     * @param resource Context-relative URL of the resource to be included
+     * @param dispatcher Request dispatcher for this resource
+     * @param request The request to be passed to the resource
+     * @param response The response to be wrapped for the resource
+     */
+    public IncludeContent(String resource, RequestDispatcher dispatcher,
+                          ServletRequest request, ServletResponse response) {
+
+        super();
+        this.resource = resource;
+        this.dispatcher = dispatcher;
+        this.request = request;
+        this.response = response;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The request dispatcher for our resource.
+     */
+    protected RequestDispatcher dispatcher = null;
+
+
+    /**
+     * The request to be passed to our resource.
+     */
+    protected ServletRequest request = null;
+
+
+    /**
+     * The response to be wrapped for our resource.
+     */
+    protected ServletResponse response = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The context-relative URL of the resource to be included.
+     */
+    protected String resource = null;
+
+    public String getResource() {
+        return (this.resource);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Include our resource, passing its output to the specified Writer.
+     *
+     * @param out The Writer to receive the content
+     *
+     * @exception IOException if an I/O error occurs
+     * @exception ServletException if the included resource throws it
+     */
+    public void writeTo(Writer out) throws IOException, ServletException {
+
+        IncludeResponse23 wrapper = new IncludeResponse23(response, out);
+        try {
+            dispatcher.include(request, wrapper);
+            wrapper.finish();
+        } finally {
+            wrapper.release();
+        }
+
+    }
+
+
+    /**
+     * Include our resource, and return its output as a String.
+     *
+     * @exception IllegalStateException if the include fails
+     */
+    public String toString() {
+
+        CharArrayWriter caw = IncludeBufferPool.getWriter();
+        try {
+            writeTo(caw);
+            return (caw.toString());
+        } catch (IOException e) {
+            throw new IllegalStateException("IOException including '" +
+                                            resource + "': " + e);
+        } catch (ServletException e) {
+            throw new IllegalStateException("ServletException including '" +
+                                            resource + "': " + e);
+        } finally {
+            IncludeBufferPool.release(caw);
+        }
+
+    }
+
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.IOException;
+import javax.servlet.ServletOutputStream;
+
+
+/**
+ * <p>Implementation of <code>ServletOutputStream</code> returned by
+ * <code>IncludeResponse23.getOutputStream()</code>, which passes the bytes
+ * written to it on to that response's accumulator.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+class IncludeOutputStream23 extends ServletOutputStream {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new stream for the specified response.
+     *
+     * @param response The response whose accumulator we write to
+     */
+    IncludeOutputStream23(IncludeResponse23 response) {
+
+        super();
+        this.response = response;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The response whose accumulator we write to.
+     */
+    protected IncludeResponse23 response = null;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Write a sequence of bytes.
+     *
+     * @param b The byte array
+     * @param off Starting offset
+     * @param len Number of bytes to be written
+     *
+     * @exception IOException if an I/O error occurs
+     */
+    public void write(byte b[], int off, int len) throws IOException {
+
+        response.write(b, off, len);
+
+    }
+
+
+    /**
+     * Write a single byte.
+     *
+     * @param b The byte to be written
+     *
+     * @exception IOException if an I/O error occurs
+     */
+    public void write(int b) throws IOException {
+
+        response.write(b);
+
+    }
+
+
+}
@@ -14,6 +14,7 @@
  * limitations under the License.
  */ 
 
+
 package org.apache.commons.workflow.web;
 
 
@@ -21,16 +22,24 @@ import java.io.ByteArrayOutputStream;
 import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletResponse;
 import javax.servlet.ServletResponseWrapper;
+import org.apache.commons.workflow.util.WorkflowUtils;
 
 
 /**
  * <p>Implementation of <code>HttpServletResponseWrapper</code> for use in
- * <code>IncludeStep23</code>.  It buffers the response characters up into
- * a memory-resident buffer that can be converted into a String by calling
- * <code>getContent()</code>.</p>
+ * <code>IncludeStep23</code>.  By default, it buffers the response data in
+ * a memory-resident buffer (borrowed from a pool of reusable buffers) that
+ * can be converted into a String by calling <code>getContent()</code>, or
+ * copied to a Writer by calling <code>writeContent()</code>.  If it is
+ * constructed with a target Writer, characters are passed straight through
+ * to that Writer instead.</p>
+ *
+ * <p>The <code>release()</code> method must be called once the content is
+ * no longer needed, to return the buffers to the pool.</p>
  *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
@@ -49,7 +58,23 @@ public class IncludeResponse23 extends ServletResponseWrapper {
      */
     public IncludeResponse23(ServletResponse response) {
 
+        this(response, null);
+
+    }
+
+
+    /**
+     * Construct a new response wrapper that passes the characters written
+     * to it straight through to the specified Writer.
+     *
+     * @param response The servlet response we are wrapping
+     * @param target The Writer to receive the response data, or
+     *  <code>null</code> to buffer it
+     */
+    public IncludeResponse23(ServletResponse response, Writer target) {
+
         super(response);
+        this.target = target;
 
     }
 
@@ -66,14 +91,60 @@ public class IncludeResponse23 extends ServletResponseWrapper {
 
     /**
      * Accumulator for output that is generated via
-     * <code>getWriter()</code>.
+     * <code>getWriter()</code>, unless we have a target Writer.
      */
     protected CharArrayWriter caw = null;
 
 
+    /**
+     * The character encoding specified by <code>setContentType()</code>,
+     * if any.
+     */
+    protected String encoding = null;
+
+
+    /**
+     * The stream returned by <code>getOutputStream()</code>, once it has
+     * been called.
+     */
+    protected ServletOutputStream stream = null;
+
+
+    /**
+     * The Writer to receive the response data, if it is not buffered.
+     */
+    protected Writer target = null;
+
+
+    /**
+     * The writer returned by <code>getWriter()</code>, once it has been
+     * called.
+     */
+    protected PrintWriter writer = null;
+
+
     // --------------------------------------------------------- Public Methods
 
 
+    /**
+     * Pass any characters written to our target Writer on to it, and
+     * convert any bytes that were written to characters for it.  This must
+     * be called once the included resource has been processed.
+     *
+     * @exception IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+
+        if (writer != null)
+            writer.flush();
+        if ((target != null) && (baos != null)) {
+            target.write(decode());
+            baos.reset();
+        }
+
+    }
+
+
     /**
      * Swallow any attempt to flush the response buffer.
      */
@@ -85,11 +156,16 @@ public class IncludeResponse23 extends ServletResponseWrapper {
 
 
     /**
-     * Return the character encoding for the included response (if any).
+     * Return the character encoding for the included response, which is
+     * that of the wrapped response unless a content type with a character
+     * encoding was set.
      */
     public String getCharacterEncoding() {
 
-        return (null); // FIXME - getCharacterEncoding()
+        if (encoding != null)
+            return (encoding);
+        else
+            return (getResponse().getCharacterEncoding());
 
     }
 
@@ -101,17 +177,14 @@ public class IncludeResponse23 extends ServletResponseWrapper {
      */
     public String getContent() throws IOException {
 
-        String encoding = getCharacterEncoding();
-        if (baos != null) {
-            if (encoding == null)
-                return (baos.toString());
-            else
-                return (baos.toString(encoding));
-        } else if (caw != null) {
+        if (writer != null)
+            writer.flush();
+        if (baos != null)
+            return (decode());
+        else if (caw != null)
             return (caw.toString());
-        } else {
+        else
             return ("");
-        }
 
     }
 
@@ -124,11 +197,13 @@ public class IncludeResponse23 extends ServletResponseWrapper {
      */
     public ServletOutputStream getOutputStream() throws IOException {
 
-        if (caw != null)
+        if (writer != null)
             throw new IllegalStateException("getWriter() already called");
-        baos = new ByteArrayOutputStream();
-        //        return (new IncludeOutputStream23(this));
-        return (null); // FIXME - getOutputStream()
+        if (stream == null) {
+            baos = IncludeBufferPool.getStream();
+            stream = new IncludeOutputStream23(this);
+        }
+        return (stream);
 
     }
 
@@ -141,12 +216,36 @@ public class IncludeResponse23 extends ServletResponseWrapper {
      */
     public PrintWriter getWriter() throws IOException {
 
-        if (baos != null)
+        if (stream != null)
             throw new IllegalStateException
                 ("getOutputStream() already called");
-        caw = new CharArrayWriter();
-        //        return (new IncludeWriter23(this));
-        return (null); // FIXME - getWriter()
+        if (writer == null) {
+            if (target != null) {
+                writer = new PrintWriter(target);
+            } else {
+                caw = IncludeBufferPool.getWriter();
+                writer = new PrintWriter(caw);
+            }
+        }
+        return (writer);
+
+    }
+
+
+    /**
+     * Return the buffers used by this response to the pool.  The buffered
+     * content is no longer available after this method is called.
+     */
+    public void release() {
+
+        if (baos != null) {
+            IncludeBufferPool.release(baos);
+            baos = null;
+        }
+        if (caw != null) {
+            IncludeBufferPool.release(caw);
+            caw = null;
+        }
 
     }
 
@@ -162,7 +261,8 @@ public class IncludeResponse23 extends ServletResponseWrapper {
 
 
     /**
-     * Reset the response buffer to contain no data.
+     * Reset the response buffer to contain no data.  Data that has already
+     * been passed on to a target Writer cannot be reset.
      */
     public void resetBuffer() {
 
@@ -182,26 +282,36 @@ public class IncludeResponse23 extends ServletResponseWrapper {
      */
     public void setContentType(String contentType) {
 
-        ; // FIXME - setContentType()
+        String encoding = WorkflowUtils.parseCharacterEncoding(contentType);
+        if (encoding != null)
+            this.encoding = encoding;
 
     }
 
 
-    // -------------------------------------------------------- Package Methods
-
-
     /**
-     * Write a sequence of bytes to our accumulator.
+     * Copy the response data written to this response to the specified
+     * Writer, without converting buffered characters into a String.
      *
-     * @param b The byte array
+     * @param out The Writer to receive the response data
+     *
+     * @exception IOException if an I/O error occurs
      */
-    void write(byte b[]) {
+    public void writeContent(Writer out) throws IOException {
 
-        baos.write(b, 0, b.length);
+        if (writer != null)
+            writer.flush();
+        if (baos != null)
+            out.write(decode());
+        else if (caw != null)
+            caw.writeTo(out);
 
     }
 
 
+    // -------------------------------------------------------- Package Methods
+
+
     /**
      * Write a sequence of bytes to our accumulator.
      *
@@ -217,69 +327,33 @@ public class IncludeResponse23 extends ServletResponseWrapper {
 
 
     /**
-     * Write a sequence of characters to our accumulator.
-     *
-     * @param c The character array
-     */
-    void write(char c[]) {
-
-        caw.write(c, 0, c.length);
-
-    }
-
-
-    /**
-     * Write a sequence of characters to our accumulator.
-     *
-     * @param c The character array
-     * @param off Starting offset
-     * @param len Number of bytes to be written
-     */
-    void write(char c[], int off, int len) {
-
-        caw.write(c, off, len);
-
-    }
-
-
-    /**
-     * Write a single byte or character (based on which accumulator has
-     * been created) to our accumulator.
+     * Write a single byte to our accumulator.
      *
-     * @param value The byte or character to be written
+     * @param value The byte to be written
      */
     void write(int value) {
 
-        if (baos != null)
-            baos.write(value);
-        else
-            caw.write(value);
+        baos.write(value);
 
     }
 
 
-    /**
-     * Write a sequence of characters to our accumulator.
-     *
-     * @param s The character string
-     */
-    void write(String s) {
-
-        caw.write(s, 0, s.length());
-
-    }
+    // ------------------------------------------------------ Protected Methods
 
 
     /**
-     * Write a sequence of characters to our accumulator.
+     * Convert the bytes in our accumulator to characters, using our
+     * character encoding (if any).
      *
-     * @param s The character string
-     * @param off Starting offset
-     * @param len Number of characters to write
+     * @exception IOException if a conversion error occurs
      */
-    void write(String s, int off, int len) {
+    protected String decode() throws IOException {
 
-        caw.write(s, off, len);
+        String encoding = getCharacterEncoding();
+        if (encoding == null)
+            return (baos.toString());
+        else
+            return (baos.toString(encoding));
 
     }
 
@@ -22,7 +22,6 @@ import java.util.EmptyStackException;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
-import javax.servlet.ServletResponse;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.BaseStep;
@@ -32,19 +31,28 @@ import org.apache.commons.workflow.util.WorkflowUtils;
 /**
  * <p>Perform a <code>RequestDispatcher.include()</code> operation on the
  * specified context relative path, and push the response data (as a String
- * onto the evaluation stack.</p>
+ * onto the evaluation stack.  Other modes write the response data straight
+ * to the current response, or defer the include to a later consumer.</p>
  *
  * <p>Supported Attributes:</p>
  * <ul>
  * <li><strong>page</strong> - Context relative URL (starting with a slash)
  *     of the application resource to be retrieved, or omitted to pop a
  *     computed String value from the top of the evaluation stack.</li>
+ * <li><strong>mode</strong> - How the response data of the included
+ *     resource is handled:  <code>string</code> to buffer it (in a pooled
+ *     buffer) and push it as a String, <code>stream</code> to write it
+ *     straight to the current response without buffering it, or
+ *     <code>defer</code> to push an <code>IncludeContent</code> that
+ *     performs the include when its consumer calls
+ *     <code>writeTo()</code>.  [string]</li>
  * </ul>
  *
  * <p><strong>WARNING</strong> - This implementation requires a Servlet 2.3
  * based container, because it uses the new response wrapper facilities.</p>
  *
- * <p><strong>DESIGN QUESTION - What about binary content?</strong></p>
+ * <p>Binary content written by the included resource is converted to
+ * characters using the character encoding of the response.</p>
  *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
@@ -53,7 +61,7 @@ import org.apache.commons.workflow.util.WorkflowUtils;
 public class IncludeStep23 extends BaseStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -94,9 +102,50 @@ public class IncludeStep23 extends BaseStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    /**
+     * The mode that defers the include to a later consumer.
+     */
+    public static final String MODE_DEFER = "defer";
+
+
+    /**
+     * The mode that writes the response data to the current response.
+     */
+    public static final String MODE_STREAM = "stream";
+
+
+    /**
+     * The mode that pushes the response data as a String.
+     */
+    public static final String MODE_STRING = "string";
+
+
     // ------------------------------------------------------------- Properties
 
 
+    /**
+     * How the response data of the included resource is handled.
+     */
+    protected String mode = MODE_STRING;
+
+    public String getMode() {
+        return (this.mode);
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+
     /**
      * The context-relative URL (starting with '/') of the resource to be
      * retrieved.
@@ -148,20 +197,39 @@ public class IncludeStep23 extends BaseStep {
             throw new StepException("No request dispatcher for '" +
                                     resource + "'", this);
         ServletRequest request = webContext.getServletRequest();
-        ServletResponse response =
-            new IncludeResponse23(webContext.getServletResponse());
+
+        // Defer the include to a later consumer if requested
+        if (MODE_DEFER.equals(mode)) {
+            webContext.push(new IncludeContent
+                            (resource, rd, request,
+                             webContext.getServletResponse()));
+            return;
+        }
 
         // Request the included resource
+        IncludeResponse23 response = null;
         String content = null;
         try {
-            rd.include(request, response);
-            content = ((IncludeResponse23) response).getContent();
+            if (MODE_STREAM.equals(mode)) {
+                rd.include(request, webContext.getServletResponse());
+                return;
+            } else if (MODE_STRING.equals(mode)) {
+                response =
+                    new IncludeResponse23(webContext.getServletResponse());
+                rd.include(request, response);
+                content = response.getContent();
+            } else {
+                throw new StepException("Invalid mode '" + mode + "'", this);
+            }
         } catch (IOException e) {
             throw new StepException("IOException including '" +
                                     resource + "'", e, this);
         } catch (ServletException e) {
             throw new StepException("ServletException including '" +
                                     resource + "'", e, this);
+        } finally {
+            if (response != null)
+                response.release();
         }
 
         // Push the resulting String onto the evaluation stack
@@ -183,6 +251,8 @@ public class IncludeStep23 extends BaseStep {
         }
         sb.append(" page=\"");
         sb.append(getPage());
+        sb.append("\" mode=\"");
+        sb.append(getMode());
         sb.append("\"/>");
         return (sb.toString());
 
@@ -17,10 +17,7 @@
 package org.apache.commons.workflow.web;
 
 
-import java.util.Enumeration;
-import java.util.HashMap;
 import javax.servlet.ServletRequest;
-import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Descriptor;
 import org.apache.commons.workflow.StepException;
@@ -30,7 +27,10 @@ import org.apache.commons.workflow.base.DescriptorStep;
 /**
  * <p>For each associated <code>Descriptor</code>, populate the properties
  * of the bean specified by that descriptor from the request parameters of
- * the current request.</p>
+ * the current request.  The properties of each bean class are looked up
+ * only once, by the <code>PropertyBinder</code> for that class, and this
+ * Step keeps the binder it used last, so that populating a bean of the
+ * same class again takes no lock.</p>
  *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
@@ -39,7 +39,7 @@ import org.apache.commons.workflow.base.DescriptorStep;
 public class PopulateStep extends DescriptorStep {
 
 
-    // ----------------------------------------------------------= Constructors
+    // ----------------------------------------------------------- Constructors
 
 
     /**
@@ -81,6 +81,25 @@ public class PopulateStep extends DescriptorStep {
     }
 
 
+    // ----------------------------------------------------- Manifest Constants
+
+
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The binder used for the bean most recently populated by this Step,
+     * if any.
+     */
+    protected transient volatile PropertyBinder binder = null;
+
+
     // --------------------------------------------------------- Public Methods
 
 
@@ -101,15 +120,6 @@ public class PopulateStep extends DescriptorStep {
         WebContext webContext = (WebContext) context;
         ServletRequest request = webContext.getServletRequest();
 
-        // Prepare a Map of our request parameter names and values
-        // (in Servlet 2.3 we would just call request.getParameterMap())
-        HashMap map = new HashMap();
-        Enumeration names = request.getParameterNames();
-        while (names.hasMoreElements()) {
-            String name = (String) names.nextElement();
-            map.put(name, request.getParameterValues(name));
-        }
-
         // Process all associated descriptors
         Descriptor descriptors[] = findDescriptors();
         for (int i = 0; i < descriptors.length; i++) {
@@ -118,7 +128,13 @@ public class PopulateStep extends DescriptorStep {
                 throw new StepException
                     ("Cannot retrieve object for " + descriptors[i], this);
             try {
-                BeanUtils.populate(value, map);
+                PropertyBinder binder = this.binder;
+                if ((binder == null) ||
+                    (binder.getBeanClass() != value.getClass())) {
+                    binder = PropertyBinder.getBinder(value.getClass());
+                    this.binder = binder;
+                }
+                binder.populate(value, request);
             } catch (Throwable t) {
                 throw new StepException("Populate exception", t, this);
             }
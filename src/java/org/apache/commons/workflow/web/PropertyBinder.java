@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.beans.BeanInfo;
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.servlet.ServletRequest;
+import org.apache.commons.beanutils.BeanUtils;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MethodUtils;
+
+
+/**
+ * <p>Populates the properties of beans of a particular class from request
+ * parameters.  The writable properties of the class, and the converters
+ * for their types, are looked up once when the binder is created, so that
+ * the parameters of each request can be applied directly, without building
+ * a Map of them or introspecting the bean again.  Parameter names that are
+ * nested, indexed, or mapped property expressions, and the properties of
+ * <code>DynaBeans</code> and <code>Maps</code>, are passed on to
+ * <code>BeanUtils.setProperty()</code>.  Parameters that do not match a
+ * property are ignored, as they are by <code>BeanUtils.populate()</code>.</p>
+ *
+ * <p>Converters registered with <code>ConvertUtils</code> after the binder
+ * for a class has been created are not used by that binder.</p>
+ *
+ * <p>The binders returned by <code>getBinder()</code> are shared, but are
+ * only weakly referenced by the class itself, so that they do not prevent
+ * the classes of a web application that has been undeployed from being
+ * unloaded.  Callers that populate beans repeatedly (such as
+ * <code>PopulateStep</code>) should keep the binder they were given rather
+ * than look it up again each time.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class PropertyBinder {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new binder for the specified bean class.
+     *
+     * @param beanClass The class of the beans to be populated
+     *
+     * @exception IntrospectionException if the class cannot be introspected
+     */
+    public PropertyBinder(Class beanClass) throws IntrospectionException {
+
+        super();
+        this.beanClass = beanClass;
+        this.dynamic = DynaBean.class.isAssignableFrom(beanClass) ||
+            Map.class.isAssignableFrom(beanClass);
+        BeanInfo info = Introspector.getBeanInfo(beanClass);
+        PropertyDescriptor descriptors[] = info.getPropertyDescriptors();
+        for (int i = 0; i < descriptors.length; i++) {
+            if (descriptors[i] instanceof IndexedPropertyDescriptor)
+                continue;
+            Method method = descriptors[i].getWriteMethod();
+            if (method != null)
+                method = MethodUtils.getAccessibleMethod(method);
+            if (method != null)
+                properties.put(descriptors[i].getName(),
+                               new BoundProperty(method));
+        }
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * Do beans of our class have dynamic properties?
+     */
+    protected boolean dynamic = false;
+
+
+    /**
+     * The writable properties of our class, keyed by property name.
+     */
+    protected HashMap properties = new HashMap();
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The class of the beans populated by this binder.
+     */
+    protected Class beanClass = null;
+
+    public Class getBeanClass() {
+        return (this.beanClass);
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Set the property of the specified bean that is named by a request
+     * parameter from that parameter's values.  Return <code>true</code>
+     * if the name is that of a simple writable property of our class, or
+     * was passed on to <code>BeanUtils</code>; otherwise, return
+     * <code>false</code>.
+     *
+     * @param bean The bean to be populated
+     * @param name The request parameter name
+     * @param values The request parameter values
+     *
+     * @exception IllegalAccessException if a setter is not accessible
+     * @exception InvocationTargetException if a setter throws an
+     *  exception
+     */
+    public boolean bind(Object bean, String name, String values[])
+        throws IllegalAccessException, InvocationTargetException {
+
+        BoundProperty property = (BoundProperty) properties.get(name);
+        if (property != null) {
+            property.set(bean, values);
+            return (true);
+        }
+        if (dynamic || isExpression(name)) {
+            BeanUtils.setProperty(bean, name, values);
+            return (true);
+        }
+        return (false);
+
+    }
+
+
+    /**
+     * Populate the properties of the specified bean from the parameters
+     * of the specified request.
+     *
+     * @param bean The bean to be populated
+     * @param request The request whose parameters are to be used
+     *
+     * @exception IllegalAccessException if a setter is not accessible
+     * @exception InvocationTargetException if a setter throws an
+     *  exception
+     */
+    public void populate(Object bean, ServletRequest request)
+        throws IllegalAccessException, InvocationTargetException {
+
+        Enumeration names = request.getParameterNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            bind(bean, name, request.getParameterValues(name));
+        }
+
+    }
+
+
+    // ------------------------------------------------------- Static Variables
+
+
+    /**
+     * Weak references to the binders that have been created, keyed by
+     * bean class.  Neither the keys nor the values keep the classes of a
+     * web application reachable.
+     */
+    private static WeakHashMap binders = new WeakHashMap();
+
+
+    // --------------------------------------------------------- Static Methods
+
+
+    /**
+     * Return the binder for the specified bean class, creating it the first
+     * time it is requested, or again if the earlier one is no longer in
+     * use.
+     *
+     * @param beanClass The class of the beans to be populated
+     *
+     * @exception IntrospectionException if the class cannot be introspected
+     */
+    public static PropertyBinder getBinder(Class beanClass)
+        throws IntrospectionException {
+
+        synchronized (binders) {
+            PropertyBinder binder = null;
+            Reference reference = (Reference) binders.get(beanClass);
+            if (reference != null)
+                binder = (PropertyBinder) reference.get();
+            if (binder == null) {
+                binder = new PropertyBinder(beanClass);
+                binders.put(beanClass, new WeakReference(binder));
+            }
+            return (binder);
+        }
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Is the specified parameter name a nested, indexed, or mapped property
+     * expression rather than a simple property name?
+     *
+     * @param name The parameter name to check
+     */
+    protected boolean isExpression(String name) {
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c == '.') || (c == '[') || (c == '('))
+                return (true);
+        }
+        return (false);
+
+    }
+
+
+}
@@ -35,6 +35,11 @@ import org.apache.commons.workflow.base.BaseContext;
  * with requests, sessions, and the servlet context as <code>Scopes</code>
  * within the workflow management system.</p>
  *
+ * <p>The externalized form of a WebContext (used when its session is
+ * persisted or replicated) does not include the servlet API objects or
+ * their Scopes, which must be associated with it again after it has been
+ * read.</p>
+ *
  * @version $Revision$ $Date$
  * @author Craig R. McClanahan
  */
@@ -87,6 +92,12 @@ public class WebContext extends BaseContext {
     public static final String APPLICATION_SCOPE_NAME = "application";
 
 
+    /**
+     * The serialization version of this class.
+     */
+    private static final long serialVersionUID = 1L;
+
+
     // ------------------------------------------------------------- Properties
 
 
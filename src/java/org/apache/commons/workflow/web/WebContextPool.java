@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import javax.servlet.ServletContext;
+import org.apache.commons.collections.ArrayStack;
+import org.apache.commons.workflow.Context;
+import org.apache.commons.workflow.ContextListener;
+import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.util.ContextScheduler;
+
+
+/**
+ * <p>A pool of <code>WebContext</code> instances, already associated with a
+ * <code>ServletContext</code>, for executing Activities that complete
+ * within a single request and therefore need no state between requests.
+ * A Context is borrowed for each request and returned afterwards, when it
+ * is reset so that nothing can leak into the next request that uses
+ * it.  In particular, a pending resumption of a returned Context by the
+ * <code>ContextScheduler</code> (for example by a <code>core:delay</code>
+ * Step) is cancelled, and its suspend flag is cleared.</p>
+ *
+ * <p>Contexts in this pool have no "session" scope.</p>
+ *
+ * @version $Revision$ $Date$
+ * @author agent
+ */
+
+public class WebContextPool {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new pool for the specified servlet context.
+     *
+     * @param servletContext The ServletContext providing the "application"
+     *  scope of pooled Contexts
+     * @param listener A ContextListener to be registered with each new
+     *  Context, or <code>null</code>
+     * @param maxIdle Maximum number of idle Contexts retained
+     */
+    public WebContextPool(ServletContext servletContext,
+                          ContextListener listener, int maxIdle) {
+
+        super();
+        this.servletContext = servletContext;
+        this.listener = listener;
+        this.maxIdle = maxIdle;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The idle Contexts available to be borrowed.
+     */
+    protected ArrayStack idle = new ArrayStack();
+
+
+    /**
+     * The ContextListener registered with each new Context, if any.
+     */
+    protected ContextListener listener = null;
+
+
+    /**
+     * The ServletContext providing the "application" scope.
+     */
+    protected ServletContext servletContext = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The maximum number of idle Contexts retained.
+     */
+    protected int maxIdle = 0;
+
+    public int getMaxIdle() {
+        return (this.maxIdle);
+    }
+
+
+    /**
+     * Return the number of idle Contexts currently in this pool.
+     */
+    public synchronized int getIdle() {
+
+        return (idle.size());
+
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Borrow a Context from this pool, creating a new one if none are idle.
+     */
+    public WebContext borrow() {
+
+        synchronized (this) {
+            if (!idle.empty())
+                return ((WebContext) idle.pop());
+        }
+        WebContext context = new WebContext();
+        context.setServletContext(servletContext);
+        if (listener != null)
+            context.addContextListener(listener);
+        return (context);
+
+    }
+
+
+    /**
+     * Reset the specified Context, which was borrowed from this pool, and
+     * return it to the pool (if it is not already full).  Any scheduled
+     * resumption of the Context is cancelled first.
+     *
+     * @param context The Context to be returned
+     */
+    public void release(WebContext context) {
+
+        ContextScheduler scheduler = context.getScheduler();
+        if (scheduler != null)
+            scheduler.cancel(context);
+        context.setSuspend(false);
+        context.setActivity(null);
+        Scope local = context.getScope(Context.LOCAL_SCOPE);
+        Iterator keys = new ArrayList(local.keySet()).iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            if (!(local.get(key) instanceof Scope))
+                local.remove(key);  // Keep the registered scopes
+        }
+        context.setServletRequest(null);
+        context.setServletResponse(null);
+        synchronized (this) {
+            if (idle.size() < maxIdle)
+                idle.push(context);
+        }
+
+    }
+
+
+}
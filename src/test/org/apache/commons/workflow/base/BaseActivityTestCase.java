@@ -18,13 +18,25 @@
 package org.apache.commons.workflow.base;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.EmptyStackException;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 import org.apache.commons.workflow.Activity;
+import org.apache.commons.workflow.Registry;
 import org.apache.commons.workflow.Scope;
 import org.apache.commons.workflow.Step;
+import org.apache.commons.workflow.util.ActivityLoader;
+import org.apache.commons.workflow.util.ActivityParser;
+import org.apache.commons.workflow.util.ActivitySerializer;
+import org.apache.commons.workflow.util.LoadResult;
+import org.apache.commons.workflow.util.RegistryWatcher;
 
 
 /**
@@ -241,4 +253,372 @@ public class BaseActivityTestCase extends TestCase {
 
     }
 
+
+    /**
+     * Test loading a directory of activity definitions in parallel.
+     */
+    public void testActivityLoader() {
+
+        File directory = null;
+        File files[] = new File[8];
+        try {
+            directory = File.createTempFile("BaseActivityTestCase", "");
+            directory.delete();
+            directory.mkdirs();
+            for (int i = 0; i < files.length; i++) {
+                files[i] = new File(directory, "test" + i + ".xml");
+                if (i == 3) {
+                    FileWriter writer = new FileWriter(files[i]);
+                    writer.write("<broken");
+                    writer.close();
+                } else {
+                    writeActivity(files[i], "test" + i, "Value " + i);
+                }
+            }
+        } catch (Throwable t) {
+            fail("Directory create threw " + t);
+        }
+
+        Registry registry = new BaseRegistry();
+        ActivityLoader loader = new ActivityLoader(registry);
+        loader.setThreads(3);
+        try {
+            LoadResult results[] = loader.load(directory);
+            assertEquals("Result count", files.length, results.length);
+            for (int i = 0; i < results.length; i++) {
+                assertTrue("Result " + i + " name",
+                           results[i].getName().endsWith("test" + i + ".xml"));
+                assertTrue("Result " + i + " elapsed",
+                           results[i].getElapsed() >= 0L);
+                if (i == 3) {
+                    assertNull("Broken activity", results[i].getActivity());
+                    assertNotNull("Broken exception",
+                                  results[i].getException());
+                    assertNull("Broken activity not registered",
+                               registry.findActivity("test" + i));
+                } else {
+                    assertNull("Result " + i + " exception",
+                               results[i].getException());
+                    assertEquals("Result " + i + " registered",
+                                 results[i].getActivity(),
+                                 registry.findActivity("test" + i));
+                }
+            }
+            assertEquals("Registered activities", files.length - 1,
+                         registry.findActivities().length);
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Loader threw " + t);
+        } finally {
+            for (int i = 0; i < files.length; i++)
+                files[i].delete();
+            directory.delete();
+        }
+
+    }
+
+
+    /**
+     * Test loading a directory of activity definitions from the class
+     * path, where the path to that directory contains a space.
+     */
+    public void testActivityLoaderClassPath() {
+
+        File root = null;
+        File directory = null;
+        File file = null;
+        try {
+            root = File.createTempFile("Base Activity", "");
+            root.delete();
+            directory = new File(root, "activities");
+            directory.mkdirs();
+            file = new File(directory, "spaced.xml");
+            writeActivity(file, "spaced", "Spaced value");
+        } catch (Throwable t) {
+            fail("Directory create threw " + t);
+        }
+
+        Registry registry = new BaseRegistry();
+        ActivityLoader loader = new ActivityLoader(registry);
+        try {
+            ClassLoader classLoader = new URLClassLoader
+                (new URL[] { root.toURI().toURL() }, null);
+            LoadResult results[] = loader.load(classLoader, "activities/");
+            assertEquals("Result count", 1, results.length);
+            assertNull("Result exception", results[0].getException());
+            assertNotNull("Activity registered",
+                          registry.findActivity("spaced"));
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Loader threw " + t);
+        } finally {
+            file.delete();
+            directory.delete();
+            root.delete();
+        }
+
+    }
+
+
+    /**
+     * Test loading activity definitions lazily.
+     */
+    public void testLazyActivity() {
+
+        File directory = null;
+        File files[] = new File[3];
+        try {
+            directory = File.createTempFile("BaseActivityTestCase", "");
+            directory.delete();
+            directory.mkdirs();
+            for (int i = 0; i < files.length; i++) {
+                files[i] = new File(directory, "lazy" + i + ".xml");
+                writeActivity(files[i], "lazy" + i, "Value " + i);
+            }
+        } catch (Throwable t) {
+            fail("Directory create threw " + t);
+        }
+
+        Registry registry = new BaseRegistry();
+        ActivityLoader loader = new ActivityLoader(registry);
+        loader.setLazy(true);
+        try {
+            LoadResult results[] = loader.load(directory);
+            assertEquals("Result count", files.length, results.length);
+            LazyActivity lazy = (LazyActivity) registry.findActivity("lazy1");
+            assertNotNull("Registered lazy activity", lazy);
+            assertTrue("Not yet materialized", !lazy.isMaterialized());
+            Step first = lazy.getFirstStep();
+            assertNotNull("Materialized first step", first);
+            assertTrue("Materialized", lazy.isMaterialized());
+            assertEquals("Materialized step owner", lazy, first.getOwner());
+            assertEquals("Materialized step count", 1,
+                         lazy.getSteps().length);
+            assertEquals("Materialized once", first, lazy.getFirstStep());
+            assertTrue("Others not materialized",
+                       !((LazyActivity) registry.findActivity("lazy0"))
+                       .isMaterialized());
+            assertEquals("Parsed activity keeps no steps", 0,
+                         lazy.getActivity().getSteps().length);
+
+            // The identifier can also be read from the binary form
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ActivitySerializer.write(lazy, baos);
+            assertEquals("Binary identifier", "lazy1",
+                         new ActivityParser().parseId
+                         (new ByteArrayInputStream(baos.toByteArray())));
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Loader threw " + t);
+        } finally {
+            for (int i = 0; i < files.length; i++)
+                files[i].delete();
+            directory.delete();
+        }
+
+    }
+
+
+    /**
+     * Test that a lazily loaded PureActivity keeps its inputs and outputs.
+     */
+    public void testLazyPureActivity() {
+
+        File file = null;
+        try {
+            file = File.createTempFile("BaseActivityTestCase", ".xml");
+            FileWriter writer = new FileWriter(file);
+            writer.write("<base:activity id=\"pure\" outputs=\"result\"\n" +
+                         "   className=\"org.apache.commons.workflow.base.PureActivity\"\n" +
+                         "   xmlns:base=\"http://commons.apache.org/workflow/base\"\n" +
+                         "   xmlns:core=\"http://commons.apache.org/workflow/core\">\n" +
+                         "  <core:descriptor xpath=\"n\"/>\n" +
+                         "  <core:string value=\"Pure\"/>\n" +
+                         "</base:activity>\n");
+            writer.close();
+        } catch (Throwable t) {
+            fail("File create threw " + t);
+        }
+
+        try {
+            LazyActivity lazy = new LazyActivity("pure", file.toURI().toURL());
+            assertEquals("Materialized step count", 1,
+                         lazy.getSteps().length);
+            assertTrue("Parsed activity is pure",
+                       lazy.getActivity() instanceof PureActivity);
+            PureActivity pure = (PureActivity) lazy.getActivity();
+            assertEquals("Pure outputs", "result", pure.getOutputs());
+            assertEquals("Pure inputs", 1, pure.findDescriptors().length);
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Materialize threw " + t);
+        } finally {
+            file.delete();
+        }
+
+    }
+
+
+    /**
+     * Test registering multiple versions of an activity.
+     */
+    public void testRegistryVersions() {
+
+        BaseRegistry registry = new BaseRegistry();
+        registry.setMaxVersions(2);
+        BaseActivity v1 = new BaseActivity();
+        v1.setId("a");
+        BaseActivity v2 = new BaseActivity();
+        v2.setId("a");
+        BaseActivity v3 = new BaseActivity();
+        v3.setId("a");
+
+        registry.addActivity(v1);
+        assertEquals("v1 is current", v1, registry.findActivity("a"));
+        assertEquals("v1 version", 1, registry.getVersion(v1));
+        registry.addActivity(v2);
+        assertEquals("v2 is current", v2, registry.findActivity("a"));
+        assertEquals("v1 is retained", v1, registry.findActivity("a", 1));
+        assertEquals("v2 version", 2, registry.getVersion(v2));
+        registry.addActivity(v3);
+        int versions[] = registry.findVersions("a");
+        assertEquals("Retained versions", 2, versions.length);
+        assertEquals("Oldest retained version", 2, versions[0]);
+        assertEquals("Newest retained version", 3, versions[1]);
+        assertEquals("v1 is retired but still in use",
+                     v1, registry.findActivity("a", 1));
+        assertEquals("v1 keeps its version", 1, registry.getVersion(v1));
+        assertNull("No such version", registry.findActivity("a", 5));
+        assertEquals("One current activity", 1,
+                     registry.findActivities().length);
+
+        registry.removeActivity(v3);
+        assertEquals("v2 is current again", v2, registry.findActivity("a"));
+        registry.addActivity(v1);
+        assertEquals("Version numbers are not reused", 4,
+                     registry.getVersion(v1));
+
+        // A retired version is still found without any retained version
+        registry.addActivity(v3);
+        registry.removeActivity(v1);
+        registry.removeActivity(v3);
+        assertEquals("No retained versions", 0,
+                     registry.findVersions("a").length);
+        assertEquals("v2 keeps its version", 2, registry.getVersion(v2));
+        assertEquals("v2 is still found", v2, registry.findActivity("a", 2));
+        registry.clear();
+        assertNull("Registry was cleared", registry.findActivity("a"));
+
+    }
+
+
+    /**
+     * Test reloading activity definitions from a directory.
+     */
+    public void testRegistryWatcher() {
+
+        File directory = null;
+        File file = null;
+        try {
+            directory = File.createTempFile("BaseActivityTestCase", "");
+            directory.delete();
+            directory.mkdirs();
+            file = new File(directory, "test.xml");
+            writeActivity(file, "First");
+        } catch (Throwable t) {
+            fail("Directory create threw " + t);
+        }
+
+        Registry registry = new BaseRegistry();
+        RegistryWatcher watcher =
+            new RegistryWatcher(registry, directory, 1000L);
+        try {
+            assertEquals("Initial scan", 1, watcher.scan(true));
+            Activity first = registry.findActivity("test");
+            assertNotNull("Loaded first version", first);
+            assertEquals("First version steps", 1, first.getSteps().length);
+            assertEquals("Unmodified scan", 0, watcher.scan(true));
+
+            writeActivity(file, "Second");
+            file.setLastModified(file.lastModified() + 2000L);
+            assertEquals("Modified scan", 1, watcher.scan(true));
+            Activity second = registry.findActivity("test");
+            assertTrue("Loaded second version", first != second);
+            assertEquals("Second version number", 2,
+                         registry.getVersion(second));
+            assertEquals("First version is retained", first,
+                         registry.findActivity("test", 1));
+
+            FileWriter writer = new FileWriter(file);
+            writer.write("<broken");
+            writer.close();
+            file.setLastModified(file.lastModified() + 4000L);
+            assertEquals("Broken scan", 1, watcher.scan(true));
+            assertEquals("Second version is still current", second,
+                         registry.findActivity("test"));
+            assertNotNull("Failure was recorded",
+                          watcher.getFailures().get(file));
+
+            // A broken file is retried until it loads, even if it is
+            // completed without changing its modification time
+            long lastModified = file.lastModified();
+            assertEquals("Broken file is retried", 1, watcher.scan(true));
+            writeActivity(file, "Third");
+            file.setLastModified(lastModified);
+            assertEquals("Completed scan", 1, watcher.scan(true));
+            assertEquals("Third version number", 3,
+                         registry.getVersion(registry.findActivity("test")));
+            assertNull("Failure was cleared",
+                       watcher.getFailures().get(file));
+            assertEquals("Loaded scan", 0, watcher.scan(true));
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Watcher threw " + t);
+        } finally {
+            file.delete();
+            directory.delete();
+        }
+
+    }
+
+
+    // -------------------------------------------------------- Private Methods
+
+
+    /**
+     * Write an activity definition with a single string step to the
+     * specified file.
+     *
+     * @param file The file to be written
+     * @param value The value of the string step
+     */
+    private void writeActivity(File file, String value) throws Exception {
+
+        writeActivity(file, "test", value);
+
+    }
+
+
+    /**
+     * Write an activity definition with the specified identifier and a
+     * single string step to the specified file.
+     *
+     * @param file The file to be written
+     * @param id The activity identifier
+     * @param value The value of the string step
+     */
+    private void writeActivity(File file, String id, String value)
+        throws Exception {
+
+        FileWriter writer = new FileWriter(file);
+        writer.write("<base:activity id=\"" + id + "\"\n" +
+                     "   xmlns:base=\"http://commons.apache.org/workflow/base\"\n" +
+                     "   xmlns:core=\"http://commons.apache.org/workflow/core\">\n" +
+                     "  <core:string value=\"" + value + "\"/>\n" +
+                     "</base:activity>\n");
+        writer.close();
+
+    }
+
+
 }
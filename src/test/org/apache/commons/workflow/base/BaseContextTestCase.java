@@ -25,6 +25,7 @@ import junit.framework.TestSuite;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.util.PersistentMap;
 
 
 /**
@@ -128,6 +129,58 @@ public class BaseContextTestCase extends TestCase {
     }
 
 
+    /**
+     * Test a ConcurrentScope, including updates from several threads.
+     */
+    public void testConcurrentScope() {
+
+        ConcurrentScope scope = new ConcurrentScope();
+        context.addScope(Context.LOCAL_SCOPE + 1, "shared", scope);
+        commonDirectScope(Context.LOCAL_SCOPE + 1);
+
+        // Test the atomic operations
+        assertNull("First putIfAbsent", scope.putIfAbsent("key", "first"));
+        assertEquals("Second putIfAbsent", "first",
+                     scope.putIfAbsent("key", "second"));
+        assertTrue("Mismatched replace",
+                   !scope.replace("key", "second", "third"));
+        assertTrue("Matched replace", scope.replace("key", "first", "third"));
+        assertEquals("Replaced value", "third", scope.get("key"));
+        assertEquals("First increment", new Integer(1),
+                     scope.increment("count", 1L));
+        assertEquals("Long increment", new Long(Integer.MAX_VALUE + 1L),
+                     scope.increment("count", Integer.MAX_VALUE));
+        scope.put("count", new Integer(0));
+        scope.put("name", "value");
+        try {
+            scope.increment("name", 1L);
+            fail("Incremented a String");
+        } catch (IllegalArgumentException e) {
+            ; // Expected result
+        }
+
+        // Update the same keys from several threads at once
+        Thread threads[] = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Incrementer(scope, "count", 1000));
+            threads[i].start();
+        }
+        try {
+            for (int i = 0; i < threads.length; i++)
+                threads[i].join();
+        } catch (InterruptedException e) {
+            fail("Interrupted");
+        }
+        assertEquals("Concurrent increments", 8000,
+                     ((Number) scope.get("count")).intValue());
+        assertEquals("Concurrent puts", 1003, scope.size());
+        assertEquals("Snapshot keys", 1003, scope.keySet().size());
+        assertEquals("JXPath access", "third",
+                     context.getJXPathContext().getValue("local/shared/key"));
+
+    }
+
+
     /**
      * Test default access to LOCAL scope.
      */
@@ -209,6 +262,125 @@ public class BaseContextTestCase extends TestCase {
     }
 
 
+    /**
+     * Test evaluation of compiled expressions by an ExpressionDescriptor.
+     */
+    public void testExpressionDescriptor() {
+
+        Employee emp = new Employee("First", "Last");
+        Address homeAddress = new Address();
+        homeAddress.setZipCode("HmZip");
+        emp.addAddress("home", homeAddress);
+        context.put("emp", emp);
+        context.put("count", new Integer(3));
+        context.put("price", new Double(2.5));
+        context.addScope(Context.LOCAL_SCOPE + 1, "extra", new BaseScope());
+        context.put("extra0", "This is extra0", Context.LOCAL_SCOPE + 1);
+
+        // Literals and constant folding
+        assertEquals("Integral arithmetic", new Long(7),
+                     new ExpressionDescriptor("1 + 2 * 3").get(context));
+        assertEquals("Real arithmetic", new Double(2.5),
+                     new ExpressionDescriptor("5 / 2.0").get(context));
+        assertEquals("Concatenation", "a1",
+                     new ExpressionDescriptor("'a' + 1").get(context));
+        assertEquals("Negation", new Long(-4),
+                     new ExpressionDescriptor("-(1 + 3)").get(context));
+
+        // Property paths
+        assertEquals("Simple name", new Integer(3),
+                     new ExpressionDescriptor("count").get(context));
+        assertEquals("Bean property", "First",
+                     new ExpressionDescriptor("emp.firstName").get(context));
+        assertEquals("Map key and bean property", "HmZip",
+                     new ExpressionDescriptor
+                     ("emp.addresses.home.zipCode").get(context));
+        assertEquals("Scope name", "This is extra0",
+                     new ExpressionDescriptor("extra.extra0").get(context));
+        assertNull("Missing value",
+                   new ExpressionDescriptor("missing.name").get(context));
+        assertEquals("Mixed arithmetic", new Double(7.5),
+                     new ExpressionDescriptor("count * price").get(context));
+
+        // Property paths evaluated against beans of different classes
+        ExpressionDescriptor path = new ExpressionDescriptor("item.firstName");
+        context.put("item", emp);
+        assertEquals("First bean class", "First", path.get(context));
+        context.put("item", homeAddress);
+        try {
+            path.get(context);
+            fail("Should have thrown IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            ; // Expected result
+        }
+        context.put("item", new Employee("Second", "Last"));
+        assertEquals("Bean class again", "Second", path.get(context));
+        context.remove("item");
+
+        // Comparisons and boolean operators
+        assertTrue("Numeric comparison",
+                   new ExpressionDescriptor("count >= 3").positive(context));
+        assertTrue("Coerced comparison",
+                   new ExpressionDescriptor("count eq '3'").positive(context));
+        assertTrue("String comparison",
+                   new ExpressionDescriptor
+                   ("emp.lastName lt 'Zebra'").positive(context));
+        assertTrue("Null comparison",
+                   new ExpressionDescriptor("missing == null").
+                   positive(context));
+        assertTrue("Boolean operators",
+                   new ExpressionDescriptor
+                   ("count > 5 or not (price < 2 and true)").
+                   positive(context));
+        assertTrue("Short circuit",
+                   !new ExpressionDescriptor
+                   ("false and missing.name > 1").positive(context));
+        assertEquals("Comparison value", Boolean.FALSE,
+                     new ExpressionDescriptor("count != 3").get(context));
+        context.put("nan", Double.valueOf(Double.NaN));
+        assertTrue("NaN is not greater",
+                   !new ExpressionDescriptor("nan > 1").positive(context));
+        assertTrue("NaN is not less",
+                   !new ExpressionDescriptor("nan < 1").positive(context));
+        assertTrue("NaN is not equal to itself",
+                   !new ExpressionDescriptor("nan == nan").positive(context));
+        assertTrue("NaN is unequal",
+                   new ExpressionDescriptor("nan != 1").positive(context));
+        context.remove("nan");
+        assertTrue("Truthiness of a path",
+                   new ExpressionDescriptor("extra0").positive(context));
+
+        // Storing values
+        ExpressionDescriptor descriptor =
+            new ExpressionDescriptor("emp.lastName");
+        descriptor.put(context, "Changed");
+        assertEquals("Stored bean property", "Changed", emp.getLastName());
+        descriptor = new ExpressionDescriptor("result");
+        descriptor.put(context, "Stored");
+        assertEquals("Stored local value", "Stored", context.get("result"));
+        descriptor.remove(context);
+        assertNull("Removed local value", context.get("result"));
+        try {
+            new ExpressionDescriptor("count + 1").put(context, "Bad");
+            fail("Should have thrown IllegalStateException");
+        } catch (IllegalStateException e) {
+            ; // Expected result
+        }
+
+        // Syntax errors
+        String invalid[] = { "", "1 +", "(1", "'open", "a..b", "1 2" };
+        for (int i = 0; i < invalid.length; i++) {
+            try {
+                new ExpressionDescriptor(invalid[i]);
+                fail("Should have rejected '" + invalid[i] + "'");
+            } catch (IllegalArgumentException e) {
+                ; // Expected result
+            }
+        }
+
+    }
+
+
     /**
      * <p>Test the returned JXPathContext for accessing items in the unified
      * namespace.</p>
@@ -295,6 +467,109 @@ public class BaseContextTestCase extends TestCase {
     }
 
 
+    /**
+     * Test growing, probing and removal in the table of a LocalScope.
+     */
+    public void testLocalScopeTable() {
+
+        Scope scope = context.getScope(Context.LOCAL_SCOPE);
+        assertTrue("Local scope is a LocalScope",
+                   scope instanceof LocalScope);
+
+        // Add enough beans to force the table to grow several times
+        for (int i = 0; i < 100; i++)
+            assertNull("Added bean " + i,
+                       scope.put("key" + i, new Integer(i)));
+        assertEquals("Size after adds", 100, scope.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals("Found bean " + i, new Integer(i),
+                         scope.get(new String("key" + i)));
+        assertEquals("Replaced bean", new Integer(7),
+                     scope.put("key7", "seven"));
+        assertEquals("Replacement bean", "seven", scope.get("key7"));
+        assertTrue("Contains value", scope.containsValue("seven"));
+
+        // Remove every other bean and check that the rest can be found
+        for (int i = 0; i < 100; i += 2)
+            assertNotNull("Removed bean " + i, scope.remove("key" + i));
+        assertEquals("Size after removes", 50, scope.size());
+        assertEquals("Keys after removes", 50, scope.keySet().size());
+        for (int i = 0; i < 100; i++) {
+            if ((i % 2) == 0)
+                assertTrue("Missing key " + i,
+                           !scope.containsKey("key" + i));
+            else
+                assertNotNull("Remaining key " + i, scope.get("key" + i));
+        }
+        assertNull("Removed missing bean", scope.remove("key0"));
+
+        // Clear the table and use it again
+        scope.clear();
+        assertTrue("Empty after clear", scope.isEmpty());
+        assertNull("Missing after clear", scope.get("key1"));
+        scope.put("key1", "one");
+        assertEquals("Found after clear", "one", scope.get("key1"));
+
+    }
+
+
+    /**
+     * Test snapshots, forks and rollbacks of a SnapshotScope.
+     */
+    public void testSnapshotScope() {
+
+        SnapshotScope scope = new SnapshotScope();
+        context = new BaseContext(scope);
+        commonDirectScope(Context.LOCAL_SCOPE);
+
+        // Add enough beans to build several levels of the trie, including
+        // keys with equal hash codes ("Aa" and "BB")
+        for (int i = 0; i < 200; i++)
+            scope.put("key" + i, new Integer(i));
+        scope.put("Aa", "Aa Value");
+        scope.put("BB", "BB Value");
+        assertEquals("Size after adds", 202, scope.size());
+        assertEquals("Colliding key Aa", "Aa Value", scope.get("Aa"));
+        assertEquals("Colliding key BB", "BB Value", scope.get("BB"));
+        PersistentMap snapshot = scope.snapshot();
+
+        // Changes after the snapshot do not affect it or a fork
+        SnapshotScope fork = scope.fork();
+        scope.put("key1", "one");
+        scope.remove("Aa");
+        for (int i = 100; i < 200; i++)
+            scope.remove("key" + i);
+        assertEquals("Size after removes", 101, scope.size());
+        assertEquals("Replaced bean", "one", scope.get("key1"));
+        assertNull("Removed colliding key", scope.get("Aa"));
+        assertEquals("Remaining colliding key", "BB Value",
+                     scope.get("BB"));
+        assertEquals("Snapshot size", 202, snapshot.size());
+        assertEquals("Snapshot bean", new Integer(1), snapshot.get("key1"));
+        assertEquals("Fork size", 202, fork.size());
+        assertEquals("Fork bean", "Aa Value", fork.get("Aa"));
+        fork.put("key2", "two");
+        assertEquals("Fork change not shared", new Integer(2),
+                     scope.get("key2"));
+
+        // Roll back to the snapshot, firing events for the differences
+        EventCounter counter = new EventCounter();
+        scope.addScopeListener(counter);
+        scope.rollback(snapshot);
+        assertEquals("Size after rollback", 202, scope.size());
+        for (int i = 0; i < 200; i++)
+            assertEquals("Restored bean " + i, new Integer(i),
+                         scope.get("key" + i));
+        assertEquals("Restored colliding key", "Aa Value", scope.get("Aa"));
+        assertEquals("Rollback added events", 101, counter.getAdded());
+        assertEquals("Rollback replaced events", 1, counter.getReplaced());
+        assertEquals("Rollback removed events", 0, counter.getRemoved());
+        assertEquals("Local scope of context", new Integer(7),
+                     context.get("key7", Context.LOCAL_SCOPE));
+
+    }
+
+
     /**
      * Test the basic stack mechanisms.
      */
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.base;
+
+import org.apache.commons.workflow.ScopeEvent;
+import org.apache.commons.workflow.ScopeListener;
+
+/**
+ * ScopeListener that counts the events it receives, for testing the
+ * events fired by Scope implementations.
+ */
+
+
+public class EventCounter implements ScopeListener {
+
+    private int added = 0;
+    public int getAdded() { return (this.added); }
+
+    private int cleared = 0;
+    public int getCleared() { return (this.cleared); }
+
+    private int removed = 0;
+    public int getRemoved() { return (this.removed); }
+
+    private int replaced = 0;
+    public int getReplaced() { return (this.replaced); }
+
+    public void beanAdded(ScopeEvent event) {
+        added++;
+    }
+
+    public void beanRemoved(ScopeEvent event) {
+        removed++;
+    }
+
+    public void beanReplaced(ScopeEvent event) {
+        replaced++;
+    }
+
+    public void scopeCleared(ScopeEvent event) {
+        cleared++;
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+package org.apache.commons.workflow.base;
+
+/**
+ * Runnable that increments a counter in a ConcurrentScope repeatedly,
+ * for testing concurrent updates.
+ */
+
+
+public class Incrementer implements Runnable {
+
+    public Incrementer(ConcurrentScope scope, String key, int count) {
+        super();
+        this.scope = scope;
+        this.key = key;
+        this.count = count;
+    }
+
+    private int count = 0;
+
+    private String key = null;
+
+    private ConcurrentScope scope = null;
+
+    public void run() {
+        for (int i = 0; i < count; i++) {
+            scope.increment(key, 1L);
+            scope.putIfAbsent(key + i, new Integer(i));
+        }
+    }
+
+}
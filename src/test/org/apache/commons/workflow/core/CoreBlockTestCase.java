@@ -18,24 +18,41 @@
 package org.apache.commons.workflow.core;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.EmptyStackException;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 import org.apache.commons.workflow.Activity;
 import org.apache.commons.workflow.Block;
+import org.apache.commons.workflow.BlockState;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.ContextEvent;
 import org.apache.commons.workflow.ContextListener;
 import org.apache.commons.workflow.Descriptor;
+import org.apache.commons.workflow.Registry;
 import org.apache.commons.workflow.Scope;
+import org.apache.commons.workflow.ScopeEvent;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.BaseActivity;
 import org.apache.commons.workflow.base.BaseContext;
 import org.apache.commons.workflow.base.BaseDescriptor;
+import org.apache.commons.workflow.base.BaseRegistry;
 import org.apache.commons.workflow.base.BaseScope;
+import org.apache.commons.workflow.base.DeadlineState;
 import org.apache.commons.workflow.base.Employee;
+import org.apache.commons.workflow.base.ExpressionDescriptor;
+import org.apache.commons.workflow.base.PureActivity;
+import org.apache.commons.workflow.base.SnapshotScope;
+import org.apache.commons.workflow.util.ActivityParser;
+import org.apache.commons.workflow.util.ActivitySerializer;
+import org.apache.commons.workflow.util.ContextLock;
+import org.apache.commons.workflow.util.ContextScheduler;
 
 
 /**
@@ -127,6 +144,51 @@ public class CoreBlockTestCase extends TestCase
     // ------------------------------------------------ Individual Test Methods
 
 
+    /**
+     * Test an "IfStep" whose condition is a compiled expression, before and
+     * after saving and reloading its Activity in binary form.
+     */
+    public void testExpression() {
+
+        // Configure the steps of this activity
+        IfStep ifStep = new IfStep("01");
+        ifStep.addDescriptor
+            (new ExpressionDescriptor("count gt 1 and not (name == 'skip')"));
+        ifStep.addStep(new StringStep("02", "If Executed"));
+        activity.addStep(ifStep);
+        activity.addStep(new StringStep("03", "If Completed"));
+
+        try {
+
+            // Execute with a variety of local values
+            commonExpressionTest(new Integer(2), "run", true);
+            commonExpressionTest(new Integer(2), "skip", false);
+            commonExpressionTest(new Long(1), "run", false);
+
+            // Save and reload the activity
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ActivitySerializer.write(activity, baos);
+            activity = new ActivityParser().parse
+                (new ByteArrayInputStream(baos.toByteArray()));
+            context.setActivity(activity);
+            Descriptor descriptors[] =
+                ((IfStep) activity.getSteps()[0]).findDescriptors();
+            assertEquals("Reloaded descriptor count", 1, descriptors.length);
+            assertTrue("Reloaded descriptor type",
+                       descriptors[0] instanceof ExpressionDescriptor);
+
+            // Execute the reloaded activity
+            commonExpressionTest(new Double(1.5), "run", true);
+            commonExpressionTest(null, "run", false);
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
     /**
      * Test "IfStep".
      */
@@ -223,9 +285,1064 @@ public class CoreBlockTestCase extends TestCase
     }
 
 
+    /**
+     * Test "RetryStep", both immediately and after being resumed by the
+     * ContextScheduler.
+     */
+    public void testRetry() {
+
+        // Configure the steps of this activity
+        RetryStep retry = new RetryStep("01", 3, 0L);
+        retry.setType("org.apache.commons.workflow.WorkflowException");
+        retry.addStep(new IncrementStep
+                      ("02", new BaseDescriptor("attempts", "local")));
+        retry.addStep(new PopStep("03"));
+        IfStep ifStep = new IfStep("04");
+        ifStep.addDescriptor(new ExpressionDescriptor("attempts le failures"));
+        ifStep.addStep(new GotoStep("05", "missing"));
+        retry.addStep(ifStep);
+        retry.addStep(new StringStep("06", "Body"));
+        activity.addStep(retry);
+        activity.addStep(new StringStep("07", "After"));
+
+        try {
+
+            // Succeed at once, and after failing twice
+            commonRetryTest(0);
+            assertEquals("First attempts", new Integer(1),
+                         context.get("attempts"));
+            commonRetryTest(2);
+            assertEquals("Third attempts", new Integer(3),
+                         context.get("attempts"));
+
+            // Fail every attempt
+            try {
+                commonRetryTest(3);
+                fail("Exhausted exception was not thrown");
+            } catch (StepException e) {
+                assertEquals("Exhausted step", "05", e.getStep().getId());
+            }
+            assertEquals("Exhausted attempts", new Integer(3),
+                         context.get("attempts"));
+            assertTrue("Exhausted BlockState Stack is empty",
+                       context.isEmptyBlockState());
+
+            // Exceptions of other types are not retried
+            retry.setType("java.io.IOException");
+            try {
+                commonRetryTest(1);
+                fail("Unmatched exception was not thrown");
+            } catch (StepException e) {
+                assertEquals("Unmatched step", "05", e.getStep().getId());
+            }
+            assertEquals("Unmatched attempts", new Integer(1),
+                         context.get("attempts"));
+
+            // Back off by suspending, and be resumed by the scheduler
+            retry.setType(null);
+            retry.setDelay(20L);
+            ContextLock lock = ((BaseContext) context).getLock();
+            lock.acquire(0L, 0);
+            try {
+                commonRetryTest(1);
+                assertTrue("Suspended for backoff", context.getSuspend());
+            } finally {
+                lock.release();
+            }
+            awaitCompletion();
+            assertEquals("Resumed attempts", new Integer(2),
+                         context.get("attempts"));
+            assertEquals("Resumed after", "After", context.pop());
+            assertEquals("Resumed body", "Body", context.pop());
+            assertTrue("Resumed stack is empty", context.isEmpty());
+            assertTrue("Resumed BlockState Stack is empty",
+                       context.isEmptyBlockState());
+
+            // Resume before the backoff ends, which cancels the scheduler
+            retry.setDelay(50L);
+            ContextScheduler scheduler = null;
+            lock.acquire(0L, 0);
+            try {
+                commonRetryTest(1);
+                assertTrue("Suspended again", context.getSuspend());
+                scheduler = ((BaseContext) context).getScheduler();
+                assertNotNull("Owned by the scheduler", scheduler);
+                context.execute();
+                assertNull("No longer owned by the scheduler",
+                           ((BaseContext) context).getScheduler());
+                assertTrue("Resumption was cancelled",
+                           !scheduler.cancel(context));
+            } finally {
+                lock.release();
+            }
+
+            // A completed Context is not resumed by a stale schedule
+            scheduler.schedule(context, 10L);
+            Thread.sleep(100L);
+            lock.acquire(0L, 0);
+            try {
+                assertEquals("Resumed once attempts", new Integer(2),
+                             context.get("attempts"));
+                assertEquals("Resumed once after", "After", context.pop());
+                assertEquals("Resumed once body", "Body", context.pop());
+                assertTrue("Resumed once stack is empty", context.isEmpty());
+                assertNull("Completed", context.getNextStep());
+            } finally {
+                lock.release();
+            }
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test an "IfStep" block after saving and reloading its Activity in
+     * binary form.
+     */
+    public void testSerialized() {
+
+        // Configure the steps of the activity to be saved
+        IfStep ifStep = new IfStep("01");
+        ifStep.addDescriptor(new BaseDescriptor());
+        ifStep.addDescriptor(new BaseDescriptor());
+        ifStep.addStep(new StringStep("02", "If Executed"));
+        activity.addStep(ifStep);
+        activity.addStep(new StringStep("03", "If Completed"));
+
+        // Save and reload it
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ActivitySerializer.write(activity, baos);
+            activity = new ActivityParser().parse
+                (new ByteArrayInputStream(baos.toByteArray()));
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Serialization threw " + t);
+        }
+        Step steps[] = activity.getSteps();
+        assertEquals("Reloaded step count", 2, steps.length);
+        assertTrue("Reloaded block", steps[0] instanceof IfStep);
+        assertEquals("Reloaded block owner", activity, steps[0].getOwner());
+        Step nested[] = ((Block) steps[0]).getSteps();
+        assertEquals("Reloaded nested step count", 1, nested.length);
+        assertEquals("Reloaded nested step id", "02", nested[0].getId());
+        assertEquals("Reloaded nested step loops back",
+                     steps[0], nested[0].getNextStep());
+        assertEquals("Reloaded descriptor count", 2,
+                     ((IfStep) steps[0]).findDescriptors().length);
+
+        // Execute the reloaded activity
+        context.setActivity(activity);
+        commonIfTest(true, true, true);
+        commonIfTest(true, false, false);
+
+    }
+
+
+    /**
+     * Test suspending an "IfStep" block, externalizing its Context, and
+     * resuming execution in the restored Context.
+     */
+    public void testExternalized() {
+
+        // Configure and register the activity to be suspended
+        IfStep ifStep = new IfStep("01");
+        ifStep.addDescriptor(new BaseDescriptor());
+        ifStep.addStep(new StringStep("02", "If Executed"));
+        ifStep.addStep(new SuspendStep("03"));
+        ifStep.addStep(new StringStep("04", "If Resumed"));
+        activity.setId("externalized");
+        activity.addStep(ifStep);
+        activity.addStep(new StringStep("05", "If Completed"));
+        Registry registry = BaseRegistry.getRegistry();
+        registry.addActivity(activity);
+
+        try {
+
+            // Suspend the activity within the nested block
+            context.addScope(Context.LOCAL_SCOPE + 1, "extra",
+                             new BaseScope());
+            context.put("key", "value");
+            context.push(Boolean.TRUE);
+            context.execute();
+            assertTrue("Context is suspended", context.getSuspend());
+
+            // Save and restore the context
+            Context restored = roundTrip(context);
+
+            // Validate the restored state
+            assertEquals("Registered activity", activity,
+                         restored.getActivity());
+            assertEquals("Next step", context.getNextStep(),
+                         restored.getNextStep());
+            assertEquals("Block state", ifStep,
+                         restored.peekBlockState().getBlock());
+            assertEquals("Local variable", "value", restored.get("key"));
+            assertNull("Registered scopes are not saved",
+                       restored.getScope("extra"));
+            assertNull("Registered scope variables are not saved",
+                       restored.get("extra"));
+            assertTrue("Suspend flag", restored.getSuspend());
+
+            // Resume execution in the restored context
+            restored.execute();
+            assertTrue("Restored context is not suspended",
+                       !restored.getSuspend());
+            assertTrue("BlockState Stack is empty",
+                       restored.isEmptyBlockState());
+            assertEquals("Completed message", "If Completed",
+                         restored.pop());
+            assertEquals("Resumed message", "If Resumed", restored.pop());
+            assertEquals("Executed message", "If Executed", restored.pop());
+            assertTrue("Evaluation Stack is empty", restored.isEmpty());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        } finally {
+            registry.removeActivity(activity);
+        }
+
+    }
+
+
+    /**
+     * Test that the results of a registered PureActivity, called by a
+     * "CallCachedStep" that is suspended during the call, are cached by the
+     * registered instance once the restored Context resumes.
+     */
+    public void testExternalizedCallCached() {
+
+        // Configure and register the activities
+        PureActivity square = new PureActivity();
+        square.setId("externalizedSquare");
+        square.addDescriptor(new BaseDescriptor("n"));
+        square.setOutputs("result");
+        square.addStep(new GetStep("11", new ExpressionDescriptor("n * n")));
+        square.addStep(new SuspendStep("12"));
+        square.addStep(new PutStep("13", new BaseDescriptor("result")));
+        activity.setId("externalizedCallCached");
+        activity.addStep(new CallCachedStep("01"));
+        activity.addStep(new GetStep("02", new BaseDescriptor("result")));
+        Registry registry = BaseRegistry.getRegistry();
+        registry.addActivity(square);
+        registry.addActivity(activity);
+
+        try {
+
+            // Suspend the called activity
+            context.put("n", new Integer(3));
+            context.push(square);
+            context.execute();
+            assertTrue("Context is suspended", context.getSuspend());
+
+            // Resume it in a restored context
+            Context restored = roundTrip(context);
+            restored.execute();
+            assertTrue("Restored context is not suspended",
+                       !restored.getSuspend());
+            assertEquals("Result", 9,
+                         ((Number) restored.pop()).intValue());
+            assertTrue("Evaluation Stack is empty", restored.isEmpty());
+            assertEquals("Cached by the registered activity", 1,
+                         square.getCache().size());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        } finally {
+            registry.removeActivity(activity);
+            registry.removeActivity(square);
+        }
+
+    }
+
+
+    /**
+     * Test restoring an externalized Context after the version of the
+     * Activity it was executing has been replaced and is no longer
+     * registered.  It resumes in another registered copy of the same
+     * definition, but not in a different definition.
+     */
+    public void testExternalizedReplaced() {
+
+        // Configure and register the activity to be suspended
+        activity.setId("replaced");
+        activity.addStep(new StringStep("01", "Old Executed"));
+        activity.addStep(new SuspendStep("02"));
+        activity.addStep(new StringStep("03", "Old Resumed"));
+        Activity copy = new BaseActivity();
+        copy.setId("replaced");
+        copy.addStep(new StringStep("01", "Old Executed"));
+        copy.addStep(new SuspendStep("02"));
+        copy.addStep(new StringStep("03", "Old Resumed"));
+        Activity replacement = new BaseActivity();
+        replacement.setId("replaced");
+        replacement.addStep(new StringStep("01", "New Executed"));
+        replacement.addStep(new SuspendStep("02"));
+        replacement.addStep(new StringStep("03", "New Resumed"));
+        Registry registry = BaseRegistry.getRegistry();
+        registry.addActivity(activity);
+
+        try {
+
+            // Suspend the old version, then replace it by a copy (as
+            // loaded by another JVM) and by a different definition
+            context.execute();
+            assertTrue("Context is suspended", context.getSuspend());
+            byte saved[] = save(context);
+            registry.addActivity(copy);
+            registry.addActivity(replacement);
+            registry.removeActivity(activity);
+
+            // Resume in the copy of the same definition
+            Context restored = restore(saved);
+            assertEquals("Copy of the definition", copy,
+                         restored.getActivity());
+            restored.execute();
+            assertEquals("Resumed message", "Old Resumed", restored.pop());
+            assertEquals("Executed message", "Old Executed",
+                         restored.pop());
+            assertTrue("Evaluation Stack is empty", restored.isEmpty());
+
+            // Refuse to resume in a different definition
+            registry.removeActivity(copy);
+            try {
+                restore(saved);
+                fail("Restored into a different definition");
+            } catch (InvalidObjectException e) {
+                ;   // Expected result
+            }
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        } finally {
+            registry.removeActivity(activity);
+            registry.removeActivity(copy);
+            registry.removeActivity(replacement);
+        }
+
+    }
+
+
+    /**
+     * Test that the attempt number of a "RetryStep" survives the
+     * externalization of its Context.
+     */
+    public void testExternalizedRetry() {
+
+        // Configure and register the activity to be suspended
+        RetryStep retry = new RetryStep("01", 2, 0L);
+        retry.addStep(new IncrementStep
+                      ("02", new BaseDescriptor("attempts", "local")));
+        retry.addStep(new PopStep("03"));
+        retry.addStep(new SuspendStep("04"));
+        retry.addStep(new GotoStep("05", "missing"));
+        activity.setId("externalizedRetry");
+        activity.addStep(retry);
+        activity.addStep(new StringStep("06", "After"));
+        Registry registry = BaseRegistry.getRegistry();
+        registry.addActivity(activity);
+
+        try {
+
+            // Suspend the first and then the second attempt
+            context.execute();
+            Context restored = roundTrip(context);
+            assertEquals("First attempt", 1,
+                         ((RetryState) restored.peekBlockState()).getAttempt());
+            restored.execute();
+            assertTrue("Second attempt is suspended", restored.getSuspend());
+            restored = roundTrip(restored);
+            assertEquals("Second attempt", 2,
+                         ((RetryState) restored.peekBlockState()).getAttempt());
+
+            // The last attempt fails without being retried
+            try {
+                restored.execute();
+                fail("Exhausted exception was not thrown");
+            } catch (StepException e) {
+                assertEquals("Exhausted step", "05", e.getStep().getId());
+            }
+            assertEquals("Attempts", Integer.valueOf(2),
+                         restored.get("attempts"));
+            assertTrue("BlockState Stack is empty",
+                       restored.isEmptyBlockState());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        } finally {
+            registry.removeActivity(activity);
+        }
+
+    }
+
+
+    /**
+     * Test that the deadline of a "TimeoutStep" survives the
+     * externalization of its Context.
+     */
+    public void testExternalizedTimeout() {
+
+        // Configure and register the activity to be suspended
+        TimeoutStep timeout = new TimeoutStep("01", 50L, "05");
+        timeout.addStep(new SuspendStep("02"));
+        timeout.addStep(new StringStep("03", "Body"));
+        activity.setId("externalizedTimeout");
+        activity.addStep(timeout);
+        activity.addStep(new ExitStep("04"));
+        activity.addStep(new StringStep("05", "Late"));
+        Registry registry = BaseRegistry.getRegistry();
+        registry.addActivity(activity);
+
+        try {
+
+            // Suspend within the block, and restore after the deadline
+            context.execute();
+            long deadline = ((BaseContext) context).getDeadline();
+            assertTrue("Deadline is set", deadline > 0L);
+            Thread.sleep(100L);
+            Context restored = roundTrip(context);
+            assertTrue("Deadline state",
+                       restored.peekBlockState() instanceof DeadlineState);
+            assertEquals("Restored deadline", deadline,
+                         ((BaseContext) restored).getDeadline());
+
+            // The nested Steps are abandoned when execution resumes
+            restored.execute();
+            assertEquals("Late message", "Late", restored.pop());
+            StepException e = (StepException) restored.pop();
+            assertTrue("Exception identifies block",
+                       e.getStep() == timeout);
+            assertTrue("Evaluation Stack is empty", restored.isEmpty());
+            assertTrue("BlockState Stack is empty",
+                       restored.isEmptyBlockState());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        } finally {
+            registry.removeActivity(activity);
+        }
+
+    }
+
+
+    /**
+     * Test that a "TransactionStep" can still roll back after the
+     * externalization of its Context, with both a write log and a
+     * snapshot.
+     */
+    public void testExternalizedTransaction() {
+
+        // Configure and register the activity to be suspended
+        TransactionStep transaction = new TransactionStep("01", "09");
+        transaction.addStep(new StringStep("02", "Changed"));
+        transaction.addStep(new PutStep("03", new BaseDescriptor("name")));
+        transaction.addStep(new StringStep("04", "Added"));
+        transaction.addStep(new PutStep("05", new BaseDescriptor("added")));
+        transaction.addStep(new SuspendStep("06"));
+        transaction.addStep(new GotoStep("07", "missing"));
+        activity.setId("externalizedTransaction");
+        activity.addStep(transaction);
+        activity.addStep(new ExitStep("08"));
+        activity.addStep(new StringStep("09", "Handled"));
+        Registry registry = BaseRegistry.getRegistry();
+        registry.addActivity(activity);
+
+        try {
+
+            // Write log, restored into a Context without a snapshot scope
+            checkRollback(roundTrip(suspendTransaction()));
+
+            // Snapshot, restored into Contexts with and without one
+            context.removeContextListener(this);
+            context = new BaseContext(new SnapshotScope());
+            context.setActivity(activity);
+            context.addContextListener(this);
+            checkRollback(roundTrip(suspendTransaction()));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(baos);
+            ((BaseContext) suspendTransaction()).writeExternal(oos);
+            oos.close();
+            BaseContext restored = new BaseContext(new SnapshotScope());
+            ObjectInputStream ois = new ObjectInputStream
+                (new ByteArrayInputStream(baos.toByteArray()));
+            restored.readExternal(ois);
+            ois.close();
+            checkRollback(restored);
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        } finally {
+            registry.removeActivity(activity);
+        }
+
+    }
+
+
+    /**
+     * Test that the chosen "CatchStep" and the pending exception of a
+     * "TryStep" survive the externalization of its Context.
+     */
+    public void testExternalizedTry() {
+
+        // Configure and register the activity to be suspended
+        TryStep tryStep = new TryStep("01");
+        tryStep.addStep(new GotoStep("02", "missing"));
+        CatchStep catchStep = new CatchStep("03");
+        catchStep.addStep(new PopStep("04"));
+        catchStep.addStep(new SuspendStep("05"));
+        catchStep.addStep(new GotoStep("06", "missing"));
+        tryStep.addStep(catchStep);
+        FinallyStep finallyStep = new FinallyStep("07");
+        finallyStep.addStep(new SuspendStep("08"));
+        finallyStep.addStep(new StringStep("09", "Finally"));
+        tryStep.addStep(finallyStep);
+        activity.setId("externalizedTry");
+        activity.addStep(tryStep);
+        activity.addStep(new StringStep("10", "After"));
+        Registry registry = BaseRegistry.getRegistry();
+        registry.addActivity(activity);
+
+        try {
+
+            // Suspend within the CatchStep
+            context.execute();
+            Context restored = roundTrip(context);
+            BlockState nested = restored.popBlockState();
+            TryState state = (TryState) restored.peekBlockState();
+            restored.pushBlockState(nested);
+            assertEquals("Restored handler", catchStep, state.getHandler());
+
+            // Suspend within the FinallyStep, with an exception pending
+            restored.execute();
+            assertTrue("Suspended in finally", restored.getSuspend());
+            restored = roundTrip(restored);
+            nested = restored.popBlockState();
+            state = (TryState) restored.peekBlockState();
+            restored.pushBlockState(nested);
+            assertTrue("Restored finishing", state.getFinishing());
+            assertNotNull("Restored pending", state.getPending());
+
+            // The pending exception is thrown after the FinallyStep
+            try {
+                restored.execute();
+                fail("Pending exception was not thrown");
+            } catch (StepException e) {
+                assertEquals("Pending step", "06", e.getStep().getId());
+            }
+            assertEquals("Finally message", "Finally", restored.pop());
+            assertTrue("Evaluation Stack is empty", restored.isEmpty());
+            assertTrue("BlockState Stack is empty",
+                       restored.isEmptyBlockState());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        } finally {
+            registry.removeActivity(activity);
+        }
+
+    }
+
+
+    /**
+     * Test "TimeoutStep", both when its deadline passes while its Context
+     * waits in a "DelayStep" and when it passes before the nested Steps
+     * are executed.
+     */
+    public void testTimeout() {
+
+        // Configure the steps of this activity
+        TimeoutStep timeout = new TimeoutStep("01", 30L, "05");
+        timeout.addStep(new StringStep("02", "Body"));
+        DelayStep delay = new DelayStep("03", 60000L);
+        timeout.addStep(delay);
+        activity.addStep(timeout);
+        activity.addStep(new ExitStep("04"));
+        activity.addStep(new StringStep("05", "Late"));
+
+        try {
+
+            // Resumed at the deadline rather than the end of the delay
+            ContextLock lock = ((BaseContext) context).getLock();
+            lock.acquire(0L, 0);
+            try {
+                context.execute();
+                assertTrue("Suspended by delay", context.getSuspend());
+            } finally {
+                lock.release();
+            }
+            awaitCompletion();
+            assertEquals("Late message", "Late", context.pop());
+            StepException e = (StepException) context.pop();
+            assertTrue("Exception identifies block", e.getStep() == timeout);
+            assertEquals("Body message", "Body", context.pop());
+            assertTrue("Expired stack is empty", context.isEmpty());
+            assertTrue("Expired BlockState Stack is empty",
+                       context.isEmptyBlockState());
+
+            // Finished within the deadline
+            timeout.setDuration(60000L);
+            delay.setDuration(0L);
+            context.execute();
+            assertEquals("Finished body", "Body", context.pop());
+            assertTrue("Finished stack is empty", context.isEmpty());
+            assertTrue("Finished BlockState Stack is empty",
+                       context.isEmptyBlockState());
+
+            // Passed on when there is no Step to transfer control to
+            timeout.setDuration(0L);
+            timeout.setStep(null);
+            try {
+                context.execute();
+                fail("Expired exception was not thrown");
+            } catch (StepException f) {
+                assertTrue("Passed on exception", f.getStep() == timeout);
+            }
+            assertTrue("Passed on stack is empty", context.isEmpty());
+            assertTrue("Passed on BlockState Stack is empty",
+                       context.isEmptyBlockState());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test that a "TryStep" and a "RetryStep" abandoned by an expired
+     * "TimeoutStep" do not see its exception.
+     */
+    public void testTimeoutHandlers() {
+
+        // Configure the steps of this activity
+        TimeoutStep timeout = new TimeoutStep("01", 30L, "10");
+        TryStep tryStep = new TryStep("02");
+        RetryStep retry = new RetryStep("03", 3, 0L);
+        retry.addStep(new IncrementStep
+                      ("04", new BaseDescriptor("attempts", "local")));
+        retry.addStep(new PopStep("05"));
+        retry.addStep(new DelayStep("06", 60000L));
+        tryStep.addStep(retry);
+        CatchStep catchStep = new CatchStep("07");
+        catchStep.addStep(new StringStep("08", "Caught"));
+        tryStep.addStep(catchStep);
+        timeout.addStep(tryStep);
+        activity.addStep(timeout);
+        activity.addStep(new ExitStep("09"));
+        activity.addStep(new StringStep("10", "Late"));
+
+        try {
+
+            // Resumed at the deadline, abandoning both handlers
+            ContextLock lock = ((BaseContext) context).getLock();
+            lock.acquire(0L, 0);
+            try {
+                context.execute();
+                assertTrue("Suspended by delay", context.getSuspend());
+            } finally {
+                lock.release();
+            }
+            awaitCompletion();
+            assertEquals("Late message", "Late", context.pop());
+            StepException e = (StepException) context.pop();
+            assertTrue("Exception identifies block", e.getStep() == timeout);
+            assertTrue("Not caught", context.isEmpty());
+            assertEquals("Not retried", new Integer(1),
+                         context.get("attempts"));
+            assertTrue("BlockState Stack is empty",
+                       context.isEmptyBlockState());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test that a "TransactionStep" abandoned by an expired "TimeoutStep"
+     * rolls back.
+     */
+    public void testTimeoutTransaction() {
+
+        // Configure the steps of this activity
+        TimeoutStep timeout = new TimeoutStep("01", 30L, "08");
+        TransactionStep transaction = new TransactionStep("02");
+        transaction.addStep(new StringStep("03", "Changed"));
+        transaction.addStep(new PutStep("04", new BaseDescriptor("name")));
+        transaction.addStep(new StringStep("05", "Body"));
+        transaction.addStep(new DelayStep("06", 60000L));
+        timeout.addStep(transaction);
+        activity.addStep(timeout);
+        activity.addStep(new ExitStep("07"));
+        activity.addStep(new StringStep("08", "Late"));
+
+        try {
+
+            // Resumed at the deadline, abandoning the transaction
+            context.put("name", "Original");
+            ContextLock lock = ((BaseContext) context).getLock();
+            lock.acquire(0L, 0);
+            try {
+                context.execute();
+                assertTrue("Suspended by delay", context.getSuspend());
+                assertEquals("Changed name", "Changed", context.get("name"));
+            } finally {
+                lock.release();
+            }
+            awaitCompletion();
+            assertEquals("Late message", "Late", context.pop());
+            StepException e = (StepException) context.pop();
+            assertTrue("Exception identifies block", e.getStep() == timeout);
+            assertTrue("Rolled back stack is empty", context.isEmpty());
+            assertTrue("BlockState Stack is empty",
+                       context.isEmptyBlockState());
+            assertEquals("Rolled back name", "Original", context.get("name"));
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test "TransactionStep", rolling back with both a write log and a
+     * snapshot, and committing.
+     */
+    public void testTransaction() {
+
+        // Configure a subordinate activity that fails
+        BaseActivity failing = new BaseActivity();
+        failing.addStep(new StringStep("s1", "Called"));
+        failing.addStep(new GotoStep("s2", "missing"));
+
+        // Configure the steps of this activity
+        activity.addStep(new StringStep("01", "Before"));
+        TransactionStep transaction = new TransactionStep("02", "11");
+        transaction.addStep(new StringStep("03", "Changed"));
+        transaction.addStep(new PutStep("04", new BaseDescriptor("name")));
+        transaction.addStep(new StringStep("05", "Added"));
+        transaction.addStep(new PutStep("06", new BaseDescriptor("added")));
+        transaction.addStep(new PopStep("07"));
+        transaction.addStep(new GetStep("08", new BaseDescriptor("called")));
+        transaction.addStep(new CallStep("09"));
+        activity.addStep(transaction);
+        activity.addStep(new ExitStep("10"));
+        activity.addStep(new StringStep("11", "Handled"));
+
+        try {
+
+            // Roll back with a write log, and then with a snapshot
+            commonTransactionTest(failing);
+            context.removeContextListener(this);
+            context = new BaseContext(new SnapshotScope());
+            context.setActivity(activity);
+            context.addContextListener(this);
+            commonTransactionTest(failing);
+
+            // Commit when nothing fails
+            BaseActivity succeeding = new BaseActivity();
+            succeeding.addStep(new StringStep("s1", "Called"));
+            context.put("called", succeeding);
+            context.execute();
+            assertEquals("Called message", "Called", context.pop());
+            assertTrue("Evaluation Stack is empty", context.isEmpty());
+            assertEquals("Committed name", "Changed", context.get("name"));
+            assertEquals("Committed addition", "Added", context.get("added"));
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test that "TransactionStep" undoes a clear() of the local scope, and
+     * passes on an exception when it cannot roll back.
+     */
+    public void testTransactionCleared() {
+
+        // Configure the steps of this activity
+        activity.addStep(new StringStep("01", "Before"));
+        TransactionStep transaction = new TransactionStep("02", "08");
+        transaction.addStep(new StringStep("03", "Changed"));
+        transaction.addStep(new PutStep("04", new BaseDescriptor("name")));
+        transaction.addStep(new SuspendStep("05"));
+        transaction.addStep(new GotoStep("06", "missing"));
+        activity.addStep(transaction);
+        activity.addStep(new ExitStep("07"));
+        activity.addStep(new StringStep("08", "Handled"));
+
+        try {
+
+            // Clear the local scope while the transaction is suspended
+            context.put("name", "Original");
+            context.put("kept", "Kept");
+            context.execute();
+            assertTrue("Context is suspended", context.getSuspend());
+            context.getScope(Context.LOCAL_SCOPE).clear();
+            assertNull("Cleared name", context.get("name"));
+            context.execute();
+            assertEquals("Handled message", "Handled", context.pop());
+            assertTrue("Exception was pushed",
+                       context.pop() instanceof StepException);
+            assertEquals("Restored message", "Before", context.pop());
+            assertTrue("Evaluation Stack is empty", context.isEmpty());
+            assertEquals("Restored name", "Original", context.get("name"));
+            assertEquals("Restored variable", "Kept", context.get("kept"));
+
+            // A clear that does not report the removed beans
+            TransactionLog log = new TransactionLog();
+            log.scopeCleared(new ScopeEvent
+                             (context.getScope(Context.LOCAL_SCOPE),
+                              null, null));
+            assertTrue("Log is incomplete", !log.isComplete());
+
+            // A BlockState that cannot roll back declines the exception
+            BlockState state = new BlockState(transaction, false);
+            context.pushBlockState(state);
+            assertTrue("Exception is passed on",
+                       !transaction.handle(context, state,
+                                           new StepException("Failed")));
+            assertTrue("BlockState Stack is empty",
+                       context.isEmptyBlockState());
+            assertTrue("Evaluation Stack is empty", context.isEmpty());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test that a "TransactionStep" left early by "BreakStep", "ExitStep"
+     * or the return of a called Activity keeps its changes, and removes
+     * its listener from the local scope.
+     */
+    public void testTransactionLeft() {
+
+        // Configure a subordinate activity that returns from a transaction
+        BaseActivity returning = new BaseActivity();
+        TransactionStep inner = new TransactionStep("s1");
+        inner.addStep(new StringStep("s2", "Returned"));
+        inner.addStep(new PutStep("s3", new BaseDescriptor("returned")));
+        inner.addStep(new ExitStep("s4"));
+        returning.addStep(inner);
+        returning.addStep(new StringStep("s5", "Not reached"));
+
+        // Configure the steps of this activity
+        WhileStep whileStep = new WhileStep("01", new BaseDescriptor("flag"));
+        TransactionStep loop = new TransactionStep("02");
+        loop.addStep(new StringStep("03", "Changed"));
+        loop.addStep(new PutStep("04", new BaseDescriptor("name")));
+        loop.addStep(new BreakStep("05"));
+        whileStep.addStep(loop);
+        activity.addStep(whileStep);
+        TransactionStep called = new TransactionStep("06");
+        called.addStep(new GetStep("07", new BaseDescriptor("called")));
+        called.addStep(new CallStep("08"));
+        called.addStep(new StringStep("09", "Exited"));
+        called.addStep(new PutStep("10", new BaseDescriptor("exited")));
+        called.addStep(new ExitStep("11"));
+        activity.addStep(called);
+        activity.addStep(new StringStep("12", "Not reached"));
+
+        try {
+
+            ListenerScope scope = new ListenerScope();
+            context.removeContextListener(this);
+            context = new BaseContext(scope);
+            context.setActivity(activity);
+            context.addContextListener(this);
+            context.put("flag", Boolean.TRUE);
+            context.put("called", returning);
+            context.execute();
+            assertTrue("Evaluation Stack is empty", context.isEmpty());
+            assertTrue("BlockState Stack is empty",
+                       context.isEmptyBlockState());
+            assertEquals("Kept name", "Changed", context.get("name"));
+            assertEquals("Kept return", "Returned", context.get("returned"));
+            assertEquals("Kept exit", "Exited", context.get("exited"));
+            assertTrue("Listeners are removed", !scope.hasListeners());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test "TryStep" with nested "CatchStep" and "FinallyStep" blocks.
+     */
+    public void testTry() {
+
+        // Configure the steps of this activity
+        TryStep tryStep = new TryStep("01");
+        IfStep ifStep = new IfStep("02", new BaseDescriptor("fail", "local"));
+        ifStep.addStep(new GotoStep("03", "missing"));
+        tryStep.addStep(ifStep);
+        tryStep.addStep(new StringStep("04", "Body"));
+        CatchStep first = new CatchStep
+            ("05", "org.apache.commons.workflow.WorkflowException");
+        first.addStep(new PutStep("06", new BaseDescriptor("error")));
+        tryStep.addStep(first);
+        CatchStep second = new CatchStep("07");
+        second.addStep(new StringStep("08", "Second"));
+        tryStep.addStep(second);
+        FinallyStep finallyStep = new FinallyStep("09");
+        finallyStep.addStep(new StringStep("10", "Finally"));
+        tryStep.addStep(finallyStep);
+        activity.addStep(tryStep);
+        activity.addStep(new StringStep("11", "After"));
+
+        try {
+
+            // Complete normally
+            commonTryTest(false);
+            assertEquals("Normal after", "After", context.pop());
+            assertEquals("Normal finally", "Finally", context.pop());
+            assertEquals("Normal body", "Body", context.pop());
+            assertTrue("Normal stack is empty", context.isEmpty());
+            assertNull("Normal error", context.get("error"));
+
+            // Caught by the first CatchStep (by superclass)
+            commonTryTest(true);
+            assertEquals("First after", "After", context.pop());
+            assertEquals("First finally", "Finally", context.pop());
+            assertTrue("First stack is empty", context.isEmpty());
+            assertTrue("First error",
+                       context.get("error") instanceof StepException);
+
+            // Caught by the second CatchStep, which has no type
+            first.setType("java.io.IOException");
+            commonTryTest(true);
+            assertEquals("Second after", "After", context.pop());
+            assertEquals("Second finally", "Finally", context.pop());
+            assertEquals("Second catch", "Second", context.pop());
+            assertTrue("Second exception",
+                       context.pop() instanceof StepException);
+            assertTrue("Second stack is empty", context.isEmpty());
+
+            // Not caught, so thrown again after the FinallyStep
+            second.setType("java.lang.IllegalStateException");
+            try {
+                commonTryTest(true);
+                fail("Uncaught exception was not thrown");
+            } catch (StepException e) {
+                assertEquals("Uncaught step", "03", e.getStep().getId());
+            }
+            assertEquals("Uncaught finally", "Finally", context.pop());
+            assertTrue("Uncaught stack is empty", context.isEmpty());
+            assertTrue("Uncaught BlockState Stack is empty",
+                       context.isEmptyBlockState());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
     // -------------------------------------------------------- Private Methods
 
 
+    /**
+     * Wait (for at most ten seconds) until the ContextScheduler has
+     * resumed our Context and it has completed its Activity.
+     */
+    private void awaitCompletion() throws InterruptedException {
+
+        ContextLock lock = ((BaseContext) context).getLock();
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (true) {
+            lock.acquire(0L, 0);
+            try {
+                if (context.getNextStep() == null)
+                    return;
+            } finally {
+                lock.release();
+            }
+            assertTrue("Resumed in time",
+                       System.currentTimeMillis() < deadline);
+            Thread.sleep(10L);
+        }
+
+    }
+
+
+    /**
+     * Check that the specified Context, suspended within the "transaction"
+     * block of <code>testExternalizedTransaction()</code>, rolls back when
+     * it is resumed.
+     *
+     * @param restored The restored Context
+     */
+    private void checkRollback(Context restored)
+        throws StepException {
+
+        restored.execute();
+        assertEquals("Handled message", "Handled", restored.pop());
+        assertTrue("Exception was pushed",
+                   restored.pop() instanceof StepException);
+        assertEquals("Restored message", "Before", restored.pop());
+        assertTrue("Evaluation Stack is empty", restored.isEmpty());
+        assertTrue("BlockState Stack is empty",
+                   restored.isEmptyBlockState());
+        assertEquals("Restored name", "Original", restored.get("name"));
+        assertNull("Removed addition", restored.get("added"));
+
+    }
+
+
+    /**
+     * Common testing of an "if" block whose condition is an expression
+     * on local values named "count" and "name".
+     *
+     * @param count Value of the local variable "count" (if any)
+     * @param name Value of the local variable "name"
+     * @param result Should the nested block be executed?
+     */
+    private void commonExpressionTest(Object count, String name,
+                                      boolean result)
+        throws StepException {
+
+        context.clear();
+        context.clearBlockState();
+        context.remove("count");
+        if (count != null)
+            context.put("count", count);
+        context.put("name", name);
+        context.execute();
+        assertEquals("Completed message", "If Completed", context.pop());
+        if (result)
+            assertEquals("Executed message", "If Executed", context.pop());
+        assertTrue("Evaluation Stack is empty", context.isEmpty());
+
+    }
+
+
     /**
      * Common testing of "if" blocks with two boolean parameters and an
      * indication of the expected result.
@@ -302,6 +1419,139 @@ public class CoreBlockTestCase extends TestCase
     }
 
 
+    /**
+     * Common testing of a "retry" block whose first attempts fail.
+     *
+     * @param failures Number of attempts that should fail
+     */
+    private void commonRetryTest(int failures) throws StepException {
+
+        context.clear();
+        context.clearBlockState();
+        context.remove("attempts");
+        context.put("failures", new Integer(failures));
+        context.setNextStep(activity.getFirstStep());
+        context.execute();
+        if (!context.getSuspend()) {
+            assertEquals("Completed message", "After", context.pop());
+            assertEquals("Body message", "Body", context.pop());
+            assertTrue("Evaluation Stack is empty", context.isEmpty());
+        }
+
+    }
+
+
+    /**
+     * Common testing of a "transaction" block that calls the specified
+     * activity, which fails.
+     *
+     * @param failing The activity to be called
+     */
+    private void commonTransactionTest(Activity failing)
+        throws StepException {
+
+        context.clear();
+        context.clearBlockState();
+        context.remove("added");
+        context.put("name", "Original");
+        context.put("called", failing);
+        context.execute();
+        assertEquals("Handled message", "Handled", context.pop());
+        assertTrue("Exception was pushed",
+                   context.pop() instanceof StepException);
+        assertEquals("Restored message", "Before", context.pop());
+        assertTrue("Evaluation Stack is empty", context.isEmpty());
+        assertTrue("BlockState Stack is empty", context.isEmptyBlockState());
+        assertEquals("No pending calls", 0,
+                     ((BaseContext) context).getCalls().length);
+        assertEquals("Restored name", "Original", context.get("name"));
+        assertNull("Removed addition", context.get("added"));
+
+    }
+
+
+    /**
+     * Common testing of a "try" block, which checks the local variable
+     * named "fail" to decide whether to throw an exception.
+     *
+     * @param fail Should the nested steps throw an exception?
+     */
+    private void commonTryTest(boolean fail) throws StepException {
+
+        context.clear();
+        context.clearBlockState();
+        context.remove("error");
+        context.put("fail", new Boolean(fail));
+        context.execute();
+
+    }
+
+
+    /**
+     * Restore a Context from the bytes written by <code>save()</code>.
+     *
+     * @param saved The serialized Context
+     */
+    private Context restore(byte saved[]) throws Exception {
+
+        ObjectInputStream ois = new ObjectInputStream
+            (new ByteArrayInputStream(saved));
+        Context restored = (Context) ois.readObject();
+        ois.close();
+        return (restored);
+
+    }
+
+
+    /**
+     * Save and restore the specified Context.
+     *
+     * @param context The Context to be copied
+     */
+    private Context roundTrip(Context context) throws Exception {
+
+        return (restore(save(context)));
+
+    }
+
+
+    /**
+     * Serialize the specified Context.
+     *
+     * @param context The Context to be saved
+     */
+    private byte[] save(Context context) throws Exception {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(context);
+        oos.close();
+        return (baos.toByteArray());
+
+    }
+
+
+    /**
+     * Execute our Activity until it suspends within the "transaction"
+     * block of <code>testExternalizedTransaction()</code>, and return our
+     * Context.
+     */
+    private Context suspendTransaction() throws StepException {
+
+        context.clear();
+        context.clearBlockState();
+        context.remove("added");
+        context.put("name", "Original");
+        context.push("Before");
+        context.setNextStep(activity.getFirstStep());
+        context.execute();
+        assertTrue("Context is suspended", context.getSuspend());
+        assertEquals("Changed name", "Changed", context.get("name"));
+        return (context);
+
+    }
+
+
     // ------------------------------------------------ ContextListener Methods
 
 
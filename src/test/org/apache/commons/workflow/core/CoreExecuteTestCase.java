@@ -18,6 +18,10 @@
 package org.apache.commons.workflow.core;
 
 
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.EmptyStackException;
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -34,6 +38,15 @@ import org.apache.commons.workflow.base.BaseContext;
 import org.apache.commons.workflow.base.BaseDescriptor;
 import org.apache.commons.workflow.base.BaseScope;
 import org.apache.commons.workflow.base.Employee;
+import org.apache.commons.workflow.base.ExpressionDescriptor;
+import org.apache.commons.workflow.base.FusedStep;
+import org.apache.commons.workflow.base.LazyActivity;
+import org.apache.commons.workflow.base.PureActivity;
+import org.apache.commons.workflow.base.StackProfile;
+import org.apache.commons.workflow.util.ActivityOptimizer;
+import org.apache.commons.workflow.util.ActivityVerifier;
+import org.apache.commons.workflow.util.ContextLock;
+import org.apache.commons.workflow.util.ContextScheduler;
 
 
 /**
@@ -124,6 +137,191 @@ public class CoreExecuteTestCase extends TestCase
     // ------------------------------------------------ Individual Test Methods
 
 
+    /**
+     * Call a PureActivity, reusing its cached results where possible.
+     */
+    public void testCallCached() {
+
+        // Configure a pure activity that squares its input
+        PureActivity square = new PureActivity();
+        square.addDescriptor(new BaseDescriptor("n"));
+        square.setOutputs("result");
+        square.addStep(new GetStep("11", new ExpressionDescriptor("n * n")));
+        square.addStep(new PutStep("12", new BaseDescriptor("result")));
+        context.put("square", square);
+
+        // Configure the steps in this activity
+        activity.addStep(new GetStep("01", new BaseDescriptor("square")));
+        activity.addStep(new CallCachedStep("02"));
+        activity.addStep(new GetStep("03", new BaseDescriptor("result")));
+
+        try {
+
+            // The first call executes the pure activity
+            commonCallCachedTest(3, 9,
+                             "beforeStep(01)/afterStep(01)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(11)/afterStep(11)/" +
+                             "beforeStep(12)/afterStep(12)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(03)/afterStep(03)/");
+
+            // The same input reuses the cached result
+            commonCallCachedTest(3, 9,
+                             "beforeStep(01)/afterStep(01)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(03)/afterStep(03)/");
+
+            // A different input executes the pure activity again
+            commonCallCachedTest(4, 16,
+                             "beforeStep(01)/afterStep(01)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(11)/afterStep(11)/" +
+                             "beforeStep(12)/afterStep(12)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(03)/afterStep(03)/");
+            assertEquals("Cached results", 2, square.getCache().size());
+
+            // Expired results are not reused
+            square.setTtl(10L);
+            square.getCache().clear();
+            commonCallCachedTest(5, 25,
+                             "beforeStep(01)/afterStep(01)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(11)/afterStep(11)/" +
+                             "beforeStep(12)/afterStep(12)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(03)/afterStep(03)/");
+            Thread.sleep(50L);
+            assertNull("Expired result", square.getCache().get
+                       (square.getKey(context)));
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Call a PureActivity defined by a LazyActivity, and cache its results.
+     */
+    public void testCallCachedLazy() {
+
+        File file = null;
+        try {
+            file = File.createTempFile("CoreExecuteTestCase", ".xml");
+            FileWriter writer = new FileWriter(file);
+            writer.write("<base:activity id=\"square\" outputs=\"result\"\n" +
+                         "   className=\"org.apache.commons.workflow.base.PureActivity\"\n" +
+                         "   xmlns:base=\"http://commons.apache.org/workflow/base\"\n" +
+                         "   xmlns:core=\"http://commons.apache.org/workflow/core\">\n" +
+                         "  <core:descriptor xpath=\"n\"/>\n" +
+                         "  <core:get id=\"11\">\n" +
+                         "    <core:expression expr=\"n * n\"/>\n" +
+                         "  </core:get>\n" +
+                         "  <core:put id=\"12\">\n" +
+                         "    <core:descriptor xpath=\"result\"/>\n" +
+                         "  </core:put>\n" +
+                         "</base:activity>\n");
+            writer.close();
+        } catch (Throwable t) {
+            fail("File create threw " + t);
+        }
+
+        try {
+
+            // Configure the steps in this activity
+            LazyActivity square = new LazyActivity("square",
+                                                   file.toURI().toURL());
+            context.put("square", square);
+            activity.addStep(new GetStep("01", new BaseDescriptor("square")));
+            activity.addStep(new CallCachedStep("02"));
+            activity.addStep(new GetStep("03", new BaseDescriptor("result")));
+
+            // The first call executes the parsed definition
+            commonCallCachedTest(3, 9,
+                             "beforeStep(01)/afterStep(01)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(11)/afterStep(11)/" +
+                             "beforeStep(12)/afterStep(12)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(03)/afterStep(03)/");
+
+            // The same input reuses the result cached by the parsed instance
+            commonCallCachedTest(3, 9,
+                             "beforeStep(01)/afterStep(01)/" +
+                             "beforeStep(02)/afterStep(02)/" +
+                             "beforeStep(03)/afterStep(03)/");
+            assertEquals("Cached results", 1,
+                         PureActivity.getPureActivity(square)
+                         .getCache().size());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw exception " + t);
+        } finally {
+            file.delete();
+        }
+
+    }
+
+
+    /**
+     * Call a PureActivity that leaves its result on the evaluation stack,
+     * with an input that is changed after it has been cached.
+     */
+    public void testCallCachedStack() {
+
+        // Configure a pure activity that pushes a string
+        PureActivity pure = new PureActivity();
+        pure.addDescriptor(new BaseDescriptor("list"));
+        pure.addStep(new StringStep("11", "Pushed"));
+        context.put("pure", pure);
+        ArrayList list = new ArrayList();
+        list.add("a");
+        context.put("list", list);
+
+        // Configure the steps in this activity
+        activity.addStep(new GetStep("01", new BaseDescriptor("pure")));
+        activity.addStep(new CallCachedStep("02"));
+
+        String called = "beforeStep(01)/afterStep(01)/" +
+            "beforeStep(02)/afterStep(02)/" +
+            "beforeStep(11)/afterStep(11)/" +
+            "beforeStep(02)/afterStep(02)/";
+        String cached = "beforeStep(01)/afterStep(01)/" +
+            "beforeStep(02)/afterStep(02)/";
+        String uncached = "beforeStep(01)/afterStep(01)/" +
+            "beforeStep(02)/afterStep(02)/" +
+            "beforeStep(11)/afterStep(11)/";
+        try {
+
+            // The cached stack item is pushed again
+            commonCallCachedStackTest(called);
+            commonCallCachedStackTest(cached);
+
+            // Changing the input does not change the cached key
+            list.add("b");
+            commonCallCachedStackTest(called);
+            commonCallCachedStackTest(cached);
+            assertEquals("Cached results", 2, pure.getCache().size());
+
+            // An input that cannot be copied is never cached
+            context.put("list", new Object());
+            commonCallCachedStackTest(uncached);
+            commonCallCachedStackTest(uncached);
+            assertEquals("Cached results", 2, pure.getCache().size());
+
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw exception " + t);
+        }
+
+    }
+
+
     /**
      * Call a nested Activity.
      */
@@ -214,6 +412,73 @@ public class CoreExecuteTestCase extends TestCase
     }
 
 
+    /**
+     * Call an Activity recursively, with and without tail calls.
+     */
+    public void testCallRecursive() {
+
+        // Configure an activity that calls itself until count reaches zero
+        IfStep ifStep = new IfStep("01");
+        ifStep.addDescriptor(new ExpressionDescriptor("count gt 0"));
+        ifStep.addStep(new GetStep("02",
+                                   new ExpressionDescriptor("count - 1")));
+        ifStep.addStep(new PutStep("03", new BaseDescriptor("count")));
+        ifStep.addStep(new GetStep("04", new BaseDescriptor("self")));
+        ifStep.addStep(new CallStep("05"));
+        activity.addStep(ifStep);
+        ((BaseContext) context).setMaxCallDepth(5);
+        context.put("self", activity);
+
+        // Tail calls from inside the If block need no call frames
+        try {
+            context.put("count", new Integer(50));
+            context.execute();
+            assertEquals("Final count", 0,
+                         ((Number) context.get("count")).intValue());
+            assertEquals("Pending calls", 0,
+                         ((BaseContext) context).getCalls().length);
+            assertTrue("Stack is empty", context.isEmpty());
+            try {
+                context.peekBlockState();
+                fail("BlockState stack is not empty");
+            } catch (EmptyStackException e) {
+                ; // Expected result
+            }
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        }
+
+        // Calls followed by another Step are limited by the maximum depth
+        activity.addStep(new StringStep("06", "Returned"));
+        context.setActivity(activity);
+        try {
+            context.put("count", new Integer(3));
+            context.execute();
+            for (int i = 0; i < 4; i++)
+                assertEquals("Returned value " + i, "Returned",
+                             (String) context.pop());
+            assertTrue("Stack is empty", context.isEmpty());
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        }
+        context.setActivity(activity);
+        try {
+            context.put("count", new Integer(50));
+            context.execute();
+            fail("Maximum call depth was not enforced");
+        } catch (StepException e) {
+            assertEquals("Failing step", "05", e.getStep().getId());
+            assertTrue("Cause is IllegalStateException",
+                       e.getCause() instanceof IllegalStateException);
+            assertEquals("Pending calls", 5,
+                         ((BaseContext) context).getCalls().length);
+        }
+
+    }
+
+
     /**
      * Test class loading and object construction.
      */
@@ -366,6 +631,134 @@ public class CoreExecuteTestCase extends TestCase
     }
 
 
+    /**
+     * Test a "DelayStep" for a duration, for a deadline that has passed,
+     * after its resumption has been cancelled, and after it has been
+     * resumed early.
+     */
+    public void testDelay() {
+
+        // Configure the steps in this activity
+        activity.addStep(new StringStep("01", "Before"));
+        activity.addStep(new DelayStep("02", 20L));
+        activity.addStep(new DelayStep("03",
+                                       new BaseDescriptor("wakeup", "local")));
+        activity.addStep(new StringStep("04", "After"));
+
+        // Execute the activity and validate results
+        try {
+            ContextScheduler scheduler = ContextScheduler.getScheduler();
+            ContextLock lock = ((BaseContext) context).getLock();
+            context.put("wakeup", new Date(System.currentTimeMillis() - 1L));
+            lock.acquire(0L, 0);
+            try {
+                context.execute();
+                assertTrue("Suspended by delay", context.getSuspend());
+            } finally {
+                lock.release();
+            }
+            awaitCompletion();
+            assertEquals("After value", "After", (String) context.pop());
+            assertEquals("Before value", "Before", (String) context.pop());
+            assertTrue("Stack is now empty", context.isEmpty());
+
+            // Cancel a long delay before it is due
+            context.put("wakeup", new Long(System.currentTimeMillis() +
+                                           60000L));
+            context.setNextStep(activity.findStep("03"));
+            lock.acquire(0L, 0);
+            try {
+                context.execute();
+                assertEquals("Suspended by deadline", "04",
+                             context.getNextStep().getId());
+                assertTrue("Cancelled", scheduler.cancel(context));
+                assertTrue("Cancelled once", !scheduler.cancel(context));
+            } finally {
+                lock.release();
+            }
+
+            // Resume a long delay before it is due, and only once
+            context.clear();
+            context.setNextStep(activity.findStep("03"));
+            lock.acquire(0L, 0);
+            try {
+                context.execute();
+                assertTrue("Suspended again", context.getSuspend());
+                context.execute();
+                assertNull("Completed", context.getNextStep());
+                assertNull("Resumption was cancelled",
+                           ((BaseContext) context).getScheduler());
+            } finally {
+                lock.release();
+            }
+            scheduler.schedule(context, 10L);
+            Thread.sleep(100L);
+            lock.acquire(0L, 0);
+            try {
+                assertEquals("Resumed once", "After", (String) context.pop());
+                assertTrue("Stack is empty again", context.isEmpty());
+            } finally {
+                lock.release();
+            }
+        } catch (Throwable t) {
+            t.printStackTrace(System.out);
+            fail("Threw Exception " + t);
+        }
+
+    }
+
+
+    /**
+     * Test atomic updates with the increment and putIfAbsent steps.
+     */
+    public void testIncrement() {
+
+        // Configure the steps in this activity
+        activity.addStep(new IncrementStep("01",
+                                           new BaseDescriptor("count",
+                                                              "local")));
+        IncrementStep increment =
+            new IncrementStep("02", new BaseDescriptor("count", "local"));
+        increment.setDelta(41L);
+        activity.addStep(increment);
+        activity.addStep(new StringStep("03", "First Value"));
+        activity.addStep(new PutIfAbsentStep("04",
+                                             new BaseDescriptor("name",
+                                                                "local")));
+        activity.addStep(new StringStep("05", "Second Value"));
+        activity.addStep(new PutIfAbsentStep("06",
+                                             new BaseDescriptor("name",
+                                                                "local")));
+
+        // Execute the activity and validate results
+        try {
+            context.execute();
+            assertEquals("Existing value", "First Value",
+                         (String) context.pop());
+            assertEquals("Stored value", "First Value",
+                         (String) context.pop());
+            assertEquals("Second count", new Integer(42), context.pop());
+            assertEquals("First count", new Integer(1), context.pop());
+            assertTrue("Stack is now empty", context.isEmpty());
+            assertEquals("Final count", new Integer(42),
+                         context.get("count", Context.LOCAL_SCOPE));
+            assertEquals("Final name", "First Value",
+                         context.get("name", Context.LOCAL_SCOPE));
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            if (e.getCause() != null) {
+                System.out.println("ROOT CAUSE");
+                e.getCause().printStackTrace(System.out);
+            }
+            fail("Threw StepException " + e);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail("Threw exception " + e);
+        }
+
+    }
+
+
     /**
      * Test invoking arbitrary methods with various combinations of
      * parameter mechanisms.
@@ -465,6 +858,88 @@ public class CoreExecuteTestCase extends TestCase
     }
 
 
+    /**
+     * Test rewriting an activity with the ActivityOptimizer.
+     */
+    public void testOptimizer() {
+
+        // Configure the steps in this activity
+        activity.addStep(new StringStep("01", "Value"));
+        activity.addStep(new DuplicateStep("02"));
+        activity.addStep(new PopStep("03"));
+        activity.addStep(new PutStep("04", new BaseDescriptor("a")));
+        activity.addStep(new GotoStep("05", "08"));
+        activity.addStep(new StringStep("06", "Skipped"));
+        activity.addStep(new StringStep("07", "Skipped"));
+        activity.addStep(new StringStep("08", "Target"));
+        activity.addStep(new StringStep("09", "Other"));
+        activity.addStep(new SwapStep("10"));
+        activity.addStep(new SwapStep("11"));
+        IfStep ifStep = new IfStep("12", new BaseDescriptor("a"));
+        ifStep.addStep(new StringStep("15", "Nested"));
+        ifStep.addStep(new PutStep("16", new BaseDescriptor("b")));
+        activity.addStep(ifStep);
+        activity.addStep(new ExitStep("13"));
+        activity.addStep(new StringStep("14", "Never"));
+
+        // Optimize the activity and validate the result
+        assertEquals("Eliminated dispatches", 10,
+                     ActivityOptimizer.optimize(activity));
+        Step steps[] = activity.getSteps();
+        assertEquals("Step count", 5, steps.length);
+        assertTrue("Fused first step", steps[0] instanceof FusedStep);
+        assertEquals("Fused first step id", "01", steps[0].getId());
+        assertEquals("Fused first step size", 2,
+                     ((FusedStep) steps[0]).getSteps().length);
+        assertTrue("Goto step", steps[1] instanceof GotoStep);
+        assertTrue("Fused target step", steps[2] instanceof FusedStep);
+        assertEquals("Fused target step id", "08", steps[2].getId());
+        assertEquals("Block step", ifStep, steps[3]);
+        Step nested[] = ifStep.getSteps();
+        assertEquals("Nested step count", 1, nested.length);
+        assertTrue("Fused nested step", nested[0] instanceof FusedStep);
+        assertEquals("Nested step loops back", ifStep,
+                     nested[0].getNextStep());
+        assertTrue("Exit step", steps[4] instanceof ExitStep);
+        assertEquals("Optimized again", 0,
+                     ActivityOptimizer.optimize(activity));
+
+        // Execute the activity and validate results
+        try {
+            context.execute();
+            assertEquals("Trail contents",
+                         "beforeActivity()/" +
+                         "beforeStep(01)/afterStep(01)/" +
+                         "beforeStep(05)/afterStep(05)/" +
+                         "beforeStep(08)/afterStep(08)/" +
+                         "beforeStep(12)/afterStep(12)/" +
+                         "beforeStep(15)/afterStep(15)/" +
+                         "beforeStep(12)/afterStep(12)/" +
+                         "beforeStep(13)/afterStep(13)/" +
+                         "afterActivity()/",
+                         trail.toString());
+            assertEquals("Stored value", "Value", context.get("a"));
+            assertEquals("Nested stored value", "Nested", context.get("b"));
+            assertEquals("Popped value is 'Other'", "Other",
+                         (String) context.pop());
+            assertEquals("Popped value is 'Target'", "Target",
+                         (String) context.pop());
+            assertTrue("Stack is now empty", context.isEmpty());
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            if (e.getCause() != null) {
+                System.out.println("ROOT CAUSE");
+                e.getCause().printStackTrace(System.out);
+            }
+            fail("Threw StepException " + e);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail("Threw exception " + e);
+        }
+
+    }
+
+
     /**
      * Test access to variables in various scopes.
      */
@@ -831,6 +1306,100 @@ public class CoreExecuteTestCase extends TestCase
     }
 
 
+    /**
+     * Test calculating stack profiles with the ActivityVerifier.
+     */
+    public void testVerifier() {
+
+        try {
+
+            // Straight line Steps, including one with an unknown result
+            activity.addStep(new StringStep("01", "First Value"));
+            activity.addStep(new StringStep("02", "Second Value"));
+            activity.addStep(new SwapStep("03"));
+            activity.addStep(new PopStep("04"));
+            activity.addStep(new InvokeStep("05", "toString",
+                                            new BaseDescriptor("bean")));
+            activity.addStep(new PutStep("06", new BaseDescriptor("x")));
+            StackProfile profile = ActivityVerifier.verify(activity);
+            assertEquals("Straight input", 0, profile.getInput());
+            assertEquals("Straight maxDepth", 2, profile.getMaxDepth());
+            assertEquals("Straight maxNesting", 0, profile.getMaxNesting());
+            assertTrue("Straight complete", profile.isComplete());
+            assertEquals("Profile recorded", profile,
+                         ((BaseActivity) activity).getProfile());
+            activity.addStep(new ExitStep("07"));
+            assertNull("Profile discarded",
+                       ((BaseActivity) activity).getProfile());
+
+            // Nested Blocks that consume values from the caller (three,
+            // when both conditions are tested and the loop is not entered)
+            activity.clearSteps();
+            IfStep ifStep = new IfStep("01", new BaseDescriptor());
+            WhileStep whileStep = new WhileStep("02", new BaseDescriptor());
+            whileStep.addStep(new StringStep("03", "Value"));
+            whileStep.addStep(new BreakStep("04"));
+            ifStep.addStep(whileStep);
+            activity.addStep(ifStep);
+            activity.addStep(new PopStep("05"));
+            profile = ActivityVerifier.verify(activity);
+            assertEquals("Nested input", 3, profile.getInput());
+            assertEquals("Nested maxDepth", 3, profile.getMaxDepth());
+            assertEquals("Nested maxNesting", 2, profile.getMaxNesting());
+            assertTrue("Nested complete", profile.isComplete());
+
+            // A Step that may pop a result that was not pushed
+            activity.clearSteps();
+            activity.addStep(new InvokeStep("01", "toString",
+                                            new BaseDescriptor("bean")));
+            activity.addStep(new PopStep("02"));
+            profile = ActivityVerifier.verify(activity);
+            assertEquals("Uncertain input", 1, profile.getInput());
+
+            // A loop that grows the stack without a fixed limit
+            activity.clearSteps();
+            whileStep = new WhileStep("01", new BaseDescriptor("flag"));
+            whileStep.addStep(new StringStep("02", "Value"));
+            activity.addStep(whileStep);
+            profile = ActivityVerifier.verify(activity);
+            assertEquals("Unbounded maxDepth", -1, profile.getMaxDepth());
+
+            // A Step whose effect is not known
+            activity.clearSteps();
+            activity.addStep(new StringStep("01", "Value"));
+            activity.addStep(new CallStep("02"));
+            activity.addStep(new PopStep("03"));
+            profile = ActivityVerifier.verify(activity);
+            assertTrue("Call incomplete", !profile.isComplete());
+
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        }
+
+        // Transfers of control that cannot work
+        activity.clearSteps();
+        activity.addStep(new GotoStep("01", "99"));
+        try {
+            ActivityVerifier.verify(activity);
+            fail("Missing goto target was accepted");
+        } catch (StepException e) {
+            assertEquals("Missing goto target step", "01",
+                         e.getStep().getId());
+        }
+        activity.clearSteps();
+        activity.addStep(new BreakStep("01"));
+        try {
+            ActivityVerifier.verify(activity);
+            fail("Break outside an Iterator was accepted");
+        } catch (StepException e) {
+            assertEquals("Break outside an Iterator step", "01",
+                         e.getStep().getId());
+        }
+
+    }
+
+
     /**
      * Test getting and setting beans through XPath expressions.
      */
@@ -994,6 +1563,81 @@ public class CoreExecuteTestCase extends TestCase
     }
 
 
+    // -------------------------------------------------------- Private Methods
+
+
+    /**
+     * Wait (for at most ten seconds) until the ContextScheduler has
+     * resumed our Context and it has completed its Activity.
+     */
+    private void awaitCompletion() throws InterruptedException {
+
+        ContextLock lock = ((BaseContext) context).getLock();
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (true) {
+            lock.acquire(0L, 0);
+            try {
+                if (context.getNextStep() == null)
+                    return;
+            } finally {
+                lock.release();
+            }
+            assertTrue("Resumed in time",
+                       System.currentTimeMillis() < deadline);
+            Thread.sleep(10L);
+        }
+
+    }
+
+
+    /**
+     * Common testing of the activity configured by
+     * <code>testCallCached()</code>, validating its result and which
+     * Steps were executed.
+     *
+     * @param n Value of the local variable "n"
+     * @param result Expected result
+     * @param steps Expected Step events in the execution trail
+     */
+    private void commonCallCachedTest(int n, int result, String steps)
+        throws StepException {
+
+        context.setActivity(activity);
+        context.put("n", new Integer(n));
+        context.remove("result");
+        trail.setLength(0);
+        context.execute();
+        assertEquals("Trail contents",
+                     "beforeActivity()/" + steps + "afterActivity()/",
+                     trail.toString());
+        assertEquals("Result", result,
+                     ((Number) context.pop()).intValue());
+        assertTrue("Stack is empty", context.isEmpty());
+
+    }
+
+
+    /**
+     * Execute the configured activity, which calls a PureActivity that
+     * pushes "Pushed", and check that the expected steps were executed.
+     *
+     * @param steps Expected trail of steps
+     */
+    private void commonCallCachedStackTest(String steps)
+        throws StepException {
+
+        context.setActivity(activity);
+        trail.setLength(0);
+        context.execute();
+        assertEquals("Trail contents",
+                     "beforeActivity()/" + steps + "afterActivity()/",
+                     trail.toString());
+        assertEquals("Result", "Pushed", context.pop());
+        assertTrue("Stack is empty", context.isEmpty());
+
+    }
+
+
     // ------------------------------------------------ ContextListener Methods
 
 
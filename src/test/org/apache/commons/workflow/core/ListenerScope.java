@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.commons.workflow.core;
+
+
+import org.apache.commons.workflow.base.BaseScope;
+
+
+/**
+ * <code>BaseScope</code> that reports whether any listeners remain
+ * registered, for tests of steps that must remove their listeners.
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class ListenerScope extends BaseScope {
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Return <code>true</code> if any <code>ScopeListeners</code> are
+     * registered with this Scope.
+     */
+    public boolean hasListeners() {
+
+        return (support.hasListeners());
+
+    }
+
+
+}
@@ -19,7 +19,10 @@ package org.apache.commons.workflow.io;
 
 
 import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
 import java.util.EmptyStackException;
+import java.util.List;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -172,6 +175,398 @@ public class IOExecuteTestCase extends TestCase
     }
 
 
+    /**
+     * Get steps using the response cache, against a local file URL
+     * (which provides a <code>Last-Modified</code> validator).
+     */
+    public void testGetCached() {
+
+        // Create a temporary file to be retrieved
+        File file = null;
+        String url = null;
+        try {
+            file = File.createTempFile("IOExecuteTestCase", ".txt");
+            FileWriter writer = new FileWriter(file);
+            writer.write("Cached content");
+            writer.close();
+            url = file.toURL().toExternalForm();
+        } catch (Throwable t) {
+            fail("File create threw " + t);
+        }
+        ResponseCache.getCache().remove(url);
+
+        // Configure the steps in this activity
+        GetStep step = new GetStep("01", url);
+        step.setCache(true);
+        activity.addStep(step);
+        activity.addStep(new GetStep("02", url));
+
+        // Execute the activity and validate results
+        try {
+            context.execute();
+            assertEquals("Uncached content",
+                         "Cached content", (String) context.pop());
+            assertEquals("Cached content",
+                         "Cached content", (String) context.pop());
+            assertTrue("Stack is empty",
+                       context.isEmpty());
+            ResponseCacheEntry entry = ResponseCache.getCache().get(url);
+            assertNotNull("Response was cached", entry);
+            assertEquals("Cached entry content",
+                         "Cached content", entry.getContent());
+            assertTrue("Cached entry has a validator",
+                       entry.isValidatable());
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail("Threw exception " + e);
+        } finally {
+            ResponseCache.getCache().remove(url);
+            file.delete();
+        }
+
+    }
+
+
+    /**
+     * Serve a fresh response from the cache without contacting the server.
+     */
+    public void testGetCacheHit() {
+
+        StubServer server = null;
+        try {
+            server = new StubServer("Original content", null, "max-age=60");
+        } catch (Throwable t) {
+            fail("Server create threw " + t);
+        }
+        String url = server.getUrl();
+        ResponseCache.getCache().remove(url);
+
+        // Configure the steps in this activity
+        GetStep step1 = new GetStep("01", url);
+        step1.setCache(true);
+        activity.addStep(step1);
+        GetStep step2 = new GetStep("02", url);
+        step2.setCache(true);
+        activity.addStep(step2);
+
+        // Execute the activity and validate results
+        try {
+            context.execute();
+            server.setContent("Changed content");
+            context.setNextStep(activity.findStep("02"));
+            context.execute();
+            assertEquals("Second retrieval from cache",
+                         "Original content", (String) context.pop());
+            assertEquals("Cached content",
+                         "Original content", (String) context.pop());
+            assertEquals("First retrieval",
+                         "Original content", (String) context.pop());
+            assertTrue("Stack is empty",
+                       context.isEmpty());
+            assertEquals("Server saw one request",
+                         1, server.getRequests());
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail("Threw exception " + e);
+        } finally {
+            ResponseCache.getCache().remove(url);
+            server.close();
+        }
+
+    }
+
+
+    /**
+     * Revalidate a stale cached response, and reuse it on "304 Not
+     * Modified".
+     */
+    public void testGetRevalidated() {
+
+        StubServer server = null;
+        try {
+            server = new StubServer("Original content", "\"v1\"",
+                                    "no-cache");
+        } catch (Throwable t) {
+            fail("Server create threw " + t);
+        }
+        String url = server.getUrl();
+        ResponseCache.getCache().remove(url);
+
+        // Configure the steps in this activity
+        GetStep step1 = new GetStep("01", url);
+        step1.setCache(true);
+        activity.addStep(step1);
+        GetStep step2 = new GetStep("02", url);
+        step2.setCache(true);
+        activity.addStep(step2);
+
+        // Execute the activity and validate results
+        try {
+            context.execute();
+            assertEquals("Second retrieval revalidated",
+                         "Original content", (String) context.pop());
+            assertEquals("First retrieval",
+                         "Original content", (String) context.pop());
+            assertTrue("Stack is empty",
+                       context.isEmpty());
+            assertEquals("Server saw two requests",
+                         2, server.getRequests());
+            assertEquals("Second request was conditional",
+                         1, server.getConditionals());
+            ResponseCacheEntry entry = ResponseCache.getCache().get(url);
+            assertNotNull("Response is still cached", entry);
+            assertEquals("Cached entity tag",
+                         "\"v1\"", entry.getETag());
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail("Threw exception " + e);
+        } finally {
+            ResponseCache.getCache().remove(url);
+            server.close();
+        }
+
+    }
+
+
+    /**
+     * Store, reload and remove entries in the on-disk tier.
+     */
+    public void testResponseCacheDisk() {
+
+        File directory = null;
+        try {
+            directory = File.createTempFile("ResponseCache", ".dir");
+            directory.delete();
+        } catch (Throwable t) {
+            fail("Directory create threw " + t);
+        }
+        ResponseCache cache = new ResponseCache(1, directory);
+        try {
+
+            // Two URLs whose hash codes collide
+            String url1 = "http://localhost/Aa";
+            String url2 = "http://localhost/BB";
+            assertEquals("Hash codes collide",
+                         url1.hashCode(), url2.hashCode());
+            cache.put(new ResponseCacheEntry(url1, "First", "a", 0L, 0L));
+            cache.put(new ResponseCacheEntry(url2, "Second", "b", 0L, 0L));
+            assertEquals("Memory tier is bounded", 1, cache.size());
+
+            // Both survive eviction, and removing one leaves the other
+            assertEquals("First reloaded from disk",
+                         "First", cache.get(url1).getContent());
+            cache.remove(url2);
+            assertNull("Second removed", cache.get(url2));
+            cache.put(new ResponseCacheEntry(url2, "Third", "c", 0L, 0L));
+            assertEquals("First still on disk",
+                         "First", cache.get(url1).getContent());
+
+            // The least recently used file is evicted from disk
+            String url3 = "http://localhost/Cc";
+            cache.setMaxDiskEntries(2);
+            cache.put(new ResponseCacheEntry(url3, "Fourth", "d", 0L, 0L));
+            assertEquals("Disk tier is bounded", 2,
+                         directory.listFiles().length);
+            assertNull("Third evicted", cache.get(url2));
+            assertEquals("First kept", "First", cache.get(url1).getContent());
+            cache.setMaxDiskBytes(0L);
+            cache.put(new ResponseCacheEntry(url2, "Fifth", "e", 0L, 0L));
+            assertEquals("Disk tier is bounded by size", 0,
+                         directory.listFiles().length);
+            assertEquals("Fifth still in memory",
+                         "Fifth", cache.get(url2).getContent());
+
+            // Clear tolerates a directory that has gone away
+            cache.clear();
+            assertNull("First cleared", cache.get(url1));
+            directory.delete();
+            cache.clear();
+
+        } finally {
+            File files[] = directory.listFiles();
+            for (int i = 0; (files != null) && (i < files.length); i++)
+                files[i].delete();
+            directory.delete();
+        }
+
+    }
+
+
+    /**
+     * Concurrent retrieval of several URLs, including an invalid one.
+     */
+    public void testGetAll() {
+
+        // Create temporary files to be retrieved
+        File files[] = new File[5];
+        List urls = new ArrayList();
+        try {
+            for (int i = 0; i < files.length; i++) {
+                files[i] = File.createTempFile("IOExecuteTestCase", ".txt");
+                FileWriter writer = new FileWriter(files[i]);
+                writer.write("Content " + i);
+                writer.close();
+                urls.add(files[i].toURL().toExternalForm());
+            }
+        } catch (Throwable t) {
+            fail("File create threw " + t);
+        }
+        urls.add(2, "bogus:url");
+
+        // Configure the steps in this activity
+        GetAllStep step = new GetAllStep("01");
+        step.setConcurrency(3);
+        step.setTimeout(10000L);
+        activity.addStep(step);
+
+        // Execute the activity and validate results
+        try {
+            context.push(urls);
+            context.execute();
+            List results = (List) context.pop();
+            assertTrue("Stack is empty",
+                       context.isEmpty());
+            assertEquals("Result count", urls.size(), results.size());
+            int n = 0;
+            for (int i = 0; i < results.size(); i++) {
+                if (i == 2) {
+                    assertTrue("Invalid URL failed",
+                               results.get(i) instanceof StepException);
+                    assertEquals("Failure step", step,
+                                 ((StepException) results.get(i)).getStep());
+                } else {
+                    assertEquals("Result " + i,
+                                 "Content " + n++, results.get(i));
+                }
+            }
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail("Threw exception " + e);
+        } finally {
+            for (int i = 0; i < files.length; i++) {
+                if (files[i] != null)
+                    files[i].delete();
+            }
+        }
+
+    }
+
+
+    /**
+     * Concurrent retrieval in which one resource exceeds the timeout.
+     */
+    public void testGetAllTimeout() {
+
+        // Create a slow server and a temporary file to be retrieved
+        StubServer server = null;
+        File file = null;
+        List urls = new ArrayList();
+        try {
+            server = new StubServer("Slow content", null, null);
+            server.setDelay(5000L);
+            urls.add(server.getUrl());
+            file = File.createTempFile("IOExecuteTestCase", ".txt");
+            FileWriter writer = new FileWriter(file);
+            writer.write("Fast content");
+            writer.close();
+            urls.add(file.toURL().toExternalForm());
+        } catch (Throwable t) {
+            fail("Resource create threw " + t);
+        }
+
+        // Configure the steps in this activity
+        GetAllStep step = new GetAllStep("01");
+        step.setConcurrency(2);
+        step.setTimeout(250L);
+        activity.addStep(step);
+
+        // Execute the activity and validate results
+        try {
+            context.push(urls);
+            long start = System.currentTimeMillis();
+            context.execute();
+            long elapsed = System.currentTimeMillis() - start;
+            List results = (List) context.pop();
+            assertTrue("Stack is empty",
+                       context.isEmpty());
+            assertEquals("Result count", 2, results.size());
+            assertTrue("Slow resource timed out",
+                       results.get(0) instanceof StepException);
+            assertTrue("Timed out reading",
+                       ((StepException) results.get(0)).getCause()
+                       instanceof java.net.SocketTimeoutException);
+            assertEquals("Fast resource", "Fast content", results.get(1));
+            assertTrue("Did not wait for the slow resource (" +
+                       elapsed + "ms)", elapsed < 4000L);
+        } catch (StepException e) {
+            e.printStackTrace(System.out);
+            fail("Threw StepException " + e);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail("Threw exception " + e);
+        } finally {
+            server.close();
+            file.delete();
+        }
+
+    }
+
+
+    /**
+     * Response cache eviction and on-disk tier.
+     */
+    public void testResponseCache() {
+
+        ResponseCache cache = new ResponseCache(2);
+        cache.put(new ResponseCacheEntry("a", "A", null, 1L, 0L));
+        cache.put(new ResponseCacheEntry("b", "B", null, 1L, 0L));
+        assertNotNull("Found a", cache.get("a"));
+        cache.put(new ResponseCacheEntry("c", "C", null, 1L, 0L));
+        assertEquals("Evicted to maximum size", 2, cache.size());
+        assertNull("Evicted least recently used", cache.get("b"));
+        assertNotNull("Kept a", cache.get("a"));
+        assertNotNull("Kept c", cache.get("c"));
+
+        // Entries on disk survive eviction from memory
+        File directory = null;
+        try {
+            directory = File.createTempFile("IOExecuteTestCase", "");
+            directory.delete();
+        } catch (Throwable t) {
+            fail("Directory create threw " + t);
+        }
+        cache.setDirectory(directory);
+        try {
+            cache.put(new ResponseCacheEntry("d", "D", "\"1\"", 0L,
+                                             Long.MAX_VALUE));
+            cache.put(new ResponseCacheEntry("e", "E", null, 1L, 0L));
+            cache.put(new ResponseCacheEntry("f", "F", null, 1L, 0L));
+            ResponseCacheEntry entry = cache.get("d");
+            assertNotNull("Reloaded d from disk", entry);
+            assertEquals("Reloaded content", "D", entry.getContent());
+            assertEquals("Reloaded etag", "\"1\"", entry.getETag());
+            assertTrue("Reloaded entry is fresh",
+                       entry.isFresh(System.currentTimeMillis()));
+        } finally {
+            cache.clear();
+            directory.delete();
+        }
+
+    }
+
+
     /**
      * Read and write steps.
      */
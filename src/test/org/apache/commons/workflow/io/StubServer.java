@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.workflow.io;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+
+/**
+ * <p>Minimal HTTP/1.0 server used by the test cases, listening on an
+ * ephemeral port of the loopback interface.  Every request is answered
+ * with the current <code>content</code>, or with "304 Not Modified" if it
+ * carries an <code>If-None-Match</code> header matching our
+ * <code>etag</code>.  Requests are handled one at a time, optionally after
+ * a configurable delay.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class StubServer implements Runnable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct and start a new server with the specified parameters.
+     *
+     * @param content Content returned by a full response
+     * @param etag Entity tag of the content, or <code>null</code>
+     * @param cacheControl Value of the <code>Cache-Control</code> header,
+     *  or <code>null</code>
+     *
+     * @exception IOException if the server socket cannot be opened
+     */
+    public StubServer(String content, String etag, String cacheControl)
+        throws IOException {
+
+        super();
+        this.content = content;
+        this.etag = etag;
+        this.cacheControl = cacheControl;
+        this.socket = new ServerSocket(0, 50, InetAddress.getByName(null));
+        Thread thread = new Thread(this, "StubServer");
+        thread.setDaemon(true);
+        thread.start();
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * The value of the <code>Cache-Control</code> header (if any).
+     */
+    protected String cacheControl = null;
+
+
+    /**
+     * The number of requests answered with "304 Not Modified".
+     */
+    protected int conditionals = 0;
+
+
+    /**
+     * The entity tag of our content (if any).
+     */
+    protected String etag = null;
+
+
+    /**
+     * The number of requests received.
+     */
+    protected int requests = 0;
+
+
+    /**
+     * The server socket we are listening on.
+     */
+    protected ServerSocket socket = null;
+
+
+    // ------------------------------------------------------------- Properties
+
+
+    /**
+     * The content returned by a full response.
+     */
+    protected String content = null;
+
+    public synchronized String getContent() {
+        return (this.content);
+    }
+
+    public synchronized void setContent(String content) {
+        this.content = content;
+    }
+
+
+    /**
+     * Milliseconds to wait before answering each request.
+     */
+    protected long delay = 0L;
+
+    public synchronized long getDelay() {
+        return (this.delay);
+    }
+
+    public synchronized void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Stop listening for requests.
+     */
+    public void close() {
+
+        try {
+            socket.close();
+        } catch (IOException e) {
+            ;
+        }
+
+    }
+
+
+    /**
+     * Return the number of requests answered with "304 Not Modified".
+     */
+    public synchronized int getConditionals() {
+
+        return (this.conditionals);
+
+    }
+
+
+    /**
+     * Return the number of requests received.
+     */
+    public synchronized int getRequests() {
+
+        return (this.requests);
+
+    }
+
+
+    /**
+     * Return the URL of this server.
+     */
+    public String getUrl() {
+
+        return ("http://127.0.0.1:" + socket.getLocalPort() + "/");
+
+    }
+
+
+    /**
+     * Accept and answer requests until we are closed.
+     */
+    public void run() {
+
+        while (true) {
+            Socket client = null;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                return;
+            }
+            try {
+                answer(client);
+            } catch (Throwable t) {
+                ;                   // Client has probably gone away
+            } finally {
+                try {
+                    client.close();
+                } catch (IOException e) {
+                    ;
+                }
+            }
+        }
+
+    }
+
+
+    // ------------------------------------------------------ Protected Methods
+
+
+    /**
+     * Read a request from the specified client, and answer it.
+     *
+     * @param client Socket connected to the client
+     *
+     * @exception Exception if any error occurs
+     */
+    protected void answer(Socket client) throws Exception {
+
+        // Read the request line and headers
+        BufferedReader reader = new BufferedReader
+            (new InputStreamReader(client.getInputStream(), "ISO-8859-1"));
+        boolean conditional = false;
+        while (true) {
+            String line = reader.readLine();
+            if ((line == null) || (line.length() == 0))
+                break;
+            if (line.toLowerCase().startsWith("if-none-match:") &&
+                (etag != null) &&
+                etag.equals(line.substring(14).trim()))
+                conditional = true;
+        }
+
+        // Record it and wait as required
+        String content = null;
+        long delay = 0L;
+        synchronized (this) {
+            requests++;
+            if (conditional)
+                conditionals++;
+            content = this.content;
+            delay = this.delay;
+        }
+        if (delay > 0L)
+            Thread.sleep(delay);
+
+        // Write the response
+        StringBuffer sb = new StringBuffer();
+        if (conditional) {
+            sb.append("HTTP/1.0 304 Not Modified\r\n");
+        } else {
+            sb.append("HTTP/1.0 200 OK\r\n");
+            sb.append("Content-Type: text/plain\r\n");
+            sb.append("Content-Length: ");
+            sb.append(content.length());
+            sb.append("\r\n");
+        }
+        if (etag != null) {
+            sb.append("ETag: ");
+            sb.append(etag);
+            sb.append("\r\n");
+        }
+        if (cacheControl != null) {
+            sb.append("Cache-Control: ");
+            sb.append(cacheControl);
+            sb.append("\r\n");
+        }
+        sb.append("Connection: close\r\n\r\n");
+        if (!conditional)
+            sb.append(content);
+        OutputStream os = client.getOutputStream();
+        os.write(sb.toString().getBytes("ISO-8859-1"));
+        os.flush();
+
+    }
+
+
+}
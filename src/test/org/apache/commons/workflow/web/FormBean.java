@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+/**
+ * <p>A form bean with properties of several types, used to test request
+ * parameter population.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class FormBean {
+
+
+    private boolean active = false;
+
+    public boolean getActive() {
+        return (this.active);
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+
+    private int count = 0;
+
+    public int getCount() {
+        return (this.count);
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+
+    private DemoBean demo = new DemoBean();
+
+    public DemoBean getDemo() {
+        return (this.demo);
+    }
+
+
+    private String name = null;
+
+    public String getName() {
+        return (this.name);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+
+    private int scores[] = new int[0];
+
+    public int[] getScores() {
+        return (this.scores);
+    }
+
+    public void setScores(int scores[]) {
+        this.scores = scores;
+    }
+
+
+    private String tags[] = new String[0];
+
+    public String[] getTags() {
+        return (this.tags);
+    }
+
+    public void setTags(String tags[]) {
+        this.tags = tags;
+    }
+
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Vector;
+
+
+/**
+ * <p>An <code>AttributeScope</code> over the attributes held in a
+ * <code>Hashtable</code>, which stands in for a servlet API object.  Like
+ * most containers, it enumerates a copy of the attribute names.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class HashtableScope extends AttributeScope {
+
+
+    /**
+     * The attributes of our simulated servlet API object.
+     */
+    protected Hashtable attributes = new Hashtable();
+
+    public Hashtable getAttributes() {
+        return (this.attributes);
+    }
+
+
+    protected Object getAttribute(String name) {
+
+        return (attributes.get(name));
+
+    }
+
+
+    protected Enumeration getAttributeNames() {
+
+        return (new Vector(attributes.keySet()).elements());
+
+    }
+
+
+    protected void removeAttribute(String name) {
+
+        attributes.remove(name);
+
+    }
+
+
+    protected void setAttribute(String name, Object value) {
+
+        attributes.put(name, value);
+
+    }
+
+
+}
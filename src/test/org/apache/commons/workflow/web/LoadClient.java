@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.Hashtable;
+import javax.servlet.Servlet;
+
+
+/**
+ * <p>A simulated client of a <code>LoadHarness</code> run, which issues a
+ * fixed number of requests to a servlet within one session, one at a
+ * time.  Several clients may share the same session, to simulate
+ * concurrent requests from the same user.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadClient implements Runnable {
+
+
+    /**
+     * Construct a new client.
+     *
+     * @param servlet The servlet to send requests to
+     * @param container The container the servlet is deployed in
+     * @param session The session of this client
+     * @param parameters Request parameters to send
+     * @param requests Number of requests to send
+     * @param statistics Statistics to record the requests in, or
+     *  <code>null</code> to discard them (for a warm up run)
+     */
+    public LoadClient(Servlet servlet, LoadContainer container,
+                      LoadSession session, Hashtable parameters,
+                      int requests, LoadStatistics statistics) {
+
+        this.servlet = servlet;
+        this.container = container;
+        this.session = session;
+        this.parameters = parameters;
+        this.requests = requests;
+        this.statistics = statistics;
+
+    }
+
+
+    protected LoadContainer container = null;
+
+    protected Hashtable parameters = null;
+
+    protected int requests = 0;
+
+    protected Servlet servlet = null;
+
+    protected LoadSession session = null;
+
+    protected LoadStatistics statistics = null;
+
+
+    /**
+     * Should the session be replicated after each request?
+     */
+    protected boolean replicate = false;
+
+    public void setReplicate(boolean replicate) {
+        this.replicate = replicate;
+    }
+
+
+    /**
+     * Time (in milliseconds) to wait between requests.
+     */
+    protected long think = 0L;
+
+    public void setThink(long think) {
+        this.think = think;
+    }
+
+
+    /**
+     * Issue our requests.
+     */
+    public void run() {
+
+        for (int i = 0; i < requests; i++) {
+            LoadRequest request =
+                new LoadRequest(container, session, parameters);
+            LoadResponse response = new LoadResponse();
+            long start = System.currentTimeMillis();
+            try {
+                servlet.service(request, response);
+                if (replicate)
+                    session.replicate();
+                if (statistics != null)
+                    statistics.record(System.currentTimeMillis() - start,
+                                      response.getStatus(),
+                                      response.getSize());
+            } catch (Throwable t) {
+                if (statistics != null)
+                    statistics.error(System.currentTimeMillis() - start);
+                container.log("Request failed", t);
+            }
+            if (think > 0L) {
+                try {
+                    Thread.sleep(think);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+    }
+
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.Enumeration;
+import java.util.Hashtable;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+
+
+/**
+ * <p>The <code>ServletConfig</code> of a servlet deployed in a
+ * <code>LoadContainer</code>.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadConfig implements ServletConfig {
+
+
+    /**
+     * Construct a new servlet configuration.
+     *
+     * @param name Name of the servlet
+     * @param context The container the servlet is deployed in
+     * @param parameters Servlet initialization parameters
+     */
+    public LoadConfig(String name, ServletContext context,
+                      Hashtable parameters) {
+
+        this.name = name;
+        this.context = context;
+        this.parameters = parameters;
+
+    }
+
+
+    protected ServletContext context = null;
+
+    protected String name = null;
+
+    protected Hashtable parameters = null;
+
+
+    public String getInitParameter(String name) {
+        return ((String) parameters.get(name));
+    }
+
+    public Enumeration getInitParameterNames() {
+        return (parameters.keys());
+    }
+
+    public ServletContext getServletContext() {
+        return (context);
+    }
+
+    public String getServletName() {
+        return (name);
+    }
+
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Set;
+import java.util.Vector;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.Servlet;
+import javax.servlet.ServletContext;
+
+
+/**
+ * <p>An in-process stand-in for a servlet container, used by
+ * <code>LoadHarness</code> to deploy <code>ActivityServlet</code> without
+ * any network or container overhead.  Resources are read from a root
+ * directory (if one is specified) or from the class path, and request
+ * dispatchers are available for the servlets mapped with
+ * <code>addServlet()</code>.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadContainer implements ServletContext {
+
+
+    /**
+     * Construct a new container.
+     *
+     * @param root Directory containing the resources of the application,
+     *  or <code>null</code> to read them from the class path
+     * @param verbose Should log messages be printed?
+     */
+    public LoadContainer(File root, boolean verbose) {
+
+        this.root = root;
+        this.verbose = verbose;
+
+    }
+
+
+    /**
+     * The servlet context attributes.
+     */
+    protected Hashtable attributes = new Hashtable();
+
+
+    /**
+     * The directory containing our resources, if any.
+     */
+    protected File root = null;
+
+
+    /**
+     * The servlets that may be dispatched to, keyed by path.
+     */
+    protected HashMap servlets = new HashMap();
+
+
+    /**
+     * Should log messages be printed?
+     */
+    protected boolean verbose = false;
+
+
+    /**
+     * Make the specified servlet available for includes and forwards to
+     * the specified context-relative path.
+     *
+     * @param path Context-relative path of the servlet
+     * @param servlet The servlet, which must already be initialized
+     */
+    public void addServlet(String path, Servlet servlet) {
+
+        servlets.put(path, servlet);
+
+    }
+
+
+    public Object getAttribute(String name) {
+        return (attributes.get(name));
+    }
+
+    public Enumeration getAttributeNames() {
+        return (attributes.keys());
+    }
+
+    public ServletContext getContext(String path) {
+        return (null);
+    }
+
+    public String getInitParameter(String name) {
+        return (null);
+    }
+
+    public Enumeration getInitParameterNames() {
+        return (Collections.enumeration(Collections.EMPTY_LIST));
+    }
+
+    public int getMajorVersion() {
+        return (2);
+    }
+
+    public String getMimeType(String file) {
+        return (null);
+    }
+
+    public int getMinorVersion() {
+        return (3);
+    }
+
+    public RequestDispatcher getNamedDispatcher(String name) {
+        return (null);
+    }
+
+    public String getRealPath(String path) {
+        if (root == null)
+            return (null);
+        return (new File(root, path).getAbsolutePath());
+    }
+
+    public RequestDispatcher getRequestDispatcher(String path) {
+        Servlet servlet = (Servlet) servlets.get(path);
+        if (servlet == null)
+            return (null);
+        return (new LoadDispatcher(servlet));
+    }
+
+    public URL getResource(String path) throws MalformedURLException {
+        if (root != null) {
+            File file = new File(root, path);
+            return (file.exists() ? file.toURL() : null);
+        }
+        return (getClass().getResource(path));
+    }
+
+    public InputStream getResourceAsStream(String path) {
+        if (root != null) {
+            try {
+                return (new FileInputStream(new File(root, path)));
+            } catch (IOException e) {
+                return (null);
+            }
+        }
+        return (getClass().getResourceAsStream(path));
+    }
+
+    public Set getResourcePaths(String path) {
+        Set results = new HashSet();
+        if (root == null)
+            return (results);
+        String names[] = new File(root, path).list();
+        if (names == null)
+            return (results);
+        String prefix = path.endsWith("/") ? path : path + "/";
+        for (int i = 0; i < names.length; i++)
+            results.add(prefix + names[i]);
+        return (results);
+    }
+
+    public String getServerInfo() {
+        return ("LoadContainer");
+    }
+
+    public Servlet getServlet(String name) {
+        return (null);
+    }
+
+    public String getServletContextName() {
+        return ("load");
+    }
+
+    public Enumeration getServletNames() {
+        return (new Vector().elements());
+    }
+
+    public Enumeration getServlets() {
+        return (new Vector().elements());
+    }
+
+    public void log(String message) {
+        if (verbose)
+            System.out.println(message);
+    }
+
+    public void log(Exception exception, String message) {
+        log(message, exception);
+    }
+
+    public void log(String message, Throwable throwable) {
+        if (verbose) {
+            System.out.println(message);
+            throwable.printStackTrace(System.out);
+        }
+    }
+
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+
+}
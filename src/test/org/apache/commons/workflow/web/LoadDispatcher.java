@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.IOException;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+
+/**
+ * <p>A <code>RequestDispatcher</code> that calls a servlet deployed in a
+ * <code>LoadContainer</code> directly.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadDispatcher implements RequestDispatcher {
+
+
+    public LoadDispatcher(Servlet servlet) {
+
+        this.servlet = servlet;
+
+    }
+
+
+    protected Servlet servlet = null;
+
+
+    public void forward(ServletRequest request, ServletResponse response)
+        throws IOException, ServletException {
+
+        response.resetBuffer();
+        servlet.service(request, response);
+
+    }
+
+
+    public void include(ServletRequest request, ServletResponse response)
+        throws IOException, ServletException {
+
+        servlet.service(request, response);
+
+    }
+
+
+}
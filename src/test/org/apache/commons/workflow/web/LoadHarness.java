@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.File;
+import java.util.Hashtable;
+
+
+/**
+ * <p>A load testing tool for <code>ActivityServlet</code>, which deploys it
+ * in an in-process <code>LoadContainer</code>, drives it with concurrent
+ * simulated clients, and reports throughput and response time
+ * percentiles.  It is not a unit test, and is not run with them; run it
+ * with the "load" Ant target, or directly:</p>
+ * <pre>
+ *   java org.apache.commons.workflow.web.LoadHarness [options]
+ * </pre>
+ *
+ * <p>The following options are supported:</p>
+ * <ul>
+ * <li><strong>-activity path</strong> - Resource path of the Activity
+ *     definition to execute.  The default Activity includes a page
+ *     fragment (both buffered and streamed) and forwards to a page on
+ *     each of two suspend/resume round trips, indefinitely.
+ *     [/org/apache/commons/workflow/web/load.xml]</li>
+ * <li><strong>-fragment n</strong> - Size (in characters) of the
+ *     "/fragment" resource.  [2048]</li>
+ * <li><strong>-init name=value</strong> - Initialization parameter for
+ *     <code>ActivityServlet</code>, which may be repeated (for example,
+ *     "-init stateless=true" or "-init queue=2").</li>
+ * <li><strong>-page n</strong> - Size (in characters) of the "/page"
+ *     resource.  [8192]</li>
+ * <li><strong>-param name=value</strong> - Request parameter to send
+ *     with every request, which may be repeated.</li>
+ * <li><strong>-replicate</strong> - Serialize and deserialize each
+ *     session after every request, as a replicating cluster would.
+ *     Requires one thread per session.</li>
+ * <li><strong>-requests n</strong> - Number of measured requests sent by
+ *     each client thread.  [1000]</li>
+ * <li><strong>-root dir</strong> - Directory to read resources from,
+ *     instead of the class path.</li>
+ * <li><strong>-sessions n</strong> - Number of concurrent sessions.
+ *     [10]</li>
+ * <li><strong>-think n</strong> - Time (in milliseconds) each client waits
+ *     between requests.  [0]</li>
+ * <li><strong>-threads n</strong> - Number of client threads sending
+ *     requests concurrently within each session.  [1]</li>
+ * <li><strong>-verbose</strong> - Print servlet log messages.</li>
+ * <li><strong>-warmup n</strong> - Number of unmeasured requests sent by
+ *     each client thread first.  [100]</li>
+ * </ul>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadHarness {
+
+
+    /**
+     * The resource path of the default Activity definition.
+     */
+    public static final String DEFAULT_ACTIVITY =
+        "/org/apache/commons/workflow/web/load.xml";
+
+
+    /**
+     * Run a load test as described by the command line arguments.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String args[]) {
+
+        // Process the command line arguments
+        String activity = DEFAULT_ACTIVITY;
+        int fragment = 2048;
+        Hashtable init = new Hashtable();
+        int page = 8192;
+        Hashtable parameters = new Hashtable();
+        boolean replicate = false;
+        int requests = 1000;
+        File root = null;
+        int sessions = 10;
+        long think = 0L;
+        int threads = 1;
+        boolean verbose = false;
+        int warmup = 100;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("-activity".equals(args[i]))
+                    activity = args[++i];
+                else if ("-fragment".equals(args[i]))
+                    fragment = Integer.parseInt(args[++i]);
+                else if ("-init".equals(args[i]))
+                    split(args[++i], init, false);
+                else if ("-page".equals(args[i]))
+                    page = Integer.parseInt(args[++i]);
+                else if ("-param".equals(args[i]))
+                    split(args[++i], parameters, true);
+                else if ("-replicate".equals(args[i]))
+                    replicate = true;
+                else if ("-requests".equals(args[i]))
+                    requests = Integer.parseInt(args[++i]);
+                else if ("-root".equals(args[i]))
+                    root = new File(args[++i]);
+                else if ("-sessions".equals(args[i]))
+                    sessions = Integer.parseInt(args[++i]);
+                else if ("-think".equals(args[i]))
+                    think = Long.parseLong(args[++i]);
+                else if ("-threads".equals(args[i]))
+                    threads = Integer.parseInt(args[++i]);
+                else if ("-verbose".equals(args[i]))
+                    verbose = true;
+                else if ("-warmup".equals(args[i]))
+                    warmup = Integer.parseInt(args[++i]);
+                else
+                    throw new IllegalArgumentException(args[i]);
+            }
+            if (replicate && (threads > 1))
+                throw new IllegalArgumentException
+                    ("-replicate requires one thread per session");
+        } catch (RuntimeException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            System.exit(1);
+        }
+        init.put("activity", activity);
+
+        // Deploy the servlet and its resources
+        LoadContainer container = new LoadContainer(root, verbose);
+        ActivityServlet servlet = new ActivityServlet();
+        try {
+            LoadResource resource = new LoadResource(fragment);
+            resource.init(new LoadConfig("fragment", container,
+                                         new Hashtable()));
+            container.addServlet("/fragment", resource);
+            resource = new LoadResource(page);
+            resource.init(new LoadConfig("page", container, new Hashtable()));
+            container.addServlet("/page", resource);
+            servlet.init(new LoadConfig("activity", container, init));
+        } catch (Throwable t) {
+            System.err.println("Cannot deploy servlet: " + t);
+            System.exit(1);
+        }
+
+        // Create the sessions, and warm up
+        LoadSession sessionList[] = new LoadSession[sessions];
+        for (int i = 0; i < sessions; i++)
+            sessionList[i] = new LoadSession("load-" + i, container);
+        run(servlet, container, sessionList, threads, parameters,
+            warmup, replicate, think, null);
+
+        // Perform the measured run and report the results
+        LoadStatistics statistics = new LoadStatistics();
+        long start = System.currentTimeMillis();
+        run(servlet, container, sessionList, threads, parameters,
+            requests, replicate, think, statistics);
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Sessions:    " + sessions + " x " + threads +
+                           " threads");
+        statistics.report(System.out, elapsed);
+        if (replicate) {
+            long replicated = 0L;
+            for (int i = 0; i < sessions; i++)
+                replicated += sessionList[i].getReplicated();
+            System.out.println("Replicated:  " + (replicated /
+                               ((long) sessions * (warmup + requests))) +
+                               " bytes/request");
+        }
+        servlet.destroy();
+
+    }
+
+
+    /**
+     * Run one client thread per session and thread, and wait for all of
+     * them to finish.
+     */
+    private static void run(ActivityServlet servlet, LoadContainer container,
+                            LoadSession sessions[], int threads,
+                            Hashtable parameters, int requests,
+                            boolean replicate, long think,
+                            LoadStatistics statistics) {
+
+        if (requests <= 0)
+            return;
+        Thread clients[] = new Thread[sessions.length * threads];
+        for (int i = 0; i < clients.length; i++) {
+            LoadClient client =
+                new LoadClient(servlet, container, sessions[i / threads],
+                               parameters, requests, statistics);
+            client.setReplicate(replicate);
+            client.setThink(think);
+            clients[i] = new Thread(client);
+            clients[i].start();
+        }
+        for (int i = 0; i < clients.length; i++) {
+            try {
+                clients[i].join();
+            } catch (InterruptedException e) {
+                ;
+            }
+        }
+
+    }
+
+
+    /**
+     * Split a "name=value" argument and add it to the specified table.
+     */
+    private static void split(String arg, Hashtable table, boolean array) {
+
+        int equals = arg.indexOf('=');
+        if (equals <= 0)
+            throw new IllegalArgumentException(arg);
+        String name = arg.substring(0, equals);
+        String value = arg.substring(equals + 1);
+        if (array)
+            table.put(name, new String[] { value });
+        else
+            table.put(name, value);
+
+    }
+
+
+}
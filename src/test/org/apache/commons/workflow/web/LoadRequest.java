@@ -0,0 +1,283 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Locale;
+import java.util.Map;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+
+/**
+ * <p>An <code>HttpServletRequest</code> from a simulated client of a
+ * <code>LoadContainer</code>, with no body and a fixed set of request
+ * parameters.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadRequest implements HttpServletRequest {
+
+
+    /**
+     * Construct a new POST request.
+     *
+     * @param container The container receiving the request
+     * @param session The session of the client, or <code>null</code> if
+     *  it does not maintain one
+     * @param parameters Request parameters (each value is a String array)
+     */
+    public LoadRequest(LoadContainer container, HttpSession session,
+                       Hashtable parameters) {
+
+        this.container = container;
+        this.session = session;
+        this.parameters = parameters;
+
+    }
+
+
+    protected Hashtable attributes = new Hashtable();
+
+    protected LoadContainer container = null;
+
+    protected Hashtable parameters = null;
+
+    protected HttpSession session = null;
+
+
+    // ServletRequest methods
+
+    public Object getAttribute(String name) {
+        return (attributes.get(name));
+    }
+
+    public Enumeration getAttributeNames() {
+        return (attributes.keys());
+    }
+
+    public String getCharacterEncoding() {
+        return (null);
+    }
+
+    public int getContentLength() {
+        return (0);
+    }
+
+    public String getContentType() {
+        return (null);
+    }
+
+    public ServletInputStream getInputStream() throws IOException {
+        throw new IllegalStateException("No request body");
+    }
+
+    public Locale getLocale() {
+        return (Locale.getDefault());
+    }
+
+    public Enumeration getLocales() {
+        return (Collections.enumeration
+                (Collections.singletonList(Locale.getDefault())));
+    }
+
+    public String getParameter(String name) {
+        String values[] = getParameterValues(name);
+        return ((values == null) ? null : values[0]);
+    }
+
+    public Map getParameterMap() {
+        return (Collections.unmodifiableMap(parameters));
+    }
+
+    public Enumeration getParameterNames() {
+        return (parameters.keys());
+    }
+
+    public String[] getParameterValues(String name) {
+        return ((String[]) parameters.get(name));
+    }
+
+    public String getProtocol() {
+        return ("HTTP/1.1");
+    }
+
+    public BufferedReader getReader() throws IOException {
+        return (new BufferedReader(new StringReader("")));
+    }
+
+    public String getRealPath(String path) {
+        return (container.getRealPath(path));
+    }
+
+    public String getRemoteAddr() {
+        return ("127.0.0.1");
+    }
+
+    public String getRemoteHost() {
+        return ("localhost");
+    }
+
+    public RequestDispatcher getRequestDispatcher(String path) {
+        return (container.getRequestDispatcher(path));
+    }
+
+    public String getScheme() {
+        return ("http");
+    }
+
+    public String getServerName() {
+        return ("localhost");
+    }
+
+    public int getServerPort() {
+        return (80);
+    }
+
+    public boolean isSecure() {
+        return (false);
+    }
+
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    public void setCharacterEncoding(String encoding) {
+    }
+
+
+    // HttpServletRequest methods
+
+    public String getAuthType() {
+        return (null);
+    }
+
+    public String getContextPath() {
+        return ("");
+    }
+
+    public Cookie[] getCookies() {
+        return (new Cookie[0]);
+    }
+
+    public long getDateHeader(String name) {
+        return (-1L);
+    }
+
+    public String getHeader(String name) {
+        return (null);
+    }
+
+    public Enumeration getHeaderNames() {
+        return (Collections.enumeration(Collections.EMPTY_LIST));
+    }
+
+    public Enumeration getHeaders(String name) {
+        return (Collections.enumeration(Collections.EMPTY_LIST));
+    }
+
+    public int getIntHeader(String name) {
+        return (-1);
+    }
+
+    public String getMethod() {
+        return ("POST");
+    }
+
+    public String getPathInfo() {
+        return (null);
+    }
+
+    public String getPathTranslated() {
+        return (null);
+    }
+
+    public String getQueryString() {
+        return (null);
+    }
+
+    public String getRemoteUser() {
+        return (null);
+    }
+
+    public String getRequestedSessionId() {
+        return ((session == null) ? null : session.getId());
+    }
+
+    public String getRequestURI() {
+        return ("/activity");
+    }
+
+    public StringBuffer getRequestURL() {
+        return (new StringBuffer("http://localhost/activity"));
+    }
+
+    public String getServletPath() {
+        return ("/activity");
+    }
+
+    public HttpSession getSession() {
+        return (getSession(true));
+    }
+
+    public HttpSession getSession(boolean create) {
+        return (session);
+    }
+
+    public Principal getUserPrincipal() {
+        return (null);
+    }
+
+    public boolean isRequestedSessionIdFromCookie() {
+        return (session != null);
+    }
+
+    public boolean isRequestedSessionIdFromURL() {
+        return (false);
+    }
+
+    public boolean isRequestedSessionIdFromUrl() {
+        return (false);
+    }
+
+    public boolean isRequestedSessionIdValid() {
+        return (session != null);
+    }
+
+    public boolean isUserInRole(String role) {
+        return (false);
+    }
+
+
+}
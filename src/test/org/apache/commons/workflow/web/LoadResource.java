@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.IOException;
+import javax.servlet.GenericServlet;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+
+/**
+ * <p>A servlet that writes fixed content of a configurable size, standing
+ * in for the pages and page fragments that an Activity forwards to or
+ * includes.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadResource extends GenericServlet {
+
+
+    /**
+     * Construct a resource that writes the specified number of characters.
+     *
+     * @param size Number of characters to write
+     */
+    public LoadResource(int size) {
+
+        StringBuffer sb = new StringBuffer(size);
+        for (int i = 0; i < size; i++)
+            sb.append((char) ('a' + (i % 26)));
+        content = sb.toString();
+
+    }
+
+
+    protected String content = null;
+
+
+    public void service(ServletRequest request, ServletResponse response)
+        throws IOException, ServletException {
+
+        response.getWriter().write(content);
+
+    }
+
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+
+
+/**
+ * <p>An <code>HttpServletResponse</code> to a simulated client of a
+ * <code>LoadContainer</code>, which keeps the characters written to it
+ * and its status code.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadResponse extends StubResponse
+    implements HttpServletResponse {
+
+
+    protected CharArrayWriter content = new CharArrayWriter();
+
+    protected int status = SC_OK;
+
+    protected PrintWriter writer = new PrintWriter(content);
+
+
+    /**
+     * Return the number of characters written to this response.
+     */
+    public int getSize() {
+        writer.flush();
+        return (content.size());
+    }
+
+    /**
+     * Return the status code of this response.
+     */
+    public int getStatus() {
+        return (status);
+    }
+
+
+    // ServletResponse methods
+
+    public ServletOutputStream getOutputStream() throws IOException {
+        throw new IllegalStateException("Use getWriter()");
+    }
+
+    public PrintWriter getWriter() throws IOException {
+        return (writer);
+    }
+
+    public void reset() {
+        resetBuffer();
+        status = SC_OK;
+    }
+
+    public void resetBuffer() {
+        writer.flush();
+        content.reset();
+    }
+
+
+    // HttpServletResponse methods
+
+    public void addCookie(Cookie cookie) {
+    }
+
+    public void addDateHeader(String name, long value) {
+    }
+
+    public void addHeader(String name, String value) {
+    }
+
+    public void addIntHeader(String name, int value) {
+    }
+
+    public boolean containsHeader(String name) {
+        return (false);
+    }
+
+    public String encodeRedirectURL(String url) {
+        return (url);
+    }
+
+    public String encodeRedirectUrl(String url) {
+        return (url);
+    }
+
+    public String encodeURL(String url) {
+        return (url);
+    }
+
+    public String encodeUrl(String url) {
+        return (url);
+    }
+
+    public void sendError(int status) throws IOException {
+        this.status = status;
+    }
+
+    public void sendError(int status, String message) throws IOException {
+        this.status = status;
+    }
+
+    public void sendRedirect(String location) throws IOException {
+        this.status = SC_MOVED_TEMPORARILY;
+    }
+
+    public void setDateHeader(String name, long value) {
+    }
+
+    public void setHeader(String name, String value) {
+    }
+
+    public void setIntHeader(String name, int value) {
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public void setStatus(int status, String message) {
+        this.status = status;
+    }
+
+
+}
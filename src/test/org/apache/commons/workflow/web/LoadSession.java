@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionContext;
+
+
+/**
+ * <p>An <code>HttpSession</code> of a simulated client of a
+ * <code>LoadContainer</code>.  Calling <code>replicate()</code> after
+ * each request serializes and deserializes all of its attributes, as a
+ * container replicating sessions across a cluster would, and records the
+ * number of bytes that were written.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadSession implements HttpSession {
+
+
+    /**
+     * Construct a new session.
+     *
+     * @param id Session identifier
+     * @param context The container this session belongs to
+     */
+    public LoadSession(String id, ServletContext context) {
+
+        this.id = id;
+        this.context = context;
+
+    }
+
+
+    protected Hashtable attributes = new Hashtable();
+
+    protected ServletContext context = null;
+
+    protected long created = System.currentTimeMillis();
+
+    protected String id = null;
+
+    protected boolean isNew = true;
+
+    protected long replicated = 0L;
+
+
+    /**
+     * Return the total number of bytes written by <code>replicate()</code>.
+     */
+    public long getReplicated() {
+        return (this.replicated);
+    }
+
+
+    /**
+     * Replace each attribute of this session with a serialized and
+     * deserialized copy of it.
+     *
+     * @exception IOException if an attribute cannot be serialized
+     * @exception ClassNotFoundException if a class cannot be found when
+     *  deserializing an attribute
+     */
+    public synchronized void replicate()
+        throws IOException, ClassNotFoundException {
+
+        isNew = false;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(attributes);
+        oos.close();
+        replicated += baos.size();
+        ObjectInputStream ois = new ObjectInputStream
+            (new ByteArrayInputStream(baos.toByteArray()));
+        attributes = (Hashtable) ois.readObject();
+        ois.close();
+
+    }
+
+
+    public Object getAttribute(String name) {
+        return (attributes.get(name));
+    }
+
+    public Enumeration getAttributeNames() {
+        return (attributes.keys());
+    }
+
+    public long getCreationTime() {
+        return (created);
+    }
+
+    public String getId() {
+        return (id);
+    }
+
+    public long getLastAccessedTime() {
+        return (created);
+    }
+
+    public int getMaxInactiveInterval() {
+        return (-1);
+    }
+
+    public ServletContext getServletContext() {
+        return (context);
+    }
+
+    public HttpSessionContext getSessionContext() {
+        return (null);
+    }
+
+    public Object getValue(String name) {
+        return (getAttribute(name));
+    }
+
+    public String[] getValueNames() {
+        String names[] = new String[attributes.size()];
+        return ((String[]) attributes.keySet().toArray(names));
+    }
+
+    public void invalidate() {
+        attributes.clear();
+    }
+
+    public boolean isNew() {
+        return (isNew);
+    }
+
+    public void putValue(String name, Object value) {
+        setAttribute(name, value);
+    }
+
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    public void removeValue(String name) {
+        removeAttribute(name);
+    }
+
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    public void setMaxInactiveInterval(int interval) {
+    }
+
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+
+/**
+ * <p>Response times and outcomes of the requests issued by the clients of
+ * a <code>LoadHarness</code> run, shared by all of them.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LoadStatistics {
+
+
+    /**
+     * The number of requests that threw an exception or returned an
+     * error status.
+     */
+    protected int errors = 0;
+
+
+    /**
+     * The number of requests recorded so far.
+     */
+    protected int count = 0;
+
+
+    /**
+     * The response time of each request, in milliseconds.
+     */
+    protected long times[] = new long[1024];
+
+
+    /**
+     * The number of characters written by all recorded requests.
+     */
+    protected long written = 0L;
+
+
+    /**
+     * Record a completed request.
+     *
+     * @param time Response time in milliseconds
+     * @param status HTTP status code of the response
+     * @param size Number of characters written to the response
+     */
+    public synchronized void record(long time, int status, int size) {
+
+        if (count == times.length) {
+            long grown[] = new long[count * 2];
+            System.arraycopy(times, 0, grown, 0, count);
+            times = grown;
+        }
+        times[count++] = time;
+        written += size;
+        if (status >= 400)
+            errors++;
+
+    }
+
+
+    /**
+     * Record a request that threw an exception.
+     *
+     * @param time Response time in milliseconds
+     */
+    public synchronized void error(long time) {
+
+        record(time, 500, 0);
+
+    }
+
+
+    /**
+     * Print a report of the recorded requests.
+     *
+     * @param out Stream to print to
+     * @param elapsed Wall clock time of the run in milliseconds
+     */
+    public synchronized void report(PrintStream out, long elapsed) {
+
+        long sorted[] = new long[count];
+        System.arraycopy(times, 0, sorted, 0, count);
+        Arrays.sort(sorted);
+        long total = 0L;
+        for (int i = 0; i < count; i++)
+            total += sorted[i];
+        out.println("Requests:    " + count + " (" + errors + " errors)");
+        out.println("Elapsed:     " + elapsed + "ms");
+        if (elapsed > 0)
+            out.println("Throughput:  " + (count * 1000L / elapsed) +
+                        " requests/second");
+        if (count == 0)
+            return;
+        out.println("Written:     " + (written / count) +
+                    " characters/request");
+        out.println("Mean:        " + ((double) total / count) + "ms");
+        out.println("50%:         " + percentile(sorted, 50) + "ms");
+        out.println("90%:         " + percentile(sorted, 90) + "ms");
+        out.println("99%:         " + percentile(sorted, 99) + "ms");
+        out.println("99.9%:       " + percentile(sorted, 999, 1000) + "ms");
+        out.println("Maximum:     " + sorted[count - 1] + "ms");
+
+    }
+
+
+    /**
+     * Return the specified percentile of a sorted array of times.
+     *
+     * @param sorted The sorted times
+     * @param percent The percentile
+     */
+    protected long percentile(long sorted[], int percent) {
+
+        return (percentile(sorted, percent, 100));
+
+    }
+
+
+    /**
+     * Return the specified fraction of a sorted array of times.
+     *
+     * @param sorted The sorted times
+     * @param numerator Numerator of the fraction
+     * @param denominator Denominator of the fraction
+     */
+    protected long percentile(long sorted[], int numerator, int denominator) {
+
+        int index = (int) (((long) sorted.length * numerator +
+                            denominator - 1) / denominator) - 1;
+        if (index < 0)
+            index = 0;
+        return (sorted[index]);
+
+    }
+
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.workflow.web;
+
+
+import java.util.List;
+import org.apache.commons.workflow.util.ContextLock;
+
+
+/**
+ * <p>Runnable used by the test cases to acquire (and then immediately
+ * release) a <code>ContextLock</code> from another thread, recording
+ * whether, and in what order, the lock was acquired.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class LockWaiter implements Runnable {
+
+
+    // ----------------------------------------------------------- Constructors
+
+
+    /**
+     * Construct a new waiter with the specified parameters.
+     *
+     * @param lock The lock to be acquired
+     * @param timeout Maximum milliseconds to wait, or zero
+     * @param maxWaiting Maximum number of waiting threads, or zero
+     * @param name Name added to <code>order</code> when acquired
+     * @param order List recording the order of acquisition
+     */
+    public LockWaiter(ContextLock lock, long timeout, int maxWaiting,
+                      String name, List order) {
+
+        super();
+        this.lock = lock;
+        this.timeout = timeout;
+        this.maxWaiting = maxWaiting;
+        this.name = name;
+        this.order = order;
+
+    }
+
+
+    // ----------------------------------------------------- Instance Variables
+
+
+    /**
+     * Was the lock acquired?
+     */
+    protected boolean acquired = false;
+
+
+    /**
+     * The lock to be acquired.
+     */
+    protected ContextLock lock = null;
+
+
+    /**
+     * Maximum number of waiting threads, or zero.
+     */
+    protected int maxWaiting = 0;
+
+
+    /**
+     * Name added to <code>order</code> when the lock is acquired.
+     */
+    protected String name = null;
+
+
+    /**
+     * List recording the order of acquisition.
+     */
+    protected List order = null;
+
+
+    /**
+     * Maximum milliseconds to wait, or zero.
+     */
+    protected long timeout = 0L;
+
+
+    // --------------------------------------------------------- Public Methods
+
+
+    /**
+     * Was the lock acquired?
+     */
+    public boolean isAcquired() {
+
+        return (this.acquired);
+
+    }
+
+
+    /**
+     * Acquire and release the lock.
+     */
+    public void run() {
+
+        try {
+            acquired = lock.acquire(timeout, maxWaiting);
+        } catch (InterruptedException e) {
+            return;
+        }
+        if (acquired) {
+            synchronized (order) {
+                order.add(name);
+            }
+            lock.release();
+        }
+
+    }
+
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.IOException;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+
+/**
+ * <p>A <code>RequestDispatcher</code> for a resource that writes fixed
+ * content to the response, as characters or as bytes.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class StubDispatcher implements RequestDispatcher {
+
+
+    public StubDispatcher(String content, boolean binary) {
+
+        this.content = content;
+        this.binary = binary;
+
+    }
+
+
+    /**
+     * Should the content be written as bytes?
+     */
+    protected boolean binary = false;
+
+
+    /**
+     * The content to be written.
+     */
+    protected String content = null;
+
+
+    public void forward(ServletRequest request, ServletResponse response)
+        throws IOException, ServletException {
+
+        throw new ServletException("Forward is not supported");
+
+    }
+
+
+    public void include(ServletRequest request, ServletResponse response)
+        throws IOException, ServletException {
+
+        if (binary)
+            response.getOutputStream().write
+                (content.getBytes(response.getCharacterEncoding()));
+        else
+            response.getWriter().print(content);
+
+    }
+
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */ 
+
+
+package org.apache.commons.workflow.web;
+
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+
+
+/**
+ * <p>A <code>ServletResponse</code> that has no output of its own, for use
+ * as the response wrapped by an included resource.</p>
+ *
+ * @author agent
+ * @version $Revision$ $Date$
+ */
+
+public class StubResponse implements ServletResponse {
+
+
+    public void flushBuffer() throws IOException {
+    }
+
+    public int getBufferSize() {
+        return (0);
+    }
+
+    public String getCharacterEncoding() {
+        return ("ISO-8859-1");
+    }
+
+    public Locale getLocale() {
+        return (Locale.getDefault());
+    }
+
+    public ServletOutputStream getOutputStream() throws IOException {
+        throw new IllegalStateException("No output stream");
+    }
+
+    public PrintWriter getWriter() throws IOException {
+        throw new IllegalStateException("No writer");
+    }
+
+    public boolean isCommitted() {
+        return (false);
+    }
+
+    public void reset() {
+    }
+
+    public void resetBuffer() {
+    }
+
+    public void setBufferSize(int size) {
+    }
+
+    public void setContentLength(int length) {
+    }
+
+    public void setContentType(String type) {
+    }
+
+    public void setLocale(Locale locale) {
+    }
+
+
+}
@@ -18,13 +18,20 @@
 package org.apache.commons.workflow.web;
 
 
+import java.util.ArrayList;
 import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 import org.apache.commons.workflow.Context;
 import org.apache.commons.workflow.Scope;
 import org.apache.commons.workflow.base.BaseContextTestCase;
+import org.apache.commons.workflow.util.ContextLock;
+import org.apache.commons.workflow.util.ContextScheduler;
 
 
 /**
@@ -93,4 +100,142 @@ public class WebContextTestCase extends BaseContextTestCase {
     // ------------------------------------------------ Individual Test Methods
 
 
+    /**
+     * Test the lock that serializes requests for the same context.
+     */
+    public void testLock() throws Exception {
+
+        ContextLock lock = ((WebContext) context).getLock();
+        List order = new ArrayList();
+        assertTrue("Acquired free lock", lock.acquire(0L, 0));
+
+        // Queue two waiting threads, in a known order
+        Thread waiters[] = new Thread[2];
+        for (int i = 0; i < waiters.length; i++) {
+            waiters[i] = new Thread
+                (new LockWaiter(lock, 0L, 0, "waiter" + i, order));
+            waiters[i].start();
+            while (lock.getWaiting() <= i)
+                Thread.sleep(10L);
+        }
+
+        // Excess and impatient requests are rejected
+        LockWaiter full = new LockWaiter(lock, 0L, 2, "full", order);
+        Thread thread = new Thread(full);
+        thread.start();
+        thread.join();
+        assertTrue("Rejected when queue is full", !full.isAcquired());
+        LockWaiter impatient = new LockWaiter(lock, 50L, 0, "late", order);
+        thread = new Thread(impatient);
+        thread.start();
+        thread.join();
+        assertTrue("Rejected after timeout", !impatient.isAcquired());
+        assertEquals("Abandoned waiter removed", 2, lock.getWaiting());
+
+        // Waiting threads acquire the lock in arrival order
+        lock.release();
+        for (int i = 0; i < waiters.length; i++)
+            waiters[i].join();
+        assertEquals("Granted in order", "[waiter0, waiter1]",
+                     order.toString());
+        assertTrue("Lock is free", !lock.isLocked());
+
+    }
+
+
+    /**
+     * Test the Map methods and views of an attribute based scope.
+     */
+    public void testAttributeScope() {
+
+        HashtableScope scope = new HashtableScope();
+        assertTrue("Initially empty", scope.isEmpty());
+        assertEquals("Initial size", 0, scope.size());
+        Set keys = scope.keySet();
+        assertTrue("Key view is cached", keys == scope.keySet());
+        assertTrue("Entry view is cached",
+                   scope.entrySet() == scope.entrySet());
+        assertTrue("Value view is cached", scope.values() == scope.values());
+
+        scope.put("a", "1");
+        scope.getAttributes().put("b", "2");
+        assertTrue("No longer empty", !scope.isEmpty());
+        assertEquals("Size", 2, scope.size());
+        assertEquals("Key view size", 2, keys.size());
+        assertTrue("Key view is live", keys.contains("b"));
+        assertTrue("Contains value", scope.values().contains("2"));
+        assertTrue("Does not contain value", !scope.containsValue("3"));
+        Iterator entries = scope.entrySet().iterator();
+        int n = 0;
+        while (entries.hasNext()) {
+            Map.Entry entry = (Map.Entry) entries.next();
+            assertEquals("Entry value", scope.get(entry.getKey()),
+                         entry.getValue());
+            n++;
+        }
+        assertEquals("Entry count", 2, n);
+
+        assertEquals("Removed value", "1", scope.remove("a"));
+        assertNull("Attribute was removed",
+                   scope.getAttributes().get("a"));
+        Iterator iterator = keys.iterator();
+        iterator.next();
+        iterator.remove();
+        assertTrue("Empty after iterator removal", scope.isEmpty());
+        assertEquals("Key view is empty", 0, keys.size());
+
+    }
+
+
+    /**
+     * Test resetting pooled contexts between requests.
+     */
+    public void testPool() {
+
+        WebContextPool pool = new WebContextPool(null, null, 1);
+        WebContext first = pool.borrow();
+        assertNotNull("Application scope",
+                      first.getScope(WebContext.APPLICATION_SCOPE));
+        assertNull("No session scope",
+                   first.getScope(WebContext.SESSION_SCOPE));
+        first.put("key", "value");
+        first.push("item");
+        WebContext second = pool.borrow();
+        assertTrue("Distinct contexts", first != second);
+
+        pool.release(first);
+        pool.release(second);
+        assertEquals("Idle contexts are limited", 1, pool.getIdle());
+        WebContext reused = pool.borrow();
+        assertEquals("Reused idle context", first, reused);
+        assertTrue("Stack was cleared", reused.isEmpty());
+        assertNull("Local scope was cleared",
+                   reused.get("key", Context.LOCAL_SCOPE));
+        assertNotNull("Scope registrations were kept",
+                      reused.get(WebContext.APPLICATION_SCOPE_NAME,
+                                 Context.LOCAL_SCOPE));
+        assertNull("Activity was released", reused.getActivity());
+        assertNull("Response was released", reused.getServletResponse());
+
+    }
+
+
+    /**
+     * Test that a pooled context is no longer suspended or scheduled for
+     * resumption once it has been released.
+     */
+    public void testPoolScheduled() {
+
+        WebContextPool pool = new WebContextPool(null, null, 1);
+        WebContext context = pool.borrow();
+        context.setSuspend(true);
+        ContextScheduler.getScheduler().schedule(context, 60000L);
+        pool.release(context);
+        assertTrue("Suspend flag was cleared", !context.getSuspend());
+        assertTrue("Resumption was cancelled",
+                   !ContextScheduler.getScheduler().cancel(context));
+
+    }
+
+
 }
@@ -18,7 +18,11 @@
 package org.apache.commons.workflow.web;
 
 
+import java.io.CharArrayWriter;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
 import java.util.EmptyStackException;
+import java.util.Hashtable;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -28,8 +32,19 @@ import org.apache.commons.workflow.Scope;
 import org.apache.commons.workflow.Step;
 import org.apache.commons.workflow.StepException;
 import org.apache.commons.workflow.base.BaseActivity;
+import org.apache.commons.workflow.base.BaseDescriptor;
 import org.apache.commons.workflow.base.BaseExecuteTestCase;
+import org.apache.commons.workflow.base.BaseRegistry;
+import org.apache.commons.workflow.base.ExpressionDescriptor;
 import org.apache.commons.workflow.base.TestStep;
+import org.apache.commons.workflow.core.DelayStep;
+import org.apache.commons.workflow.core.GotoStep;
+import org.apache.commons.workflow.core.IfStep;
+import org.apache.commons.workflow.core.IncrementStep;
+import org.apache.commons.workflow.core.PopStep;
+import org.apache.commons.workflow.core.PutStep;
+import org.apache.commons.workflow.core.RetryStep;
+import org.apache.commons.workflow.core.StringStep;
 
 
 /**
@@ -101,4 +116,161 @@ public class WebExecuteTestCase extends BaseExecuteTestCase {
     // ------------------------------------------------ Individual Test Methods
 
 
+    /**
+     * Test populating bean properties from request parameter values.
+     */
+    public void testPropertyBinder() throws Exception {
+
+        PropertyBinder binder = PropertyBinder.getBinder(FormBean.class);
+        assertTrue("Binder is cached",
+                   binder == PropertyBinder.getBinder(FormBean.class));
+        FormBean bean = new FormBean();
+        assertTrue("String",
+                   binder.bind(bean, "name", new String[] { "Fred" }));
+        assertTrue("int", binder.bind(bean, "count", new String[] { "42" }));
+        assertTrue("boolean",
+                   binder.bind(bean, "active", new String[] { "on" }));
+        assertTrue("String[]",
+                   binder.bind(bean, "tags", new String[] { "a", "b" }));
+        assertTrue("int[]",
+                   binder.bind(bean, "scores", new String[] { "1", "2" }));
+        assertTrue("Nested", binder.bind(bean, "demo.firstName",
+                                         new String[] { "Barney" }));
+        assertTrue("Unknown property",
+                   !binder.bind(bean, "submit", new String[] { "OK" }));
+        assertEquals("name", "Fred", bean.getName());
+        assertEquals("count", 42, bean.getCount());
+        assertTrue("active", bean.getActive());
+        assertEquals("tags", 2, bean.getTags().length);
+        assertEquals("tags[1]", "b", bean.getTags()[1]);
+        assertEquals("scores", 2, bean.getScores().length);
+        assertEquals("scores[1]", 2, bean.getScores()[1]);
+        assertEquals("demo.firstName", "Barney",
+                     bean.getDemo().getFirstName());
+
+        // Invalid numbers are converted to the default, as by BeanUtils
+        binder.bind(bean, "count", new String[] { "many" });
+        assertEquals("Invalid count", 0, bean.getCount());
+
+        // A binder that is no longer used is not kept by the cache
+        WeakReference reference = new WeakReference(binder);
+        binder = null;
+        for (int i = 0; (i < 50) && (reference.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10L);
+        }
+        assertNull("Unused binder was released", reference.get());
+
+    }
+
+
+    /**
+     * Test deferred includes that write straight through to a Writer.
+     */
+    public void testIncludeContent() throws Exception {
+
+        String text = "caf\u00e9 fragment";
+        IncludeContent chars =
+            new IncludeContent("/chars", new StubDispatcher(text, false),
+                               null, new StubResponse());
+        StringWriter sw = new StringWriter();
+        chars.writeTo(sw);
+        assertEquals("Character content", text, sw.toString());
+        assertEquals("Character content as String", text, chars.toString());
+
+        IncludeContent bytes =
+            new IncludeContent("/bytes", new StubDispatcher(text, true),
+                               null, new StubResponse());
+        sw = new StringWriter();
+        bytes.writeTo(sw);
+        assertEquals("Binary content", text, sw.toString());
+        assertEquals("Resource", "/bytes", bytes.getResource());
+
+    }
+
+
+    /**
+     * Test buffering included content in an include response.
+     */
+    public void testIncludeResponse() throws Exception {
+
+        String text = "caf\u00e9 fragment";
+        IncludeResponse23 response = new IncludeResponse23(new StubResponse());
+        new StubDispatcher(text, false).include(null, response);
+        assertTrue("Same writer", response.getWriter() == response.getWriter());
+        try {
+            response.getOutputStream();
+            fail("Should have refused getOutputStream()");
+        } catch (IllegalStateException e) {
+            ; // Expected result
+        }
+        assertEquals("Character content", text, response.getContent());
+        CharArrayWriter caw = new CharArrayWriter();
+        response.writeContent(caw);
+        assertEquals("Copied character content", text, caw.toString());
+        response.release();
+
+        response = new IncludeResponse23(new StubResponse());
+        new StubDispatcher(text, true).include(null, response);
+        assertEquals("Binary content", text, response.getContent());
+        response.resetBuffer();
+        assertEquals("Reset content", "", response.getContent());
+        response.release();
+
+    }
+
+
+    /**
+     * Test that "ActivityServlet" resumes a Context scheduled by the
+     * backoff of a "RetryStep", and by a "DelayStep", within the same
+     * request, in both session and stateless modes.
+     */
+    public void testServletScheduled() throws Exception {
+
+        // Configure and register an activity that retries and waits
+        RetryStep retry = new RetryStep("01", 2, 20L);
+        retry.addStep(new IncrementStep
+                      ("02", new BaseDescriptor("attempts", "local")));
+        retry.addStep(new PopStep("03"));
+        IfStep ifStep = new IfStep("04");
+        ifStep.addDescriptor(new ExpressionDescriptor("attempts lt 2"));
+        ifStep.addStep(new GotoStep("05", "missing"));
+        retry.addStep(ifStep);
+        activity.setId("scheduledServlet");
+        activity.addStep(retry);
+        activity.addStep(new DelayStep("06", 20L));
+        activity.addStep(new StringStep("07", "Resumed"));
+        activity.addStep(new PutStep
+                         ("08", new BaseDescriptor("result", "request")));
+        BaseRegistry.getRegistry().addActivity(activity);
+
+        try {
+            LoadContainer container = new LoadContainer(null, false);
+            for (int i = 0; i < 2; i++) {
+                Hashtable init = new Hashtable();
+                init.put("activity", "scheduledServlet");
+                init.put("stateless", (i == 0) ? "false" : "true");
+                ActivityServlet servlet = new ActivityServlet();
+                servlet.init(new LoadConfig("activity", container, init));
+                LoadRequest request =
+                    new LoadRequest(container,
+                                    new LoadSession("scheduled", container),
+                                    new Hashtable());
+                long start = System.currentTimeMillis();
+                servlet.doPost(request, new LoadResponse());
+                long elapsed = System.currentTimeMillis() - start;
+                assertEquals("Resumed in the same request (" +
+                             init.get("stateless") + ")", "Resumed",
+                             request.getAttribute("result"));
+                assertTrue("Waited for the backoff and the delay",
+                           elapsed >= 40L);
+                servlet.destroy();
+            }
+        } finally {
+            BaseRegistry.getRegistry().removeActivity(activity);
+        }
+
+    }
+
+
 }